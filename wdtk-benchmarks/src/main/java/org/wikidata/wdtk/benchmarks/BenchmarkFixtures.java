@@ -0,0 +1,171 @@
+package org.wikidata.wdtk.benchmarks;
+
+/*
+ * #%L
+ * Wikidata Toolkit Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.ItemDocumentBuilder;
+import org.wikidata.wdtk.datamodel.helpers.JsonSerializer;
+import org.wikidata.wdtk.datamodel.helpers.ReferenceBuilder;
+import org.wikidata.wdtk.datamodel.helpers.StatementBuilder;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Reference;
+import org.wikidata.wdtk.datamodel.interfaces.TimeValue;
+
+/**
+ * JSON documents used as input of the benchmarks. The item, lexeme and media
+ * info fixtures are real documents of moderate size, taken from the tests of
+ * wdtk-datamodel. The large item is
+ * generated to resemble a scholarly article on Wikidata, with several
+ * thousand referenced statements.
+ */
+public class BenchmarkFixtures {
+
+	/**
+	 * Name of the available fixtures, used as JMH parameter values.
+	 */
+	public static final String ITEM = "item";
+	public static final String LEXEME = "lexeme";
+	public static final String MEDIAINFO = "mediainfo";
+	public static final String LARGE_ITEM = "large-item";
+
+	/**
+	 * Number of "cites work" statements of the large item.
+	 */
+	static final int LARGE_ITEM_CITATIONS = 4000;
+
+	/**
+	 * Number of "author name string" statements of the large item.
+	 */
+	static final int LARGE_ITEM_AUTHORS = 500;
+
+	static String largeItemJson;
+
+	/**
+	 * Returns the JSON serialization of the fixture with the given name.
+	 *
+	 * @param name
+	 *            one of {@link #ITEM}, {@link #LEXEME}, {@link #MEDIAINFO} or
+	 *            {@link #LARGE_ITEM}
+	 * @return the JSON string
+	 */
+	public static String getJson(String name) {
+		switch (name) {
+		case ITEM:
+		case LEXEME:
+		case MEDIAINFO:
+			return readResource("/JsonDeserializer/" + name + ".json");
+		case LARGE_ITEM:
+			return getLargeItemJson();
+		default:
+			throw new IllegalArgumentException("Unknown fixture " + name);
+		}
+	}
+
+	static synchronized String getLargeItemJson() {
+		if (largeItemJson == null) {
+			largeItemJson = JsonSerializer.getJsonString(makeLargeItem());
+		}
+		return largeItemJson;
+	}
+
+	/**
+	 * Creates an item in the style of a scholarly article with many
+	 * citations and authors. The content is deterministic, so that all runs
+	 * measure the same document.
+	 *
+	 * @return the item document
+	 */
+	static ItemDocument makeLargeItem() {
+		ItemIdValue subject = Datamodel.makeWikidataItemIdValue("Q56000000");
+		PropertyIdValue instanceOf = Datamodel.makeWikidataPropertyIdValue("P31");
+		PropertyIdValue citesWork = Datamodel.makeWikidataPropertyIdValue("P2860");
+		PropertyIdValue authorNameString = Datamodel
+				.makeWikidataPropertyIdValue("P2093");
+		PropertyIdValue seriesOrdinal = Datamodel
+				.makeWikidataPropertyIdValue("P1545");
+		PropertyIdValue statedIn = Datamodel.makeWikidataPropertyIdValue("P248");
+		PropertyIdValue retrieved = Datamodel.makeWikidataPropertyIdValue("P813");
+		PropertyIdValue pubMedId = Datamodel.makeWikidataPropertyIdValue("P698");
+
+		Reference reference = ReferenceBuilder.newInstance()
+				.withPropertyValue(statedIn,
+						Datamodel.makeWikidataItemIdValue("Q5188229"))
+				.withPropertyValue(retrieved,
+						Datamodel.makeTimeValue(2019, (byte) 11, (byte) 26,
+								TimeValue.CM_GREGORIAN_PRO))
+				.withPropertyValue(pubMedId,
+						Datamodel.makeStringValue("31415926")).build();
+
+		ItemDocumentBuilder builder = ItemDocumentBuilder.forItemId(subject)
+				.withRevisionId(1062625956)
+				.withLabel("A study with very many references", "en")
+				.withDescription("scientific article published in 2019", "en")
+				.withDescription("wissenschaftlicher Artikel", "de")
+				.withDescription("article scientifique", "fr");
+		builder.withStatement(StatementBuilder
+				.forSubjectAndProperty(subject, instanceOf)
+				.withId(statementId(subject, 0))
+				.withValue(Datamodel.makeWikidataItemIdValue("Q13442814"))
+				.build());
+		for (int i = 1; i <= LARGE_ITEM_AUTHORS; i++) {
+			builder.withStatement(StatementBuilder
+					.forSubjectAndProperty(subject, authorNameString)
+					.withId(statementId(subject, i))
+					.withValue(Datamodel.makeStringValue("Author " + i))
+					.withQualifierValue(seriesOrdinal,
+							Datamodel.makeStringValue(Integer.toString(i)))
+					.build());
+		}
+		for (int i = 1; i <= LARGE_ITEM_CITATIONS; i++) {
+			builder.withStatement(StatementBuilder
+					.forSubjectAndProperty(subject, citesWork)
+					.withId(statementId(subject, LARGE_ITEM_AUTHORS + i))
+					.withValue(Datamodel.makeWikidataItemIdValue("Q"
+							+ (30000000 + 7919 * i)))
+					.withReference(reference).build());
+		}
+		return builder.build();
+	}
+
+	static String statementId(ItemIdValue subject, int index) {
+		return subject.getId() + "$" + String.format("%08X", index)
+				+ "-0000-4000-8000-000000000000";
+	}
+
+	static String readResource(String path) {
+		try (InputStream in = BenchmarkFixtures.class.getResourceAsStream(path)) {
+			if (in == null) {
+				throw new IllegalArgumentException("Missing fixture " + path);
+			}
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package org.wikidata.wdtk.benchmarks;
+
+/*
+ * #%L
+ * Wikidata Toolkit Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.helpers.Equality;
+import org.wikidata.wdtk.datamodel.helpers.Hash;
+import org.wikidata.wdtk.datamodel.implementation.EntityDocumentImpl;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+
+import tools.jackson.databind.ObjectReader;
+
+/**
+ * Measures {@link Equality} and {@link Hash} on entity documents. The
+ * documents are compared with an equal copy that was deserialized separately,
+ * so that no comparison can be decided by object identity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EqualityBenchmark {
+
+	@Param({ BenchmarkFixtures.ITEM, BenchmarkFixtures.LEXEME,
+			BenchmarkFixtures.MEDIAINFO, BenchmarkFixtures.LARGE_ITEM })
+	public String fixture;
+
+	EntityDocument document;
+
+	EntityDocument copy;
+
+	@Setup
+	public void setUp() {
+		String json = BenchmarkFixtures.getJson(this.fixture);
+		ObjectReader reader = new DatamodelMapper(Datamodel.SITE_WIKIDATA)
+				.readerFor(EntityDocumentImpl.class);
+		this.document = reader.readValue(json);
+		this.copy = reader.readValue(json);
+	}
+
+	@Benchmark
+	public boolean equalDocuments() {
+		return this.document.equals(this.copy);
+	}
+
+	@Benchmark
+	public int hashDocument() {
+		return this.document.hashCode();
+	}
+
+}
@@ -0,0 +1,79 @@
+package org.wikidata.wdtk.benchmarks;
+
+/*
+ * #%L
+ * Wikidata Toolkit Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Iterator;
+
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.interfaces.DatatypeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Reference;
+import org.wikidata.wdtk.datamodel.interfaces.Snak;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementDocument;
+import org.wikidata.wdtk.datamodel.interfaces.StringValue;
+import org.wikidata.wdtk.datamodel.interfaces.ValueSnak;
+import org.wikidata.wdtk.rdf.PropertyRegister;
+import org.wikidata.wdtk.wikibaseapi.BasicApiConnection;
+
+/**
+ * {@link PropertyRegister} that never accesses the Web API, so that the RDF
+ * benchmarks measure only the conversion. Properties with string values in
+ * the given documents are registered as string properties; all other
+ * properties are registered with an unknown type.
+ */
+class OfflinePropertyRegister extends PropertyRegister {
+
+	OfflinePropertyRegister(StatementDocument... documents) {
+		super("P1921", BasicApiConnection.getWikidataApiConnection(),
+				Datamodel.SITE_WIKIDATA);
+		for (StatementDocument document : documents) {
+			Iterator<Statement> statements = document.getAllStatements();
+			while (statements.hasNext()) {
+				Statement statement = statements.next();
+				registerSnak(statement.getMainSnak());
+				registerSnaks(statement.getAllQualifiers());
+				for (Reference reference : statement.getReferences()) {
+					registerSnaks(reference.getAllSnaks());
+				}
+			}
+		}
+	}
+
+	void registerSnaks(Iterator<Snak> snaks) {
+		while (snaks.hasNext()) {
+			registerSnak(snaks.next());
+		}
+	}
+
+	void registerSnak(Snak snak) {
+		if (snak instanceof ValueSnak
+				&& ((ValueSnak) snak).getValue() instanceof StringValue) {
+			setPropertyType(snak.getPropertyId(), DatatypeIdValue.DT_STRING);
+		}
+	}
+
+	@Override
+	protected void fetchPropertyInformation(PropertyIdValue property) {
+		this.datatypes.putIfAbsent(property.getId(), null);
+	}
+
+}
@@ -0,0 +1,143 @@
+package org.wikidata.wdtk.benchmarks;
+
+/*
+ * #%L
+ * Wikidata Toolkit Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wikidata.wdtk.storage.datastructures.BitVectorImpl;
+import org.wikidata.wdtk.storage.datastructures.MappedRankedBitVector;
+import org.wikidata.wdtk.storage.datastructures.RankedBitVector;
+import org.wikidata.wdtk.storage.datastructures.RankedBitVectorImpl;
+import org.wikidata.wdtk.storage.datastructures.SuccinctRankedBitVector;
+
+/**
+ * Compares rank ({@link RankedBitVector#countBits(boolean, long)}) and select
+ * ({@link RankedBitVector#findPosition(boolean, long)}) of the implementations
+ * of {@link RankedBitVector} on random bit vectors of a given size and
+ * density. Each operation is one query at a random position.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RankedBitVectorBenchmark {
+
+	static final int QUERIES = 1 << 12;
+
+	@Param({ "default", "succinct", "mapped" })
+	public String implementation;
+
+	@Param({ "16777216", "268435456" })
+	public long size;
+
+	/**
+	 * Probability of a bit to be <code>true</code>.
+	 */
+	@Param({ "0.5", "0.01" })
+	public double density;
+
+	RankedBitVector bitVector;
+
+	Path file;
+
+	final long[] positions = new long[QUERIES];
+
+	final long[] occurrences = new long[QUERIES];
+
+	int query;
+
+	@Setup
+	public void setUp() throws IOException {
+		SplittableRandom random = new SplittableRandom(0x1234);
+		BitVectorImpl bits = new BitVectorImpl(this.size);
+		for (long i = 0; i < this.size; i++) {
+			if (random.nextDouble() < this.density) {
+				bits.setBit(i, true);
+			}
+		}
+
+		switch (this.implementation) {
+		case "default":
+			this.bitVector = new RankedBitVectorImpl(bits);
+			break;
+		case "succinct":
+			this.bitVector = new SuccinctRankedBitVector(bits);
+			break;
+		case "mapped":
+			this.file = Files.createTempFile("wdtk-benchmark", ".bits");
+			this.bitVector = new MappedRankedBitVector(this.file, bits);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown implementation "
+					+ this.implementation);
+		}
+
+		// builds the indexes before measuring
+		long trueValues = this.bitVector.countBits(true, this.size - 1);
+		this.bitVector.findPosition(true, trueValues);
+		for (int i = 0; i < QUERIES; i++) {
+			this.positions[i] = random.nextLong(this.size);
+			this.occurrences[i] = 1 + random.nextLong(trueValues);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		if (this.bitVector instanceof Closeable) {
+			((Closeable) this.bitVector).close();
+		}
+		if (this.file != null) {
+			Files.deleteIfExists(this.file);
+		}
+	}
+
+	@Benchmark
+	public long countBits() {
+		int i = this.query++ & (QUERIES - 1);
+		return this.bitVector.countBits(true, this.positions[i]);
+	}
+
+	@Benchmark
+	public long findPosition() {
+		int i = this.query++ & (QUERIES - 1);
+		return this.bitVector.findPosition(true, this.occurrences[i]);
+	}
+
+}
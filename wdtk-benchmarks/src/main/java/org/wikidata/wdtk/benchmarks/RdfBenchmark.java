@@ -0,0 +1,101 @@
+package org.wikidata.wdtk.benchmarks;
+
+/*
+ * #%L
+ * Wikidata Toolkit Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.JsonDeserializer;
+import org.wikidata.wdtk.datamodel.implementation.SitesImpl;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.rdf.NTriplesRdfWriter;
+import org.wikidata.wdtk.rdf.RdfConverter;
+import org.wikidata.wdtk.rdf.RdfWriter;
+
+/**
+ * Measures the RDF export of items with
+ * {@link RdfConverter#writeItemDocument(ItemDocument)}. The triples are
+ * written as N-Triples to a stream that discards them, so that the result
+ * does not depend on the speed of the storage. The writer is either Rio's
+ * N-Triples writer or the {@link NTriplesRdfWriter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RdfBenchmark {
+
+	@Param({ BenchmarkFixtures.ITEM, BenchmarkFixtures.LARGE_ITEM })
+	public String fixture;
+
+	@Param({ "rio", "direct" })
+	public String writer;
+
+	ItemDocument document;
+
+	RdfWriter rdfWriter;
+
+	RdfConverter rdfConverter;
+
+	@Setup
+	public void setUp() {
+		this.document = new JsonDeserializer(Datamodel.SITE_WIKIDATA)
+				.deserializeItemDocument(BenchmarkFixtures.getJson(this.fixture));
+		if ("direct".equals(this.writer)) {
+			this.rdfWriter = new NTriplesRdfWriter(
+					OutputStream.nullOutputStream());
+		} else {
+			this.rdfWriter = new RdfWriter(RDFFormat.NTRIPLES,
+					OutputStream.nullOutputStream());
+		}
+		this.rdfConverter = new RdfConverter(this.rdfWriter, new SitesImpl(),
+				new OfflinePropertyRegister(this.document));
+		this.rdfWriter.start();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.rdfWriter.finish();
+	}
+
+	@Benchmark
+	public long writeItemDocument() {
+		this.rdfConverter.writeItemDocument(this.document);
+		return this.rdfWriter.getTripleCount();
+	}
+
+}
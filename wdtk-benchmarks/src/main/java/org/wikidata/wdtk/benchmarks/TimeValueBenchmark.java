@@ -0,0 +1,134 @@
+package org.wikidata.wdtk.benchmarks;
+
+/*
+ * #%L
+ * Wikidata Toolkit Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.implementation.TimeValueImpl;
+import org.wikidata.wdtk.datamodel.interfaces.TimeValue;
+
+import tools.jackson.databind.ObjectReader;
+
+/**
+ * Measures reading and writing of time values, the most frequent kind of
+ * value in the dumps. The {@code legacy} benchmarks repeat the regular
+ * expression split and {@link String#format(String, Object...)} call that
+ * {@link TimeValueImpl} used before it parsed and wrote time strings by hand,
+ * so that the per-value gain can be read off a single run. {@code compose}
+ * writes the time string when constructing a value and compares directly with
+ * {@code legacyCompose}. Parsing is only reachable through Jackson, so
+ * {@code deserialize} also includes reading the JSON object; the time that
+ * {@code legacyDecompose} takes is what the old code added on top of that.
+ * The sample values mix common four-digit years with zero-padded and
+ * geological years.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeValueBenchmark {
+
+	static final String[] TIME_STRINGS = { "+2013-10-28T00:00:00Z",
+			"+1952-03-11T00:00:00Z", "-0044-03-15T00:00:00Z",
+			"+00000001879-03-14T00:00:00Z", "+2001-01-01T12:30:15Z",
+			"-13798000000-00-00T00:00:00Z", "+0800-12-25T00:00:00Z",
+			"+1989-11-09T00:00:00Z" };
+
+	String[] json;
+
+	TimeValue[] values;
+
+	ObjectReader reader;
+
+	int next = 0;
+
+	@Setup
+	public void setUp() {
+		this.reader = new DatamodelMapper(Datamodel.SITE_WIKIDATA)
+				.readerFor(TimeValueImpl.class);
+		this.json = new String[TIME_STRINGS.length];
+		this.values = new TimeValue[TIME_STRINGS.length];
+		for (int i = 0; i < TIME_STRINGS.length; i++) {
+			this.json[i] = "{\"value\":{\"time\":\"" + TIME_STRINGS[i]
+					+ "\",\"timezone\":0,\"before\":0,\"after\":0,"
+					+ "\"precision\":11,\"calendarmodel\":\""
+					+ TimeValue.CM_GREGORIAN_PRO + "\"},\"type\":\"time\"}";
+			this.values[i] = this.reader.readValue(this.json[i]);
+		}
+	}
+
+	int nextIndex() {
+		int index = this.next;
+		this.next = (index + 1) % TIME_STRINGS.length;
+		return index;
+	}
+
+	@Benchmark
+	public TimeValue deserialize() {
+		return this.reader.readValue(this.json[nextIndex()]);
+	}
+
+	@Benchmark
+	public void legacyDecompose(Blackhole blackhole) {
+		String[] substrings = TIME_STRINGS[nextIndex()]
+				.split("(?<!\\A)[\\-:TZ]");
+		blackhole.consume(Long.parseLong(substrings[0]));
+		blackhole.consume(Byte.parseByte(substrings[1]));
+		blackhole.consume(Byte.parseByte(substrings[2]));
+		blackhole.consume(Byte.parseByte(substrings[3]));
+		blackhole.consume(Byte.parseByte(substrings[4]));
+		blackhole.consume(Byte.parseByte(substrings[5]));
+	}
+
+	@Benchmark
+	public TimeValue compose() {
+		TimeValue value = this.values[nextIndex()];
+		return new TimeValueImpl(value.getYear(), value.getMonth(),
+				value.getDay(), value.getHour(), value.getMinute(),
+				value.getSecond(), value.getPrecision(),
+				value.getBeforeTolerance(), value.getAfterTolerance(),
+				value.getTimezoneOffset(), value.getPreferredCalendarModel());
+	}
+
+	@Benchmark
+	public String legacyCompose() {
+		TimeValue value = this.values[nextIndex()];
+		return String.format("%+04d-%02d-%02dT%02d:%02d:%02dZ",
+				value.getYear(), value.getMonth(), value.getDay(),
+				value.getHour(), value.getMinute(), value.getSecond());
+	}
+
+}
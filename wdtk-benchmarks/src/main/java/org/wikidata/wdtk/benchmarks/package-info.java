@@ -0,0 +1,27 @@
+/**
+ * JMH benchmarks for JSON processing, equality, RDF export and the bit
+ * vectors of the storage module. Build the module with <code>mvn package</code>
+ * and run <code>java -jar target/benchmarks.jar</code>; see
+ * {@link org.wikidata.wdtk.benchmarks.BenchmarkRunner}.
+ */
+package org.wikidata.wdtk.benchmarks;
+
+/*
+ * #%L
+ * Wikidata Toolkit Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
@@ -0,0 +1,563 @@
+package org.wikidata.wdtk.datamodel.helpers;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.wikidata.wdtk.datamodel.implementation.DataObjectFactoryImpl;
+import org.wikidata.wdtk.datamodel.interfaces.DataObjectFactory;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.FormDocument;
+import org.wikidata.wdtk.datamodel.interfaces.FormIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Reference;
+import org.wikidata.wdtk.datamodel.interfaces.SenseDocument;
+import org.wikidata.wdtk.datamodel.interfaces.SenseIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
+import org.wikidata.wdtk.datamodel.interfaces.Snak;
+import org.wikidata.wdtk.datamodel.interfaces.SnakGroup;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
+
+import static org.wikidata.wdtk.datamodel.helpers.BinarySerializer.*;
+
+/**
+ * Reader for the binary format written by {@link BinarySerializer}. The
+ * documents are returned one by one by {@link #next()}, so that large files
+ * can be processed as a stream.
+ * <p>
+ * All objects are created with a {@link DataObjectFactory}, which can be
+ * given in the constructor. This can be used, e.g., to share id objects with
+ * an {@link org.wikidata.wdtk.datamodel.implementation.EntityIdInterner}.
+ */
+public class BinaryDeserializer {
+
+	private static final StatementRank[] RANKS = StatementRank.values();
+
+	private final InputStream inputStream;
+
+	private final DataObjectFactory factory;
+
+	/**
+	 * The strings of the string table in the order of their indices.
+	 */
+	private final List<String> strings = new ArrayList<>();
+
+	/**
+	 * JSON deserializers for documents that are stored as JSON, by site IRI.
+	 */
+	private final Map<String, JsonDeserializer> jsonDeserializers = new HashMap<>();
+
+	/**
+	 * Buffer for the payload of the current record.
+	 */
+	private byte[] buffer = new byte[1 << 16];
+
+	/**
+	 * Position of the next byte to read in {@link #buffer}.
+	 */
+	private int position;
+
+	/**
+	 * The id of the current document, used as subject of statements.
+	 */
+	private EntityIdValue subject;
+
+	private boolean headerRead = false;
+
+	private boolean finished = false;
+
+	/**
+	 * Creates a new deserializer that reads from the given stream, using a
+	 * {@link DataObjectFactoryImpl} to create objects. The stream is not
+	 * closed by this object. Since the beginning of each record is read byte
+	 * by byte, the stream should be buffered.
+	 *
+	 * @param inputStream
+	 *            the stream to read from
+	 */
+	public BinaryDeserializer(InputStream inputStream) {
+		this(inputStream, new DataObjectFactoryImpl());
+	}
+
+	/**
+	 * Creates a new deserializer that reads from the given stream, using the
+	 * given factory to create objects. The stream is not closed by this
+	 * object. Since the beginning of each record is read byte by byte, the
+	 * stream should be buffered.
+	 *
+	 * @param inputStream
+	 *            the stream to read from
+	 * @param factory
+	 *            the factory used to create all objects
+	 */
+	public BinaryDeserializer(InputStream inputStream, DataObjectFactory factory) {
+		this.inputStream = inputStream;
+		this.factory = factory;
+	}
+
+	/**
+	 * Returns the next document, or null if all documents have been read.
+	 *
+	 * @return the next document or null
+	 * @throws IOException
+	 *             if the input could not be read or is not in the expected
+	 *             format
+	 */
+	public EntityDocument next() throws IOException {
+		if (!this.headerRead) {
+			readHeader();
+		}
+		if (this.finished) {
+			return null;
+		}
+
+		int recordType = this.inputStream.read();
+		if (recordType == RECORD_END) {
+			this.finished = true;
+			return null;
+		} else if (recordType < 0) {
+			throw new EOFException("Binary dump ended without end marker");
+		}
+
+		long length = 0;
+		for (int shift = 0; ; shift += 7) {
+			int b = this.inputStream.read();
+			if (b < 0) {
+				throw new EOFException("Binary dump ended within a record");
+			}
+			length |= (long) (b & 0x7f) << shift;
+			if (b < 0x80) {
+				break;
+			} else if (shift > 28) {
+				throw new IOException("Invalid record length in binary dump");
+			}
+		}
+		if (length > Integer.MAX_VALUE) {
+			throw new IOException("Invalid record length in binary dump");
+		}
+		if (length > this.buffer.length) {
+			this.buffer = new byte[Math.max((int) length, 2 * this.buffer.length)];
+		}
+		readFully(this.buffer, (int) length);
+		this.position = 0;
+
+		try {
+			switch (recordType) {
+			case RECORD_ITEM:
+				return readItemDocument();
+			case RECORD_PROPERTY:
+				return readPropertyDocument();
+			case RECORD_LEXEME:
+				return readLexemeDocument();
+			case RECORD_MEDIA_INFO:
+				return readMediaInfoDocument();
+			case RECORD_JSON:
+				return readJsonDocument();
+			default:
+				throw new IOException("Unknown record type " + recordType
+						+ " in binary dump");
+			}
+		} catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IOException("Invalid record in binary dump: " + e, e);
+		}
+	}
+
+	private void readHeader() throws IOException {
+		byte[] header = new byte[HEADER.length];
+		readFully(header, header.length);
+		if (!Arrays.equals(HEADER, header)) {
+			throw new IOException("Input is not a binary dump of a supported version");
+		}
+		this.headerRead = true;
+	}
+
+	private void readFully(byte[] bytes, int length) throws IOException {
+		int offset = 0;
+		while (offset < length) {
+			int count = this.inputStream.read(bytes, offset, length - offset);
+			if (count < 0) {
+				throw new EOFException("Binary dump ended within a record");
+			}
+			offset += count;
+		}
+	}
+
+	private EntityDocument readItemDocument() throws IOException {
+		ItemIdValue itemId = (ItemIdValue) readEntityId();
+		this.subject = itemId;
+		long revisionId = readVarLong();
+		List<MonolingualTextValue> labels = readTerms();
+		List<MonolingualTextValue> descriptions = readTerms();
+		List<MonolingualTextValue> aliases = readAliases();
+		List<StatementGroup> statementGroups = readStatementGroups();
+		int siteLinkCount = readCount();
+		Map<String, SiteLink> siteLinks = new HashMap<>();
+		for (int i = 0; i < siteLinkCount; i++) {
+			String siteKey = readString(true);
+			String title = readString(false);
+			siteLinks.put(siteKey, this.factory.getSiteLink(title, siteKey, readItemIds()));
+		}
+		return this.factory.getItemDocument(itemId, labels, descriptions,
+				aliases, statementGroups, siteLinks, revisionId);
+	}
+
+	private EntityDocument readPropertyDocument() throws IOException {
+		PropertyIdValue propertyId = (PropertyIdValue) readEntityId();
+		this.subject = propertyId;
+		long revisionId = readVarLong();
+		List<MonolingualTextValue> labels = readTerms();
+		List<MonolingualTextValue> descriptions = readTerms();
+		List<MonolingualTextValue> aliases = readAliases();
+		List<StatementGroup> statementGroups = readStatementGroups();
+		String datatype = readString(true);
+		return this.factory.getPropertyDocument(propertyId, labels,
+				descriptions, aliases, statementGroups,
+				this.factory.getDatatypeIdValueFromJsonId(datatype), revisionId);
+	}
+
+	private EntityDocument readLexemeDocument() throws IOException {
+		LexemeIdValue lexemeId = (LexemeIdValue) readEntityId();
+		long revisionId = readVarLong();
+		ItemIdValue lexicalCategory = (ItemIdValue) readEntityId();
+		ItemIdValue language = (ItemIdValue) readEntityId();
+		List<MonolingualTextValue> lemmas = readTerms();
+		this.subject = lexemeId;
+		List<StatementGroup> statementGroups = readStatementGroups();
+
+		int formCount = readCount();
+		List<FormDocument> forms = new ArrayList<>(formCount);
+		for (int i = 0; i < formCount; i++) {
+			FormIdValue formId = (FormIdValue) readEntityId();
+			long formRevisionId = readVarLong();
+			List<MonolingualTextValue> representations = readTerms();
+			List<ItemIdValue> grammaticalFeatures = readItemIds();
+			this.subject = formId;
+			forms.add(this.factory.getFormDocument(formId, representations,
+					grammaticalFeatures, readStatementGroups(), formRevisionId));
+		}
+
+		int senseCount = readCount();
+		List<SenseDocument> senses = new ArrayList<>(senseCount);
+		for (int i = 0; i < senseCount; i++) {
+			SenseIdValue senseId = (SenseIdValue) readEntityId();
+			long senseRevisionId = readVarLong();
+			List<MonolingualTextValue> glosses = readTerms();
+			this.subject = senseId;
+			senses.add(this.factory.getSenseDocument(senseId, glosses,
+					readStatementGroups(), senseRevisionId));
+		}
+
+		return this.factory.getLexemeDocument(lexemeId, lexicalCategory,
+				language, lemmas, statementGroups, forms, senses, revisionId);
+	}
+
+	private EntityDocument readMediaInfoDocument() throws IOException {
+		MediaInfoIdValue mediaInfoId = (MediaInfoIdValue) readEntityId();
+		this.subject = mediaInfoId;
+		long revisionId = readVarLong();
+		List<MonolingualTextValue> labels = readTerms();
+		return this.factory.getMediaInfoDocument(mediaInfoId, labels,
+				readStatementGroups(), revisionId);
+	}
+
+	private EntityDocument readJsonDocument() throws IOException {
+		String siteIri = readString(true);
+		String json = readString(false);
+		return this.jsonDeserializers
+				.computeIfAbsent(siteIri, JsonDeserializer::new)
+				.deserializeEntityDocument(json);
+	}
+
+	private List<MonolingualTextValue> readTerms() throws IOException {
+		int count = readCount();
+		if (count == 0) {
+			return Collections.emptyList();
+		}
+		List<MonolingualTextValue> terms = new ArrayList<>(count);
+		readTerms(count, terms);
+		return terms;
+	}
+
+	private void readTerms(int count, List<MonolingualTextValue> terms) throws IOException {
+		for (int i = 0; i < count; i++) {
+			String languageCode = readString(true);
+			terms.add(this.factory.getMonolingualTextValue(readString(false),
+					languageCode));
+		}
+	}
+
+	private List<MonolingualTextValue> readAliases() throws IOException {
+		int languageCount = readCount();
+		if (languageCount == 0) {
+			return Collections.emptyList();
+		}
+		List<MonolingualTextValue> aliases = new ArrayList<>();
+		for (int i = 0; i < languageCount; i++) {
+			readTerms(readCount(), aliases);
+		}
+		return aliases;
+	}
+
+	private List<ItemIdValue> readItemIds() throws IOException {
+		int count = readCount();
+		List<ItemIdValue> itemIds = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			itemIds.add((ItemIdValue) readEntityId());
+		}
+		return itemIds;
+	}
+
+	private List<StatementGroup> readStatementGroups() throws IOException {
+		int groupCount = readCount();
+		if (groupCount == 0) {
+			return Collections.emptyList();
+		}
+		List<StatementGroup> statementGroups = new ArrayList<>(groupCount);
+		for (int i = 0; i < groupCount; i++) {
+			int statementCount = readCount();
+			List<Statement> statements = new ArrayList<>(statementCount);
+			for (int j = 0; j < statementCount; j++) {
+				String statementId = readString(false);
+				int rank = readByte();
+				if (rank >= RANKS.length) {
+					throw new IOException("Invalid statement rank in binary dump");
+				}
+				Snak mainSnak = readSnak();
+				List<SnakGroup> qualifiers = readSnakGroups();
+				int referenceCount = readCount();
+				List<Reference> references = new ArrayList<>(referenceCount);
+				for (int k = 0; k < referenceCount; k++) {
+					references.add(readReference());
+				}
+				statements.add(this.factory.getStatement(this.subject, mainSnak,
+						qualifiers, references, RANKS[rank], statementId));
+			}
+			statementGroups.add(this.factory.getStatementGroup(statements));
+		}
+		return statementGroups;
+	}
+
+	private Reference readReference() throws IOException {
+		int flags = readByte();
+		String hash = (flags & REFERENCE_HAS_HASH) != 0 ? readString(false)
+				: null;
+		return this.factory.getReference(readSnakGroups(), hash);
+	}
+
+	private List<SnakGroup> readSnakGroups() throws IOException {
+		int groupCount = readCount();
+		if (groupCount == 0) {
+			return Collections.emptyList();
+		}
+		List<SnakGroup> snakGroups = new ArrayList<>(groupCount);
+		for (int i = 0; i < groupCount; i++) {
+			int snakCount = readCount();
+			List<Snak> snaks = new ArrayList<>(snakCount);
+			for (int j = 0; j < snakCount; j++) {
+				snaks.add(readSnak());
+			}
+			snakGroups.add(this.factory.getSnakGroup(snaks));
+		}
+		return snakGroups;
+	}
+
+	private Snak readSnak() throws IOException {
+		int snakType = readByte();
+		PropertyIdValue propertyId = (PropertyIdValue) readEntityId();
+		switch (snakType) {
+		case SNAK_VALUE:
+			return this.factory.getValueSnak(propertyId, readValue());
+		case SNAK_SOME_VALUE:
+			return this.factory.getSomeValueSnak(propertyId);
+		case SNAK_NO_VALUE:
+			return this.factory.getNoValueSnak(propertyId);
+		default:
+			throw new IOException("Unknown snak type " + snakType
+					+ " in binary dump");
+		}
+	}
+
+	private Value readValue() throws IOException {
+		int valueType = readByte();
+		switch (valueType) {
+		case VALUE_ENTITY_ID:
+			return readEntityId();
+		case VALUE_STRING:
+			return this.factory.getStringValue(readString(false));
+		case VALUE_MONOLINGUAL_TEXT:
+			String languageCode = readString(true);
+			return this.factory.getMonolingualTextValue(readString(false),
+					languageCode);
+		case VALUE_TIME:
+			long year = readZigZag();
+			byte month = (byte) readByte();
+			byte day = (byte) readByte();
+			byte hour = (byte) readByte();
+			byte minute = (byte) readByte();
+			byte second = (byte) readByte();
+			byte precision = (byte) readByte();
+			int beforeTolerance = (int) readZigZag();
+			int afterTolerance = (int) readZigZag();
+			int timezoneOffset = (int) readZigZag();
+			return this.factory.getTimeValue(year, month, day, hour, minute,
+					second, precision, beforeTolerance, afterTolerance,
+					timezoneOffset, readString(true));
+		case VALUE_GLOBE_COORDINATES:
+			double latitude = readDouble();
+			double longitude = readDouble();
+			double globePrecision = readDouble();
+			return this.factory.getGlobeCoordinatesValue(latitude, longitude,
+					globePrecision, readString(true));
+		case VALUE_QUANTITY:
+			int flags = readByte();
+			BigDecimal numericValue = readBigDecimal();
+			BigDecimal lowerBound = (flags & QUANTITY_HAS_LOWER_BOUND) != 0
+					? readBigDecimal() : null;
+			BigDecimal upperBound = (flags & QUANTITY_HAS_UPPER_BOUND) != 0
+					? readBigDecimal() : null;
+			return this.factory.getQuantityValue(numericValue, lowerBound,
+					upperBound, readString(true));
+		default:
+			throw new IOException("Unknown value type " + valueType
+					+ " in binary dump");
+		}
+	}
+
+	private EntityIdValue readEntityId() throws IOException {
+		String siteIri = readString(true);
+		int idType = readByte();
+		String id;
+		if ((idType & ID_STRING_FLAG) != 0) {
+			id = readString(false);
+			idType &= ~ID_STRING_FLAG;
+		} else {
+			id = null;
+		}
+
+		switch (idType) {
+		case ID_ITEM:
+			return this.factory.getItemIdValue(id != null ? id : "Q" + readVarLong(), siteIri);
+		case ID_PROPERTY:
+			return this.factory.getPropertyIdValue(id != null ? id : "P" + readVarLong(), siteIri);
+		case ID_LEXEME:
+			return this.factory.getLexemeIdValue(id != null ? id : "L" + readVarLong(), siteIri);
+		case ID_MEDIA_INFO:
+			return this.factory.getMediaInfoIdValue(id != null ? id : "M" + readVarLong(), siteIri);
+		case ID_FORM:
+			if (id != null) {
+				return this.factory.getFormIdValue(id, siteIri);
+			}
+			break;
+		case ID_SENSE:
+			if (id != null) {
+				return this.factory.getSenseIdValue(id, siteIri);
+			}
+			break;
+		default:
+		}
+		throw new IOException("Unknown entity id type " + idType
+				+ " in binary dump");
+	}
+
+	private String readString(boolean interned) throws IOException {
+		if (interned) {
+			int index = readCount();
+			if (index > 0) {
+				if (index > this.strings.size()) {
+					throw new IOException("Unknown string reference in binary dump");
+				}
+				return this.strings.get(index - 1);
+			}
+		}
+		int length = readCount();
+		String string = new String(this.buffer, this.position, length,
+				StandardCharsets.UTF_8);
+		this.position += length;
+		if (interned) {
+			this.strings.add(string);
+		}
+		return string;
+	}
+
+	private BigDecimal readBigDecimal() throws IOException {
+		int scale = (int) readZigZag();
+		int length = readCount();
+		byte[] bytes = Arrays.copyOfRange(this.buffer, this.position,
+				this.position + length);
+		this.position += length;
+		return new BigDecimal(new BigInteger(bytes), scale);
+	}
+
+	private double readDouble() {
+		long bits = 0;
+		for (int i = 0; i < 8; i++) {
+			bits = (bits << 8) | (this.buffer[this.position++] & 0xff);
+		}
+		return Double.longBitsToDouble(bits);
+	}
+
+	private long readZigZag() {
+		long value = readVarLong();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private int readCount() throws IOException {
+		long count = readVarLong();
+		if (count < 0 || count > Integer.MAX_VALUE) {
+			throw new IOException("Invalid length in binary dump");
+		}
+		return (int) count;
+	}
+
+	private long readVarLong() {
+		long result = 0;
+		for (int shift = 0; ; shift += 7) {
+			byte b = this.buffer[this.position++];
+			result |= (long) (b & 0x7f) << shift;
+			if (b >= 0) {
+				return result;
+			}
+		}
+	}
+
+	private int readByte() {
+		return this.buffer[this.position++] & 0xff;
+	}
+}
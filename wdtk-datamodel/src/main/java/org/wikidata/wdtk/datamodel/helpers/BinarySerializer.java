@@ -0,0 +1,704 @@
+package org.wikidata.wdtk.datamodel.helpers;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentDumpProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.FormDocument;
+import org.wikidata.wdtk.datamodel.interfaces.GlobeCoordinatesValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.NoValueSnak;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.QuantityValue;
+import org.wikidata.wdtk.datamodel.interfaces.Reference;
+import org.wikidata.wdtk.datamodel.interfaces.SenseDocument;
+import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
+import org.wikidata.wdtk.datamodel.interfaces.Snak;
+import org.wikidata.wdtk.datamodel.interfaces.SnakGroup;
+import org.wikidata.wdtk.datamodel.interfaces.SomeValueSnak;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.datamodel.interfaces.StringValue;
+import org.wikidata.wdtk.datamodel.interfaces.TimeValue;
+import org.wikidata.wdtk.datamodel.interfaces.UnsupportedValue;
+import org.wikidata.wdtk.datamodel.interfaces.ValueSnak;
+import org.wikidata.wdtk.datamodel.interfaces.ValueVisitor;
+
+/**
+ * This class implements {@link EntityDocumentDumpProcessor} to provide a
+ * compact binary serialization of {@link EntityDocument} objects. Reading
+ * this format with {@link BinaryDeserializer} is much faster than parsing
+ * JSON, so it is well suited for data that is processed many times, such as
+ * a filtered snapshot of a dump.
+ * <p>
+ * The output starts with a short header, followed by one record per
+ * document. Each record consists of a type byte, the length of its payload,
+ * and the payload, so that readers can skip records they are not interested
+ * in. All numbers are encoded as variable-length integers, and the numeric
+ * part of entity ids is stored without the letter prefix. Values are stored
+ * in typed blocks, each starting with a tag that identifies the kind of
+ * value. Strings that typically occur very often, such as language codes,
+ * site keys, units or site IRIs, are interned: the first occurrence is
+ * written in full and assigned the next index of a string table, and all
+ * later occurrences only refer to this index. Other strings, such as labels
+ * or string values, are written in full.
+ * <p>
+ * Documents that contain data that cannot be represented in this format,
+ * such as unsupported values or entity ids of unknown types, are stored as
+ * embedded JSON instead, so that no data is lost.
+ * <p>
+ * The implementation does not check if {@link #open()} has been called before
+ * the first document is serialized. It is the responsibility of the caller to
+ * do this.
+ */
+public class BinarySerializer implements EntityDocumentDumpProcessor {
+
+	private static final Logger logger = LoggerFactory.getLogger(BinarySerializer.class);
+
+	/**
+	 * File extension that is used for binary dumps.
+	 */
+	public static final String FILE_EXTENSION = ".wdtk";
+
+	/**
+	 * The bytes that every binary dump starts with, including the version of
+	 * the format.
+	 */
+	static final byte[] HEADER = "WDTKBIN\u0002".getBytes(StandardCharsets.US_ASCII);
+
+	static final int RECORD_END = 0;
+	static final int RECORD_ITEM = 1;
+	static final int RECORD_PROPERTY = 2;
+	static final int RECORD_LEXEME = 3;
+	static final int RECORD_MEDIA_INFO = 4;
+	static final int RECORD_JSON = 5;
+
+	static final int ID_ITEM = 1;
+	static final int ID_PROPERTY = 2;
+	static final int ID_LEXEME = 3;
+	static final int ID_MEDIA_INFO = 4;
+	static final int ID_FORM = 5;
+	static final int ID_SENSE = 6;
+	/**
+	 * Flag that is added to the type of an entity id if the id is stored as a
+	 * string rather than as a number.
+	 */
+	static final int ID_STRING_FLAG = 0x10;
+
+	static final int VALUE_ENTITY_ID = 1;
+	static final int VALUE_STRING = 2;
+	static final int VALUE_MONOLINGUAL_TEXT = 3;
+	static final int VALUE_TIME = 4;
+	static final int VALUE_GLOBE_COORDINATES = 5;
+	static final int VALUE_QUANTITY = 6;
+
+	static final int SNAK_VALUE = 1;
+	static final int SNAK_SOME_VALUE = 2;
+	static final int SNAK_NO_VALUE = 3;
+
+	static final int QUANTITY_HAS_LOWER_BOUND = 1;
+	static final int QUANTITY_HAS_UPPER_BOUND = 2;
+
+	static final int REFERENCE_HAS_HASH = 1;
+
+	/**
+	 * Maximal number of digits of a numeric id that is stored as a number.
+	 * Longer ids might not fit into a long, and are stored as strings.
+	 */
+	static final int MAX_NUMERIC_ID_DIGITS = 18;
+
+	/**
+	 * The stream that the output is written to.
+	 */
+	private final OutputStream outputStream;
+
+	/**
+	 * Indices of the strings that have been written to the string table so
+	 * far.
+	 */
+	private final Map<String, Integer> stringTable = new HashMap<>();
+
+	/**
+	 * The strings of the string table in the order of their indices.
+	 */
+	private final List<String> strings = new ArrayList<>();
+
+	/**
+	 * Buffer for the payload of the current record.
+	 */
+	private byte[] buffer = new byte[1 << 16];
+
+	/**
+	 * Number of bytes in {@link #buffer} that belong to the current record.
+	 */
+	private int position;
+
+	/**
+	 * Buffer for the type and length of a record.
+	 */
+	private final byte[] recordHeader = new byte[6];
+
+	/**
+	 * Counter for the number of documents serialized so far.
+	 */
+	private int entityDocumentCount;
+
+	/**
+	 * Visitor for encoding values into the current record.
+	 */
+	private final ValueEncoder valueEncoder = new ValueEncoder();
+
+	/**
+	 * Creates a new binary serializer that writes its output to the given
+	 * stream. The output stream will be managed by the object, i.e., it will
+	 * be closed when {@link #close()} is called.
+	 *
+	 * @param outputStream
+	 *            the output stream to write to
+	 */
+	public BinarySerializer(OutputStream outputStream) {
+		this.outputStream = outputStream;
+	}
+
+	@Override
+	public void open() {
+		this.entityDocumentCount = 0;
+		this.stringTable.clear();
+		this.strings.clear();
+
+		try {
+			this.outputStream.write(HEADER);
+		} catch (IOException e) {
+			reportException(e);
+		}
+	}
+
+	@Override
+	public void processItemDocument(ItemDocument itemDocument) {
+		serializeEntityDocument(itemDocument, RECORD_ITEM);
+	}
+
+	@Override
+	public void processPropertyDocument(PropertyDocument propertyDocument) {
+		serializeEntityDocument(propertyDocument, RECORD_PROPERTY);
+	}
+
+	@Override
+	public void processLexemeDocument(LexemeDocument lexemeDocument) {
+		serializeEntityDocument(lexemeDocument, RECORD_LEXEME);
+	}
+
+	@Override
+	public void processMediaInfoDocument(MediaInfoDocument mediaInfoDocument) {
+		serializeEntityDocument(mediaInfoDocument, RECORD_MEDIA_INFO);
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.outputStream.write(RECORD_END);
+			this.outputStream.close();
+		} catch (IOException e) {
+			reportException(e);
+		}
+	}
+
+	/**
+	 * Returns the number of entity documents serialized so far.
+	 *
+	 * @return number of serialized entity documents
+	 */
+	public int getEntityDocumentCount() {
+		return this.entityDocumentCount;
+	}
+
+	/**
+	 * Reports a given exception as a RuntimeException, since the interface does
+	 * not allow us to throw checked exceptions directly.
+	 *
+	 * @param e
+	 *            the exception to report
+	 * @throws RuntimeException
+	 *             in all cases
+	 */
+	private void reportException(Exception e) {
+		logger.error("Failed to write binary export: " + e.toString());
+		throw new RuntimeException(e.toString(), e);
+	}
+
+	/**
+	 * Writes the binary serialization of the given {@link EntityDocument} as
+	 * a record of the given type. If the document cannot be encoded, it is
+	 * written as a JSON record instead.
+	 *
+	 * @param entityDocument
+	 *            the document to serialize
+	 * @param recordType
+	 *            the type of record that is used for this document
+	 */
+	private void serializeEntityDocument(EntityDocument entityDocument,
+			int recordType) {
+		int stringCount = this.strings.size();
+		this.position = 0;
+		try {
+			switch (recordType) {
+			case RECORD_ITEM:
+				writeItemDocument((ItemDocument) entityDocument);
+				break;
+			case RECORD_PROPERTY:
+				writePropertyDocument((PropertyDocument) entityDocument);
+				break;
+			case RECORD_LEXEME:
+				writeLexemeDocument((LexemeDocument) entityDocument);
+				break;
+			default:
+				writeMediaInfoDocument((MediaInfoDocument) entityDocument);
+			}
+		} catch (UnsupportedDataException e) {
+			// forget strings that the reader will never see
+			while (this.strings.size() > stringCount) {
+				this.stringTable.remove(this.strings.remove(this.strings.size() - 1));
+			}
+			logger.debug("Storing " + entityDocument.getEntityId().getId()
+					+ " as JSON: " + e.getMessage());
+			this.position = 0;
+			recordType = RECORD_JSON;
+			writeString(entityDocument.getEntityId().getSiteIri(), true);
+			writeString(JsonSerializer.getJsonString(entityDocument), false);
+		}
+
+		try {
+			int headerLength = 0;
+			this.recordHeader[headerLength++] = (byte) recordType;
+			for (long length = this.position; ; length >>>= 7) {
+				if (length < 0x80) {
+					this.recordHeader[headerLength++] = (byte) length;
+					break;
+				}
+				this.recordHeader[headerLength++] = (byte) ((length & 0x7f) | 0x80);
+			}
+			this.outputStream.write(this.recordHeader, 0, headerLength);
+			this.outputStream.write(this.buffer, 0, this.position);
+		} catch (IOException e) {
+			reportException(e);
+		}
+		this.entityDocumentCount++;
+	}
+
+	private void writeItemDocument(ItemDocument document) {
+		writeEntityId(document.getEntityId());
+		writeVarLong(document.getRevisionId());
+		writeTerms(document.getLabels().values());
+		writeTerms(document.getDescriptions().values());
+		writeAliases(document.getAliases());
+		writeStatementGroups(document.getStatementGroups());
+		Map<String, SiteLink> siteLinks = document.getSiteLinks();
+		writeVarLong(siteLinks.size());
+		for (SiteLink siteLink : siteLinks.values()) {
+			writeString(siteLink.getSiteKey(), true);
+			writeString(siteLink.getPageTitle(), false);
+			writeItemIds(siteLink.getBadges());
+		}
+	}
+
+	private void writePropertyDocument(PropertyDocument document) {
+		writeEntityId(document.getEntityId());
+		writeVarLong(document.getRevisionId());
+		writeTerms(document.getLabels().values());
+		writeTerms(document.getDescriptions().values());
+		writeAliases(document.getAliases());
+		writeStatementGroups(document.getStatementGroups());
+		writeString(document.getDatatype().getJsonString(), true);
+	}
+
+	private void writeLexemeDocument(LexemeDocument document) {
+		writeEntityId(document.getEntityId());
+		writeVarLong(document.getRevisionId());
+		writeEntityId(document.getLexicalCategory());
+		writeEntityId(document.getLanguage());
+		writeTerms(document.getLemmas().values());
+		writeStatementGroups(document.getStatementGroups());
+		writeVarLong(document.getForms().size());
+		for (FormDocument form : document.getForms()) {
+			writeEntityId(form.getEntityId());
+			writeVarLong(form.getRevisionId());
+			writeTerms(form.getRepresentations().values());
+			writeItemIds(form.getGrammaticalFeatures());
+			writeStatementGroups(form.getStatementGroups());
+		}
+		writeVarLong(document.getSenses().size());
+		for (SenseDocument sense : document.getSenses()) {
+			writeEntityId(sense.getEntityId());
+			writeVarLong(sense.getRevisionId());
+			writeTerms(sense.getGlosses().values());
+			writeStatementGroups(sense.getStatementGroups());
+		}
+	}
+
+	private void writeMediaInfoDocument(MediaInfoDocument document) {
+		writeEntityId(document.getEntityId());
+		writeVarLong(document.getRevisionId());
+		writeTerms(document.getLabels().values());
+		writeStatementGroups(document.getStatementGroups());
+	}
+
+	private void writeTerms(Collection<MonolingualTextValue> terms) {
+		writeVarLong(terms.size());
+		for (MonolingualTextValue term : terms) {
+			writeString(term.getLanguageCode(), true);
+			writeString(term.getText(), false);
+		}
+	}
+
+	private void writeAliases(Map<String, List<MonolingualTextValue>> aliases) {
+		writeVarLong(aliases.size());
+		for (List<MonolingualTextValue> terms : aliases.values()) {
+			writeTerms(terms);
+		}
+	}
+
+	private void writeItemIds(List<ItemIdValue> itemIds) {
+		writeVarLong(itemIds.size());
+		for (ItemIdValue itemId : itemIds) {
+			writeEntityId(itemId);
+		}
+	}
+
+	private void writeStatementGroups(List<StatementGroup> statementGroups) {
+		writeVarLong(statementGroups.size());
+		for (StatementGroup statementGroup : statementGroups) {
+			writeVarLong(statementGroup.size());
+			for (Statement statement : statementGroup) {
+				writeString(statement.getStatementId(), false);
+				writeByte(statement.getRank().ordinal());
+				writeSnak(statement.getMainSnak());
+				writeSnakGroups(statement.getQualifiers());
+				writeVarLong(statement.getReferences().size());
+				for (Reference reference : statement.getReferences()) {
+					writeReference(reference);
+				}
+			}
+		}
+	}
+
+	private void writeReference(Reference reference) {
+		String hash = reference.getHash();
+		writeByte(hash != null ? REFERENCE_HAS_HASH : 0);
+		if (hash != null) {
+			writeString(hash, false);
+		}
+		writeSnakGroups(reference.getSnakGroups());
+	}
+
+	private void writeSnakGroups(List<SnakGroup> snakGroups) {
+		writeVarLong(snakGroups.size());
+		for (SnakGroup snakGroup : snakGroups) {
+			writeVarLong(snakGroup.size());
+			for (Snak snak : snakGroup) {
+				writeSnak(snak);
+			}
+		}
+	}
+
+	private void writeSnak(Snak snak) {
+		if (snak instanceof ValueSnak) {
+			writeByte(SNAK_VALUE);
+			writeEntityId(snak.getPropertyId());
+			((ValueSnak) snak).getValue().accept(this.valueEncoder);
+		} else if (snak instanceof SomeValueSnak) {
+			writeByte(SNAK_SOME_VALUE);
+			writeEntityId(snak.getPropertyId());
+		} else if (snak instanceof NoValueSnak) {
+			writeByte(SNAK_NO_VALUE);
+			writeEntityId(snak.getPropertyId());
+		} else {
+			throw new UnsupportedDataException("snak of type " + snak.getClass());
+		}
+	}
+
+	/**
+	 * Writes an entity id. Ids of the common types that have the usual form
+	 * are stored with their numeric part only.
+	 *
+	 * @param entityIdValue
+	 *            the id to write
+	 * @throws UnsupportedDataException
+	 *             if the type of the id is not known
+	 */
+	private void writeEntityId(EntityIdValue entityIdValue) {
+		int idType;
+		char prefix;
+		switch (entityIdValue.getEntityType()) {
+		case EntityIdValue.ET_ITEM:
+			idType = ID_ITEM;
+			prefix = 'Q';
+			break;
+		case EntityIdValue.ET_PROPERTY:
+			idType = ID_PROPERTY;
+			prefix = 'P';
+			break;
+		case EntityIdValue.ET_LEXEME:
+			idType = ID_LEXEME;
+			prefix = 'L';
+			break;
+		case EntityIdValue.ET_MEDIA_INFO:
+			idType = ID_MEDIA_INFO;
+			prefix = 'M';
+			break;
+		case EntityIdValue.ET_FORM:
+			idType = ID_FORM;
+			prefix = 0;
+			break;
+		case EntityIdValue.ET_SENSE:
+			idType = ID_SENSE;
+			prefix = 0;
+			break;
+		default:
+			throw new UnsupportedDataException("entity id "
+					+ entityIdValue.getId() + " of unsupported type");
+		}
+
+		writeString(entityIdValue.getSiteIri(), true);
+		String id = entityIdValue.getId();
+		long numericId = prefix == 0 ? -1 : parseNumericId(id, prefix);
+		if (numericId >= 0) {
+			writeByte(idType);
+			writeVarLong(numericId);
+		} else {
+			writeByte(idType | ID_STRING_FLAG);
+			writeString(id, false);
+		}
+	}
+
+	/**
+	 * Returns the numeric part of the given id if the id consists of the
+	 * given prefix and a number without leading zeros that has at most
+	 * {@link #MAX_NUMERIC_ID_DIGITS} digits.
+	 *
+	 * @param id
+	 *            the string id
+	 * @param prefix
+	 *            the expected first letter of the id
+	 * @return the numeric id, or -1 if the id does not have this form
+	 */
+	static long parseNumericId(String id, char prefix) {
+		int length = id.length();
+		if (length < 2 || length > MAX_NUMERIC_ID_DIGITS + 1
+				|| id.charAt(0) != prefix
+				|| (id.charAt(1) == '0' && length > 2)) {
+			return -1;
+		}
+		long result = 0;
+		for (int i = 1; i < length; i++) {
+			char c = id.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			result = 10 * result + (c - '0');
+		}
+		return result;
+	}
+
+	/**
+	 * Writes a string. Interned strings are added to the string table on their
+	 * first occurrence, and only their index is written afterwards.
+	 *
+	 * @param string
+	 *            the string to write
+	 * @param intern
+	 *            true if the string should be interned
+	 */
+	private void writeString(String string, boolean intern) {
+		if (intern) {
+			Integer index = this.stringTable.get(string);
+			if (index != null) {
+				writeVarLong(index + 1);
+				return;
+			}
+			this.stringTable.put(string, this.strings.size());
+			this.strings.add(string);
+			writeByte(0);
+		}
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(bytes.length);
+		writeBytes(bytes);
+	}
+
+	private void writeBigDecimal(BigDecimal value) {
+		writeZigZag(value.scale());
+		byte[] bytes = value.unscaledValue().toByteArray();
+		writeVarLong(bytes.length);
+		writeBytes(bytes);
+	}
+
+	private void writeDouble(double value) {
+		long bits = Double.doubleToRawLongBits(value);
+		ensureCapacity(8);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			this.buffer[this.position++] = (byte) (bits >>> shift);
+		}
+	}
+
+	private void writeZigZag(long value) {
+		writeVarLong((value << 1) ^ (value >> 63));
+	}
+
+	private void writeVarLong(long value) {
+		ensureCapacity(10);
+		while ((value & ~0x7fL) != 0) {
+			this.buffer[this.position++] = (byte) ((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		this.buffer[this.position++] = (byte) value;
+	}
+
+	private void writeByte(int value) {
+		ensureCapacity(1);
+		this.buffer[this.position++] = (byte) value;
+	}
+
+	private void writeBytes(byte[] bytes) {
+		ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+		this.position += bytes.length;
+	}
+
+	private void ensureCapacity(int count) {
+		if (this.position + count > this.buffer.length) {
+			this.buffer = Arrays.copyOf(this.buffer,
+					Math.max(2 * this.buffer.length, this.position + count));
+		}
+	}
+
+	/**
+	 * Visitor that writes values as typed blocks.
+	 */
+	private class ValueEncoder implements ValueVisitor<Void> {
+
+		@Override
+		public Void visit(EntityIdValue value) {
+			writeByte(VALUE_ENTITY_ID);
+			writeEntityId(value);
+			return null;
+		}
+
+		@Override
+		public Void visit(GlobeCoordinatesValue value) {
+			writeByte(VALUE_GLOBE_COORDINATES);
+			writeDouble(value.getLatitude());
+			writeDouble(value.getLongitude());
+			writeDouble(value.getPrecision());
+			writeString(value.getGlobe(), true);
+			return null;
+		}
+
+		@Override
+		public Void visit(MonolingualTextValue value) {
+			writeByte(VALUE_MONOLINGUAL_TEXT);
+			writeString(value.getLanguageCode(), true);
+			writeString(value.getText(), false);
+			return null;
+		}
+
+		@Override
+		public Void visit(QuantityValue value) {
+			writeByte(VALUE_QUANTITY);
+			int flags = 0;
+			if (value.getLowerBound() != null) {
+				flags |= QUANTITY_HAS_LOWER_BOUND;
+			}
+			if (value.getUpperBound() != null) {
+				flags |= QUANTITY_HAS_UPPER_BOUND;
+			}
+			writeByte(flags);
+			writeBigDecimal(value.getNumericValue());
+			if (value.getLowerBound() != null) {
+				writeBigDecimal(value.getLowerBound());
+			}
+			if (value.getUpperBound() != null) {
+				writeBigDecimal(value.getUpperBound());
+			}
+			writeString(value.getUnit(), true);
+			return null;
+		}
+
+		@Override
+		public Void visit(StringValue value) {
+			writeByte(VALUE_STRING);
+			writeString(value.getString(), false);
+			return null;
+		}
+
+		@Override
+		public Void visit(TimeValue value) {
+			writeByte(VALUE_TIME);
+			writeZigZag(value.getYear());
+			writeByte(value.getMonth());
+			writeByte(value.getDay());
+			writeByte(value.getHour());
+			writeByte(value.getMinute());
+			writeByte(value.getSecond());
+			writeByte(value.getPrecision());
+			writeZigZag(value.getBeforeTolerance());
+			writeZigZag(value.getAfterTolerance());
+			writeZigZag(value.getTimezoneOffset());
+			writeString(value.getPreferredCalendarModel(), true);
+			return null;
+		}
+
+		@Override
+		public Void visit(UnsupportedValue value) {
+			throw new UnsupportedDataException("unsupported value of type "
+					+ value.getTypeJsonString());
+		}
+	}
+
+	/**
+	 * Exception thrown when a document contains data that cannot be stored in
+	 * the binary format.
+	 */
+	private static class UnsupportedDataException extends RuntimeException {
+
+		private static final long serialVersionUID = 8224437436512426426L;
+
+		UnsupportedDataException(String message) {
+			super(message, null, false, false);
+		}
+	}
+}
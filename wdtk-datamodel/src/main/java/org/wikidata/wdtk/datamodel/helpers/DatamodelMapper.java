@@ -19,6 +19,9 @@
  */
 package org.wikidata.wdtk.datamodel.helpers;
 
+import org.wikidata.wdtk.datamodel.implementation.EntityIdInterner;
+import org.wikidata.wdtk.datamodel.interfaces.DocumentDataFilter;
+
 import tools.jackson.databind.DeserializationFeature;
 import tools.jackson.databind.InjectableValues;
 import tools.jackson.databind.json.JsonMapper;
@@ -35,6 +38,12 @@ public class DatamodelMapper extends JsonMapper {
 
 	private static final long serialVersionUID = -236841297410109272L;
 
+	/**
+	 * Key under which the {@link DocumentDataFilter} of the mapper is
+	 * registered as injectable value for Jackson.
+	 */
+	public static final String DOCUMENT_DATA_FILTER_INJECTABLE_ID = "documentDataFilter";
+
 	/**
 	 * Constructs a mapper with the given siteIri. This IRI
 	 * will be used to fill all the siteIris of the entity ids
@@ -44,9 +53,46 @@ public class DatamodelMapper extends JsonMapper {
 	 * 		the ambient IRI of the Wikibase site
 	 */
 	public DatamodelMapper(String siteIri) {
+		this(siteIri, EntityIdInterner.NONE);
+	}
+
+	/**
+	 * Constructs a mapper with the given siteIri that reuses item and
+	 * property id objects from the given cache. This reduces memory usage
+	 * when deserializing many documents, e.g., from a dump.
+	 *
+	 * @param siteIri
+	 * 		the ambient IRI of the Wikibase site
+	 * @param entityIdInterner
+	 * 		the cache used for ids, or {@link EntityIdInterner#NONE}
+	 */
+	public DatamodelMapper(String siteIri, EntityIdInterner entityIdInterner) {
+		this(siteIri, entityIdInterner, new DocumentDataFilter());
+	}
+
+	/**
+	 * Constructs a mapper with the given siteIri that only deserializes the
+	 * parts of entity documents accepted by the given filter. Terms in other
+	 * languages, site links to other sites and statement groups of other
+	 * properties are skipped while parsing, so that no objects are created
+	 * for them. The filter is read during deserialization, so it should not
+	 * be modified while the mapper is in use.
+	 *
+	 * @param siteIri
+	 * 		the ambient IRI of the Wikibase site
+	 * @param entityIdInterner
+	 * 		the cache used for ids, or {@link EntityIdInterner#NONE}
+	 * @param filter
+	 * 		the filter that specifies which data to keep
+	 */
+	public DatamodelMapper(String siteIri, EntityIdInterner entityIdInterner,
+			DocumentDataFilter filter) {
 		super(JsonMapper.builder()
 				.enable(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT)
 				.disable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
-				.injectableValues(new InjectableValues.Std().addValue("siteIri", siteIri)));
+				.injectableValues(new InjectableValues.Std()
+						.addValue("siteIri", siteIri)
+						.addValue(EntityIdInterner.INJECTABLE_VALUE_ID, entityIdInterner)
+						.addValue(DOCUMENT_DATA_FILTER_INJECTABLE_ID, filter)));
 	}
 }
@@ -20,6 +20,7 @@ package org.wikidata.wdtk.datamodel.helpers;
  * #L%
  */
 
+import org.wikidata.wdtk.datamodel.implementation.CompactEntityIdValueImpl;
 import org.wikidata.wdtk.datamodel.interfaces.*;
 
 import java.util.Objects;
@@ -60,6 +61,13 @@ public class Equality {
 		if (!(o2 instanceof EntityIdValue)) {
 			return false;
 		}
+		if (o1 instanceof CompactEntityIdValueImpl
+				&& o2 instanceof CompactEntityIdValueImpl) {
+			CompactEntityIdValueImpl compact1 = (CompactEntityIdValueImpl) o1;
+			CompactEntityIdValueImpl compact2 = (CompactEntityIdValueImpl) o2;
+			return compact1.getEncodedId() == compact2.getEncodedId()
+					&& compact1.getSiteIri().equals(compact2.getSiteIri());
+		}
 
 		EntityIdValue other = (EntityIdValue) o2;
 		return o1.getId().equals(other.getId())
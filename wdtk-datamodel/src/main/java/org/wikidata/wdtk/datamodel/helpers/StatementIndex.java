@@ -0,0 +1,306 @@
+package org.wikidata.wdtk.datamodel.helpers;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementDocument;
+import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
+
+/**
+ * Read-only index of the statements of a {@link StatementDocument} by
+ * property. Looking up the statements of a property takes constant time and
+ * returns the {@link StatementGroup} objects of the document itself, so that
+ * repeated lookups do not create any objects. The values of the statements
+ * of a property are collected into a set the first time they are needed for
+ * {@link #hasStatementValue(String, Set)}, which then only needs to look up
+ * the smaller of the two sets in the other one.
+ * <p>
+ * The index reflects the statement groups at the time it was built.
+ * Statement documents of this library are immutable and build such an index
+ * on their first lookup, so most code does not need to use this class
+ * directly. It can be useful to speed up lookups on other implementations of
+ * {@link StatementDocument}. Instances are thread-safe.
+ */
+public class StatementIndex {
+
+	/**
+	 * Values of the statements of one property.
+	 */
+	static class PropertyValues {
+		/**
+		 * Non-null main snak values.
+		 */
+		final Set<Value> values;
+		/**
+		 * True if some statement has no value (somevalue or novalue snak).
+		 */
+		final boolean hasNoValue;
+
+		PropertyValues(StatementGroup statementGroup) {
+			Set<Value> collected = new HashSet<>();
+			boolean noValue = false;
+			for (Statement statement : statementGroup) {
+				Value value = statement.getValue();
+				if (value == null) {
+					noValue = true;
+				} else {
+					collected.add(value);
+				}
+			}
+			this.values = collected;
+			this.hasNoValue = noValue;
+		}
+	}
+
+	final List<StatementGroup> statementGroups;
+
+	final Map<String, StatementGroup> groupsByPropertyId;
+
+	final Map<String, PropertyValues> valuesByPropertyId = new ConcurrentHashMap<>();
+
+	/**
+	 * Builds the index for the given document.
+	 *
+	 * @param document
+	 *            the document whose statements should be indexed
+	 */
+	public StatementIndex(StatementDocument document) {
+		this.statementGroups = document.getStatementGroups();
+		Map<String, StatementGroup> groups = new HashMap<>(
+				this.statementGroups.size() * 2);
+		for (StatementGroup statementGroup : this.statementGroups) {
+			// like StatementDocument#findStatementGroup, prefer the first group
+			groups.putIfAbsent(statementGroup.getProperty().getId(),
+					statementGroup);
+		}
+		this.groupsByPropertyId = groups;
+	}
+
+	/**
+	 * Returns the {@link StatementGroup} for the given property id, or null if
+	 * there are no statements for this property. Only the string id of the
+	 * property is compared, not the site id.
+	 *
+	 * @param propertyId
+	 *            the property to search for
+	 * @return {@link StatementGroup} or null
+	 * @see StatementDocument#findStatementGroup(String)
+	 */
+	public StatementGroup findStatementGroup(String propertyId) {
+		return this.groupsByPropertyId.get(propertyId);
+	}
+
+	/**
+	 * Returns the {@link StatementGroup} for the given property, or null if
+	 * there are no statements for this property.
+	 *
+	 * @param propertyIdValue
+	 *            the property to search for
+	 * @return {@link StatementGroup} or null
+	 * @see StatementDocument#findStatementGroup(PropertyIdValue)
+	 */
+	public StatementGroup findStatementGroup(PropertyIdValue propertyIdValue) {
+		StatementGroup statementGroup = this.groupsByPropertyId
+				.get(propertyIdValue.getId());
+		if (statementGroup == null
+				|| propertyIdValue.equals(statementGroup.getProperty())) {
+			return statementGroup;
+		}
+		// the property id is used with another site IRI; this is unusual
+		for (StatementGroup sg : this.statementGroups) {
+			if (propertyIdValue.equals(sg.getProperty())) {
+				return sg;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the statements for the given property id, or an empty list if
+	 * there are none. Only the string id of the property is compared, not the
+	 * site id.
+	 *
+	 * @param propertyId
+	 *            the property to search for
+	 * @return list of statements
+	 */
+	public List<Statement> getStatements(String propertyId) {
+		StatementGroup statementGroup = this.groupsByPropertyId.get(propertyId);
+		return statementGroup != null ? statementGroup.getStatements()
+				: Collections.emptyList();
+	}
+
+	/**
+	 * Returns the unique {@link Statement} for the given property id, or null
+	 * if there are zero or many statements for this property. Only the string
+	 * id of the property is compared, not the site id.
+	 *
+	 * @param propertyId
+	 *            the property to search for
+	 * @return {@link Statement} or null
+	 * @see StatementDocument#findStatement(String)
+	 */
+	public Statement findStatement(String propertyId) {
+		return uniqueStatement(this.groupsByPropertyId.get(propertyId));
+	}
+
+	/**
+	 * Returns the unique {@link Statement} for the given property, or null if
+	 * there are zero or many statements for this property.
+	 *
+	 * @param propertyIdValue
+	 *            the property to search for
+	 * @return {@link Statement} or null
+	 * @see StatementDocument#findStatement(PropertyIdValue)
+	 */
+	public Statement findStatement(PropertyIdValue propertyIdValue) {
+		return uniqueStatement(findStatementGroup(propertyIdValue));
+	}
+
+	/**
+	 * Returns the set of all values of statements for the given property id.
+	 * Statements without a value (somevalue or novalue snaks) are not
+	 * represented. Only the string id of the property is compared, not the
+	 * site id.
+	 *
+	 * @param propertyId
+	 *            the property to search for
+	 * @return unmodifiable set of values, empty if there are no statements
+	 *         for this property
+	 */
+	public Set<Value> getStatementValues(String propertyId) {
+		PropertyValues propertyValues = getPropertyValues(propertyId);
+		return propertyValues != null
+				? Collections.unmodifiableSet(propertyValues.values)
+				: Collections.emptySet();
+	}
+
+	/**
+	 * Returns true if there is a statement for the given property id and one
+	 * of the given values. Only the string id of the property is compared, not
+	 * the site id.
+	 *
+	 * @param propertyId
+	 *            the property to search for
+	 * @param values
+	 *            the set of values to search; may contain null to search for
+	 *            statements without a value
+	 * @return true if a statement for this property and value exists
+	 * @see StatementDocument#hasStatementValue(String, Set)
+	 */
+	public boolean hasStatementValue(String propertyId,
+			Set<? extends Value> values) {
+		PropertyValues propertyValues = getPropertyValues(propertyId);
+		return propertyValues != null && containsAny(propertyValues, values);
+	}
+
+	/**
+	 * Returns true if there is a statement for the given property and one of
+	 * the given values.
+	 *
+	 * @param propertyIdValue
+	 *            the property to search for
+	 * @param values
+	 *            the set of values to search; may contain null to search for
+	 *            statements without a value
+	 * @return true if a statement for this property and value exists
+	 * @see StatementDocument#hasStatementValue(PropertyIdValue, Set)
+	 */
+	public boolean hasStatementValue(PropertyIdValue propertyIdValue,
+			Set<? extends Value> values) {
+		StatementGroup statementGroup = this.groupsByPropertyId
+				.get(propertyIdValue.getId());
+		if (statementGroup == null) {
+			return false;
+		}
+		if (!propertyIdValue.equals(statementGroup.getProperty())) {
+			statementGroup = findStatementGroup(propertyIdValue);
+			return statementGroup != null
+					&& containsAny(new PropertyValues(statementGroup), values);
+		}
+		return containsAny(getPropertyValues(propertyIdValue.getId()), values);
+	}
+
+	PropertyValues getPropertyValues(String propertyId) {
+		PropertyValues propertyValues = this.valuesByPropertyId.get(propertyId);
+		if (propertyValues == null) {
+			StatementGroup statementGroup = this.groupsByPropertyId
+					.get(propertyId);
+			if (statementGroup == null) {
+				return null;
+			}
+			propertyValues = new PropertyValues(statementGroup);
+			this.valuesByPropertyId.putIfAbsent(propertyId, propertyValues);
+		}
+		return propertyValues;
+	}
+
+	static boolean containsAny(PropertyValues propertyValues,
+			Set<? extends Value> values) {
+		if (propertyValues.hasNoValue && containsNull(values)) {
+			return true;
+		}
+		Set<Value> indexed = propertyValues.values;
+		if (indexed.size() <= values.size()) {
+			for (Value value : indexed) {
+				if (values.contains(value)) {
+					return true;
+				}
+			}
+		} else {
+			for (Value value : values) {
+				if (value != null && indexed.contains(value)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if a set contains null, also for sets that do not allow null
+	 * elements and throw an exception when asked for them.
+	 */
+	static boolean containsNull(Set<? extends Value> values) {
+		try {
+			return values.contains(null);
+		} catch (NullPointerException e) {
+			return false;
+		}
+	}
+
+	static Statement uniqueStatement(StatementGroup statementGroup) {
+		return (statementGroup != null && statementGroup.size() == 1)
+				? statementGroup.getStatements().get(0)
+				: null;
+	}
+
+}
@@ -0,0 +1,215 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Abstract base implementation of {@link EntityIdValue} that stores the type
+ * and the numeric part of the id in a single long value, rather than as a
+ * string. The string id is only built when it is requested. Hash codes and
+ * comparisons of two compact ids do not need any strings either.
+ * <p>
+ * Objects of this class are equal to other {@link EntityIdValue} objects
+ * with the same id and site IRI, and they are serialized in the same way.
+ * They are never created by Jackson directly, but may be returned by an
+ * {@link EntityIdInterner}.
+ *
+ * @see CompactItemIdValueImpl
+ * @see CompactPropertyIdValueImpl
+ */
+public abstract class CompactEntityIdValueImpl extends ValueImpl implements
+		EntityIdValue {
+
+	/**
+	 * Type code of item ids.
+	 */
+	static final int TYPE_ITEM = 1;
+	/**
+	 * Type code of property ids.
+	 */
+	static final int TYPE_PROPERTY = 2;
+
+	/**
+	 * The type code in the upper 32 bits and the numeric id in the lower 32
+	 * bits.
+	 */
+	private final long encodedId;
+
+	private final String siteIri;
+
+	/**
+	 * The string id, or null if it was not built yet.
+	 */
+	private String id;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param typeCode
+	 *            the code of the type of entity
+	 * @param numericId
+	 *            the non-negative numeric id
+	 * @param siteIri
+	 *            the siteIRI that this value refers to
+	 */
+	CompactEntityIdValueImpl(int typeCode, int numericId, String siteIri) {
+		super(JSON_VALUE_TYPE_ENTITY_ID);
+		Validate.isTrue(numericId >= 0, "Numeric ids must not be negative");
+		Validate.notNull(siteIri, "Entity site IRIs cannot be null");
+		this.encodedId = encode(typeCode, numericId);
+		this.siteIri = siteIri;
+	}
+
+	/**
+	 * Returns the long value that encodes the type and the numeric part of an
+	 * id.
+	 *
+	 * @param typeCode
+	 *            the code of the type of entity
+	 * @param numericId
+	 *            the numeric id
+	 * @return the encoded id
+	 */
+	static long encode(int typeCode, int numericId) {
+		return ((long) typeCode << 32) | (numericId & 0xffffffffL);
+	}
+
+	/**
+	 * Parses the numeric part of the given id, which must be in canonical
+	 * form.
+	 *
+	 * @param id
+	 *            the string id
+	 * @param prefix
+	 *            the letter that ids of this type start with
+	 * @return the numeric id
+	 * @throws IllegalArgumentException
+	 *             if the id is not of the expected form
+	 */
+	static int parseId(String id, char prefix) {
+		int numericId = EntityIdInterner.parseNumericId(id, prefix);
+		if (numericId < 0) {
+			if (id.length() == 2 && id.charAt(0) == prefix
+					&& id.charAt(1) == '0') {
+				return 0;
+			}
+			throw new IllegalArgumentException(
+					"Wikibase entity ids must have the form \"" + prefix
+							+ "<positive integer>\". Given id was \"" + id
+							+ "\"");
+		}
+		return numericId;
+	}
+
+	/**
+	 * Returns the letter that ids of this type start with.
+	 *
+	 * @return the prefix
+	 */
+	abstract char getPrefix();
+
+	/**
+	 * Returns the type code and numeric id of this value encoded as a long.
+	 * Two compact ids with the same site IRI are equal if and only if their
+	 * encoded ids are equal.
+	 *
+	 * @return the encoded id
+	 */
+	@JsonIgnore
+	public long getEncodedId() {
+		return this.encodedId;
+	}
+
+	/**
+	 * Returns the numeric part of the id, e.g., 42 for Q42.
+	 *
+	 * @return the numeric id
+	 */
+	@JsonIgnore
+	public int getNumericId() {
+		return (int) this.encodedId;
+	}
+
+	@JsonIgnore
+	@Override
+	public String getId() {
+		String result = this.id;
+		if (result == null) {
+			result = getPrefix() + Integer.toString(getNumericId());
+			this.id = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the same value as {@code getId().hashCode()}, but without
+	 * building the string id.
+	 *
+	 * @return the hash code of the string id
+	 */
+	@JsonIgnore
+	public int getIdHashCode() {
+		int numericId = getNumericId();
+		int result = getPrefix();
+		int divisor = 1;
+		while (numericId / divisor >= 10) {
+			divisor *= 10;
+		}
+		for (; divisor > 0; divisor /= 10) {
+			result = 31 * result + '0' + (numericId / divisor) % 10;
+		}
+		return result;
+	}
+
+	@JsonIgnore
+	@Override
+	public String getSiteIri() {
+		return this.siteIri;
+	}
+
+	@JsonIgnore
+	@Override
+	public String getIri() {
+		return this.siteIri.concat(getId());
+	}
+
+	@JsonIgnore
+	@Override
+	public boolean isPlaceholder() {
+		return getNumericId() == 0;
+	}
+
+	/**
+	 * Returns the inner value helper object. Only for use by Jackson during
+	 * serialization.
+	 *
+	 * @return the inner entity id value
+	 */
+	@JsonProperty("value")
+	public EntityIdValueImpl.JacksonInnerEntityId getValue() {
+		return new EntityIdValueImpl.JacksonInnerEntityId(getId());
+	}
+}
@@ -0,0 +1,97 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.wikidata.wdtk.datamodel.helpers.Equality;
+import org.wikidata.wdtk.datamodel.helpers.Hash;
+import org.wikidata.wdtk.datamodel.helpers.ToString;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.ValueVisitor;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Compact implementation of {@link ItemIdValue} that stores the numeric id
+ * rather than the string id.
+ *
+ * @see CompactEntityIdValueImpl
+ */
+public class CompactItemIdValueImpl extends CompactEntityIdValueImpl
+		implements ItemIdValue {
+
+	/**
+	 * Constructor.
+	 *
+	 * @param numericId
+	 *            the numeric id, such as 42 for "Q42"
+	 * @param siteIri
+	 *            the siteIRI that this value refers to
+	 */
+	public CompactItemIdValueImpl(int numericId, String siteIri) {
+		super(TYPE_ITEM, numericId, siteIri);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param id
+	 *            the identifier of the entity, such as "Q42"
+	 * @param siteIri
+	 *            the siteIRI that this value refers to
+	 * @throws IllegalArgumentException
+	 *             if the id is not a valid item id
+	 */
+	public CompactItemIdValueImpl(String id, String siteIri) {
+		this(parseId(id, 'Q'), siteIri);
+	}
+
+	@Override
+	char getPrefix() {
+		return 'Q';
+	}
+
+	@JsonIgnore
+	@Override
+	public String getEntityType() {
+		return EntityIdValue.ET_ITEM;
+	}
+
+	@Override
+	public <T> T accept(ValueVisitor<T> valueVisitor) {
+		return valueVisitor.visit(this);
+	}
+
+	@Override
+	public int hashCode() {
+		return Hash.hashCode(this);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return Equality.equalsEntityIdValue(this, obj);
+	}
+
+	@Override
+	public String toString() {
+		return ToString.toString(this);
+	}
+}
@@ -77,14 +77,37 @@ import org.wikidata.wdtk.datamodel.interfaces.ValueSnak;
  */
 public class DataObjectFactoryImpl implements DataObjectFactory {
 
+	/**
+	 * Cache used for item and property ids.
+	 */
+	private final EntityIdInterner entityIdInterner;
+
+	/**
+	 * Constructor for a factory that creates new objects for every id.
+	 */
+	public DataObjectFactoryImpl() {
+		this(EntityIdInterner.NONE);
+	}
+
+	/**
+	 * Constructor for a factory that reuses item and property id objects from
+	 * the given cache.
+	 *
+	 * @param entityIdInterner
+	 *            the cache to use for ids
+	 */
+	public DataObjectFactoryImpl(EntityIdInterner entityIdInterner) {
+		this.entityIdInterner = entityIdInterner;
+	}
+
 	@Override
 	public ItemIdValue getItemIdValue(String id, String siteIri) {
-		return new ItemIdValueImpl(id, siteIri);
+		return this.entityIdInterner.getItemIdValue(id, siteIri);
 	}
 
 	@Override
 	public PropertyIdValue getPropertyIdValue(String id, String siteIri) {
-		return new PropertyIdValueImpl(id, siteIri);
+		return this.entityIdInterner.getPropertyIdValue(id, siteIri);
 	}
 
 	@Override
@@ -204,14 +227,16 @@ public class DataObjectFactoryImpl implements DataObjectFactory {
 	public SomeValueSnak getSomeValueSnak(PropertyIdValue propertyId) {
 		return new SomeValueSnakImpl(
 				propertyId.getId(),
-				propertyId.getSiteIri());
+				propertyId.getSiteIri(),
+				this.entityIdInterner);
 	}
 
 	@Override
 	public NoValueSnak getNoValueSnak(PropertyIdValue propertyId) {
 		return new NoValueSnakImpl(
 				propertyId.getId(),
-				propertyId.getSiteIri());
+				propertyId.getSiteIri(),
+				this.entityIdInterner);
 	}
 
 	@Override
@@ -234,6 +259,11 @@ public class DataObjectFactoryImpl implements DataObjectFactory {
 		return new ReferenceImpl(snakGroups);
 	}
 
+	@Override
+	public Reference getReference(List<SnakGroup> snakGroups, String hash) {
+		return new ReferenceImpl(snakGroups, hash);
+	}
+
 	@Override
 	public Statement getStatement(Claim claim,
 			List<Reference> references, StatementRank rank,
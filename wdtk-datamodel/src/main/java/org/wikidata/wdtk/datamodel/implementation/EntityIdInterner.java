@@ -0,0 +1,225 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+
+/**
+ * Bounded cache of canonical {@link ItemIdValue} and {@link PropertyIdValue}
+ * objects. When processing many documents, the same ids occur over and over
+ * again (e.g., P31 or Q5), and reusing a single object for each of them saves
+ * a lot of memory and garbage collection work.
+ * <p>
+ * The cache is indexed by the numeric part of the id, so that looking up an id
+ * does not create any objects. Cached ids are stored in the compact form of
+ * {@link CompactItemIdValueImpl} and {@link CompactPropertyIdValueImpl}, which
+ * also makes hashing and comparing them cheaper.
+ * <p>
+ * Each numeric id has a fixed slot, which is shared by all ids that are equal
+ * modulo the capacity of the cache. If a different id is requested for an
+ * occupied slot, the previous object is replaced. This keeps the memory usage
+ * bounded, and frequent ids tend to stay in the cache since they are
+ * re-inserted quickly.
+ * <p>
+ * The cache can be used by several threads at once. Since the cached objects
+ * are immutable, unsynchronized access can at most lead to some objects being
+ * created twice.
+ *
+ * @see DataObjectFactoryImpl#DataObjectFactoryImpl(EntityIdInterner)
+ * @see org.wikidata.wdtk.datamodel.helpers.DatamodelMapper#DatamodelMapper(String, EntityIdInterner)
+ */
+public class EntityIdInterner {
+
+	/**
+	 * Key under which the interner is registered as injectable value for
+	 * Jackson.
+	 */
+	public static final String INJECTABLE_VALUE_ID = "entityIdInterner";
+
+	/**
+	 * Default number of cached ids of each type.
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+
+	/**
+	 * Interner that does not cache anything. This is used when interning is
+	 * not enabled.
+	 */
+	public static final EntityIdInterner NONE = new EntityIdInterner(0);
+
+	final CompactItemIdValueImpl[] items;
+	final CompactPropertyIdValueImpl[] properties;
+	final int mask;
+
+	/**
+	 * Constructor for a cache with {@link #DEFAULT_CAPACITY}.
+	 */
+	public EntityIdInterner() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param capacity
+	 *            the maximal number of ids of each type that are cached; this
+	 *            is rounded up to the next power of two
+	 */
+	public EntityIdInterner(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException(
+					"The capacity of the cache must not be negative.");
+		}
+		int size = capacity <= 1 ? capacity
+				: Integer.highestOneBit(capacity - 1) << 1;
+		this.items = new CompactItemIdValueImpl[size];
+		this.properties = new CompactPropertyIdValueImpl[size];
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Returns true if this interner caches ids.
+	 *
+	 * @return true if ids are cached
+	 */
+	public boolean isEnabled() {
+		return this.items.length > 0;
+	}
+
+	/**
+	 * Returns an item id value for the given id, reusing a cached object if
+	 * possible.
+	 *
+	 * @param id
+	 *            a string of the form Qn... where n... is the string
+	 *            representation of a positive integer number
+	 * @param siteIri
+	 *            IRI to identify the site, usually the first part of the entity
+	 *            IRI of the site this belongs to, e.g.,
+	 *            "http://www.wikidata.org/entity/"
+	 * @return an {@link ItemIdValue} corresponding to the input
+	 */
+	public ItemIdValue getItemIdValue(String id, String siteIri) {
+		int numericId = parseNumericId(id, 'Q');
+		if (numericId < 0 || !isEnabled()) {
+			return new ItemIdValueImpl(id, siteIri);
+		}
+		return getItemIdValue(numericId, siteIri);
+	}
+
+	/**
+	 * Returns an item id value for the given numeric id, reusing a cached
+	 * object if possible.
+	 *
+	 * @param numericId
+	 *            the numeric id, such as 42 for Q42
+	 * @param siteIri
+	 *            IRI to identify the site
+	 * @return an {@link ItemIdValue} corresponding to the input
+	 */
+	public ItemIdValue getItemIdValue(int numericId, String siteIri) {
+		if (!isEnabled()) {
+			return new ItemIdValueImpl("Q" + numericId, siteIri);
+		}
+		int slot = numericId & this.mask;
+		CompactItemIdValueImpl result = this.items[slot];
+		if (result == null || result.getNumericId() != numericId
+				|| !result.getSiteIri().equals(siteIri)) {
+			result = new CompactItemIdValueImpl(numericId, siteIri);
+			this.items[slot] = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a property id value for the given id, reusing a cached object if
+	 * possible.
+	 *
+	 * @param id
+	 *            a string of the form Pn... where n... is the string
+	 *            representation of a positive integer number
+	 * @param siteIri
+	 *            IRI to identify the site, usually the first part of the entity
+	 *            IRI of the site this belongs to, e.g.,
+	 *            "http://www.wikidata.org/entity/"
+	 * @return a {@link PropertyIdValue} corresponding to the input
+	 */
+	public PropertyIdValue getPropertyIdValue(String id, String siteIri) {
+		int numericId = parseNumericId(id, 'P');
+		if (numericId < 0 || !isEnabled()) {
+			return new PropertyIdValueImpl(id, siteIri);
+		}
+		return getPropertyIdValue(numericId, siteIri);
+	}
+
+	/**
+	 * Returns a property id value for the given numeric id, reusing a cached
+	 * object if possible.
+	 *
+	 * @param numericId
+	 *            the numeric id, such as 31 for P31
+	 * @param siteIri
+	 *            IRI to identify the site
+	 * @return a {@link PropertyIdValue} corresponding to the input
+	 */
+	public PropertyIdValue getPropertyIdValue(int numericId, String siteIri) {
+		if (!isEnabled()) {
+			return new PropertyIdValueImpl("P" + numericId, siteIri);
+		}
+		int slot = numericId & this.mask;
+		CompactPropertyIdValueImpl result = this.properties[slot];
+		if (result == null || result.getNumericId() != numericId
+				|| !result.getSiteIri().equals(siteIri)) {
+			result = new CompactPropertyIdValueImpl(numericId, siteIri);
+			this.properties[slot] = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Parses the numeric part of an id of the given form without creating any
+	 * objects. Only ids in canonical form are accepted, i.e., without leading
+	 * zeros.
+	 *
+	 * @param id
+	 *            the string id
+	 * @param prefix
+	 *            the expected first letter of the id
+	 * @return the numeric id, or -1 if the id is not of the expected form
+	 */
+	static int parseNumericId(String id, char prefix) {
+		int length = id.length();
+		if (length < 2 || length > 11 || id.charAt(0) != prefix
+				|| id.charAt(1) == '0') {
+			return -1;
+		}
+		long result = 0;
+		for (int i = 1; i < length; i++) {
+			char c = id.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			result = 10 * result + (c - '0');
+		}
+		return result > Integer.MAX_VALUE ? -1 : (int) result;
+	}
+}
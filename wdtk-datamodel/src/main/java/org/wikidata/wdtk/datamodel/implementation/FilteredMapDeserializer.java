@@ -0,0 +1,107 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.interfaces.DocumentDataFilter;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DatabindException;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.ValueDeserializer;
+
+/**
+ * Base class for deserializers of JSON maps in entity documents that only
+ * deserialize the entries accepted by the {@link DocumentDataFilter} of the
+ * {@link DatamodelMapper}. All other entries are skipped on the level of
+ * tokens, so that no objects are created for them at all.
+ * <p>
+ * Empty maps serialized as <code>[]</code> are accepted as well.
+ *
+ * @param <V>
+ *            the type of the values of the map
+ */
+abstract class FilteredMapDeserializer<V> extends ValueDeserializer<Map<String, V>> {
+
+	@Override
+	public Map<String, V> deserialize(JsonParser jp, DeserializationContext ctxt) {
+		Map<String, V> result = new HashMap<>();
+
+		JsonToken token = jp.currentToken();
+		if (token == JsonToken.START_ARRAY) {
+			jp.skipChildren();
+			return result;
+		}
+		if (token == JsonToken.START_OBJECT) {
+			token = jp.nextToken();
+		}
+
+		DocumentDataFilter filter = (DocumentDataFilter) ctxt.findInjectableValue(
+				DatamodelMapper.DOCUMENT_DATA_FILTER_INJECTABLE_ID, null, null,
+				null, null);
+		for (; token == JsonToken.PROPERTY_NAME; token = jp.nextToken()) {
+			String key = jp.currentName();
+			jp.nextToken();
+			if (filter == null || includeKey(key, filter, ctxt)) {
+				result.put(key, deserializeValue(jp, ctxt));
+			} else {
+				jp.skipChildren();
+			}
+		}
+
+		if (token != JsonToken.END_OBJECT) {
+			throw DatabindException.from(jp, "Unexpected token " + token
+					+ " in map of entity document");
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if the entry with the given key should be deserialized.
+	 *
+	 * @param key
+	 *            the key of the map entry
+	 * @param filter
+	 *            the filter of the mapper
+	 * @param ctxt
+	 *            the current deserialization context
+	 * @return true if the entry is kept
+	 */
+	protected abstract boolean includeKey(String key, DocumentDataFilter filter,
+			DeserializationContext ctxt);
+
+	/**
+	 * Deserializes the value of a map entry. The parser is positioned at the
+	 * first token of the value and must be left at its last token.
+	 *
+	 * @param jp
+	 *            the parser
+	 * @param ctxt
+	 *            the current deserialization context
+	 * @return the deserialized value
+	 */
+	protected abstract V deserializeValue(JsonParser jp,
+			DeserializationContext ctxt);
+}
@@ -28,6 +28,7 @@ import java.util.Set;
 import org.wikidata.wdtk.datamodel.helpers.Equality;
 import org.wikidata.wdtk.datamodel.helpers.Hash;
 import org.wikidata.wdtk.datamodel.helpers.ToString;
+import org.wikidata.wdtk.datamodel.interfaces.DocumentDataFilter;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
 import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
 import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
@@ -41,6 +42,8 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.DeserializationContext;
 import tools.jackson.databind.annotation.JsonDeserialize;
 
 /**
@@ -107,11 +110,11 @@ public class ItemDocumentImpl extends TermedStatementDocumentImpl
 	@JsonCreator
 	public ItemDocumentImpl(
 			@JsonProperty("id") String jsonId,
-			@JsonProperty("labels") @JsonDeserialize(contentAs=TermImpl.class) Map<String, MonolingualTextValue> labels,
-			@JsonProperty("descriptions") @JsonDeserialize(contentAs=TermImpl.class) Map<String, MonolingualTextValue> descriptions,
+			@JsonProperty("labels") @JsonDeserialize(using = TermsDeserializer.class) Map<String, MonolingualTextValue> labels,
+			@JsonProperty("descriptions") @JsonDeserialize(using = TermsDeserializer.class) Map<String, MonolingualTextValue> descriptions,
 			@JsonProperty("aliases") @JsonDeserialize(using = AliasesDeserializer.class) Map<String, List<MonolingualTextValue>> aliases,
-			@JsonProperty("claims") Map<String, List<StatementImpl.PreStatement>> claims,
-			@JsonProperty("sitelinks") Map<String, SiteLink> sitelinks,
+			@JsonProperty("claims") @JsonDeserialize(using = ClaimsDeserializer.class) Map<String, List<StatementImpl.PreStatement>> claims,
+			@JsonProperty("sitelinks") @JsonDeserialize(using = SiteLinksDeserializer.class) Map<String, SiteLink> sitelinks,
 			@JsonProperty("lastrevid") long revisionId,
 			@JacksonInject("siteIri") String siteIri) {
 		super(jsonId, labels, descriptions, aliases, claims, revisionId, siteIri);
@@ -219,4 +222,24 @@ public class ItemDocumentImpl extends TermedStatementDocumentImpl
 				aliases, newGroups,
 				sitelinks, revisionId);
 	}
+
+	/**
+	 * A deserializer implementation for the site links of an
+	 * {@link ItemDocumentImpl} that skips all sites excluded by the
+	 * {@link DocumentDataFilter} of the mapper.
+	 */
+	static class SiteLinksDeserializer extends FilteredMapDeserializer<SiteLink> {
+
+		@Override
+		protected boolean includeKey(String key, DocumentDataFilter filter,
+				DeserializationContext ctxt) {
+			return filter.includeSiteLink(key);
+		}
+
+		@Override
+		protected SiteLink deserializeValue(JsonParser jp,
+				DeserializationContext ctxt) {
+			return ctxt.readValue(jp, SiteLinkImpl.class);
+		}
+	}
 }
@@ -24,6 +24,9 @@ import com.fasterxml.jackson.annotation.JacksonInject;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.wikidata.wdtk.datamodel.interfaces.*;
 
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.DeserializationContext;
+
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -128,4 +131,23 @@ abstract class LabeledStatementDocumentImpl extends StatementDocumentImpl implem
 	private static MonolingualTextValue toTerm(MonolingualTextValue term) {
 		return term instanceof TermImpl ? term : new TermImpl(term.getLanguageCode(), term.getText());
 	}
+
+	/**
+	 * A deserializer implementation for labels and descriptions that skips
+	 * all languages excluded by the {@link DocumentDataFilter} of the mapper.
+	 */
+	static class TermsDeserializer extends FilteredMapDeserializer<MonolingualTextValue> {
+
+		@Override
+		protected boolean includeKey(String key, DocumentDataFilter filter,
+				DeserializationContext ctxt) {
+			return filter.includeLanguage(key);
+		}
+
+		@Override
+		protected MonolingualTextValue deserializeValue(JsonParser jp,
+				DeserializationContext ctxt) {
+			return ctxt.readValue(jp, TermImpl.class);
+		}
+	}
 }
@@ -73,9 +73,9 @@ public class MediaInfoDocumentImpl extends LabeledStatementDocumentImpl implemen
 	@JsonCreator
 	public MediaInfoDocumentImpl(
 			@JsonProperty("id") String jsonId,
-			@JsonProperty("labels") @JsonDeserialize(contentAs=TermImpl.class) Map<String, MonolingualTextValue> labels,
-			@JsonProperty("claims") Map<String, List<StatementImpl.PreStatement>> claims,
-			@JsonProperty("statements") Map<String, List<StatementImpl.PreStatement>> statements,
+			@JsonProperty("labels") @JsonDeserialize(using = TermsDeserializer.class) Map<String, MonolingualTextValue> labels,
+			@JsonProperty("claims") @JsonDeserialize(using = ClaimsDeserializer.class) Map<String, List<StatementImpl.PreStatement>> claims,
+			@JsonProperty("statements") @JsonDeserialize(using = ClaimsDeserializer.class) Map<String, List<StatementImpl.PreStatement>> statements,
 			@JsonProperty("lastrevid") long revisionId,
 			@JacksonInject("siteIri") String siteIri) {
 		super(jsonId, labels, (statements == null) ? claims : statements, revisionId, siteIri);
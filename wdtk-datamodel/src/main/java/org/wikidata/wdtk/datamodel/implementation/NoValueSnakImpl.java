@@ -58,8 +58,9 @@ public class NoValueSnakImpl extends SnakImpl implements NoValueSnak {
 	@JsonCreator
 	protected NoValueSnakImpl(
 			@JsonProperty("property") String property,
-			@JacksonInject("siteIri") String siteIri) {
-		super(property, siteIri);
+			@JacksonInject("siteIri") String siteIri,
+			@JacksonInject(EntityIdInterner.INJECTABLE_VALUE_ID) EntityIdInterner entityIdInterner) {
+		super(property, siteIri, entityIdInterner);
 	}
 
 	@Override
@@ -82,9 +82,25 @@ public abstract class SnakImpl implements Snak {
 	protected SnakImpl(
 			String id,
 			String siteIri) {
+		this(id, siteIri, EntityIdInterner.NONE);
+	}
+
+	/**
+	 * Constructor. Creates an empty object that can be populated during JSON
+	 * deserialization, taking the property id from the given cache if
+	 * possible. Should only be used by Jackson for this very purpose.
+	 */
+	protected SnakImpl(
+			String id,
+			String siteIri,
+			EntityIdInterner entityIdInterner) {
 		Objects.requireNonNull(id);
 		Objects.requireNonNull(siteIri);
-		this.property = new PropertyIdValueImpl(id, siteIri);
+		if (entityIdInterner == null) {
+			this.property = new PropertyIdValueImpl(id, siteIri);
+		} else {
+			this.property = entityIdInterner.getPropertyIdValue(id, siteIri);
+		}
 	}
 
 	/**
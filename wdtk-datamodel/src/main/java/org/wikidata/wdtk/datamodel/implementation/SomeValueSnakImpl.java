@@ -57,8 +57,9 @@ public class SomeValueSnakImpl extends SnakImpl implements SomeValueSnak {
 	@JsonCreator
 	protected SomeValueSnakImpl(
 			@JsonProperty("property") String property,
-			@JacksonInject("siteIri") String siteIri) {
-		super(property, siteIri);
+			@JacksonInject("siteIri") String siteIri,
+			@JacksonInject(EntityIdInterner.INJECTABLE_VALUE_ID) EntityIdInterner entityIdInterner) {
+		super(property, siteIri, entityIdInterner);
 	}
 	@Override
 	@JsonProperty("snaktype")
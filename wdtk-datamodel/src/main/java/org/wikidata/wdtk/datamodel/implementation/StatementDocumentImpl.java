@@ -24,12 +24,19 @@ import com.fasterxml.jackson.annotation.JacksonInject;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.datamodel.helpers.StatementIndex;
+import org.wikidata.wdtk.datamodel.interfaces.DocumentDataFilter;
 import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.Statement;
 import org.wikidata.wdtk.datamodel.interfaces.StatementDocument;
 import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
 import org.wikidata.wdtk.util.NestedIterator;
 
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.DeserializationContext;
+
 import java.util.*;
 import java.util.Map.Entry;
 
@@ -56,6 +63,12 @@ abstract class StatementDocumentImpl extends EntityDocumentImpl implements State
 	 */
 	private List<StatementGroup> statementGroups;
 
+	/**
+	 * Index of the statement groups by property. This member is initialized
+	 * when statements are first looked up.
+	 */
+	private StatementIndex statementIndex;
+
 	/**
 	 * Constructor.
 	 *
@@ -135,16 +148,56 @@ abstract class StatementDocumentImpl extends EntityDocumentImpl implements State
 		return this.statementGroups;
 	}
 	
+	/**
+	 * Returns the index used for looking up statements by property. It is
+	 * built on first use and shares its statement groups with
+	 * {@link #getStatementGroups()}.
+	 *
+	 * @return the statement index of this document
+	 */
+	StatementIndex getStatementIndex() {
+		StatementIndex index = this.statementIndex;
+		if (index == null) {
+			index = new StatementIndex(this);
+			this.statementIndex = index;
+		}
+		return index;
+	}
+
 	/**
 	 * Find a statement group by its property id, without checking for 
 	 * equality with the site IRI. More efficient implementation than
 	 * the default one.
 	 */
+	@Override
 	public StatementGroup findStatementGroup(String propertyIdValue) {
-		if (this.claims.containsKey(propertyIdValue)) {
-			return new StatementGroupImpl(this.claims.get(propertyIdValue));
-		}
-		return null;
+		return getStatementIndex().findStatementGroup(propertyIdValue);
+	}
+
+	@Override
+	public StatementGroup findStatementGroup(PropertyIdValue propertyIdValue) {
+		return getStatementIndex().findStatementGroup(propertyIdValue);
+	}
+
+	@Override
+	public boolean hasStatementValue(String propertyId, Set<? extends Value> values) {
+		return getStatementIndex().hasStatementValue(propertyId, values);
+	}
+
+	@Override
+	public boolean hasStatementValue(PropertyIdValue propertyIdValue,
+			Set<? extends Value> values) {
+		return getStatementIndex().hasStatementValue(propertyIdValue, values);
+	}
+
+	@Override
+	public Statement findStatement(String propertyId) {
+		return getStatementIndex().findStatement(propertyId);
+	}
+
+	@Override
+	public Statement findStatement(PropertyIdValue propertyIdValue) {
+		return getStatementIndex().findStatement(propertyIdValue);
 	}
 
 	/**
@@ -223,4 +276,71 @@ abstract class StatementDocumentImpl extends EntityDocumentImpl implements State
 		}
 		return newClaims;
 	}
+
+	/**
+	 * A deserializer implementation for the claims of a
+	 * {@link StatementDocumentImpl} that skips all statement groups whose
+	 * property is excluded by the {@link DocumentDataFilter} of the mapper.
+	 * The keys are compared to the ids of the filtered properties, which are
+	 * computed once per filter, so that no id objects are created for them.
+	 */
+	static class ClaimsDeserializer extends FilteredMapDeserializer<List<StatementImpl.PreStatement>> {
+
+		/**
+		 * Ids of the properties of the last filter that was used, or null if
+		 * none was used yet.
+		 */
+		volatile PropertyIds propertyIds = null;
+
+		@Override
+		protected boolean includeKey(String key, DocumentDataFilter filter,
+				DeserializationContext ctxt) {
+			Set<PropertyIdValue> propertyFilter = filter.getPropertyFilter();
+			if (propertyFilter == null) {
+				return true;
+			}
+			if (propertyFilter.isEmpty()) {
+				return false;
+			}
+			String siteIri = (String) ctxt.findInjectableValue("siteIri", null,
+					null, null, null);
+			PropertyIds ids = this.propertyIds;
+			if (ids == null || ids.propertyFilter != propertyFilter
+					|| !Objects.equals(ids.siteIri, siteIri)) {
+				ids = new PropertyIds(propertyFilter, siteIri);
+				this.propertyIds = ids;
+			}
+			return ids.ids.contains(key);
+		}
+
+		@Override
+		protected List<StatementImpl.PreStatement> deserializeValue(JsonParser jp,
+				DeserializationContext ctxt) {
+			return Arrays.asList(ctxt.readValue(jp, StatementImpl.PreStatement[].class));
+		}
+	}
+
+	/**
+	 * The ids of the properties of a property filter that belong to the site
+	 * of the mapper. Properties of other sites never match the claims of a
+	 * document, in the same way as
+	 * {@link DocumentDataFilter#includePropertyId(PropertyIdValue)} does not
+	 * match them.
+	 */
+	static class PropertyIds {
+
+		final Set<PropertyIdValue> propertyFilter;
+		final String siteIri;
+		final Set<String> ids = new HashSet<>();
+
+		PropertyIds(Set<PropertyIdValue> propertyFilter, String siteIri) {
+			this.propertyFilter = propertyFilter;
+			this.siteIri = siteIri;
+			for (PropertyIdValue propertyIdValue : propertyFilter) {
+				if (Objects.equals(siteIri, propertyIdValue.getSiteIri())) {
+					this.ids.add(propertyIdValue.getId());
+				}
+			}
+		}
+	}
 }
@@ -27,7 +27,6 @@ import tools.jackson.core.JsonParser;
 import tools.jackson.databind.DatabindException;
 import tools.jackson.databind.DeserializationContext;
 import tools.jackson.databind.JsonNode;
-import tools.jackson.databind.ValueDeserializer;
 
 import org.wikidata.wdtk.datamodel.interfaces.*;
 
@@ -220,36 +219,35 @@ public abstract class TermedStatementDocumentImpl extends LabeledStatementDocume
 	 * <code>"aliases":[]</code> despite its declaration as map and not as list or
 	 * array. This is neither nice nor fast, and should be obsolete as soon as
 	 * possible.
+	 * <p>
+	 * Languages excluded by the {@link DocumentDataFilter} of the mapper are
+	 * skipped.
 	 *
 	 */
-	static class AliasesDeserializer extends ValueDeserializer<Map<String, List<MonolingualTextValue>>> {
+	static class AliasesDeserializer extends FilteredMapDeserializer<List<MonolingualTextValue>> {
 
 		@Override
-		public Map<String, List<MonolingualTextValue>> deserialize(
-				JsonParser jp, DeserializationContext ctxt) {
-
-			Map<String, List<MonolingualTextValue>> contents = new HashMap<>();
+		protected boolean includeKey(String key, DocumentDataFilter filter,
+				DeserializationContext ctxt) {
+			return filter.includeLanguage(key);
+		}
 
+		@Override
+		protected List<MonolingualTextValue> deserializeValue(JsonParser jp,
+				DeserializationContext ctxt) {
+			List<MonolingualTextValue> mltvList = new ArrayList<>();
 			try {
 				JsonNode node = jp.objectReadContext().readTree(jp);
-				if (!node.isArray()) {
-					for (Entry<String, JsonNode> currentNode : node.properties()) {
-						List<MonolingualTextValue> mltvList = new ArrayList<>();
-						// get the list of MLTVs
-						for (JsonNode mltvEntry : currentNode.getValue()) {
-							String language = mltvEntry.get("language").asString();
-							String value = mltvEntry.get("value").asString();
-							mltvList.add(new TermImpl(language,value));
-						}
-
-						contents.put(currentNode.getKey(), mltvList);
-					}
+				// get the list of MLTVs
+				for (JsonNode mltvEntry : node) {
+					String language = mltvEntry.get("language").asString();
+					String value = mltvEntry.get("value").asString();
+					mltvList.add(new TermImpl(language,value));
 				}
 			} catch (Exception e) {
 				throw DatabindException.from(jp, "Unexpected alias list serialization", e);
 			}
-
-			return contents;
+			return mltvList;
 		}
 	}
 }
@@ -350,9 +350,16 @@ public class TimeValueImpl extends ValueImpl implements TimeValue {
 		}
 
 		/**
-		 * Helper method to decompose the time string into its parts.
+		 * Helper method to decompose the time string into its parts. Strings in
+		 * the usual layout are parsed by {@link #parseFixedLayout()}; anything
+		 * else is split with a regular expression, which accepts a wider range
+		 * of inputs and reports malformed ones with a
+		 * {@link NumberFormatException}.
 		 */
 		private void decomposeTimeString() {
+			if (parseFixedLayout()) {
+				return;
+			}
 			// decompose the time string into its parts
 			String[] substrings = time.split("(?<!\\A)[\\-:TZ]");
 
@@ -366,12 +373,117 @@ public class TimeValueImpl extends ValueImpl implements TimeValue {
 		}
 
 		/**
-		 * Helper method to compose the time string from its components.
+		 * Parses a time string of the form {@code +YYYY-MM-DDThh:mm:ssZ}
+		 * character by character. The sign is optional and the year may have
+		 * between one and 18 digits, which covers the four-digit years used in
+		 * current dumps as well as the zero-padded eleven-digit years of older
+		 * ones and geological time spans. All other fields must have exactly
+		 * two digits.
+		 *
+		 * @return true if the string had this layout and the fields have been
+		 *         set, false if it has to be parsed in another way
+		 */
+		private boolean parseFixedLayout() {
+			String t = this.time;
+			int length = t.length();
+			// the part after the year, "-MM-DDThh:mm:ssZ", has 16 characters
+			int yearEnd = length - 16;
+			int start = 0;
+			if (length > 0 && (t.charAt(0) == '+' || t.charAt(0) == '-')) {
+				start = 1;
+			}
+			if (yearEnd - start < 1 || yearEnd - start > 18) {
+				return false;
+			}
+			long parsedYear = 0;
+			for (int i = start; i < yearEnd; i++) {
+				int digit = t.charAt(i) - '0';
+				if (digit < 0 || digit > 9) {
+					return false;
+				}
+				parsedYear = parsedYear * 10 + digit;
+			}
+			if (t.charAt(yearEnd) != '-' || t.charAt(yearEnd + 3) != '-'
+					|| t.charAt(yearEnd + 6) != 'T'
+					|| t.charAt(yearEnd + 9) != ':'
+					|| t.charAt(yearEnd + 12) != ':'
+					|| t.charAt(yearEnd + 15) != 'Z') {
+				return false;
+			}
+			int parsedMonth = parseTwoDigits(t, yearEnd + 1);
+			int parsedDay = parseTwoDigits(t, yearEnd + 4);
+			int parsedHour = parseTwoDigits(t, yearEnd + 7);
+			int parsedMinute = parseTwoDigits(t, yearEnd + 10);
+			int parsedSecond = parseTwoDigits(t, yearEnd + 13);
+			if ((parsedMonth | parsedDay | parsedHour | parsedMinute
+					| parsedSecond) < 0) {
+				return false;
+			}
+			this.year = start == 1 && t.charAt(0) == '-' ? -parsedYear
+					: parsedYear;
+			this.month = (byte) parsedMonth;
+			this.day = (byte) parsedDay;
+			this.hour = (byte) parsedHour;
+			this.minute = (byte) parsedMinute;
+			this.second = (byte) parsedSecond;
+			return true;
+		}
+
+		/**
+		 * Returns the number written with two decimal digits at the given
+		 * position, or -1 if the characters there are not digits.
+		 */
+		private static int parseTwoDigits(String string, int position) {
+			int high = string.charAt(position) - '0';
+			int low = string.charAt(position + 1) - '0';
+			if (high < 0 || high > 9 || low < 0 || low > 9) {
+				return -1;
+			}
+			return high * 10 + low;
+		}
+
+		/**
+		 * Helper method to compose the time string from its components. The
+		 * result is the same as that of the format
+		 * {@code "%+04d-%02d-%02dT%02d:%02d:%02dZ"}, which is still used for
+		 * negative or three-digit fields that only occur in invalid data.
 		 */
 		private String composeTimeString() {
-			return String.format("%+04d-%02d-%02dT%02d:%02d:%02dZ",
-					this.year, this.month, this.day, this.hour, this.minute,
-					this.second);
+			if (this.year == Long.MIN_VALUE || !isTwoDigits(this.month)
+					|| !isTwoDigits(this.day) || !isTwoDigits(this.hour)
+					|| !isTwoDigits(this.minute) || !isTwoDigits(this.second)) {
+				return String.format("%+04d-%02d-%02dT%02d:%02d:%02dZ",
+						this.year, this.month, this.day, this.hour,
+						this.minute, this.second);
+			}
+			StringBuilder builder = new StringBuilder(36);
+			long absoluteYear;
+			if (this.year < 0) {
+				builder.append('-');
+				absoluteYear = -this.year;
+			} else {
+				builder.append('+');
+				absoluteYear = this.year;
+			}
+			if (absoluteYear < 100) {
+				builder.append(absoluteYear < 10 ? "00" : "0");
+			}
+			builder.append(absoluteYear);
+			appendTwoDigits(builder.append('-'), this.month);
+			appendTwoDigits(builder.append('-'), this.day);
+			appendTwoDigits(builder.append('T'), this.hour);
+			appendTwoDigits(builder.append(':'), this.minute);
+			appendTwoDigits(builder.append(':'), this.second);
+			return builder.append('Z').toString();
+		}
+
+		private static boolean isTwoDigits(byte value) {
+			return value >= 0 && value < 100;
+		}
+
+		private static void appendTwoDigits(StringBuilder builder, byte value) {
+			builder.append((char) ('0' + value / 10)).append(
+					(char) ('0' + value % 10));
 		}
 
 		/**
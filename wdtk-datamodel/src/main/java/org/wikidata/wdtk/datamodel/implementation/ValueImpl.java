@@ -109,7 +109,64 @@ public abstract class ValueImpl implements Value {
 		@Override
 		public ValueImpl deserialize(JsonParser jsonParser, DeserializationContext ctxt) {
 			JsonNode root = jsonParser.objectReadContext().readTree(jsonParser);
-			return ctxt.readValue(ctxt.treeAsTokens(root), getValueClass(root, jsonParser));
+			Class<? extends ValueImpl> valueClass = getValueClass(root, jsonParser);
+			if (valueClass == ItemIdValueImpl.class
+					|| valueClass == PropertyIdValueImpl.class) {
+				ValueImpl interned = getInternedEntityIdValue(root.get("value"),
+						valueClass == ItemIdValueImpl.class, ctxt);
+				if (interned != null) {
+					return interned;
+				}
+			}
+			return ctxt.readValue(ctxt.treeAsTokens(root), valueClass);
+		}
+
+		/**
+		 * Returns the item or property id for the given JSON structure from the
+		 * {@link EntityIdInterner} of the context, without deserializing it
+		 * from the JSON first. Values that are not in the usual form are left
+		 * to the normal deserialization, so that they are validated as usual.
+		 *
+		 * @param valueNode
+		 *            the JSON node of the inner value of the id
+		 * @param isItem
+		 *            true if the value is an item id, false if it is a property
+		 *            id
+		 * @return the value, or null if interning is not enabled or the value
+		 *         should be deserialized normally
+		 */
+		private ValueImpl getInternedEntityIdValue(JsonNode valueNode,
+				boolean isItem, DeserializationContext ctxt) {
+			EntityIdInterner interner = (EntityIdInterner) ctxt.findInjectableValue(
+					EntityIdInterner.INJECTABLE_VALUE_ID, null, null, null, null);
+			if (interner == null || !interner.isEnabled()) {
+				return null;
+			}
+
+			JsonNode idNode = valueNode.get("id");
+			JsonNode numericIdNode = valueNode.get("numeric-id");
+			int numericId = -1;
+			if (idNode != null && idNode.isString()) {
+				numericId = EntityIdInterner.parseNumericId(idNode.asString(),
+						isItem ? 'Q' : 'P');
+				if (numericIdNode != null && numericIdNode.asInt() != numericId) {
+					return null;
+				}
+			} else if (idNode == null && numericIdNode != null
+					&& numericIdNode.isInt()) {
+				numericId = numericIdNode.intValue();
+			}
+			if (numericId <= 0) {
+				return null;
+			}
+
+			String siteIri = (String) ctxt.findInjectableValue("siteIri", null,
+					null, null, null);
+			if (isItem) {
+				return (ValueImpl) interner.getItemIdValue(numericId, siteIri);
+			} else {
+				return (ValueImpl) interner.getPropertyIdValue(numericId, siteIri);
+			}
 		}
 
 		/**
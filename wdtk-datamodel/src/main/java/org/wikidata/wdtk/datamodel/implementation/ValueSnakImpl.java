@@ -92,8 +92,9 @@ public class ValueSnakImpl extends SnakImpl implements ValueSnak {
 			@JsonProperty("property") String property,
 			@JsonProperty("datatype") String datatype,
 			@JsonProperty("datavalue") Value datavalue,
-			@JacksonInject("siteIri") String siteIri) {
-		super(property, siteIri);
+			@JacksonInject("siteIri") String siteIri,
+			@JacksonInject(EntityIdInterner.INJECTABLE_VALUE_ID) EntityIdInterner entityIdInterner) {
+		super(property, siteIri, entityIdInterner);
 		Validate.notNull(datavalue, "A datavalue must be provided to create a value snak.");
 		this.datavalue = datavalue;
 		this.datatype = datatype;
@@ -371,6 +371,20 @@ public interface DataObjectFactory {
 	 */
 	Reference getReference(List<SnakGroup> snakGroups);
 
+	/**
+	 * Creates a {@link Reference} with a given hash, as found in data that
+	 * was read from Wikibase. The default implementation ignores the hash.
+	 *
+	 * @param snakGroups
+	 *            list of snak groups
+	 * @param hash
+	 *            the hash of the reference, or null if it is not known
+	 * @return a {@link Reference} corresponding to the input
+	 */
+	default Reference getReference(List<SnakGroup> snakGroups, String hash) {
+		return getReference(snakGroups);
+	}
+
 	/**
 	 * Creates a {@link Statement}. It might be more convenient to use
 	 * {@link StatementBuilder} instead.
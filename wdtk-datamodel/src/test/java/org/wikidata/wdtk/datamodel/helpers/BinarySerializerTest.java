@@ -0,0 +1,290 @@
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.datamodel.helpers;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.implementation.ReferenceImpl;
+import org.wikidata.wdtk.datamodel.interfaces.DatatypeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.FormDocument;
+import org.wikidata.wdtk.datamodel.interfaces.FormIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.GlobeCoordinatesValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Reference;
+import org.wikidata.wdtk.datamodel.interfaces.SenseDocument;
+import org.wikidata.wdtk.datamodel.interfaces.SenseIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+import org.wikidata.wdtk.datamodel.interfaces.TimeValue;
+
+public class BinarySerializerTest {
+
+	private final ItemIdValue q42 = Datamodel.makeWikidataItemIdValue("Q42");
+	private final PropertyIdValue p31 = Datamodel.makeWikidataPropertyIdValue("P31");
+	private final PropertyIdValue p580 = Datamodel.makeWikidataPropertyIdValue("P580");
+
+	private ItemDocument makeItemDocument() {
+		return ItemDocumentBuilder.forItemId(q42)
+				.withLabel("Douglas Adams", "en")
+				.withLabel("Douglas Adams", "de")
+				.withDescription("writer", "en")
+				.withAlias("DNA", "en")
+				.withAlias("Douglas No\u00ebl Adams", "en")
+				.withAlias("Douglas Noel Adams", "fr")
+				.withStatement(StatementBuilder.forSubjectAndProperty(q42, p31)
+						.withValue(Datamodel.makeWikidataItemIdValue("Q5"))
+						.withId("Q42$1")
+						.withRank(StatementRank.PREFERRED)
+						.withQualifierValue(p580, Datamodel.makeTimeValue(
+								-13798000000L, (byte) 0, (byte) 0, (byte) 0,
+								(byte) 0, (byte) 0, TimeValue.PREC_100MY,
+								0, 0, 0, TimeValue.CM_GREGORIAN_PRO))
+						.withQualifierSomeValue(p580)
+						.withReference(ReferenceBuilder.newInstance()
+								.withPropertyValue(Datamodel.makeWikidataPropertyIdValue("P854"),
+										Datamodel.makeStringValue("https://example.org/"))
+								.withNoValue(p31)
+								.build())
+						.build())
+				.withStatement(StatementBuilder.forSubjectAndProperty(q42,
+						Datamodel.makeWikidataPropertyIdValue("P625"))
+						.withValue(Datamodel.makeGlobeCoordinatesValue(51.5, -0.125,
+								GlobeCoordinatesValue.PREC_MILLI_ARCSECOND,
+								GlobeCoordinatesValue.GLOBE_EARTH))
+						.withId("Q42$2")
+						.build())
+				.withStatement(StatementBuilder.forSubjectAndProperty(q42,
+						Datamodel.makeWikidataPropertyIdValue("P2048"))
+						.withValue(Datamodel.makeQuantityValue(
+								new BigDecimal("1.96"), new BigDecimal("1.955"),
+								new BigDecimal("1.965"),
+								Datamodel.makeWikidataItemIdValue("Q11573")))
+						.withId("Q42$3")
+						.build())
+				.withStatement(StatementBuilder.forSubjectAndProperty(q42,
+						Datamodel.makeWikidataPropertyIdValue("P1449"))
+						.withValue(Datamodel.makeMonolingualTextValue("Bop Ad", "en"))
+						.withId("")
+						.withRank(StatementRank.DEPRECATED)
+						.build())
+				.withStatement(StatementBuilder.forSubjectAndProperty(q42,
+						Datamodel.makeWikidataPropertyIdValue("P1082"))
+						.withValue(Datamodel.makeQuantityValue(
+								new BigDecimal("-123456789012345678901234567890")))
+						.withNoValue()
+						.withId("Q42$4")
+						.build())
+				.withSiteLink("Douglas Adams", "enwiki",
+						Datamodel.makeWikidataItemIdValue("Q17437796"))
+				.withSiteLink("Douglas Adams", "dewiki")
+				.withRevisionId(1234567890L)
+				.build();
+	}
+
+	private PropertyDocument makePropertyDocument() {
+		return PropertyDocumentBuilder.forPropertyIdAndDatatype(p31,
+				DatatypeIdValue.DT_ITEM)
+				.withLabel("instance of", "en")
+				.withAlias("is a", "en")
+				.withStatement(StatementBuilder.forSubjectAndProperty(p31,
+						Datamodel.makeWikidataPropertyIdValue("P1647"))
+						.withValue(Datamodel.makeWikidataPropertyIdValue("P279"))
+						.withId("P31$1")
+						.build())
+				.withRevisionId(12)
+				.build();
+	}
+
+	private LexemeDocument makeLexemeDocument() {
+		LexemeIdValue lid = Datamodel.makeWikidataLexemeIdValue("L7");
+		FormIdValue fid = Datamodel.makeWikidataFormIdValue("L7-F1");
+		SenseIdValue sid = Datamodel.makeWikidataSenseIdValue("L7-S1");
+		FormDocument form = Datamodel.makeFormDocument(fid,
+				Collections.singletonList(Datamodel.makeMonolingualTextValue("cats", "en")),
+				Collections.singletonList(Datamodel.makeWikidataItemIdValue("Q146786")),
+				Collections.singletonList(Datamodel.makeStatementGroup(Collections.singletonList(
+						StatementBuilder.forSubjectAndProperty(fid,
+								Datamodel.makeWikidataPropertyIdValue("P898"))
+								.withValue(Datamodel.makeStringValue("k\u00e6ts"))
+								.withId("L7-F1$1")
+								.build()))));
+		SenseDocument sense = Datamodel.makeSenseDocument(sid,
+				Collections.singletonList(Datamodel.makeMonolingualTextValue("animal", "en")),
+				Collections.singletonList(Datamodel.makeStatementGroup(Collections.singletonList(
+						StatementBuilder.forSubjectAndProperty(sid,
+								Datamodel.makeWikidataPropertyIdValue("P5137"))
+								.withValue(Datamodel.makeWikidataItemIdValue("Q146"))
+								.withId("L7-S1$1")
+								.build()))));
+		return Datamodel.makeLexemeDocument(lid,
+				Datamodel.makeWikidataItemIdValue("Q1084"),
+				Datamodel.makeWikidataItemIdValue("Q1860"),
+				Collections.singletonList(Datamodel.makeMonolingualTextValue("cat", "en")),
+				Collections.emptyList(), Collections.singletonList(form),
+				Collections.singletonList(sense)).withRevisionId(99);
+	}
+
+	private MediaInfoDocument makeMediaInfoDocument() {
+		MediaInfoIdValue mid = Datamodel.makeWikimediaCommonsMediaInfoIdValue("M1234");
+		return Datamodel.makeMediaInfoDocument(mid,
+				Collections.singletonList(Datamodel.makeMonolingualTextValue("A cat", "en")),
+				Collections.singletonList(Datamodel.makeStatementGroup(Collections.singletonList(
+						StatementBuilder.forSubjectAndProperty(mid,
+								Datamodel.makeWikidataPropertyIdValue("P180"))
+								.withValue(Datamodel.makeWikidataItemIdValue("Q146"))
+								.withId("M1234$1")
+								.build()))));
+	}
+
+	private List<EntityDocument> roundTrip(List<EntityDocument> documents) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinarySerializer serializer = new BinarySerializer(out);
+		serializer.open();
+		for (EntityDocument document : documents) {
+			if (document instanceof ItemDocument) {
+				serializer.processItemDocument((ItemDocument) document);
+			} else if (document instanceof PropertyDocument) {
+				serializer.processPropertyDocument((PropertyDocument) document);
+			} else if (document instanceof LexemeDocument) {
+				serializer.processLexemeDocument((LexemeDocument) document);
+			} else {
+				serializer.processMediaInfoDocument((MediaInfoDocument) document);
+			}
+		}
+		serializer.close();
+		assertEquals(documents.size(), serializer.getEntityDocumentCount());
+
+		BinaryDeserializer deserializer = new BinaryDeserializer(
+				new ByteArrayInputStream(out.toByteArray()));
+		List<EntityDocument> result = new ArrayList<>();
+		EntityDocument document;
+		while ((document = deserializer.next()) != null) {
+			result.add(document);
+		}
+		assertNull(deserializer.next());
+		return result;
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		List<EntityDocument> documents = Arrays.asList(makeItemDocument(),
+				makePropertyDocument(), makeLexemeDocument(),
+				makeMediaInfoDocument(), makeItemDocument().withRevisionId(0));
+		assertEquals(documents, roundTrip(documents));
+	}
+
+	@Test
+	public void testEmptySnapshot() throws IOException {
+		assertEquals(Collections.emptyList(), roundTrip(Collections.emptyList()));
+	}
+
+	@Test
+	public void testIdsOfOtherSites() throws IOException {
+		ItemIdValue otherSite = Datamodel.makeItemIdValue("Q5",
+				"http://example.org/entity/");
+		ItemDocument document = ItemDocumentBuilder.forItemId(otherSite)
+				.withStatement(StatementBuilder.forSubjectAndProperty(otherSite,
+						Datamodel.makePropertyIdValue("P1", "http://example.org/entity/"))
+						.withValue(Datamodel.makeWikidataItemIdValue("Q2147483647"))
+						.withId("Q5$1")
+						.build())
+				.build();
+		assertEquals(Collections.singletonList(document),
+				roundTrip(Collections.singletonList(document)));
+	}
+
+	@Test
+	public void testReferenceHash() throws IOException {
+		Reference reference = ReferenceBuilder.newInstance()
+				.withPropertyValue(Datamodel.makeWikidataPropertyIdValue("P854"),
+						Datamodel.makeStringValue("https://example.org/"))
+				.build();
+		Reference referenceWithHash = new ReferenceImpl(
+				reference.getSnakGroups(),
+				"fa278ebfc458360e5aed63d5058cca83c46134f1");
+		ItemDocument document = ItemDocumentBuilder.forItemId(q42)
+				.withStatement(StatementBuilder.forSubjectAndProperty(q42, p31)
+						.withValue(Datamodel.makeWikidataItemIdValue("Q5"))
+						.withId("Q42$1")
+						.withReference(referenceWithHash)
+						.withReference(reference)
+						.build())
+				.build();
+
+		ItemDocument result = (ItemDocument) roundTrip(
+				Collections.singletonList(document)).get(0);
+		List<Reference> references = result.getStatementGroups().get(0)
+				.getStatements().get(0).getReferences();
+		assertEquals("fa278ebfc458360e5aed63d5058cca83c46134f1",
+				references.get(0).getHash());
+		assertNull(references.get(1).getHash());
+		assertEquals(document, result);
+	}
+
+	@Test
+	public void testParseNumericId() {
+		assertEquals(42, BinarySerializer.parseNumericId("Q42", 'Q'));
+		assertEquals(0, BinarySerializer.parseNumericId("Q0", 'Q'));
+		assertEquals(-1, BinarySerializer.parseNumericId("Q042", 'Q'));
+		assertEquals(-1, BinarySerializer.parseNumericId("P42", 'Q'));
+		assertEquals(-1, BinarySerializer.parseNumericId("Q", 'Q'));
+		assertEquals(-1, BinarySerializer.parseNumericId("Q4x", 'Q'));
+		assertEquals(999999999999999999L, BinarySerializer.parseNumericId("Q999999999999999999", 'Q'));
+		assertEquals(-1, BinarySerializer.parseNumericId("Q9999999999999999999", 'Q'));
+		assertEquals(-1, BinarySerializer.parseNumericId("Q12345678901234567890", 'Q'));
+	}
+
+	@Test(expected = IOException.class)
+	public void testInvalidHeader() throws IOException {
+		new BinaryDeserializer(new ByteArrayInputStream(
+				"{\"id\":\"Q1\"}\n".getBytes())).next();
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncatedInput() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinarySerializer serializer = new BinarySerializer(out);
+		serializer.open();
+		serializer.processItemDocument(makeItemDocument());
+		serializer.close();
+		byte[] bytes = out.toByteArray();
+		BinaryDeserializer deserializer = new BinaryDeserializer(
+				new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length / 2)));
+		deserializer.next();
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.datamodel.helpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
+
+public class StatementIndexTest {
+	private static ItemIdValue Q1 = Datamodel.makeWikidataItemIdValue("Q1");
+	private static ItemIdValue Q2 = Datamodel.makeWikidataItemIdValue("Q2");
+	private static ItemIdValue Q3 = Datamodel.makeWikidataItemIdValue("Q3");
+	private static PropertyIdValue P1 = Datamodel.makeWikidataPropertyIdValue("P1");
+	private static PropertyIdValue P2 = Datamodel.makeWikidataPropertyIdValue("P2");
+	private static PropertyIdValue P3 = Datamodel.makeWikidataPropertyIdValue("P3");
+
+	private final Statement s1 = StatementBuilder.forSubjectAndProperty(Q1, P1)
+			.withValue(Q1).build();
+	private final Statement s2 = StatementBuilder.forSubjectAndProperty(Q1, P1)
+			.withValue(Q2).build();
+	private final Statement s3 = StatementBuilder.forSubjectAndProperty(Q1, P2)
+			.withSomeValue().build();
+	private final ItemDocument document = ItemDocumentBuilder.forItemId(Q1)
+			.withStatement(s1).withStatement(s2).withStatement(s3).build();
+
+	@Test
+	public void testFindStatementGroup() {
+		StatementIndex index = new StatementIndex(document);
+		StatementGroup group = index.findStatementGroup("P1");
+		assertEquals(P1, group.getProperty());
+		assertEquals(2, group.size());
+		assertTrue(document.getStatementGroups().contains(group));
+		assertSame(group, index.findStatementGroup(P1));
+		assertNull(index.findStatementGroup("P3"));
+		assertNull(index.findStatementGroup(P3));
+		assertNull(index.findStatementGroup(
+				Datamodel.makePropertyIdValue("P1", "http://example.org/entity/")));
+	}
+
+	@Test
+	public void testDocumentLookupsDoNotAllocateGroups() {
+		assertSame(document.findStatementGroup("P1"),
+				document.findStatementGroup("P1"));
+		assertSame(document.findStatementGroup("P1"),
+				document.findStatementGroup(P1));
+	}
+
+	@Test
+	public void testFindStatement() {
+		StatementIndex index = new StatementIndex(document);
+		assertNull(index.findStatement("P1"));
+		assertEquals(s3, index.findStatement("P2"));
+		assertEquals(s3, index.findStatement(P2));
+		assertNull(index.findStatement(P3));
+		assertEquals(2, index.getStatements("P1").size());
+		assertEquals(Collections.emptyList(), index.getStatements("P3"));
+	}
+
+	@Test
+	public void testStatementValues() {
+		StatementIndex index = new StatementIndex(document);
+		assertEquals(new HashSet<>(Arrays.asList(Q1, Q2)),
+				index.getStatementValues("P1"));
+		assertEquals(Collections.emptySet(), index.getStatementValues("P2"));
+		assertEquals(Collections.emptySet(), index.getStatementValues("P3"));
+	}
+
+	@Test
+	public void testHasStatementValue() {
+		StatementIndex index = new StatementIndex(document);
+		assertTrue(index.hasStatementValue("P1", Collections.singleton(Q2)));
+		assertTrue(index.hasStatementValue(P1, Set.of(Q3, Q1)));
+		assertFalse(index.hasStatementValue("P1", Set.of(Q3)));
+		assertFalse(index.hasStatementValue("P3", Set.of(Q1)));
+		assertFalse(index.hasStatementValue("P1", Collections.emptySet()));
+
+		Set<Value> many = new HashSet<>();
+		for (int i = 100; i < 200; i++) {
+			many.add(Datamodel.makeWikidataItemIdValue("Q" + i));
+		}
+		assertFalse(index.hasStatementValue("P1", many));
+		many.add(Q2);
+		assertTrue(index.hasStatementValue("P1", many));
+	}
+
+	@Test
+	public void testHasStatementWithoutValue() {
+		StatementIndex index = new StatementIndex(document);
+		assertTrue(index.hasStatementValue("P2", Collections.singleton(null)));
+		assertFalse(index.hasStatementValue("P1", Collections.singleton(null)));
+		// sets that reject null lookups are not a problem
+		assertFalse(index.hasStatementValue("P2", Set.of(Q1)));
+	}
+
+	@Test
+	public void testSameResultsAsDocument() {
+		Set<Value> values = Set.of(Q2, Q3);
+		assertEquals(document.hasStatementValue("P1", values),
+				new StatementIndex(document).hasStatementValue("P1", values));
+		assertTrue(document.hasStatementValue(P1, Q1));
+		assertFalse(document.hasStatementValue(P2, Q1));
+		assertEquals(Q2, ItemDocumentBuilder.forItemId(Q1).withStatement(s2)
+				.build().findStatementValue("P1"));
+	}
+}
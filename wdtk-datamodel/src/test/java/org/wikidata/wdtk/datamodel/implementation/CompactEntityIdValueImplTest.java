@@ -0,0 +1,133 @@
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.datamodel.implementation;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+
+import tools.jackson.databind.ObjectMapper;
+
+public class CompactEntityIdValueImplTest {
+
+	private final ObjectMapper mapper = new DatamodelMapper(Datamodel.SITE_WIKIDATA);
+
+	private final CompactItemIdValueImpl item1 = new CompactItemIdValueImpl(42, "http://www.wikidata.org/entity/");
+	private final CompactItemIdValueImpl item2 = new CompactItemIdValueImpl("Q42", "http://www.wikidata.org/entity/");
+	private final CompactItemIdValueImpl item3 = new CompactItemIdValueImpl(57, "http://www.wikidata.org/entity/");
+	private final CompactItemIdValueImpl item4 = new CompactItemIdValueImpl(42, "http://www.example.org/entity/");
+	private final CompactPropertyIdValueImpl prop1 = new CompactPropertyIdValueImpl(42, "http://www.wikidata.org/entity/");
+	private final ItemIdValueImpl stringItem = new ItemIdValueImpl("Q42", "http://www.wikidata.org/entity/");
+	private final PropertyIdValueImpl stringProp = new PropertyIdValueImpl("P42", "http://www.wikidata.org/entity/");
+
+	private final String JSON_ITEM_ID_VALUE = "{\"type\":\"wikibase-entityid\",\"value\":{\"entity-type\":\"item\",\"numeric-id\":42,\"id\":\"Q42\"}}";
+
+	@Test
+	public void gettersAreCorrect() {
+		assertEquals("Q42", item1.getId());
+		assertEquals(42, item1.getNumericId());
+		assertEquals(EntityIdValue.ET_ITEM, item1.getEntityType());
+		assertEquals("http://www.wikidata.org/entity/", item1.getSiteIri());
+		assertEquals("http://www.wikidata.org/entity/Q42", item1.getIri());
+		assertEquals("P42", prop1.getId());
+		assertEquals(EntityIdValue.ET_PROPERTY, prop1.getEntityType());
+	}
+
+	@Test
+	public void placeholders() {
+		assertFalse(item1.isPlaceholder());
+		assertTrue(new CompactItemIdValueImpl("Q0", Datamodel.SITE_WIKIDATA).isPlaceholder());
+	}
+
+	@Test
+	public void equalityBasedOnContent() {
+		assertEquals(item1, item1);
+		assertEquals(item1, item2);
+		assertNotEquals(item1, item3);
+		assertNotEquals(item1, item4);
+		assertNotEquals(item1, prop1);
+		assertNotEquals(item1, null);
+		assertNotEquals(item1, this);
+	}
+
+	@Test
+	public void equalToStringBasedIds() {
+		assertEquals(item1, stringItem);
+		assertEquals(stringItem, item1);
+		assertEquals(prop1, stringProp);
+		assertEquals(stringProp, prop1);
+		assertNotEquals(prop1, stringItem);
+	}
+
+	@Test
+	public void hashBasedOnContent() {
+		assertEquals(item1.hashCode(), item2.hashCode());
+		assertEquals(stringItem.hashCode(), item1.hashCode());
+		assertEquals(stringProp.hashCode(), prop1.hashCode());
+	}
+
+	@Test
+	public void idHashCodeWithoutString() {
+		for (int numericId : new int[] { 0, 1, 9, 10, 99, 12345, Integer.MAX_VALUE }) {
+			CompactItemIdValueImpl item = new CompactItemIdValueImpl(numericId, Datamodel.SITE_WIKIDATA);
+			assertEquals(("Q" + numericId).hashCode(), item.getIdHashCode());
+		}
+	}
+
+	@Test
+	public void encodedIdsDifferByType() {
+		assertEquals(item1.getEncodedId(), item2.getEncodedId());
+		assertNotEquals(item1.getEncodedId(), prop1.getEncodedId());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void idValidatedForFirstLetter() {
+		new CompactItemIdValueImpl("P12345", "http://www.wikidata.org/entity/");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void idValidatedForNumber() {
+		new CompactItemIdValueImpl("Q34d23", "http://www.wikidata.org/entity/");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void numericIdNotNegative() {
+		new CompactPropertyIdValueImpl(-1, "http://www.wikidata.org/entity/");
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void baseIriNotNull() {
+		new CompactItemIdValueImpl(42, null);
+	}
+
+	@Test
+	public void testToJson() {
+		JsonComparator.compareJsonStrings(JSON_ITEM_ID_VALUE, mapper.writeValueAsString(item1));
+	}
+
+	@Test
+	public void testToString() {
+		assertEquals(stringItem.toString(), item1.toString());
+	}
+}
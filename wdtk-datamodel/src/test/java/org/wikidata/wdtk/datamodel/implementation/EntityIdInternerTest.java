@@ -0,0 +1,153 @@
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.datamodel.implementation;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Snak;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
+import org.wikidata.wdtk.datamodel.interfaces.ValueSnak;
+
+import tools.jackson.databind.DatabindException;
+import tools.jackson.databind.ObjectMapper;
+
+public class EntityIdInternerTest {
+
+	private final EntityIdInterner interner = new EntityIdInterner(16);
+
+	private final String JSON_VALUE_SNAK = "{\"snaktype\":\"value\",\"property\":\"P42\",\"datatype\":\"wikibase-item\",\"datavalue\":{\"value\":{\"id\":\"Q5\",\"numeric-id\":5,\"entity-type\":\"item\"},\"type\":\"wikibase-entityid\"}}";
+	private final String JSON_ITEM_ID_VALUE_WITHOUT_ID = "{\"type\":\"wikibase-entityid\",\"value\":{\"entity-type\":\"item\",\"numeric-id\":42}}";
+	private final String JSON_ITEM_ID_VALUE_INCONSISTENT = "{\"type\":\"wikibase-entityid\",\"value\":{\"entity-type\":\"item\",\"numeric-id\":43,\"id\":\"Q42\"}}";
+
+	@Test
+	public void testItemIdsAreReused() {
+		ItemIdValue id1 = interner.getItemIdValue("Q42", Datamodel.SITE_WIKIDATA);
+		ItemIdValue id2 = interner.getItemIdValue("Q42", Datamodel.SITE_WIKIDATA);
+		assertSame(id1, id2);
+		assertSame(id1, interner.getItemIdValue(42, Datamodel.SITE_WIKIDATA));
+		assertEquals(new ItemIdValueImpl("Q42", Datamodel.SITE_WIKIDATA), id1);
+	}
+
+	@Test
+	public void testPropertyIdsAreReused() {
+		PropertyIdValue id1 = interner.getPropertyIdValue("P31", Datamodel.SITE_WIKIDATA);
+		PropertyIdValue id2 = interner.getPropertyIdValue("P31", Datamodel.SITE_WIKIDATA);
+		assertSame(id1, id2);
+		assertEquals(new PropertyIdValueImpl("P31", Datamodel.SITE_WIKIDATA), id1);
+		assertNotSame(id1, interner.getItemIdValue("Q31", Datamodel.SITE_WIKIDATA));
+	}
+
+	@Test
+	public void testCollidingIdsAreReplaced() {
+		ItemIdValue id1 = interner.getItemIdValue("Q1", Datamodel.SITE_WIKIDATA);
+		ItemIdValue id17 = interner.getItemIdValue("Q17", Datamodel.SITE_WIKIDATA);
+		assertEquals("Q17", id17.getId());
+		ItemIdValue id1b = interner.getItemIdValue("Q1", Datamodel.SITE_WIKIDATA);
+		assertEquals(id1, id1b);
+		assertNotSame(id1, id1b);
+	}
+
+	@Test
+	public void testSiteIriIsRespected() {
+		ItemIdValue id1 = interner.getItemIdValue("Q42", Datamodel.SITE_WIKIDATA);
+		ItemIdValue id2 = interner.getItemIdValue("Q42", "http://example.org/entity/");
+		assertEquals("http://example.org/entity/", id2.getSiteIri());
+		assertNotEquals(id1, id2);
+	}
+
+	@Test
+	public void testNonCanonicalIdsAreNotCached() {
+		ItemIdValue id = interner.getItemIdValue("Q042", Datamodel.SITE_WIKIDATA);
+		assertEquals("Q042", id.getId());
+		assertNotSame(id, interner.getItemIdValue("Q042", Datamodel.SITE_WIKIDATA));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidIdIsRejected() {
+		interner.getItemIdValue("P42", Datamodel.SITE_WIKIDATA);
+	}
+
+	@Test
+	public void testDisabledInterner() {
+		assertFalse(EntityIdInterner.NONE.isEnabled());
+		ItemIdValue id1 = EntityIdInterner.NONE.getItemIdValue("Q42", Datamodel.SITE_WIKIDATA);
+		ItemIdValue id2 = EntityIdInterner.NONE.getItemIdValue(42, Datamodel.SITE_WIKIDATA);
+		assertEquals(id1, id2);
+		assertNotSame(id1, id2);
+	}
+
+	@Test
+	public void testParseNumericId() {
+		assertEquals(42, EntityIdInterner.parseNumericId("Q42", 'Q'));
+		assertEquals(Integer.MAX_VALUE, EntityIdInterner.parseNumericId("P2147483647", 'P'));
+		assertEquals(-1, EntityIdInterner.parseNumericId("P2147483648", 'P'));
+		assertEquals(-1, EntityIdInterner.parseNumericId("Q42", 'P'));
+		assertEquals(-1, EntityIdInterner.parseNumericId("Q", 'Q'));
+		assertEquals(-1, EntityIdInterner.parseNumericId("Q0", 'Q'));
+		assertEquals(-1, EntityIdInterner.parseNumericId("Q4a", 'Q'));
+	}
+
+	@Test
+	public void testFactoryUsesInterner() {
+		DataObjectFactoryImpl factory = new DataObjectFactoryImpl(interner);
+		assertSame(factory.getItemIdValue("Q5", Datamodel.SITE_WIKIDATA),
+				factory.getItemIdValue("Q5", Datamodel.SITE_WIKIDATA));
+		assertSame(factory.getPropertyIdValue("P31", Datamodel.SITE_WIKIDATA),
+				factory.getNoValueSnak(
+						factory.getPropertyIdValue("P31", Datamodel.SITE_WIKIDATA))
+						.getPropertyId());
+	}
+
+	@Test
+	public void testMapperUsesInterner() {
+		ObjectMapper mapper = new DatamodelMapper(Datamodel.SITE_WIKIDATA, interner);
+		Snak snak1 = mapper.readValue(JSON_VALUE_SNAK, SnakImpl.class);
+		Snak snak2 = mapper.readValue(JSON_VALUE_SNAK, SnakImpl.class);
+		assertEquals(snak1, snak2);
+		assertSame(snak1.getPropertyId(), snak2.getPropertyId());
+		assertSame(((ValueSnak) snak1).getValue(), ((ValueSnak) snak2).getValue());
+		assertSame(interner.getItemIdValue("Q5", Datamodel.SITE_WIKIDATA),
+				((ValueSnak) snak1).getValue());
+
+		Value value = mapper.readValue(JSON_ITEM_ID_VALUE_WITHOUT_ID, ValueImpl.class);
+		assertSame(interner.getItemIdValue("Q42", Datamodel.SITE_WIKIDATA), value);
+	}
+
+	@Test(expected = DatabindException.class)
+	public void testMapperStillValidatesIds() {
+		ObjectMapper mapper = new DatamodelMapper(Datamodel.SITE_WIKIDATA, interner);
+		mapper.readValue(JSON_ITEM_ID_VALUE_INCONSISTENT, ValueImpl.class);
+	}
+
+	@Test
+	public void testDefaultMapperDoesNotIntern() {
+		ObjectMapper mapper = new DatamodelMapper(Datamodel.SITE_WIKIDATA);
+		Snak snak1 = mapper.readValue(JSON_VALUE_SNAK, SnakImpl.class);
+		Snak snak2 = mapper.readValue(JSON_VALUE_SNAK, SnakImpl.class);
+		assertEquals(snak1, snak2);
+		assertNotSame(snak1.getPropertyId(), snak2.getPropertyId());
+	}
+}
@@ -23,7 +23,9 @@ package org.wikidata.wdtk.datamodel.implementation;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 
@@ -32,6 +34,7 @@ import org.wikidata.wdtk.datamodel.helpers.Datamodel;
 import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
 import org.wikidata.wdtk.datamodel.interfaces.Claim;
 import org.wikidata.wdtk.datamodel.interfaces.DatatypeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.DocumentDataFilter;
 import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
 import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
@@ -77,6 +80,13 @@ public class ItemDocumentImplTest {
 	private final String JSON_ITEM_ALIASES = "{\"type\":\"item\",\"id\":\"Q42\",\"labels\":{},\"descriptions\":{},\"aliases\":{\"de\":[{\"language\":\"de\",\"value\":\"alias\"}]},\"claims\":{},\"sitelinks\":{}}";
 	private final String JSON_ITEM_STATEMENTS = "{\"type\":\"item\",\"id\":\"Q42\",\"labels\":{},\"descriptions\":{},\"aliases\":{},\"claims\":{\"P42\":[{\"rank\":\"normal\",\"id\":\"MyId\",\"mainsnak\":{\"property\":\"P42\",\"snaktype\":\"somevalue\"},\"type\":\"statement\"}]},\"sitelinks\":{}}";
 	private final String JSON_ITEM_SITELINKS = "{\"type\":\"item\",\"id\":\"Q42\",\"labels\":{},\"descriptions\":{},\"aliases\":{},\"claims\":{},\"sitelinks\":{\"enwiki\":{\"title\":\"Douglas Adams\",\"site\":\"enwiki\",\"badges\":[]}}}";
+	private final String JSON_ITEM_UNFILTERED = "{\"type\":\"item\",\"id\":\"Q42\",\"lastrevid\":1234,"
+			+ "\"labels\":{\"en\":{\"language\":\"en\",\"value\":\"label\"},\"it\":{\"language\":\"it\",\"value\":\"etichetta\"}},"
+			+ "\"descriptions\":{\"it\":{\"language\":\"it\",\"value\":\"descrizione\"},\"fr\":{\"language\":\"fr\",\"value\":\"des\"}},"
+			+ "\"aliases\":{\"de\":[{\"language\":\"de\",\"value\":\"alias\"}],\"it\":[{\"language\":\"it\",\"value\":\"alias\"}]},"
+			+ "\"claims\":{\"P31\":[{\"rank\":\"normal\",\"id\":\"OtherId\",\"mainsnak\":{\"property\":\"P31\",\"snaktype\":\"novalue\"},\"type\":\"statement\"}],"
+			+ "\"P42\":[{\"rank\":\"normal\",\"id\":\"MyId\",\"mainsnak\":{\"property\":\"P42\",\"snaktype\":\"somevalue\"},\"type\":\"statement\"}]},"
+			+ "\"sitelinks\":{\"itwiki\":{\"title\":\"Douglas Adams\",\"site\":\"itwiki\",\"badges\":[\"Q17437796\"]},\"enwiki\":{\"title\":\"Douglas Adams\",\"site\":\"enwiki\",\"badges\":[]}}}";
 	private final String JSON_ITEM_EMPTY_ARRAYS = "{\"type\":\"item\",\"id\":\"Q42\",\"labels\":[],\"descriptions\":[],\"aliases\":[],\"claims\":[],\"sitelinks\":[]}";
 
 	@Test
@@ -408,6 +418,64 @@ public class ItemDocumentImplTest {
 		);
 	}
 
+	@Test
+	public void testFilteredDeserialization() {
+		DocumentDataFilter filter = new DocumentDataFilter();
+		filter.setLanguageFilter(new HashSet<>(Arrays.asList("en", "fr", "de")));
+		filter.setPropertyFilter(Collections.singleton(
+				new PropertyIdValueImpl("P42", "http://example.com/entity/")));
+		filter.setSiteLinkFilter(Collections.singleton("enwiki"));
+		ObjectMapper filteringMapper = new DatamodelMapper(
+				"http://example.com/entity/", EntityIdInterner.NONE, filter);
+
+		assertEquals(ir1, filteringMapper.readValue(JSON_ITEM_UNFILTERED, EntityDocumentImpl.class));
+	}
+
+	@Test
+	public void testFilteredDeserializationComparesSites() {
+		DocumentDataFilter filter = new DocumentDataFilter();
+		filter.setPropertyFilter(Collections.singleton(
+				new PropertyIdValueImpl("P42", "http://example.org/other/")));
+		ObjectMapper filteringMapper = new DatamodelMapper(
+				"http://example.com/entity/", EntityIdInterner.NONE, filter);
+
+		ItemDocument document = (ItemDocument) filteringMapper.readValue(
+				JSON_ITEM_UNFILTERED, EntityDocumentImpl.class);
+		assertTrue(document.getStatementGroups().isEmpty());
+
+		// changed filters are taken into account
+		filter.setPropertyFilter(Collections.singleton(
+				new PropertyIdValueImpl("P42", "http://example.com/entity/")));
+		filteringMapper = new DatamodelMapper("http://example.com/entity/",
+				EntityIdInterner.NONE, filter);
+		document = (ItemDocument) filteringMapper.readValue(
+				JSON_ITEM_UNFILTERED, EntityDocumentImpl.class);
+		assertEquals(1, document.getStatementGroups().size());
+	}
+
+	@Test
+	public void testFilteredDeserializationExcludingAll() {
+		DocumentDataFilter filter = new DocumentDataFilter();
+		filter.setLanguageFilter(Collections.emptySet());
+		filter.setPropertyFilter(Collections.emptySet());
+		filter.setSiteLinkFilter(Collections.emptySet());
+		ObjectMapper filteringMapper = new DatamodelMapper(
+				"http://example.com/entity/", EntityIdInterner.NONE, filter);
+
+		ItemDocumentImpl document = new ItemDocumentImpl(iid,
+				Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+				Collections.emptyList(), Collections.emptyList(), 1234);
+		assertEquals(document, filteringMapper.readValue(JSON_ITEM_UNFILTERED, ItemDocumentImpl.class));
+	}
+
+	@Test
+	public void testDefaultMapperDoesNotFilter() {
+		ItemDocument document = (ItemDocument) mapper.readValue(JSON_ITEM_UNFILTERED, EntityDocumentImpl.class);
+		assertEquals(2, document.getLabels().size());
+		assertEquals(2, document.getStatementGroups().size());
+		assertEquals(2, document.getSiteLinks().size());
+	}
+
 	@Test
 	public void testGetJsonId() {
 		ItemDocument item = Datamodel.makeItemDocument(
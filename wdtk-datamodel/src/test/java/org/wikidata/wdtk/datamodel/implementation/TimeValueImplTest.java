@@ -150,6 +150,70 @@ public class TimeValueImplTest {
 		assertEquals(t1, mapper.readValue(JSON_TIME_VALUE, ValueImpl.class));
 	}
 
+	private TimeValue parse(String time) {
+		return (TimeValue) mapper.readValue("{\"value\":{\"time\":\"" + time
+				+ "\",\"timezone\":0,\"before\":0,\"after\":0,\"precision\":11,"
+				+ "\"calendarmodel\":\"" + TimeValue.CM_GREGORIAN_PRO
+				+ "\"},\"type\":\"time\"}", ValueImpl.class);
+	}
+
+	private String format(long year, int month, int day, int hour, int minute, int second) {
+		return new TimeValueImpl(year, (byte) month, (byte) day, (byte) hour,
+				(byte) minute, (byte) second, TimeValue.PREC_SECOND, 0, 0, 0,
+				TimeValue.CM_GREGORIAN_PRO).getValue().getTime();
+	}
+
+	private void assertTime(TimeValue value, long year, int month, int day,
+			int hour, int minute, int second) {
+		assertEquals(year, value.getYear());
+		assertEquals(month, value.getMonth());
+		assertEquals(day, value.getDay());
+		assertEquals(hour, value.getHour());
+		assertEquals(minute, value.getMinute());
+		assertEquals(second, value.getSecond());
+	}
+
+	@Test
+	public void parseTimeStrings() {
+		assertTime(parse("+2013-10-28T01:02:03Z"), 2013, 10, 28, 1, 2, 3);
+		assertTime(parse("-0044-03-15T00:00:00Z"), -44, 3, 15, 0, 0, 0);
+		assertTime(parse("+00000001879-03-14T00:00:00Z"), 1879, 3, 14, 0, 0, 0);
+		assertTime(parse("-13798000000-00-00T00:00:00Z"), -13798000000L, 0, 0, 0, 0, 0);
+		assertTime(parse("1999-12-31T23:59:60Z"), 1999, 12, 31, 23, 59, 60);
+	}
+
+	@Test
+	public void parseIrregularTimeStrings() {
+		assertTime(parse("+2013-1-5T1:2:3Z"), 2013, 1, 5, 1, 2, 3);
+		assertTime(parse("+2013-01-05T01:02:03"), 2013, 1, 5, 1, 2, 3);
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void parseMalformedTimeString() {
+		new TimeValueImpl.JacksonInnerTime("+2013-01-05 01:02:03Z", 0, 0, 0,
+				TimeValue.PREC_SECOND, TimeValue.CM_GREGORIAN_PRO);
+	}
+
+	@Test
+	public void formatTimeStrings() {
+		assertEquals("+2013-10-28T01:02:03Z", format(2013, 10, 28, 1, 2, 3));
+		assertEquals("+000-01-01T00:00:00Z", format(0, 1, 1, 0, 0, 0));
+		assertEquals("+005-01-01T00:00:00Z", format(5, 1, 1, 0, 0, 0));
+		assertEquals("-044-03-15T00:00:00Z", format(-44, 3, 15, 0, 0, 0));
+		assertEquals("-13798000000-00-00T00:00:00Z", format(-13798000000L, 0, 0, 0, 0, 0));
+		assertEquals("+2013-01-01T00:00:-1Z", format(2013, 1, 1, 0, 0, -1));
+	}
+
+	@Test
+	public void formatAndParseAgree() {
+		long[] years = { Long.MAX_VALUE, -Long.MAX_VALUE, -13798000000L, -1, 0, 7, 99, 100, 2013 };
+		for (long year : years) {
+			String time = format(year, 12, 31, 23, 59, 60);
+			assertEquals(String.format("%+04d-12-31T23:59:60Z", year), time);
+			assertTime(parse(time), year, 12, 31, 23, 59, 60);
+		}
+	}
+
 	@Test
 	public void testJulianToGregorian() {
 		final TimeValue tJulian = new TimeValueImpl(1143, (byte)10, (byte) 5, (byte) 1, (byte) 2,
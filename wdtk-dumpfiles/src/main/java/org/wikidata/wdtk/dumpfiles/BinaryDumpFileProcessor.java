@@ -0,0 +1,108 @@
+package org.wikidata.wdtk.dumpfiles;
+
+/*
+ * #%L
+ * Wikidata Toolkit Dump File Handling
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.helpers.BinaryDeserializer;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+
+/**
+ * Processor for binary snapshots of entity documents, as written by
+ * {@link org.wikidata.wdtk.datamodel.helpers.BinarySerializer}. Reading such
+ * a snapshot is much faster than parsing a JSON dump, so it can be worth
+ * creating one when the same data is processed several times.
+ */
+public class BinaryDumpFileProcessor implements MwDumpFileProcessor {
+
+	static final Logger logger = LoggerFactory
+			.getLogger(BinaryDumpFileProcessor.class);
+
+	/**
+	 * Size of the buffer for reading the dump.
+	 */
+	static final int BUFFER_SIZE = 1 << 16;
+
+	private final EntityDocumentProcessor entityDocumentProcessor;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param entityDocumentProcessor
+	 *            the processor that documents are reported to
+	 */
+	public BinaryDumpFileProcessor(
+			EntityDocumentProcessor entityDocumentProcessor) {
+		this.entityDocumentProcessor = entityDocumentProcessor;
+	}
+
+	@Override
+	public void processDumpFileContents(InputStream inputStream,
+			MwDumpFile dumpFile) {
+
+		logger.info("Processing binary dump file " + dumpFile.toString());
+
+		// the deserializer reads record headers byte by byte
+		BinaryDeserializer deserializer = new BinaryDeserializer(
+				new BufferedInputStream(inputStream, BUFFER_SIZE));
+		try {
+			EntityDocument document = deserializer.next();
+			while (document != null) {
+				handleDocument(document);
+				document = deserializer.next();
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Cannot read binary input: "
+					+ e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Calls the processing method that fits the type of the given document.
+	 *
+	 * @param document
+	 *            the document to process
+	 */
+	private void handleDocument(EntityDocument document) {
+		if (document instanceof ItemDocument) {
+			this.entityDocumentProcessor
+					.processItemDocument((ItemDocument) document);
+		} else if (document instanceof PropertyDocument) {
+			this.entityDocumentProcessor
+					.processPropertyDocument((PropertyDocument) document);
+		} else if (document instanceof LexemeDocument) {
+			this.entityDocumentProcessor
+					.processLexemeDocument((LexemeDocument) document);
+		} else if (document instanceof MediaInfoDocument) {
+			this.entityDocumentProcessor
+					.processMediaInfoDocument((MediaInfoDocument) document);
+		}
+	}
+}
@@ -28,5 +28,11 @@ package org.wikidata.wdtk.dumpfiles;
  * 
  */
 public enum DumpContentType {
-	DAILY, CURRENT, FULL, SITES, JSON
+	DAILY, CURRENT, FULL, SITES, JSON,
+	/**
+	 * Binary snapshot of entity documents as written by
+	 * {@link org.wikidata.wdtk.datamodel.helpers.BinarySerializer}. Such files
+	 * are not published online but can be created locally from other dumps.
+	 */
+	BINARY
 }
\ No newline at end of file
@@ -33,15 +33,20 @@ import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.implementation.EntityIdInterner;
 import org.wikidata.wdtk.datamodel.interfaces.DocumentDataFilter;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessorBroker;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessorFilter;
 import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.Sites;
+import org.wikidata.wdtk.dumpfiles.wmf.WmfDumpFile;
 import org.wikidata.wdtk.dumpfiles.wmf.WmfDumpFileManager;
+import org.wikidata.wdtk.dumpfiles.wmf.WmfOnlineStandardDumpFile;
 import org.wikidata.wdtk.util.DirectoryManager;
 import org.wikidata.wdtk.util.DirectoryManagerFactory;
+import org.wikidata.wdtk.util.RangeRequestDownloader;
 import org.wikidata.wdtk.util.WebResourceFetcher;
 import org.wikidata.wdtk.util.WebResourceFetcherImpl;
 
@@ -182,6 +187,39 @@ public class DumpProcessingController {
 
 	final DocumentDataFilter filter = new DocumentDataFilter();
 
+	/**
+	 * Number of threads used for parsing JSON dumps and the JSON content of
+	 * revision dumps.
+	 */
+	int parserThreadCount = 1;
+
+	/**
+	 * Should entity documents from JSON dumps be reported in the order of the
+	 * dump when parsing with several threads?
+	 */
+	boolean preserveDocumentOrder = true;
+
+	/**
+	 * Should item and property ids in JSON dumps be reused across documents?
+	 */
+	boolean internEntityIds = false;
+
+	/**
+	 * Should dumps be processed while they are downloaded?
+	 */
+	boolean processWhileDownloading = false;
+
+	/**
+	 * Should dump files be decompressed on several threads?
+	 */
+	boolean parallelDecompression = false;
+
+	/**
+	 * Downloader for parallel range requests, or null if dumps should be
+	 * downloaded with a single request.
+	 */
+	RangeRequestDownloader rangeRequestDownloader = null;
+
 	/**
 	 * Creates a new DumpFileProcessingController for the project of the given
 	 * name. By default, the dump file directory will be assumed to be in the
@@ -274,6 +312,111 @@ public class DumpProcessingController {
 		this.filter.setLanguageFilter(languageFilter);
 	}
 
+	/**
+	 * Sets the number of threads that are used to parse JSON dumps. By
+	 * default, a single thread is used for reading and parsing. With larger
+	 * values, one thread splits the dump into lines while the given number of
+	 * worker threads deserialize them. Registered processors are still called
+	 * from a single thread.
+	 * <p>
+	 * The setting also applies to the entity documents in revision dumps: the
+	 * XML is read on one thread, while the JSON of the revisions is
+	 * deserialized by the worker threads. Documents are always reported in
+	 * the order of the dump in this case.
+	 *
+	 * @see JsonDumpFileProcessor
+	 * @see WikibaseRevisionProcessor
+	 * @param parserThreadCount
+	 *            the number of parser threads; must be positive
+	 */
+	public void setParserThreadCount(int parserThreadCount) {
+		if (parserThreadCount < 1) {
+			throw new IllegalArgumentException(
+					"The number of parser threads must be positive.");
+		}
+		this.parserThreadCount = parserThreadCount;
+	}
+
+	/**
+	 * Sets whether entity documents of JSON dumps should be reported to the
+	 * registered processors in the order of the dump. This is the default.
+	 * This setting only matters if more than one parser thread is used (see
+	 * {@link #setParserThreadCount(int)}). Not preserving the order can
+	 * improve throughput when documents vary a lot in size.
+	 *
+	 * @param preserveDocumentOrder
+	 *            true if the order of the dump should be preserved
+	 */
+	public void setPreserveDocumentOrder(boolean preserveDocumentOrder) {
+		this.preserveDocumentOrder = preserveDocumentOrder;
+	}
+
+	/**
+	 * Sets whether item and property id objects should be shared between all
+	 * entity documents read from JSON dumps. This considerably reduces the
+	 * number of objects that are created when processing a dump, but the
+	 * shared objects remain in memory as long as they are cached. Disabled by
+	 * default.
+	 *
+	 * @see EntityIdInterner
+	 * @param internEntityIds
+	 *            true if id objects should be shared
+	 */
+	public void setEntityIdInterning(boolean internEntityIds) {
+		this.internEntityIds = internEntityIds;
+	}
+
+	/**
+	 * Sets whether dumps that need to be downloaded should be processed while
+	 * the download is still running. The downloaded data is then decompressed
+	 * and passed to the processors as it arrives, and it is stored on disk at
+	 * the same time, so that later runs can use the local file. This way, a
+	 * new dump is processed in about the time it takes to download it.
+	 * Disabled by default.
+	 * <p>
+	 * The download is only stored if the dump is processed to its end. If
+	 * processing fails or is stopped, the dump is downloaded again the next
+	 * time. In this mode, dumps are downloaded with a single request, and
+	 * their checksums are not verified.
+	 *
+	 * @see MwDumpFile#getDumpFileStreamWhileDownloading()
+	 * @param processWhileDownloading
+	 *            true if dumps should be processed during their download
+	 */
+	public void setProcessWhileDownloading(boolean processWhileDownloading) {
+		this.processWhileDownloading = processWhileDownloading;
+	}
+
+	/**
+	 * Sets whether the dump files that are found by this controller should be
+	 * decompressed on several threads. Disabled by default, since it uses more
+	 * threads and more memory. Dump files that are given to
+	 * {@link #processDump(MwDumpFile)} directly are not affected.
+	 *
+	 * @see WmfDumpFile#setParallelDecompression(boolean)
+	 * @param parallelDecompression
+	 *            true if parallel decompression should be used
+	 */
+	public void setParallelDecompression(boolean parallelDecompression) {
+		this.parallelDecompression = parallelDecompression;
+	}
+
+	/**
+	 * Sets a downloader that fetches dumps with parallel range requests. It
+	 * resumes interrupted downloads and verifies the published MD5 checksums.
+	 * It is not used by default, and it is not used for daily dumps, JSON
+	 * dumps, or when dumps are processed while they are downloaded.
+	 *
+	 * @see WmfOnlineStandardDumpFile#setRangeRequestDownloader(RangeRequestDownloader)
+	 * @param rangeRequestDownloader
+	 *            the downloader to use, or null to fetch dumps with a single
+	 *            request
+	 */
+	public void setRangeRequestDownloader(
+			RangeRequestDownloader rangeRequestDownloader) {
+		this.rangeRequestDownloader = rangeRequestDownloader;
+	}
+
 	/**
 	 * Registers an MwRevisionProcessor, which will henceforth be notified of
 	 * all revisions that are encountered in the dump.
@@ -428,8 +571,8 @@ public class DumpProcessingController {
 
 	/**
 	 * Processes the contents of the given dump file. All registered processor
-	 * objects will be notified of all data. Note that JSON dumps do not
-	 * contains any revision information, so that registered
+	 * objects will be notified of all data. Note that JSON dumps and binary
+	 * snapshots do not contain any revision information, so that registered
 	 * {@link MwRevisionProcessor} objects will not be notified in this case.
 	 * Dumps of type {@link DumpContentType#SITES} cannot be processed with this
 	 * method; use {@link #getSitesInformation()} to process these dumps.
@@ -453,6 +596,9 @@ public class DumpProcessingController {
 		case JSON:
 			dumpFileProcessor = getJsonDumpFileProcessor();
 			break;
+		case BINARY:
+			dumpFileProcessor = getBinaryDumpFileProcessor();
+			break;
 		case SITES:
 		default:
 			logger.error("Dumps of type " + dumpFile.getDumpContentType()
@@ -499,7 +645,9 @@ public class DumpProcessingController {
 	void processDumpFile(MwDumpFile dumpFile,
 			MwDumpFileProcessor dumpFileProcessor) 
 					throws IOException, FileAlreadyExistsException {
-		try (InputStream inputStream = dumpFile.getDumpFileStream()) {
+		try (InputStream inputStream = this.processWhileDownloading ? dumpFile
+				.getDumpFileStreamWhileDownloading() : dumpFile
+				.getDumpFileStream()) {
 			dumpFileProcessor.processDumpFileContents(inputStream, dumpFile);
 		} catch (FileAlreadyExistsException e) {
 			String errorMessage = "Dump file "
@@ -530,8 +678,12 @@ public class DumpProcessingController {
 	 */
 	public WmfDumpFileManager getWmfDumpFileManager() {
 		try {
-			return new WmfDumpFileManager(this.projectName,
-					this.downloadDirectoryManager, this.webResourceFetcher);
+			WmfDumpFileManager wmfDumpFileManager = new WmfDumpFileManager(
+					this.projectName, this.downloadDirectoryManager,
+					this.webResourceFetcher);
+			wmfDumpFileManager.setParallelDecompression(this.parallelDecompression);
+			wmfDumpFileManager.setRangeRequestDownloader(this.rangeRequestDownloader);
+			return wmfDumpFileManager;
 		} catch (IOException e) {
 			logger.error("Could not create dump file manager: " + e.toString());
 			return null;
@@ -550,13 +702,30 @@ public class DumpProcessingController {
 
 	/**
 	 * Return the main dump file processor that should be used to process the
-	 * content of JSON dumps.
+	 * content of JSON dumps. Filters are already applied while parsing, so
+	 * that excluded data of items and properties is never deserialized. The
+	 * remaining filtering of other kinds of documents is done by the master
+	 * processor.
 	 *
 	 * @return the main MwDumpFileProcessor for JSON
 	 */
 	MwDumpFileProcessor getJsonDumpFileProcessor() {
+		EntityIdInterner entityIdInterner = this.internEntityIds
+				? new EntityIdInterner() : EntityIdInterner.NONE;
 		return new JsonDumpFileProcessor(getMasterEntityDocumentProcessor(),
-				Datamodel.SITE_WIKIDATA);
+				new DatamodelMapper(Datamodel.SITE_WIKIDATA, entityIdInterner,
+						this.filter),
+				this.parserThreadCount, this.preserveDocumentOrder);
+	}
+
+	/**
+	 * Return the main dump file processor that should be used to process
+	 * binary snapshots of entity documents.
+	 *
+	 * @return the main MwDumpFileProcessor for binary snapshots
+	 */
+	MwDumpFileProcessor getBinaryDumpFileProcessor() {
+		return new BinaryDumpFileProcessor(getMasterEntityDocumentProcessor());
 	}
 
 	/**
@@ -672,8 +841,9 @@ public class DumpProcessingController {
 
 			result.registerMwRevisionProcessor(new WikibaseRevisionProcessor(
 					filterEntityDocumentProcessor(resultEdp),
-					Datamodel.SITE_WIKIDATA), edpEntry.getKey().model, edpEntry
-					.getKey().onlyCurrentRevisions);
+					Datamodel.SITE_WIKIDATA, this.parserThreadCount),
+					edpEntry.getKey().model,
+					edpEntry.getKey().onlyCurrentRevisions);
 		}
 
 		return result;
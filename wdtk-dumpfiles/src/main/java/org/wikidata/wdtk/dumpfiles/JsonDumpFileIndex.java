@@ -0,0 +1,583 @@
+package org.wikidata.wdtk.dumpfiles;
+
+/*
+ * #%L
+ * Wikidata Toolkit Dump File Handling
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+
+import org.wikidata.wdtk.util.CompressionType;
+import org.wikidata.wdtk.util.DirectoryManager;
+import org.wikidata.wdtk.util.ParallelBZip2InputStream;
+
+/**
+ * Index for random access to the entities of a JSON dump file. The index is
+ * stored in a side file next to the dump, whose name is the name of the dump
+ * file with the suffix {@link #INDEX_FILE_SUFFIX}.
+ * <p>
+ * The index consists of checkpoints, each of which stores the number of an
+ * entity (counting the entities in the dump from 0), the position of the
+ * compressed block that contains the start of this entity's line, and the
+ * position of this line within the decompressed block:
+ * <ul>
+ * <li>For uncompressed dumps, there is one checkpoint for every entity, and
+ * the inner position is the byte offset of the line in the file.</li>
+ * <li>For bzip2 dumps, there is one checkpoint for the first entity that
+ * starts in each bzip2 block. The block position is given in bits. Reading
+ * can start directly at the block, without decompressing any earlier
+ * data.</li>
+ * <li>Gzip dumps can only be decompressed from their start. There is one
+ * checkpoint for every entity, giving the offset of the line in the
+ * decompressed data, so that the data before can at least be skipped without
+ * looking for line ends.</li>
+ * </ul>
+ * Checkpoints are stored as records of fixed size, so they can be found
+ * without loading the whole index into memory.
+ */
+public class JsonDumpFileIndex {
+
+	/**
+	 * Suffix that is appended to the name of the dump file to get the name of
+	 * the index file.
+	 */
+	public static final String INDEX_FILE_SUFFIX = ".idx";
+
+	static final long MAGIC = 0x5744544b49445831L; // "WDTKIDX1"
+
+	static final int HEADER_SIZE = 8 + 4 + 8 + 8;
+	static final int CHECKPOINT_SIZE = 3 * 8;
+
+	/**
+	 * Codes for the compression of the dump, as stored in the index header.
+	 * These are independent of the order of the constants of
+	 * {@link CompressionType}.
+	 */
+	static final int COMPRESSION_CODE_NONE = 0;
+	static final int COMPRESSION_CODE_GZIP = 1;
+	static final int COMPRESSION_CODE_BZ2 = 2;
+
+	/**
+	 * Size of the buffer used by {@link ShardInputStream}.
+	 */
+	static final int SHARD_BUFFER_SIZE = 1 << 16;
+
+	static final byte[] SHARD_START = "[\n".getBytes(StandardCharsets.UTF_8);
+	static final byte[] SHARD_END = "]\n".getBytes(StandardCharsets.UTF_8);
+
+	/**
+	 * Number of threads used to decompress a shard of a bzip2 dump.
+	 */
+	static final int SHARD_DECOMPRESSION_THREADS = 2;
+
+	final DirectoryManager directoryManager;
+	final String dumpFileName;
+	final CompressionType compressionType;
+	final long entityCount;
+	final long checkpointCount;
+
+	/**
+	 * Constructor. Use {@link #open(DirectoryManager, String)} to read an
+	 * existing index.
+	 */
+	JsonDumpFileIndex(DirectoryManager directoryManager, String dumpFileName,
+			CompressionType compressionType, long entityCount,
+			long checkpointCount) {
+		this.directoryManager = directoryManager;
+		this.dumpFileName = dumpFileName;
+		this.compressionType = compressionType;
+		this.entityCount = entityCount;
+		this.checkpointCount = checkpointCount;
+	}
+
+	/**
+	 * Returns the name of the index file for the given dump file.
+	 *
+	 * @param dumpFileName
+	 *            the name of the dump file
+	 * @return the name of the index file
+	 */
+	public static String getIndexFileName(String dumpFileName) {
+		return dumpFileName + INDEX_FILE_SUFFIX;
+	}
+
+	/**
+	 * Reads the index of the given dump file. Only the header of the index is
+	 * read at this point. The directory manager must support
+	 * {@link DirectoryManager#getSeekableByteChannelForFile(String, boolean)}.
+	 *
+	 * @param directoryManager
+	 *            the directory manager for the directory of the dump
+	 * @param dumpFileName
+	 *            the name of the dump file
+	 * @return the index
+	 * @throws IOException
+	 *             if the index file could not be read or is not valid
+	 */
+	public static JsonDumpFileIndex open(DirectoryManager directoryManager,
+			String dumpFileName) throws IOException {
+		try (DataInputStream in = new DataInputStream(
+				directoryManager.getInputStreamForFile(
+						getIndexFileName(dumpFileName), CompressionType.NONE))) {
+			if (in.readLong() != MAGIC) {
+				throw new IOException("File "
+						+ getIndexFileName(dumpFileName)
+						+ " is not a dump file index.");
+			}
+			CompressionType compressionType = getCompressionType(in.readInt());
+			long entityCount = in.readLong();
+			long checkpointCount = in.readLong();
+			return new JsonDumpFileIndex(directoryManager, dumpFileName,
+					compressionType, entityCount, checkpointCount);
+		}
+	}
+
+	/**
+	 * Reads the given dump file once and stores its index in a side file in
+	 * the same directory.
+	 *
+	 * @param directoryManager
+	 *            the directory manager for the directory of the dump; must
+	 *            not be read-only, and must support
+	 *            {@link DirectoryManager#getSeekableByteChannelForFile(String, boolean)}
+	 * @param dumpFileName
+	 *            the name of the dump file
+	 * @param compressionType
+	 *            the compression of the dump file, which may be
+	 *            {@link CompressionType#NONE}, {@link CompressionType#GZIP} or
+	 *            {@link CompressionType#BZ2} (or their parallel variants)
+	 * @return the new index
+	 * @throws IOException
+	 *             if the dump could not be read or the index could not be
+	 *             written
+	 */
+	public static JsonDumpFileIndex build(DirectoryManager directoryManager,
+			String dumpFileName, CompressionType compressionType)
+			throws IOException {
+		CompressionType baseType = getBaseCompressionType(compressionType);
+		IndexBuilder builder = new IndexBuilder();
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(directoryManager
+						.getOutputStreamForFile(getIndexFileName(dumpFileName))))) {
+			// Counts are not known yet; overwritten below
+			writeHeader(out, baseType, 0, 0);
+			builder.out = out;
+
+			InputStream in;
+			if (baseType == CompressionType.BZ2) {
+				ParallelBZip2InputStream bzip2In = new ParallelBZip2InputStream(
+						directoryManager.getInputStreamForFile(dumpFileName,
+								CompressionType.NONE));
+				bzip2In.setBlockListener(builder);
+				in = bzip2In;
+			} else {
+				builder.blockStarted(0, 0);
+				in = directoryManager.getInputStreamForFile(dumpFileName,
+						baseType);
+				builder.checkpointEveryLine = true;
+			}
+
+			try (InputStream dumpIn = new BufferedInputStream(in, 1 << 16)) {
+				builder.readLines(dumpIn);
+			}
+		}
+
+		// Write the final header in place:
+		ByteArrayOutputStream header = new ByteArrayOutputStream(HEADER_SIZE);
+		writeHeader(new DataOutputStream(header), baseType,
+				builder.entityCount, builder.checkpointCount);
+		try (SeekableByteChannel channel = directoryManager
+				.getSeekableByteChannelForFile(getIndexFileName(dumpFileName),
+						true)) {
+			channel.position(0);
+			writeFully(channel, ByteBuffer.wrap(header.toByteArray()));
+		}
+
+		return new JsonDumpFileIndex(directoryManager, dumpFileName, baseType,
+				builder.entityCount, builder.checkpointCount);
+	}
+
+	/**
+	 * Returns the number of entities in the dump.
+	 *
+	 * @return number of entities
+	 */
+	public long getEntityCount() {
+		return this.entityCount;
+	}
+
+	/**
+	 * Returns a stream with the JSON serialization of the entities in the
+	 * given range. The stream has the same format as the dump itself (a JSON
+	 * list with one entity per line), so it can be processed by a
+	 * {@link JsonDumpFileProcessor}. Indices that are larger than the number
+	 * of entities are ignored.
+	 *
+	 * @param fromEntity
+	 *            the index of the first entity to read (inclusive)
+	 * @param toEntity
+	 *            the index of the last entity to read (exclusive)
+	 * @return the stream with the entities
+	 * @throws IOException
+	 *             if the dump or the index could not be read
+	 */
+	public InputStream getShardStream(long fromEntity, long toEntity)
+			throws IOException {
+		if (fromEntity < 0 || toEntity < fromEntity) {
+			throw new IllegalArgumentException("Invalid entity range ["
+					+ fromEntity + "," + toEntity + ")");
+		}
+		long from = Math.min(fromEntity, this.entityCount);
+		long to = Math.min(toEntity, this.entityCount);
+		if (from == to) {
+			return new ShardInputStream(InputStream.nullInputStream(), 0, 0);
+		}
+
+		long[] checkpoint = findCheckpoint(from);
+		InputStream in;
+		if (this.compressionType == CompressionType.BZ2) {
+			in = ParallelBZip2InputStream.openAtBlock(
+					this.directoryManager.getInputStreamForFile(
+							this.dumpFileName, CompressionType.NONE),
+					checkpoint[1], SHARD_DECOMPRESSION_THREADS);
+		} else {
+			in = this.directoryManager.getInputStreamForFile(
+					this.dumpFileName, this.compressionType);
+		}
+		in = new BufferedInputStream(in, 1 << 16);
+		skipFully(in, checkpoint[2]);
+
+		return new ShardInputStream(in, from - checkpoint[0], to - from);
+	}
+
+	/**
+	 * Finds the last checkpoint for an entity that is not after the given
+	 * entity, using binary search on the index file.
+	 *
+	 * @param entity
+	 *            the index of the entity
+	 * @return the checkpoint as an array of entity index, block position, and
+	 *         position within the block
+	 * @throws IOException
+	 *             if the index could not be read
+	 */
+	long[] findCheckpoint(long entity) throws IOException {
+		try (SeekableByteChannel channel = this.directoryManager
+				.getSeekableByteChannelForFile(
+						getIndexFileName(this.dumpFileName), false)) {
+			ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_SIZE);
+			long low = 0;
+			long high = this.checkpointCount - 1;
+			long[] result = readCheckpoint(channel, buffer, 0);
+			while (low < high) {
+				long middle = (low + high + 1) / 2;
+				long[] checkpoint = readCheckpoint(channel, buffer, middle);
+				if (checkpoint[0] <= entity) {
+					low = middle;
+					result = checkpoint;
+				} else {
+					high = middle - 1;
+				}
+			}
+			return result;
+		}
+	}
+
+	static long[] readCheckpoint(SeekableByteChannel channel,
+			ByteBuffer buffer, long number) throws IOException {
+		channel.position(HEADER_SIZE + number * CHECKPOINT_SIZE);
+		buffer.clear();
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new EOFException("Unexpected end of index file.");
+			}
+		}
+		buffer.flip();
+		return new long[] { buffer.getLong(), buffer.getLong(),
+				buffer.getLong() };
+	}
+
+	static void writeFully(SeekableByteChannel channel, ByteBuffer buffer)
+			throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	static void writeHeader(DataOutputStream out,
+			CompressionType compressionType, long entityCount,
+			long checkpointCount) throws IOException {
+		out.writeLong(MAGIC);
+		out.writeInt(getCompressionCode(compressionType));
+		out.writeLong(entityCount);
+		out.writeLong(checkpointCount);
+	}
+
+	static int getCompressionCode(CompressionType compressionType) {
+		switch (getBaseCompressionType(compressionType)) {
+		case GZIP:
+			return COMPRESSION_CODE_GZIP;
+		case BZ2:
+			return COMPRESSION_CODE_BZ2;
+		default:
+			return COMPRESSION_CODE_NONE;
+		}
+	}
+
+	static CompressionType getCompressionType(int compressionCode)
+			throws IOException {
+		switch (compressionCode) {
+		case COMPRESSION_CODE_NONE:
+			return CompressionType.NONE;
+		case COMPRESSION_CODE_GZIP:
+			return CompressionType.GZIP;
+		case COMPRESSION_CODE_BZ2:
+			return CompressionType.BZ2;
+		default:
+			throw new IOException("Unknown compression code "
+					+ compressionCode + " in dump file index.");
+		}
+	}
+
+	static CompressionType getBaseCompressionType(
+			CompressionType compressionType) {
+		switch (compressionType) {
+		case BZ2:
+		case BZ2_PARALLEL:
+			return CompressionType.BZ2;
+		case GZIP:
+		case GZIP_PARALLEL:
+			return CompressionType.GZIP;
+		default:
+			return CompressionType.NONE;
+		}
+	}
+
+	static void skipFully(InputStream in, long count) throws IOException {
+		long toSkip = count;
+		while (toSkip > 0) {
+			long skipped = in.skip(toSkip);
+			if (skipped <= 0) {
+				if (in.read() < 0) {
+					throw new EOFException("Unexpected end of file.");
+				}
+				skipped = 1;
+			}
+			toSkip -= skipped;
+		}
+	}
+
+	/**
+	 * Helper that reads the decompressed lines of a dump and writes
+	 * checkpoints for the positions of the entities.
+	 */
+	static class IndexBuilder implements ParallelBZip2InputStream.BlockListener {
+
+		DataOutputStream out;
+		boolean checkpointEveryLine = false;
+
+		/**
+		 * Blocks that were started but for which no checkpoint was written
+		 * yet, as pairs of compressed position and decompressed offset.
+		 */
+		final ArrayDeque<long[]> pendingBlocks = new ArrayDeque<>();
+
+		long entityCount = 0;
+		long checkpointCount = 0;
+
+		@Override
+		public void blockStarted(long compressedBitOffset,
+				long decompressedOffset) {
+			this.pendingBlocks.add(new long[] { compressedBitOffset,
+					decompressedOffset });
+		}
+
+		void readLines(InputStream in) throws IOException {
+			long offset = 0;
+			long lineStart = 0;
+			int lineLength = 0;
+			int b;
+			while ((b = in.read()) >= 0) {
+				offset++;
+				if (b == '\n') {
+					if (lineLength > 1) {
+						lineRead(lineStart);
+					}
+					lineStart = offset;
+					lineLength = 0;
+				} else if (b != '\r') {
+					lineLength++;
+				}
+			}
+			if (lineLength > 1) {
+				lineRead(lineStart);
+			}
+		}
+
+		/**
+		 * Records an entity line that starts at the given decompressed offset.
+		 * All blocks have been reported before, since blocks are announced
+		 * before their data is read.
+		 */
+		void lineRead(long lineStart) throws IOException {
+			long[] block = null;
+			while (!this.pendingBlocks.isEmpty()
+					&& this.pendingBlocks.peek()[1] <= lineStart) {
+				block = this.pendingBlocks.poll();
+			}
+			if (this.checkpointEveryLine) {
+				writeCheckpoint(0, lineStart);
+			} else if (block != null) {
+				writeCheckpoint(block[0], lineStart - block[1]);
+			}
+			this.entityCount++;
+		}
+
+		void writeCheckpoint(long blockOffset, long innerOffset)
+				throws IOException {
+			this.out.writeLong(this.entityCount);
+			this.out.writeLong(blockOffset);
+			this.out.writeLong(innerOffset);
+			this.checkpointCount++;
+		}
+	}
+
+	/**
+	 * Stream that returns a given number of lines of another stream, after
+	 * skipping some lines, enclosed in brackets so that it looks like a
+	 * complete JSON dump.
+	 */
+	static class ShardInputStream extends InputStream {
+
+		final InputStream in;
+		final byte[] buffer = new byte[SHARD_BUFFER_SIZE];
+		final byte[] singleByte = new byte[1];
+		int bufferPosition = 0;
+		int bufferLimit = 0;
+		long linesToSkip;
+		long linesToRead;
+		int startPosition = 0;
+		int endPosition = 0;
+
+		ShardInputStream(InputStream in, long linesToSkip, long linesToRead) {
+			this.in = in;
+			this.linesToSkip = linesToSkip;
+			this.linesToRead = linesToRead;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (read(this.singleByte, 0, 1) < 0) {
+				return -1;
+			}
+			return this.singleByte[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			int count = 0;
+			while (count < len && this.startPosition < SHARD_START.length) {
+				b[off + count++] = SHARD_START[this.startPosition++];
+			}
+			skipLines();
+			while (count < len && this.linesToRead > 0) {
+				if (!fillBuffer()) {
+					// add a line end to an incomplete last line
+					this.linesToRead = 0;
+					b[off + count++] = '\n';
+					break;
+				}
+				int end = Math.min(this.bufferLimit, this.bufferPosition + len
+						- count);
+				int position = this.bufferPosition;
+				while (position < end) {
+					if (this.buffer[position++] == '\n') {
+						if (--this.linesToRead == 0) {
+							break;
+						}
+					}
+				}
+				System.arraycopy(this.buffer, this.bufferPosition, b, off
+						+ count, position - this.bufferPosition);
+				count += position - this.bufferPosition;
+				this.bufferPosition = position;
+			}
+			while (count < len && this.linesToRead == 0
+					&& this.endPosition < SHARD_END.length) {
+				b[off + count++] = SHARD_END[this.endPosition++];
+			}
+			return count == 0 ? -1 : count;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.in.close();
+		}
+
+		/**
+		 * Skips the lines before the first line of the shard.
+		 */
+		void skipLines() throws IOException {
+			while (this.linesToSkip > 0) {
+				if (!fillBuffer()) {
+					this.linesToSkip = 0;
+					this.linesToRead = 0;
+					return;
+				}
+				while (this.bufferPosition < this.bufferLimit
+						&& this.linesToSkip > 0) {
+					if (this.buffer[this.bufferPosition++] == '\n') {
+						this.linesToSkip--;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Makes sure that the buffer contains unread data.
+		 *
+		 * @return false if the end of the input was reached
+		 */
+		boolean fillBuffer() throws IOException {
+			while (this.bufferPosition >= this.bufferLimit) {
+				int count = this.in.read(this.buffer);
+				if (count < 0) {
+					return false;
+				}
+				this.bufferPosition = 0;
+				this.bufferLimit = count;
+			}
+			return true;
+		}
+	}
+}
@@ -24,6 +24,13 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +44,14 @@ import tools.jackson.databind.ObjectReader;
 
 /**
  * Processor for JSON dumpfiles.
+ * <p>
+ * By default, all lines are parsed on the calling thread. If a parser thread
+ * count greater than one is given, the calling thread only splits the input
+ * into lines, which are then deserialized by a pool of worker threads. The
+ * resulting documents are still handed to the {@link EntityDocumentProcessor}
+ * on the calling thread, so processors do not need to be thread-safe. They
+ * either receive documents in the order of the dump, or in the order in which
+ * parsing finished, depending on the configuration.
  *
  * @author Markus Kroetzsch
  *
@@ -50,10 +65,89 @@ public class JsonDumpFileProcessor implements MwDumpFileProcessor {
 
 	private final EntityDocumentProcessor entityDocumentProcessor;
 
+	/**
+	 * Number of threads used to deserialize documents. If this is 1, all
+	 * parsing happens on the thread that reads the dump.
+	 */
+	private final int parserThreadCount;
+
+	/**
+	 * If true, documents are delivered in the order in which they appear in
+	 * the dump, even when parsing in parallel.
+	 */
+	private final boolean preserveOrder;
+
+	/**
+	 * Maximal number of lines that are waiting to be parsed or delivered per
+	 * parser thread. This bounds the memory used for buffering.
+	 */
+	static final int LINES_PER_THREAD = 64;
+
+	/**
+	 * Constructor for a processor that parses all documents on the calling
+	 * thread.
+	 *
+	 * @param entityDocumentProcessor
+	 *            the processor that documents are reported to
+	 * @param siteIri
+	 *            the IRI of the site that the data belongs to
+	 */
 	public JsonDumpFileProcessor(
 			EntityDocumentProcessor entityDocumentProcessor, String siteIri) {
+		this(entityDocumentProcessor, siteIri, 1, true);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param entityDocumentProcessor
+	 *            the processor that documents are reported to
+	 * @param siteIri
+	 *            the IRI of the site that the data belongs to
+	 * @param parserThreadCount
+	 *            number of threads used to deserialize documents; if this is
+	 *            1, no additional threads are used
+	 * @param preserveOrder
+	 *            if true, documents are reported in the order of the dump;
+	 *            otherwise they are reported as soon as they are parsed, which
+	 *            can be a bit faster when documents vary a lot in size
+	 */
+	public JsonDumpFileProcessor(
+			EntityDocumentProcessor entityDocumentProcessor, String siteIri,
+			int parserThreadCount, boolean preserveOrder) {
+		this(entityDocumentProcessor, new DatamodelMapper(siteIri),
+				parserThreadCount, preserveOrder);
+	}
+
+	/**
+	 * Constructor for a processor that deserializes documents with the given
+	 * mapper. This can be used to configure the deserialization, e.g., to
+	 * reuse entity id objects with an
+	 * {@link org.wikidata.wdtk.datamodel.implementation.EntityIdInterner}.
+	 *
+	 * @param entityDocumentProcessor
+	 *            the processor that documents are reported to
+	 * @param mapper
+	 *            the mapper used to deserialize documents, which also
+	 *            determines the IRI of the site that the data belongs to
+	 * @param parserThreadCount
+	 *            number of threads used to deserialize documents; if this is
+	 *            1, no additional threads are used
+	 * @param preserveOrder
+	 *            if true, documents are reported in the order of the dump
+	 */
+	public JsonDumpFileProcessor(
+			EntityDocumentProcessor entityDocumentProcessor,
+			DatamodelMapper mapper, int parserThreadCount,
+			boolean preserveOrder) {
+		if (parserThreadCount < 1) {
+			throw new IllegalArgumentException(
+					"The number of parser threads must be positive.");
+		}
 		this.entityDocumentProcessor = entityDocumentProcessor;
-		this.documentReader = new DatamodelMapper(siteIri).readerFor(EntityDocumentImpl.class);
+		this.documentReader = mapper.readerFor(EntityDocumentImpl.class);
+		this.parserThreadCount = parserThreadCount;
+		this.preserveOrder = preserveOrder;
 	}
 
 	/**
@@ -163,25 +257,117 @@ public class JsonDumpFileProcessor implements MwDumpFileProcessor {
 		JsonDumpFileProcessor.logger.warn("Skipping rest of current line: "
 				+ line);
 
-		line = br.readLine();
-		while (line != null && line.length() > 1) {
-			try {
-				EntityDocument document;
-				if (line.charAt(line.length() - 1) == ',') {
-					document = documentReader.readValue(line.substring(0,
-							line.length() - 1));
+		if (this.parserThreadCount > 1) {
+			processLinesInParallel(br);
+		} else {
+			line = br.readLine();
+			while (line != null && line.length() > 1) {
+				EntityDocument document = parseLine(line);
+				if (document != null) {
+					handleDocument(document);
+				}
+				line = br.readLine();
+			}
+		}
+	}
+
+	/**
+	 * Reads the remaining lines of the given reader and parses them on a pool
+	 * of {@link #parserThreadCount} worker threads. The number of lines that
+	 * are in flight is bounded, so that a slow document processor does not
+	 * cause the whole dump to be buffered in memory.
+	 *
+	 * @param br
+	 *            the reader to take lines from
+	 * @throws IOException
+	 *             if there is a problem reading the stream
+	 */
+	private void processLinesInParallel(BufferedReader br) throws IOException {
+		ExecutorService executor = Executors
+				.newFixedThreadPool(this.parserThreadCount);
+		CompletionService<EntityDocument> completionService = new ExecutorCompletionService<>(
+				executor);
+		ArrayDeque<Future<EntityDocument>> pending = new ArrayDeque<>();
+		int maxPending = this.parserThreadCount * LINES_PER_THREAD;
+
+		try {
+			String line = br.readLine();
+			while (line != null && line.length() > 1) {
+				final String currentLine = line;
+				if (this.preserveOrder) {
+					pending.add(executor.submit(() -> parseLine(currentLine)));
 				} else {
-					document = documentReader.readValue(line);
+					pending.add(completionService
+							.submit(() -> parseLine(currentLine)));
+				}
+				if (pending.size() >= maxPending) {
+					deliverNextDocument(pending, completionService);
 				}
+				line = br.readLine();
+			}
+			while (!pending.isEmpty()) {
+				deliverNextDocument(pending, completionService);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Waits for the next parsed document and reports it to the document
+	 * processor. If the order is preserved, this is the oldest pending
+	 * document; otherwise it is the first one whose parsing finished. In the
+	 * latter case, the queue of pending tasks is only used for counting.
+	 *
+	 * @param pending
+	 *            queue of pending parse tasks in the order of the dump
+	 * @param completionService
+	 *            the service that the tasks were submitted to when the order
+	 *            is not preserved
+	 */
+	private void deliverNextDocument(ArrayDeque<Future<EntityDocument>> pending,
+			CompletionService<EntityDocument> completionService) {
+		Future<EntityDocument> future = pending.poll();
+		try {
+			if (!this.preserveOrder) {
+				future = completionService.take();
+			}
+			EntityDocument document = future.get();
+			if (document != null) {
 				handleDocument(document);
-			} catch (JacksonException e) {
-				logJacksonException(e);
-				JsonDumpFileProcessor.logger.error("Problematic line was: "
-						+ line.substring(0, Math.min(50, line.length()))
-						+ "...");
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while parsing JSON dump", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Cannot parse JSON input: "
+					+ e.getCause().getMessage(), e.getCause());
+		}
+	}
 
-			line = br.readLine();
+	/**
+	 * Parses a single line of the dump into an {@link EntityDocument}. Errors
+	 * are logged, and null is returned in this case. This method is
+	 * thread-safe.
+	 *
+	 * @param line
+	 *            the line to parse, possibly with a trailing comma
+	 * @return the parsed document or null if the line could not be parsed
+	 */
+	private EntityDocument parseLine(String line) {
+		try {
+			if (line.charAt(line.length() - 1) == ',') {
+				return documentReader.readValue(line.substring(0,
+						line.length() - 1));
+			} else {
+				return documentReader.readValue(line);
+			}
+		} catch (JacksonException e) {
+			logJacksonException(e);
+			JsonDumpFileProcessor.logger.error("Problematic line was: "
+					+ line.substring(0, Math.min(50, line.length()))
+					+ "...");
+			return null;
 		}
 	}
 }
@@ -99,6 +99,25 @@ public interface MwDumpFile {
 	 */
 	InputStream getDumpFileStream() throws IOException;
 
+	/**
+	 * Returns an input stream that provides access to the (uncompressed) text
+	 * content of the dump file while it is still being downloaded. The
+	 * downloaded data is stored as by {@link #prepareDumpFile()}, but only if
+	 * the stream has been read to its end before closing it. This allows the
+	 * dump to be processed during the download instead of after it.
+	 * <p>
+	 * The default implementation returns {@link #getDumpFileStream()}, which
+	 * is appropriate for dumps that do not need to be downloaded. It is
+	 * important to close the stream after use.
+	 *
+	 * @return an input stream to read the dump file
+	 * @throws IOException
+	 *             if the dump file contents could not be accessed
+	 */
+	default InputStream getDumpFileStreamWhileDownloading() throws IOException {
+		return getDumpFileStream();
+	}
+
 	/**
 	 * Returns a buffered reader that provides access to the (uncompressed) text
 	 * content of the dump file.
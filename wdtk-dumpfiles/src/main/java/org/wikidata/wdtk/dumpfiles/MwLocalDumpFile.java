@@ -34,6 +34,7 @@ import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.helpers.BinarySerializer;
 import org.wikidata.wdtk.util.CompressionType;
 import org.wikidata.wdtk.util.DirectoryManager;
 import org.wikidata.wdtk.util.DirectoryManagerFactory;
@@ -83,6 +84,17 @@ public class MwLocalDumpFile implements MwDumpFile {
 	 */
 	final boolean isAvailable;
 
+	/**
+	 * Index for random access to the entities of a JSON dump, or null if it
+	 * was not loaded yet.
+	 */
+	JsonDumpFileIndex index = null;
+
+	/**
+	 * True if the dump file should be decompressed on several threads.
+	 */
+	boolean parallelDecompression = false;
+
 	/**
 	 * Hash map defining the compression type of each type of dump.
 	 */
@@ -98,6 +110,8 @@ public class MwLocalDumpFile implements MwDumpFile {
 				CompressionType.GZIP);
 		MwLocalDumpFile.COMPRESSION_TYPE.put(DumpContentType.JSON,
 				CompressionType.GZIP);
+		MwLocalDumpFile.COMPRESSION_TYPE.put(DumpContentType.BINARY,
+				CompressionType.NONE);
 	}
 
 	/**
@@ -200,7 +214,114 @@ public class MwLocalDumpFile implements MwDumpFile {
 					+ "\" is not available for reading.");
 		}
 		return this.directoryManager.getInputStreamForFile(this.dumpFileName,
-				WmfDumpFile.getDumpFileCompressionType(dumpFileName));
+				getCompressionType());
+	}
+
+	/**
+	 * Sets whether the dump file should be decompressed on several threads.
+	 * It is disabled by default, since it uses more threads and more memory.
+	 *
+	 * @see CompressionType#toParallel()
+	 * @param parallelDecompression
+	 *            true if parallel decompression should be used
+	 */
+	public void setParallelDecompression(boolean parallelDecompression) {
+		this.parallelDecompression = parallelDecompression;
+	}
+
+	/**
+	 * Returns the compression type that is used to read the dump file.
+	 *
+	 * @return compression type
+	 */
+	CompressionType getCompressionType() {
+		CompressionType result = WmfDumpFile
+				.getDumpFileCompressionType(this.dumpFileName);
+		return this.parallelDecompression ? result.toParallel() : result;
+	}
+
+	/**
+	 * Returns a stream for the JSON serialization of the entities in the given
+	 * range of a JSON dump. The stream has the same format as the whole dump,
+	 * so it can be processed like the stream returned by
+	 * {@link #getDumpFileStream()}. This requires an index of the dump, which
+	 * can be created with {@link #buildIndex()}. Together with
+	 * {@link #getEntityCount()}, this can be used to split a dump into shards
+	 * that are processed independently.
+	 *
+	 * @param fromEntity
+	 *            the index of the first entity to read (inclusive), counting
+	 *            from 0
+	 * @param toEntity
+	 *            the index of the last entity to read (exclusive)
+	 * @return the stream for the entities
+	 * @throws IOException
+	 *             if the dump or its index could not be read
+	 */
+	public InputStream getDumpFileStream(long fromEntity, long toEntity)
+			throws IOException {
+		return getIndex().getShardStream(fromEntity, toEntity);
+	}
+
+	/**
+	 * Returns the number of entities in this JSON dump, as recorded in its
+	 * index.
+	 *
+	 * @see #buildIndex()
+	 * @return the number of entities
+	 * @throws IOException
+	 *             if the index could not be read
+	 */
+	public long getEntityCount() throws IOException {
+		return getIndex().getEntityCount();
+	}
+
+	/**
+	 * Returns true if there is an index for this dump, as created by
+	 * {@link #buildIndex()}.
+	 *
+	 * @return true if the index exists
+	 */
+	public boolean hasIndex() {
+		return this.index != null || (this.directoryManager != null
+				&& this.directoryManager.hasFile(JsonDumpFileIndex
+						.getIndexFileName(this.dumpFileName)));
+	}
+
+	/**
+	 * Reads the whole JSON dump once to create an index for random access to
+	 * its entities. The index is stored in a file next to the dump, whose name
+	 * is the name of the dump with the suffix
+	 * {@link JsonDumpFileIndex#INDEX_FILE_SUFFIX}, and is used by later calls
+	 * to {@link #getDumpFileStream(long, long)}.
+	 *
+	 * @throws IOException
+	 *             if the dump could not be read or the index could not be
+	 *             written
+	 */
+	public void buildIndex() throws IOException {
+		if (!isAvailable()) {
+			throw new IOException("Local dump file \""
+					+ this.dumpFilePath.toString()
+					+ "\" is not available for reading.");
+		}
+		DirectoryManager writableDirectoryManager = DirectoryManagerFactory
+				.createDirectoryManager(this.dumpFilePath.getParent(), false);
+		this.index = JsonDumpFileIndex.build(writableDirectoryManager,
+				this.dumpFileName, getCompressionType());
+	}
+
+	JsonDumpFileIndex getIndex() throws IOException {
+		if (this.index == null) {
+			if (!hasIndex()) {
+				throw new IOException("There is no index for local dump file \""
+						+ this.dumpFilePath.toString()
+						+ "\". Use buildIndex() to create it.");
+			}
+			this.index = JsonDumpFileIndex.open(this.directoryManager,
+					this.dumpFileName);
+		}
+		return this.index;
 	}
 
 	@Override
@@ -229,7 +350,11 @@ public class MwLocalDumpFile implements MwDumpFile {
 	 */
 	private static DumpContentType guessDumpContentType(String fileName) {
 		String lcDumpName = fileName.toLowerCase();
-		if (lcDumpName.contains(".json.gz")) {
+		if (lcDumpName.endsWith(BinarySerializer.FILE_EXTENSION)
+				|| lcDumpName.endsWith(BinarySerializer.FILE_EXTENSION + ".gz")
+				|| lcDumpName.endsWith(BinarySerializer.FILE_EXTENSION + ".bz2")) {
+			return DumpContentType.BINARY;
+		} else if (lcDumpName.contains(".json.gz")) {
 			return DumpContentType.JSON;
 		} else if (lcDumpName.contains(".json.bz2")) {
 			return DumpContentType.JSON;
@@ -20,7 +20,13 @@ package org.wikidata.wdtk.dumpfiles;
  * #L%
  */
 
+import java.util.ArrayDeque;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +39,16 @@ import tools.jackson.databind.DatabindException;
 /**
  * A revision processor that processes Wikibase entity content from a dump file.
  * Revisions are parsed to obtain EntityDocument objects.
+ * <p>
+ * By default, revisions are parsed on the calling thread. If a parser thread
+ * count greater than one is given, the JSON of the revisions is deserialized
+ * by a pool of worker threads, while the reader of the dump continues with the
+ * next revisions. The resulting documents are still handed to the
+ * {@link EntityDocumentProcessor} on the calling thread, in the order in which
+ * the revisions were received. In particular, the revisions of each page keep
+ * their order, so that processors can rely on the tracking of current
+ * revisions done by {@link MwRevisionProcessorBroker}. All pending documents
+ * are delivered in {@link #finishRevisionProcessing()}.
  *
  * @author Markus Kroetzsch
  *
@@ -42,6 +58,12 @@ public class WikibaseRevisionProcessor implements MwRevisionProcessor {
 	static final Logger logger = LoggerFactory
 			.getLogger(WikibaseRevisionProcessor.class);
 
+	/**
+	 * Maximal number of revisions that are waiting to be parsed or delivered
+	 * per parser thread. This bounds the memory used for buffering.
+	 */
+	static final int REVISIONS_PER_THREAD = 64;
+
 	/**
 	 * The IRI of the site that this data comes from. This cannot be extracted
 	 * from individual revisions.
@@ -49,6 +71,22 @@ public class WikibaseRevisionProcessor implements MwRevisionProcessor {
 	private final EntityDocumentProcessor entityDocumentProcessor;
 	private final JsonDeserializer jsonDeserializer;
 
+	/**
+	 * Number of threads used to deserialize documents. If this is 1, all
+	 * parsing happens on the calling thread.
+	 */
+	private final int parserThreadCount;
+
+	/**
+	 * Parse tasks in the order in which the revisions were received.
+	 */
+	private final ArrayDeque<Future<EntityDocument>> pending = new ArrayDeque<>();
+
+	/**
+	 * Pool of parser threads, created when the first revision is parsed in
+	 * parallel, and shut down when processing is finished.
+	 */
+	private ExecutorService executor = null;
 
 	/**
 	 * Constructor.
@@ -61,8 +99,31 @@ public class WikibaseRevisionProcessor implements MwRevisionProcessor {
 	 */
 	public WikibaseRevisionProcessor(
 			EntityDocumentProcessor entityDocumentProcessor, String siteIri) {
+		this(entityDocumentProcessor, siteIri, 1);
+	}
+
+	/**
+	 * Constructor for a processor that deserializes revisions in parallel.
+	 *
+	 * @param entityDocumentProcessor
+	 *            the object that entity documents will be forwarded to
+	 * @param siteIri
+	 *            the IRI of the site that the data comes from, as used in
+	 *            {@link ItemIdValue#getSiteIri()}
+	 * @param parserThreadCount
+	 *            number of threads used to deserialize documents; if this is
+	 *            1, no additional threads are used
+	 */
+	public WikibaseRevisionProcessor(
+			EntityDocumentProcessor entityDocumentProcessor, String siteIri,
+			int parserThreadCount) {
+		if (parserThreadCount < 1) {
+			throw new IllegalArgumentException(
+					"The number of parser threads must be positive.");
+		}
 		this.entityDocumentProcessor = entityDocumentProcessor;
 		this.jsonDeserializer = new JsonDeserializer(siteIri);
+		this.parserThreadCount = parserThreadCount;
 	}
 
 	@Override
@@ -76,90 +137,124 @@ public class WikibaseRevisionProcessor implements MwRevisionProcessor {
 
 	@Override
 	public void processRevision(MwRevision mwRevision) {
+		if (this.parserThreadCount == 1) {
+			handleDocument(parseRevision(mwRevision));
+			return;
+		}
+		if (!isEntityModel(mwRevision.getModel())) {
+			return;
+		}
+		if (this.executor == null) {
+			this.executor = Executors
+					.newFixedThreadPool(this.parserThreadCount);
+		}
+		// the given object may be reused by the caller for the next revision
+		final MwRevision revision = new MwRevisionImpl(mwRevision);
+		this.pending.add(this.executor.submit(() -> parseRevision(revision)));
+		if (this.pending.size() >= this.parserThreadCount
+				* REVISIONS_PER_THREAD) {
+			deliverNextDocument();
+		}
+	}
+
+	public void processItemRevision(MwRevision mwRevision) {
+		handleDocument(parseDocument(mwRevision, "item",
+				this.jsonDeserializer::deserializeItemDocument));
+	}
+
+	public void processPropertyRevision(MwRevision mwRevision) {
+		handleDocument(parseDocument(mwRevision, "property",
+				this.jsonDeserializer::deserializePropertyDocument));
+	}
+
+	/**
+	 * Parses the content of the given revision, depending on its model.
+	 * Errors are logged, and null is returned in this case. This method is
+	 * thread-safe.
+	 *
+	 * @param mwRevision
+	 *            the revision to parse
+	 * @return the parsed document, or null if the revision is not about a
+	 *         supported entity or could not be parsed
+	 */
+	EntityDocument parseRevision(MwRevision mwRevision) {
 		if (MwRevision.MODEL_WIKIBASE_ITEM.equals(mwRevision.getModel())) {
-			processItemRevision(mwRevision);
+			return parseDocument(mwRevision, "item",
+					this.jsonDeserializer::deserializeItemDocument);
 		} else if (MwRevision.MODEL_WIKIBASE_PROPERTY.equals(mwRevision
 				.getModel())) {
-			processPropertyRevision(mwRevision);
+			return parseDocument(mwRevision, "property",
+					this.jsonDeserializer::deserializePropertyDocument);
 		} else if (MwRevision.MODEL_WIKIBASE_LEXEME.equals(mwRevision
 				.getModel())) {
-			processLexemeRevision(mwRevision);
+			return parseDocument(mwRevision, "lexeme",
+					this.jsonDeserializer::deserializeLexemeDocument);
 		} // else: ignore this revision
+		return null;
 	}
 
-	public void processItemRevision(MwRevision mwRevision) {
-		if(isWikibaseRedirection(mwRevision)) {
-			processEntityRedirectRevision(mwRevision);
-			return;
+	private EntityDocument parseDocument(MwRevision mwRevision, String kind,
+			Function<String, ? extends EntityDocument> deserializer) {
+		if (isWikibaseRedirection(mwRevision)) {
+			kind = "redirect";
+			deserializer = this.jsonDeserializer::deserializeEntityRedirectDocument;
 		}
 
 		try {
-			ItemDocument document = jsonDeserializer.deserializeItemDocument(mwRevision.getText());
-			entityDocumentProcessor.processItemDocument(document);
+			return deserializer.apply(mwRevision.getText());
 		} catch (StreamReadException e1) {
-			logger.error("Failed to parse JSON for item "
+			logger.error("Failed to parse JSON for " + kind + " "
 					+ mwRevision.getPrefixedTitle() + ": " + e1.getMessage());
 		} catch (DatabindException e1) {
-			logger.error("Failed to map JSON for item "
+			logger.error("Failed to map JSON for " + kind + " "
 					+ mwRevision.getPrefixedTitle() + ": " + e1.getMessage());
 			e1.printStackTrace();
 			System.out.print(mwRevision.getText());
 		}
+		return null;
 	}
 
-	public void processPropertyRevision(MwRevision mwRevision) {
-		if(isWikibaseRedirection(mwRevision)) {
-			processEntityRedirectRevision(mwRevision);
-			return;
-		}
-
-		try {
-			PropertyDocument document = jsonDeserializer.deserializePropertyDocument(mwRevision.getText());
-			entityDocumentProcessor.processPropertyDocument(document);
-		} catch (StreamReadException e1) {
-			logger.error("Failed to parse JSON for property "
-					+ mwRevision.getPrefixedTitle() + ": " + e1.getMessage());
-		} catch (DatabindException e1) {
-			logger.error("Failed to map JSON for property "
-					+ mwRevision.getPrefixedTitle() + ": " + e1.getMessage());
-			e1.printStackTrace();
-			System.out.print(mwRevision.getText());
+	/**
+	 * Reports a parsed document to the entity document processor.
+	 *
+	 * @param document
+	 *            the document, or null if there is nothing to report
+	 */
+	private void handleDocument(EntityDocument document) {
+		if (document instanceof ItemDocument) {
+			entityDocumentProcessor.processItemDocument((ItemDocument) document);
+		} else if (document instanceof PropertyDocument) {
+			entityDocumentProcessor
+					.processPropertyDocument((PropertyDocument) document);
+		} else if (document instanceof LexemeDocument) {
+			entityDocumentProcessor
+					.processLexemeDocument((LexemeDocument) document);
+		} else if (document instanceof EntityRedirectDocument) {
+			entityDocumentProcessor
+					.processEntityRedirectDocument((EntityRedirectDocument) document);
 		}
 	}
 
-	private void processLexemeRevision(MwRevision mwRevision) {
-		if(isWikibaseRedirection(mwRevision)) {
-			processEntityRedirectRevision(mwRevision);
-			return;
-		}
-
+	/**
+	 * Waits for the oldest pending revision to be parsed and reports the
+	 * result to the entity document processor.
+	 */
+	private void deliverNextDocument() {
 		try {
-			LexemeDocument document = jsonDeserializer.deserializeLexemeDocument(mwRevision.getText());
-			entityDocumentProcessor.processLexemeDocument(document);
-		} catch (StreamReadException e1) {
-			logger.error("Failed to parse JSON for lexeme "
-					+ mwRevision.getPrefixedTitle() + ": " + e1.getMessage());
-		} catch (DatabindException e1) {
-			logger.error("Failed to map JSON for lexeme "
-					+ mwRevision.getPrefixedTitle() + ": " + e1.getMessage());
-			e1.printStackTrace();
-			System.out.print(mwRevision.getText());
+			handleDocument(this.pending.poll().get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while parsing revisions", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Cannot parse revision: "
+					+ e.getCause().getMessage(), e.getCause());
 		}
 	}
 
-	private void processEntityRedirectRevision(MwRevision mwRevision) {
-		try {
-			EntityRedirectDocument document = jsonDeserializer.deserializeEntityRedirectDocument(mwRevision.getText());
-			entityDocumentProcessor.processEntityRedirectDocument(document);
-		} catch (StreamReadException e1) {
-			logger.error("Failed to parse JSON for redirect "
-					+ mwRevision.getPrefixedTitle() + ": " + e1.getMessage());
-		} catch (DatabindException e1) {
-			logger.error("Failed to map JSON for redirect "
-					+ mwRevision.getPrefixedTitle() + ": " + e1.getMessage());
-			e1.printStackTrace();
-			System.out.print(mwRevision.getText());
-		}
+	private boolean isEntityModel(String model) {
+		return MwRevision.MODEL_WIKIBASE_ITEM.equals(model)
+				|| MwRevision.MODEL_WIKIBASE_PROPERTY.equals(model)
+				|| MwRevision.MODEL_WIKIBASE_LEXEME.equals(model);
 	}
 
 	private boolean isWikibaseRedirection(MwRevision mwRevision) {
@@ -168,7 +263,17 @@ public class WikibaseRevisionProcessor implements MwRevisionProcessor {
 
 	@Override
 	public void finishRevisionProcessing() {
-		// nothing to do
+		try {
+			while (!this.pending.isEmpty()) {
+				deliverNextDocument();
+			}
+		} finally {
+			this.pending.clear();
+			if (this.executor != null) {
+				this.executor.shutdownNow();
+				this.executor = null;
+			}
+		}
 	}
 
 }
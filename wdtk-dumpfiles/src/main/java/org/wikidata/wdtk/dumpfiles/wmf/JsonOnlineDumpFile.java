@@ -20,6 +20,7 @@ package org.wikidata.wdtk.dumpfiles.wmf;
  * #L%
  */
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
@@ -81,7 +82,56 @@ public class JsonOnlineDumpFile extends WmfDumpFile {
 				.getSubdirectoryManager(WmfDumpFile.getDumpFileDirectoryName(
 						DumpContentType.JSON, this.dateStamp));
 
-		return dailyDirectoryManager.getInputStreamForFile(fileName, WmfDumpFile.getDumpFileCompressionType(fileName));
+		return dailyDirectoryManager.getInputStreamForFile(fileName, getCompressionType(fileName));
+	}
+
+	/**
+	 * Returns a stream to the contents of the dump that is read directly from
+	 * the download, which is stored on disk at the same time. If the dump has
+	 * already been downloaded, the local file is used.
+	 */
+	@Override
+	public InputStream getDumpFileStreamWhileDownloading() throws IOException {
+		String fileName = WmfDumpFile.getDumpFileName(DumpContentType.JSON,
+				this.projectName, this.dateStamp);
+		DirectoryManager dailyDirectoryManager = this.dumpfileDirectoryManager
+				.getSubdirectoryManager(WmfDumpFile.getDumpFileDirectoryName(
+						DumpContentType.JSON, this.dateStamp));
+
+		if (this.isPrepared || dailyDirectoryManager.hasFile(fileName)) {
+			this.isPrepared = true;
+			return getDumpFileStream();
+		}
+
+		String urlString = getBaseUrl() + fileName;
+
+		logger.info("Downloading and processing JSON dump file " + fileName
+				+ " from " + urlString + " ...");
+
+		if (!isAvailable()) {
+			throw new IOException(
+					"Dump file not available (yet). Aborting dump retrieval.");
+		}
+
+		InputStream inputStream = dailyDirectoryManager.createFileWhileReading(
+				fileName, this.webResourceFetcher.getInputStreamForUrl(urlString),
+				getCompressionType(fileName));
+
+		return new FilterInputStream(inputStream) {
+			@Override
+			public void close() throws IOException {
+				super.close();
+				if (dailyDirectoryManager.hasFile(fileName)) {
+					isPrepared = true;
+					logger.info("... completed download of JSON dump file "
+							+ fileName + " from " + urlString);
+				} else {
+					logger.warn("Download of JSON dump file " + fileName
+							+ " from " + urlString
+							+ " was not completed since the dump was not read to its end.");
+				}
+			}
+		};
 	}
 
 	@Override
@@ -85,6 +85,11 @@ public abstract class WmfDumpFile implements MwDumpFile {
 		WmfDumpFile.REVISION_DUMP.put(DumpContentType.JSON, false);
 	}
 
+	/**
+	 * True if this dump file should be decompressed on several threads.
+	 */
+	boolean parallelDecompression = false;
+
 	protected final String dateStamp;
 	protected final String projectName;
 	Boolean isDone;
@@ -189,6 +194,32 @@ public abstract class WmfDumpFile implements MwDumpFile {
 		}
 	}
 
+	/**
+	 * Sets whether this dump file should be decompressed on several threads.
+	 * It is disabled by default, since it uses more threads and more memory.
+	 *
+	 * @see CompressionType#toParallel()
+	 * @param parallelDecompression
+	 *            true if parallel decompression should be used
+	 */
+	public void setParallelDecompression(boolean parallelDecompression) {
+		this.parallelDecompression = parallelDecompression;
+	}
+
+	/**
+	 * Returns the compression type that is used to read the file of the given
+	 * name of this dump, taking into account whether parallel decompression is
+	 * enabled.
+	 *
+	 * @param fileName
+	 *            the name of the file
+	 * @return compression type
+	 */
+	protected CompressionType getCompressionType(String fileName) {
+		CompressionType result = getDumpFileCompressionType(fileName);
+		return this.parallelDecompression ? result.toParallel() : result;
+	}
+
 	/**
 	 * Returns the compression type of this kind of dump file using file suffixes
 	 *
@@ -36,6 +36,7 @@ import org.wikidata.wdtk.dumpfiles.DumpContentType;
 import org.wikidata.wdtk.dumpfiles.DumpProcessingController;
 import org.wikidata.wdtk.dumpfiles.MwDumpFile;
 import org.wikidata.wdtk.util.DirectoryManager;
+import org.wikidata.wdtk.util.RangeRequestDownloader;
 import org.wikidata.wdtk.util.WebResourceFetcher;
 import org.wikidata.wdtk.util.WebResourceFetcherImpl;
 
@@ -78,6 +79,18 @@ public class WmfDumpFileManager {
 	final DirectoryManager dumpfileDirectoryManager;
 	final WebResourceFetcher webResourceFetcher;
 
+	/**
+	 * True if the dump files found by this manager should be decompressed on
+	 * several threads.
+	 */
+	boolean parallelDecompression = false;
+
+	/**
+	 * Downloader for parallel range requests that is given to the online
+	 * dump files found by this manager, or null if none should be used.
+	 */
+	RangeRequestDownloader rangeRequestDownloader = null;
+
 	/**
 	 * Constructor.
 	 *
@@ -109,6 +122,32 @@ public class WmfDumpFileManager {
 				+ this.dumpfileDirectoryManager.toString());
 	}
 
+	/**
+	 * Sets whether the dump files that are found by this manager should be
+	 * decompressed on several threads. Disabled by default.
+	 *
+	 * @see WmfDumpFile#setParallelDecompression(boolean)
+	 * @param parallelDecompression
+	 *            true if parallel decompression should be used
+	 */
+	public void setParallelDecompression(boolean parallelDecompression) {
+		this.parallelDecompression = parallelDecompression;
+	}
+
+	/**
+	 * Sets the downloader that the online dump files found by this manager
+	 * use to fetch their data with parallel range requests. None is used by
+	 * default.
+	 *
+	 * @see WmfOnlineStandardDumpFile#setRangeRequestDownloader(RangeRequestDownloader)
+	 * @param rangeRequestDownloader
+	 *            the downloader to use, or null to disable range requests
+	 */
+	public void setRangeRequestDownloader(
+			RangeRequestDownloader rangeRequestDownloader) {
+		this.rangeRequestDownloader = rangeRequestDownloader;
+	}
+
 	/**
 	 * Finds all page revision dump files, online or locally, that are relevant
 	 * to obtain the most current state of the data. Revision dump files are
@@ -263,6 +302,7 @@ public class WmfDumpFileManager {
 				WmfLocalDumpFile dumpFile = new WmfLocalDumpFile(dateStamp,
 						this.projectName, dumpfileDirectoryManager,
 						dumpContentType);
+				dumpFile.setParallelDecompression(this.parallelDecompression);
 				if (dumpFile.isAvailable()) {
 					result.add(dumpFile);
 				} else {
@@ -300,18 +340,23 @@ public class WmfDumpFileManager {
 		List<MwDumpFile> result = new ArrayList<>();
 
 		for (String dateStamp : dumpFileDates) {
+			WmfDumpFile dumpFile;
 			if (dumpContentType == DumpContentType.DAILY) {
-				result.add(new WmfOnlineDailyDumpFile(dateStamp,
+				dumpFile = new WmfOnlineDailyDumpFile(dateStamp,
 						this.projectName, this.webResourceFetcher,
-						this.dumpfileDirectoryManager));
+						this.dumpfileDirectoryManager);
 			} else if (dumpContentType == DumpContentType.JSON) {
-				result.add(new JsonOnlineDumpFile(dateStamp, this.projectName,
-						this.webResourceFetcher, this.dumpfileDirectoryManager));
+				dumpFile = new JsonOnlineDumpFile(dateStamp, this.projectName,
+						this.webResourceFetcher, this.dumpfileDirectoryManager);
 			} else {
-				result.add(new WmfOnlineStandardDumpFile(dateStamp,
-						this.projectName, this.webResourceFetcher,
-						this.dumpfileDirectoryManager, dumpContentType));
+				WmfOnlineStandardDumpFile standardDumpFile = new WmfOnlineStandardDumpFile(
+						dateStamp, this.projectName, this.webResourceFetcher,
+						this.dumpfileDirectoryManager, dumpContentType);
+				standardDumpFile.setRangeRequestDownloader(this.rangeRequestDownloader);
+				dumpFile = standardDumpFile;
 			}
+			dumpFile.setParallelDecompression(this.parallelDecompression);
+			result.add(dumpFile);
 		}
 
 		logger.info("Found " + result.size() + " online dumps of type "
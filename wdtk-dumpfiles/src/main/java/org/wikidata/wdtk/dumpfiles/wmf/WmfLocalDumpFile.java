@@ -99,7 +99,7 @@ public class WmfLocalDumpFile extends WmfDumpFile {
 				this.projectName, this.dateStamp);
 
 		return this.localDumpfileDirectoryManager.getInputStreamForFile(
-				dumpFileName, WmfDumpFile.getDumpFileCompressionType(dumpFileName));
+				dumpFileName, getCompressionType(dumpFileName));
 	}
 
 	@Override
@@ -21,16 +21,21 @@ package org.wikidata.wdtk.dumpfiles.wmf;
  */
 
 import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wikidata.wdtk.dumpfiles.DumpContentType;
 import org.wikidata.wdtk.util.DirectoryManager;
+import org.wikidata.wdtk.util.DirectoryManagerImpl;
+import org.wikidata.wdtk.util.RangeRequestDownloader;
 import org.wikidata.wdtk.util.WebResourceFetcher;
+import org.wikidata.wdtk.util.WebResourceFetcherImpl;
 
 /**
  * Class for representing dump files published by the Wikimedia Foundation in
@@ -56,6 +61,12 @@ public class WmfOnlineStandardDumpFile extends WmfDumpFile {
 	 */
 	boolean isPrepared = false;
 
+	/**
+	 * Downloader used for fetching the dump with parallel, resumable range
+	 * requests, or null to always use a single request.
+	 */
+	RangeRequestDownloader rangeRequestDownloader = null;
+
 	/**
 	 * Constructor.
 	 *
@@ -82,6 +93,35 @@ public class WmfOnlineStandardDumpFile extends WmfDumpFile {
 		this.dumpContentType = dumpContentType;
 	}
 
+	/**
+	 * Returns the downloader that is used for fetching the dump file with
+	 * parallel range requests.
+	 *
+	 * @return the downloader, or null if range requests are not used
+	 */
+	public RangeRequestDownloader getRangeRequestDownloader() {
+		return this.rangeRequestDownloader;
+	}
+
+	/**
+	 * Sets the downloader that is used for fetching the dump file with
+	 * parallel range requests. By default, no such downloader is used. It
+	 * resumes interrupted downloads and verifies the MD5 checksum published
+	 * with the dump. The downloader opens its own connections with the
+	 * settings of {@link WebResourceFetcherImpl} instead of using the
+	 * {@link WebResourceFetcher} of this dump file. Range requests are only
+	 * used if the dump is downloaded into a {@link DirectoryManagerImpl}; in
+	 * all other cases, or if the downloader is null, the file is fetched with
+	 * a single request.
+	 *
+	 * @param rangeRequestDownloader
+	 *            the downloader to use, or null to disable range requests
+	 */
+	public void setRangeRequestDownloader(
+			RangeRequestDownloader rangeRequestDownloader) {
+		this.rangeRequestDownloader = rangeRequestDownloader;
+	}
+
 	@Override
 	public DumpContentType getDumpContentType() {
 		return this.dumpContentType;
@@ -98,7 +138,61 @@ public class WmfOnlineStandardDumpFile extends WmfDumpFile {
 						this.dumpContentType, this.dateStamp));
 
 		return thisDumpDirectoryManager.getInputStreamForFile(fileName,
-				WmfDumpFile.getDumpFileCompressionType(fileName));
+				getCompressionType(fileName));
+	}
+
+	/**
+	 * Returns a stream to the contents of the dump that is read directly from
+	 * the download, which is stored on disk at the same time. Range requests
+	 * are not used in this case, and the MD5 checksum of the dump is not
+	 * verified. If the dump has already been downloaded, the local file is
+	 * used.
+	 */
+	@Override
+	public InputStream getDumpFileStreamWhileDownloading() throws IOException {
+		String fileName = WmfDumpFile.getDumpFileName(this.dumpContentType,
+				this.projectName, this.dateStamp);
+		DirectoryManager thisDumpDirectoryManager = this.dumpfileDirectoryManager
+				.getSubdirectoryManager(WmfDumpFile.getDumpFileDirectoryName(
+						this.dumpContentType, this.dateStamp));
+
+		if (this.isPrepared || thisDumpDirectoryManager.hasFile(fileName)) {
+			this.isPrepared = true;
+			return getDumpFileStream();
+		}
+
+		String urlString = getBaseUrl() + fileName;
+
+		logger.info("Downloading and processing "
+				+ this.dumpContentType.toString().toLowerCase() + " dump file "
+				+ fileName + " from " + urlString + " ...");
+
+		if (!isAvailable()) {
+			throw new IOException(
+					"Dump file not available (yet). Aborting dump retrieval.");
+		}
+
+		InputStream inputStream = thisDumpDirectoryManager
+				.createFileWhileReading(fileName,
+						this.webResourceFetcher.getInputStreamForUrl(urlString),
+						getCompressionType(fileName));
+
+		return new FilterInputStream(inputStream) {
+			@Override
+			public void close() throws IOException {
+				super.close();
+				if (thisDumpDirectoryManager.hasFile(fileName)) {
+					isPrepared = true;
+					logger.info("... completed download of "
+							+ dumpContentType.toString().toLowerCase()
+							+ " dump file " + fileName + " from " + urlString);
+				} else {
+					logger.warn("Download of dump file " + fileName
+							+ " from " + urlString
+							+ " was not completed since the dump was not read to its end.");
+				}
+			}
+		};
 	}
 
 	@Override
@@ -125,10 +219,18 @@ public class WmfOnlineStandardDumpFile extends WmfDumpFile {
 						this.dumpContentType, this.dateStamp));
 
 		long size;
-		try (InputStream inputStream = webResourceFetcher
-				.getInputStreamForUrl(urlString)) {
-			size = thisDumpDirectoryManager.createFileAtomic(fileName,
-					inputStream);
+		if (this.rangeRequestDownloader != null
+				&& thisDumpDirectoryManager instanceof DirectoryManagerImpl) {
+			Path target = ((DirectoryManagerImpl) thisDumpDirectoryManager)
+					.getPathForWriting(fileName);
+			size = this.rangeRequestDownloader.download(urlString, target,
+					fetchMd5Sum(fileName));
+		} else {
+			try (InputStream inputStream = webResourceFetcher
+					.getInputStreamForUrl(urlString)) {
+				size = thisDumpDirectoryManager.createFileAtomic(fileName,
+						inputStream);
+			}
 		}
 
 		this.isPrepared = true;
@@ -162,6 +264,35 @@ public class WmfOnlineStandardDumpFile extends WmfDumpFile {
 		return found;
 	}
 
+	/**
+	 * Returns the MD5 checksum of the given file as listed in the checksum
+	 * file of this dump.
+	 *
+	 * @param fileName
+	 *            the name of the dump file
+	 * @return hexadecimal MD5 checksum, or null if it could not be found
+	 */
+	String fetchMd5Sum(String fileName) {
+		try (InputStream in = this.webResourceFetcher
+				.getInputStreamForUrl(getBaseUrl() + this.projectName + "-"
+						+ dateStamp + "-md5sums.txt")) {
+			BufferedReader bufferedReader = new BufferedReader(
+					new InputStreamReader(in, StandardCharsets.UTF_8));
+			String inputLine;
+			while ((inputLine = bufferedReader.readLine()) != null) {
+				// lines have the form "<checksum>  <file name>"
+				String[] parts = inputLine.trim().split("\\s+");
+				if (parts.length == 2 && parts[1].equals(fileName)) {
+					return parts[0];
+				}
+			}
+		} catch (IOException e) {
+			logger.warn("Could not fetch MD5 checksum of " + fileName
+					+ "; the download will not be verified.");
+		}
+		return null;
+	}
+
 	/**
 	 * Returns the base URL under which the files for this dump are found.
 	 *
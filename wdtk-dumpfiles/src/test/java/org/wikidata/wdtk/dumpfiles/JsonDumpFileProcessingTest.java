@@ -27,11 +27,16 @@ import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 
 import org.junit.Ignore;
 import org.junit.Test;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
 import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
 import org.wikidata.wdtk.dumpfiles.wmf.WmfDumpFile;
 import org.wikidata.wdtk.testing.MockDirectoryManager;
 import org.wikidata.wdtk.testing.MockStringContentFactory;
@@ -68,6 +73,28 @@ public class JsonDumpFileProcessingTest {
 
 	}
 
+	/**
+	 * Test class that records the ids of all documents in the order in which
+	 * they were received.
+	 */
+	private static class IdRecordingProcessor implements EntityDocumentProcessor {
+
+		final List<String> ids = new ArrayList<>();
+		final List<EntityDocument> documents = new ArrayList<>();
+
+		@Override
+		public void processItemDocument(ItemDocument itemDocument) {
+			ids.add(itemDocument.getEntityId().getId());
+			documents.add(itemDocument);
+		}
+
+		@Override
+		public void processPropertyDocument(PropertyDocument propertyDocument) {
+			ids.add(propertyDocument.getEntityId().getId());
+			documents.add(propertyDocument);
+		}
+	}
+
 	@Test
 	public void testRegularJsonProcessing() throws IOException {
 		Path dmPath = Paths.get(System.getProperty("user.dir"));
@@ -159,6 +186,76 @@ public class JsonDumpFileProcessingTest {
 		assertEquals(101, timer.entityCount);
 	}
 
+	@Test
+	public void testParallelOrderedJsonProcessing() throws IOException {
+		List<String> sequentialIds = processWithThreads(1, true,
+				"mock-dump-for-long-testing.json");
+		List<String> parallelIds = processWithThreads(4, true,
+				"mock-dump-for-long-testing.json");
+
+		assertEquals(101, sequentialIds.size());
+		assertEquals(sequentialIds, parallelIds);
+	}
+
+	@Test
+	public void testParallelUnorderedJsonProcessing() throws IOException {
+		List<String> sequentialIds = processWithThreads(1, true,
+				"mock-dump-for-long-testing.json");
+		List<String> parallelIds = processWithThreads(4, false,
+				"mock-dump-for-long-testing.json");
+
+		assertEquals(101, parallelIds.size());
+		assertEquals(new HashSet<>(sequentialIds), new HashSet<>(parallelIds));
+	}
+
+	@Test
+	public void testParallelBuggyJsonProcessing() throws IOException {
+		List<String> sequentialIds = processWithThreads(1, true,
+				"mock-dump-with-bugs.json");
+		List<String> parallelIds = processWithThreads(3, true,
+				"mock-dump-with-bugs.json");
+
+		assertTrue(parallelIds.size() >= 3);
+		assertEquals(sequentialIds, parallelIds);
+	}
+
+	@Test
+	public void testJsonProcessingWithEntityIdInterning() throws IOException {
+		IdRecordingProcessor plain = processDump(1, true, false,
+				"mock-dump-for-long-testing.json");
+		IdRecordingProcessor interned = processDump(2, true, true,
+				"mock-dump-for-long-testing.json");
+
+		assertEquals(101, interned.documents.size());
+		assertEquals(plain.documents, interned.documents);
+	}
+
+	private List<String> processWithThreads(int threads, boolean ordered,
+			String fileName) throws IOException {
+		return processDump(threads, ordered, false, fileName).ids;
+	}
+
+	private IdRecordingProcessor processDump(int threads, boolean ordered,
+			boolean internEntityIds, String fileName) throws IOException {
+		Path dmPath = Paths.get(System.getProperty("user.dir"));
+		MockDirectoryManager dm = new MockDirectoryManager(dmPath, true, true);
+		setLocalJsonDumpFile(fileName, "20150223", dm);
+
+		DumpProcessingController dpc = new DumpProcessingController(
+				"wikidatawiki");
+		dpc.downloadDirectoryManager = dm;
+		dpc.setOfflineMode(true);
+		dpc.setParserThreadCount(threads);
+		dpc.setPreserveDocumentOrder(ordered);
+		dpc.setEntityIdInterning(internEntityIds);
+
+		IdRecordingProcessor processor = new IdRecordingProcessor();
+		dpc.registerEntityDocumentProcessor(processor, null, true);
+		dpc.processMostRecentJsonDump();
+
+		return processor;
+	}
+
 	private void setLocalJsonDumpFile(String fileName, String dateStamp,
 			MockDirectoryManager dm) throws IOException {
 
@@ -456,6 +456,43 @@ public class MwDumpFileProcessingTest {
 		assertEquals(1, edpCurrentCounter.propCount);
 	}
 
+	@Test
+	public void testMwDailyDumpFileProcessingInParallel() throws IOException {
+		Path dmPath = Paths.get(System.getProperty("user.dir"));
+		MockDirectoryManager dm = new MockDirectoryManager(dmPath, true, true);
+		setLocalDumpFile("20140420", DumpContentType.DAILY, dm);
+
+		DumpProcessingController dpc = new DumpProcessingController(
+				"wikidatawiki");
+		dpc.downloadDirectoryManager = dm;
+		dpc.setOfflineMode(true);
+		dpc.setParserThreadCount(4);
+
+		// the items of the dump, in the order of the dump
+		final List<String> labels = new ArrayList<>();
+		EntityDocumentProcessor edpAll = new EntityDocumentProcessor() {
+			@Override
+			public void processItemDocument(ItemDocument itemDocument) {
+				labels.add(itemDocument.findLabel("en"));
+			}
+		};
+		dpc.registerEntityDocumentProcessor(edpAll,
+				MwRevision.MODEL_WIKIBASE_ITEM, false);
+		TestEntityDocumentProcessor edpCurrentCounter = new TestEntityDocumentProcessor();
+		dpc.registerEntityDocumentProcessor(edpCurrentCounter,
+				MwRevision.MODEL_WIKIBASE_ITEM, true);
+
+		dpc.processDump(dpc.getMostRecentDump(DumpContentType.DAILY));
+
+		List<String> expectedLabels = new ArrayList<>();
+		expectedLabels.add("Revision 4");
+		expectedLabels.add("Revision 5");
+		expectedLabels.add("Revision 3");
+		expectedLabels.add("Revision 2");
+		assertEquals(expectedLabels, labels);
+		assertEquals(1, edpCurrentCounter.itemCount);
+	}
+
 	@Test
 	public void testMwRecentCurrentDumpFileProcessing() throws IOException {
 		Path dmPath = Paths.get(System.getProperty("user.dir"));
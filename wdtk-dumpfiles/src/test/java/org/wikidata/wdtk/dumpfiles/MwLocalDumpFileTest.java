@@ -22,6 +22,9 @@ package org.wikidata.wdtk.dumpfiles;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -114,6 +117,95 @@ public class MwLocalDumpFileTest {
 		df.getDumpFileReader();
 	}
 
+	static String getJsonDump(int entityCount) {
+		StringBuilder builder = new StringBuilder("[\n");
+		for (int i = 0; i < entityCount; i++) {
+			builder.append("{\"id\":\"Q").append(i).append("\"}");
+			builder.append(i < entityCount - 1 ? ",\n" : "\n");
+		}
+		return builder.append("]\n").toString();
+	}
+
+	static String getJsonShard(int fromEntity, int toEntity) {
+		StringBuilder builder = new StringBuilder("[\n");
+		for (int i = fromEntity; i < toEntity; i++) {
+			builder.append("{\"id\":\"Q").append(i).append("\"}");
+			builder.append(i < 99 ? ",\n" : "\n");
+		}
+		return builder.append("]\n").toString();
+	}
+
+	void testIndexedDump(String fileName, CompressionType compressionType)
+			throws IOException {
+		this.dm.setFileContents(this.dmPath.resolve(fileName),
+				getJsonDump(100), compressionType);
+		MwLocalDumpFile df = new MwLocalDumpFile("/" + fileName);
+		assertFalse(df.hasIndex());
+		df.buildIndex();
+		assertTrue(df.hasIndex());
+
+		// use a new object to read the index from its file
+		df = new MwLocalDumpFile("/" + fileName);
+		assertTrue(df.hasIndex());
+		assertEquals(100, df.getEntityCount());
+		assertEquals(getJsonShard(0, 100), readShard(df, 0, 100));
+		assertEquals(getJsonShard(0, 1), readShard(df, 0, 1));
+		assertEquals(getJsonShard(42, 57), readShard(df, 42, 57));
+		assertEquals(getJsonShard(90, 100), readShard(df, 90, 1000));
+		assertEquals(getJsonShard(0, 0), readShard(df, 100, 200));
+	}
+
+	static String readShard(MwLocalDumpFile df, long fromEntity, long toEntity)
+			throws IOException {
+		try (InputStream in = df.getDumpFileStream(fromEntity, toEntity)) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+	@Test
+	public void testIndexedDumpUncompressed() throws IOException {
+		testIndexedDump("testdump-20150512.json", CompressionType.NONE);
+	}
+
+	@Test
+	public void testIndexedDumpGzip() throws IOException {
+		testIndexedDump("testdump-20150512.json.gz", CompressionType.GZIP);
+	}
+
+	@Test
+	public void testIndexedDumpBz2() throws IOException {
+		testIndexedDump("testdump-20150512.json.bz2", CompressionType.BZ2);
+	}
+
+	@Test
+	public void testIndexedDumpProcessing() throws IOException {
+		this.dm.setFileContents(this.dmPath
+				.resolve("testdump-20150512.json.gz"), getJsonDump(10),
+				CompressionType.GZIP);
+		MwLocalDumpFile df = new MwLocalDumpFile(
+				"/testdump-20150512.json.gz");
+		df.buildIndex();
+
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(
+				df.getDumpFileStream(3, 5), StandardCharsets.UTF_8))) {
+			assertEquals("[", br.readLine());
+			assertEquals("{\"id\":\"Q3\"},", br.readLine());
+			assertEquals("{\"id\":\"Q4\"},", br.readLine());
+			assertEquals("]", br.readLine());
+			assertNull(br.readLine());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testMissingIndex() throws IOException {
+		this.dm.setFileContents(this.dmPath
+				.resolve("testdump-20150512.json.gz"), getJsonDump(10),
+				CompressionType.GZIP);
+		MwLocalDumpFile df = new MwLocalDumpFile(
+				"/testdump-20150512.json.gz");
+		df.getDumpFileStream(0, 5);
+	}
+
 	@Test
 	public void testGuessSitesDump() throws IOException {
 		this.dm.setFileContents(this.dmPath.resolve("test.sql.gz"), "");
@@ -150,6 +242,27 @@ public class MwLocalDumpFileTest {
 		assertEquals(df.getDumpContentType(), DumpContentType.CURRENT);
 	}
 
+	@Test
+	public void testGuessBinaryDump() throws IOException {
+		this.dm.setFileContents(
+				this.dmPath.resolve("wikidata-20150512.wdtk"), "");
+		MwLocalDumpFile df = new MwLocalDumpFile("/wikidata-20150512.wdtk");
+		assertTrue(df.isAvailable());
+		assertEquals("20150512", df.getDateStamp());
+		assertEquals(df.getDumpContentType(), DumpContentType.BINARY);
+	}
+
+	@Test
+	public void testGuessJsonDumpWithBinaryExtensionInName()
+			throws IOException {
+		this.dm.setFileContents(
+				this.dmPath.resolve("wikidata.wdtk-20150512.json.gz"), "");
+		MwLocalDumpFile df = new MwLocalDumpFile(
+				"/wikidata.wdtk-20150512.json.gz");
+		assertTrue(df.isAvailable());
+		assertEquals(df.getDumpContentType(), DumpContentType.JSON);
+	}
+
 	@Test
 	public void testGuessUnknownDumpType() throws IOException {
 		this.dm.setFileContents(this.dmPath.resolve("current-dump"), "");
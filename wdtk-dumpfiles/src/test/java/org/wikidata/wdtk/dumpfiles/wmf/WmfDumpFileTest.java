@@ -34,4 +34,20 @@ public class WmfDumpFileTest {
 		assertEquals(WmfDumpFile.getDumpFileCompressionType("baz.txt"), CompressionType.NONE);
 		assertEquals(WmfDumpFile.getDumpFileCompressionType("bat.txt"), CompressionType.NONE);
 	}
+
+	@Test
+	public void getCompressionTypeParallel() {
+		WmfDumpFile parallelDumpFile = new JsonOnlineDumpFile("20140220",
+				"wikidatawiki", null, null);
+		parallelDumpFile.setParallelDecompression(true);
+		WmfDumpFile dumpFile = new JsonOnlineDumpFile("20140220",
+				"wikidatawiki", null, null);
+
+		assertEquals(CompressionType.GZIP_PARALLEL, parallelDumpFile.getCompressionType("foo.tar.gz"));
+		assertEquals(CompressionType.BZ2_PARALLEL, parallelDumpFile.getCompressionType("bar.txt.bz2"));
+		assertEquals(CompressionType.NONE, parallelDumpFile.getCompressionType("baz.txt"));
+		// the setting only applies to the dump file it was made for
+		assertEquals(CompressionType.GZIP, dumpFile.getCompressionType("foo.tar.gz"));
+		assertEquals(CompressionType.GZIP, WmfDumpFile.getDumpFileCompressionType("foo.tar.gz"));
+	}
 }
@@ -22,6 +22,8 @@ package org.wikidata.wdtk.dumpfiles.wmf;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 
 import org.junit.Before;
@@ -93,6 +95,39 @@ public class WmfOnlineStandardDumpFileTest {
 		assertEquals(DumpContentType.CURRENT, dump.getDumpContentType());
 	}
 
+	@Test
+	public void readCurrentDumpWhileDownloading() throws IOException {
+		wrf.setWebResourceContentsFromResource(
+				"https://dumps.wikimedia.org/wikidatawiki/20140210/",
+				"/wikidatawiki-20140508-index.html", this.getClass());
+		wrf.setWebResourceContents(
+				"https://dumps.wikimedia.org/wikidatawiki/20140210/wikidatawiki-20140210-pages-meta-current.xml.bz2",
+				"Line1", CompressionType.BZ2);
+		wrf.setWebResourceContentsFromResource(
+				"https://dumps.wikimedia.org/wikidatawiki/20140210/wikidatawiki-20140210-md5sums.txt",
+				"/wikidatawiki-20140210-md5sums.txt", this.getClass());
+		WmfOnlineStandardDumpFile dump = new WmfOnlineStandardDumpFile(
+				"20140210", "wikidatawiki", wrf, dm, DumpContentType.CURRENT);
+
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(
+				dump.getDumpFileStreamWhileDownloading(),
+				StandardCharsets.UTF_8))) {
+			assertEquals("Line1", br.readLine());
+			assertNull(br.readLine());
+		}
+
+		assertTrue(dump.isPrepared);
+		assertTrue(dm.getSubdirectoryManager("current-20140210").hasFile(
+				"wikidatawiki-20140210-pages-meta-current.xml.bz2"));
+
+		// the downloaded file is used from now on
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(
+				dump.getDumpFileStreamWhileDownloading(),
+				StandardCharsets.UTF_8))) {
+			assertEquals("Line1", br.readLine());
+		}
+	}
+
 	@Test
 	public void missingFullDumpProperties() {
 		MwDumpFile dump = new WmfOnlineStandardDumpFile("20140210",
@@ -173,4 +208,26 @@ public class WmfOnlineStandardDumpFileTest {
 		dump.getDumpFileReader();
 	}
 
+	@Test
+	public void fetchMd5Sum() throws IOException {
+		wrf.setWebResourceContentsFromResource(
+				"https://dumps.wikimedia.org/wikidatawiki/20140210/wikidatawiki-20140210-md5sums.txt",
+				"/wikidatawiki-20140210-md5sums.txt", this.getClass());
+		WmfOnlineStandardDumpFile dump = new WmfOnlineStandardDumpFile(
+				"20140210", "wikidatawiki", wrf, dm, DumpContentType.CURRENT);
+
+		assertEquals("09f0c38c6409ac4765c19b7c771710ca",
+				dump.fetchMd5Sum("wikidatawiki-20140210-pages-meta-current.xml.bz2"));
+		assertNull(dump.fetchMd5Sum("wikidatawiki-20140210-no-such-file.xml.bz2"));
+	}
+
+	@Test
+	public void fetchMissingMd5Sum() {
+		WmfOnlineStandardDumpFile dump = new WmfOnlineStandardDumpFile(
+				"20140210", "wikidatawiki", wrf, dm, DumpContentType.CURRENT);
+
+		assertNull(dump.fetchMd5Sum("wikidatawiki-20140210-pages-meta-current.xml.bz2"));
+		assertNull(dump.getRangeRequestDownloader());
+	}
+
 }
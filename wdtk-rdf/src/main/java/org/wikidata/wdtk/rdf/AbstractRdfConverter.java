@@ -74,6 +74,29 @@ abstract public class AbstractRdfConverter {
 				this.snakRdfConverter, this.propertyRegister.siteUri);
 	}
 
+	/**
+	 * Sets the object that decides which complex values, such as times,
+	 * coordinates and quantities, have already been written. Their auxiliary
+	 * triples are only written for the first occurrence.
+	 *
+	 * @param deduplicator
+	 *            the deduplicator to use
+	 */
+	public void setValueDeduplicator(ResourceDeduplicator deduplicator) {
+		this.valueRdfConverter.setDeduplicator(deduplicator);
+	}
+
+	/**
+	 * Sets the object that decides which references have already been
+	 * written.
+	 *
+	 * @param deduplicator
+	 *            the deduplicator to use
+	 */
+	public void setReferenceDeduplicator(ResourceDeduplicator deduplicator) {
+		this.referenceRdfConverter.setDeduplicator(deduplicator);
+	}
+
 	/**
 	 * Writes OWL declarations for all basic vocabulary elements used in the
 	 * dump.
@@ -0,0 +1,94 @@
+package org.wikidata.wdtk.rdf;
+
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * {@link ResourceDeduplicator} based on a Bloom filter. Memory use is fixed
+ * by the expected number of resources and the false positive probability.
+ * <p>
+ * This deduplicator never writes a resource twice, but with the given
+ * probability, it reports a new resource as "probably seen". The triples of
+ * such resources are then missing from the output. This mode is only suitable
+ * if a small loss of auxiliary triples is acceptable.
+ */
+public class BloomFilterResourceDeduplicator extends ResourceDeduplicator {
+
+	final long[] bits;
+
+	final long bitMask;
+
+	final int hashFunctionCount;
+
+	/**
+	 * Creates a new Bloom filter.
+	 *
+	 * @param expectedResources
+	 *            number of distinct resources that are expected
+	 * @param falsePositiveProbability
+	 *            probability that a new resource is considered seen, when the
+	 *            expected number of resources has been added; must be between
+	 *            0 and 1
+	 */
+	public BloomFilterResourceDeduplicator(long expectedResources,
+			double falsePositiveProbability) {
+		if (expectedResources < 1) {
+			throw new IllegalArgumentException(
+					"The number of expected resources must be positive.");
+		}
+		if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+			throw new IllegalArgumentException(
+					"The false positive probability must be between 0 and 1.");
+		}
+		double optimalBits = -expectedResources
+				* Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2));
+		// rounded up to a power of two, so that bits can be chosen by masking
+		long bitCount = Math.max(Long.SIZE,
+				Long.highestOneBit((long) Math.ceil(optimalBits) - 1) << 1);
+		if (bitCount > (long) Integer.MAX_VALUE * Long.SIZE) {
+			throw new IllegalArgumentException(
+					"The Bloom filter would be too large.");
+		}
+		this.bits = new long[(int) (bitCount / Long.SIZE)];
+		this.bitMask = bitCount - 1;
+		this.hashFunctionCount = (int) Math.max(1,
+				Math.round(bitCount / (double) expectedResources * Math.log(2)));
+	}
+
+	@Override
+	protected boolean addKey(long high, long low) {
+		boolean isNew = false;
+		long hash = high;
+		// odd step, so that all positions differ
+		long step = low | 1;
+		for (int i = 0; i < this.hashFunctionCount; i++) {
+			long position = hash & this.bitMask;
+			int index = (int) (position >>> 6);
+			long bit = 1L << position;
+			if ((this.bits[index] & bit) == 0) {
+				this.bits[index] |= bit;
+				isNew = true;
+			}
+			hash += step;
+		}
+		return isNew;
+	}
+
+}
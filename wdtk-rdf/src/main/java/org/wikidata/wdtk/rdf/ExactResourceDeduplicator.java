@@ -0,0 +1,160 @@
+package org.wikidata.wdtk.rdf;
+
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * Exact {@link ResourceDeduplicator}. The 128-bit keys are stored in an open
+ * addressing hash table outside of the Java heap, using 16 bytes per slot.
+ * The table grows when it is half full, so memory grows with the number of
+ * distinct resources, but is much smaller than for a set of IRI objects and
+ * does not burden the garbage collector.
+ */
+public class ExactResourceDeduplicator extends ResourceDeduplicator {
+
+	static final int SLOT_BYTES = 16;
+
+	/**
+	 * Number of slots stored in one direct buffer.
+	 */
+	static final int LG_SEGMENT_SLOTS = 22;
+
+	static final int SEGMENT_SLOT_MASK = (1 << LG_SEGMENT_SLOTS) - 1;
+
+	static final int DEFAULT_INITIAL_CAPACITY = 1 << 16;
+
+	ByteBuffer[] segments;
+
+	/**
+	 * Number of slots of the table, always a power of two.
+	 */
+	long capacity;
+
+	long size = 0;
+
+	/**
+	 * The all-zero key marks empty slots, so it is recorded separately.
+	 */
+	boolean containsZeroKey = false;
+
+	/**
+	 * Creates a new empty set with a default initial capacity.
+	 */
+	public ExactResourceDeduplicator() {
+		this(DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Creates a new empty set.
+	 *
+	 * @param initialCapacity
+	 *            number of resources that can be stored before the table has
+	 *            to grow
+	 */
+	public ExactResourceDeduplicator(long initialCapacity) {
+		if (initialCapacity < 1) {
+			throw new IllegalArgumentException(
+					"The initial capacity must be positive.");
+		}
+		allocate(Long.highestOneBit(2 * initialCapacity - 1) << 1);
+	}
+
+	/**
+	 * Returns the number of distinct resources in the set.
+	 *
+	 * @return number of resources
+	 */
+	public synchronized long size() {
+		return this.size + (this.containsZeroKey ? 1 : 0);
+	}
+
+	@Override
+	protected boolean addKey(long high, long low) {
+		if (high == 0 && low == 0) {
+			boolean isNew = !this.containsZeroKey;
+			this.containsZeroKey = true;
+			return isNew;
+		}
+		if (!insert(high, low)) {
+			return false;
+		}
+		this.size++;
+		if (2 * this.size > this.capacity) {
+			grow();
+		}
+		return true;
+	}
+
+	/**
+	 * Inserts a non-zero key into the table, which must have a free slot.
+	 *
+	 * @return true if the key was not in the table before
+	 */
+	boolean insert(long high, long low) {
+		long mask = this.capacity - 1;
+		long slot = mix(high, low) & mask;
+		while (true) {
+			ByteBuffer segment = this.segments[(int) (slot >>> LG_SEGMENT_SLOTS)];
+			int offset = ((int) slot & SEGMENT_SLOT_MASK) * SLOT_BYTES;
+			long slotHigh = segment.getLong(offset);
+			long slotLow = segment.getLong(offset + 8);
+			if (slotHigh == 0 && slotLow == 0) {
+				segment.putLong(offset, high);
+				segment.putLong(offset + 8, low);
+				return true;
+			}
+			if (slotHigh == high && slotLow == low) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	void allocate(long slots) {
+		this.capacity = slots;
+		int segmentCount = (int) ((slots + SEGMENT_SLOT_MASK) >>> LG_SEGMENT_SLOTS);
+		int segmentSlots = (int) Math.min(slots, 1 << LG_SEGMENT_SLOTS);
+		this.segments = new ByteBuffer[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			this.segments[i] = ByteBuffer.allocateDirect(segmentSlots
+					* SLOT_BYTES);
+		}
+	}
+
+	/**
+	 * Doubles the size of the table and inserts all keys again.
+	 */
+	void grow() {
+		ByteBuffer[] oldSegments = this.segments;
+		allocate(2 * this.capacity);
+		for (ByteBuffer segment : oldSegments) {
+			for (int offset = 0; offset < segment.capacity(); offset += SLOT_BYTES) {
+				long high = segment.getLong(offset);
+				long low = segment.getLong(offset + 8);
+				if (high != 0 || low != 0) {
+					insert(high, low);
+				}
+			}
+		}
+	}
+
+}
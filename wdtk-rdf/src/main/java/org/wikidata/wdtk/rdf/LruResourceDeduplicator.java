@@ -0,0 +1,96 @@
+package org.wikidata.wdtk.rdf;
+
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link ResourceDeduplicator} that only remembers a bounded number of the
+ * most recently used resources. Memory use is constant, but a resource that
+ * has not been seen for a long time is written again. Since values such as
+ * common dates are used very often, most duplicates are still found.
+ */
+public class LruResourceDeduplicator extends ResourceDeduplicator {
+
+	/**
+	 * Number of resources remembered by the deduplicators that the RDF
+	 * converters use if no other deduplicator is set.
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+
+	final LinkedHashMap<Key, Boolean> recentKeys;
+
+	/**
+	 * Creates a new deduplicator.
+	 *
+	 * @param capacity
+	 *            maximal number of resources to remember
+	 */
+	public LruResourceDeduplicator(final int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException(
+					"The capacity must be positive.");
+		}
+		this.recentKeys = new LinkedHashMap<Key, Boolean>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	@Override
+	protected boolean addKey(long high, long low) {
+		return this.recentKeys.put(new Key(high, low), Boolean.TRUE) == null;
+	}
+
+	/**
+	 * A 128-bit key.
+	 */
+	static class Key {
+
+		final long high;
+		final long low;
+
+		Key(long high, long low) {
+			this.high = high;
+			this.low = low;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(mix(this.high, this.low));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return this.high == other.high && this.low == other.low;
+		}
+	}
+
+}
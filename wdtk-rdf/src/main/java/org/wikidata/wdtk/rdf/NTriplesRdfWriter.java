@@ -0,0 +1,454 @@
+package org.wikidata.wdtk.rdf;
+
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+
+/**
+ * {@link RdfWriter} that writes N-Triples directly into a byte buffer, which
+ * is written to the output stream whenever it is full. Unlike the default
+ * implementation, it does not create RDF4J literals and statements for each
+ * triple and does not go through a Rio writer.
+ * <p>
+ * The encoded forms of the vocabulary IRIs defined in {@link RdfWriter} are
+ * computed once. Other short IRIs, such as those of entities and properties,
+ * are encoded when they are first used and kept in a bounded cache. Long
+ * IRIs, which usually end with a hash or UUID and are rarely repeated, are
+ * encoded each time.
+ * <p>
+ * Like Rio's N-Triples writer, literals of type xsd:string are written
+ * without datatype. Characters that are not allowed in N-Triples are
+ * escaped; all other characters are written in UTF-8. Namespace declarations
+ * are ignored, since N-Triples has none.
+ */
+public class NTriplesRdfWriter extends RdfWriter {
+
+	static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Space that is reserved in the buffer for writing one character. The
+	 * longest encoding is a Unicode escape sequence.
+	 */
+	static final int MAX_CHARACTER_BYTES = 6;
+
+	/**
+	 * Maximal length of IRIs that are cached.
+	 */
+	static final int MAX_CACHED_IRI_LENGTH = 56;
+
+	/**
+	 * Maximal number of IRIs in the cache. The cache is cleared when it is
+	 * full.
+	 */
+	static final int MAX_CACHED_IRIS = 1 << 16;
+
+	static final byte[] HEX_DIGITS = "0123456789ABCDEF"
+			.getBytes(StandardCharsets.US_ASCII);
+
+	static final byte[] BNODE_PREFIX = { '_', ':' };
+
+	/**
+	 * Encoded forms of the IRI constants of {@link RdfWriter}.
+	 */
+	static final Map<String, byte[]> vocabularyIris = new HashMap<>();
+
+	/**
+	 * Encoded datatype suffix of integer literals.
+	 */
+	static final byte[] XSD_INT_DATATYPE;
+
+	static {
+		NTriplesRdfWriter encoder = new NTriplesRdfWriter(
+				OutputStream.nullOutputStream());
+		for (Field field : RdfWriter.class.getFields()) {
+			if (Modifier.isStatic(field.getModifiers())
+					&& field.getType() == IRI.class) {
+				try {
+					String iri = ((IRI) field.get(null)).stringValue();
+					vocabularyIris.put(iri, encoder.writeAndEncodeIri(iri));
+				} catch (IllegalAccessException e) {
+					throw new RuntimeException(e.toString(), e);
+				}
+			}
+		}
+		int start = encoder.position;
+		encoder.writeDatatype(XSD_INT);
+		XSD_INT_DATATYPE = Arrays.copyOfRange(encoder.buffer, start,
+				encoder.position);
+	}
+
+	final OutputStream output;
+
+	final byte[] buffer = new byte[BUFFER_SIZE];
+
+	int position = 0;
+
+	final Map<String, byte[]> iriCache = new HashMap<>();
+
+	/**
+	 * Creates a new writer.
+	 *
+	 * @param output
+	 *            the stream to write to; it is flushed but not closed in
+	 *            {@link #finish()}
+	 */
+	public NTriplesRdfWriter(OutputStream output) {
+		this.output = output;
+	}
+
+	@Override
+	public void start() throws RDFHandlerException {
+		this.tripleCount = 0;
+	}
+
+	@Override
+	public void finish() throws RDFHandlerException {
+		flush();
+	}
+
+	/**
+	 * Writes all buffered triples to the output stream and flushes it.
+	 *
+	 * @throws RDFHandlerException
+	 *             if the output stream could not be written
+	 */
+	public void flush() throws RDFHandlerException {
+		writeBuffer();
+		try {
+			this.output.flush();
+		} catch (IOException e) {
+			throw new RDFHandlerException(e);
+		}
+	}
+
+	@Override
+	public void writeNamespaceDeclaration(String prefix, String uri) {
+		// N-Triples has no namespace declarations
+	}
+
+	@Override
+	public void writeTripleStringObject(Resource subject, IRI predicate,
+			String objectLiteral) throws RDFHandlerException {
+		writeSubjectAndPredicate(subject, predicate);
+		writeStringLiteral(objectLiteral);
+		endTriple();
+	}
+
+	@Override
+	public void writeTripleIntegerObject(Resource subject, IRI predicate,
+			int objectLiteral) throws RDFHandlerException {
+		writeSubjectAndPredicate(subject, predicate);
+		ensureCapacity(13);
+		writeByte('"');
+		writeInt(objectLiteral);
+		writeByte('"');
+		writeBytes(XSD_INT_DATATYPE);
+		endTriple();
+	}
+
+	@Override
+	public void writeTripleUriObject(String subjectUri, IRI predicate,
+			String objectUri) throws RDFHandlerException {
+		writeIri(subjectUri);
+		writeByte(' ');
+		writeIri(predicate.stringValue());
+		writeByte(' ');
+		writeIri(objectUri);
+		endTriple();
+	}
+
+	@Override
+	public void writeTripleUriObject(Resource subject, IRI predicate,
+			String objectUri) throws RDFHandlerException {
+		writeSubjectAndPredicate(subject, predicate);
+		writeIri(objectUri);
+		endTriple();
+	}
+
+	@Override
+	public void writeTripleValueObject(String subjectUri, IRI predicate,
+			Value object) throws RDFHandlerException {
+		writeIri(subjectUri);
+		writeByte(' ');
+		writeIri(predicate.stringValue());
+		writeByte(' ');
+		writeValue(object);
+		endTriple();
+	}
+
+	@Override
+	public void writeTripleValueObject(Resource subject, IRI predicate,
+			Value object) throws RDFHandlerException {
+		writeSubjectAndPredicate(subject, predicate);
+		writeValue(object);
+		endTriple();
+	}
+
+	@Override
+	public void writeTripleLiteralObject(Resource subject, IRI predicate,
+			String objectLexicalValue, IRI datatype) throws RDFHandlerException {
+		writeSubjectAndPredicate(subject, predicate);
+		writeStringLiteral(objectLexicalValue);
+		writeDatatype(datatype);
+		endTriple();
+	}
+
+	void writeSubjectAndPredicate(Resource subject, IRI predicate) {
+		writeValue(subject);
+		writeByte(' ');
+		writeIri(predicate.stringValue());
+		writeByte(' ');
+	}
+
+	void endTriple() {
+		ensureCapacity(3);
+		writeByte(' ');
+		writeByte('.');
+		writeByte('\n');
+		this.tripleCount++;
+	}
+
+	void writeValue(Value value) {
+		if (value instanceof IRI) {
+			writeIri(value.stringValue());
+		} else if (value instanceof BNode) {
+			writeBytes(BNODE_PREFIX);
+			writeString(((BNode) value).getID(), false);
+		} else if (value instanceof Literal) {
+			Literal literal = (Literal) value;
+			writeStringLiteral(literal.getLabel());
+			Optional<String> language = literal.getLanguage();
+			if (language.isPresent()) {
+				writeByte('@');
+				writeString(language.get(), false);
+			} else {
+				writeDatatype(literal.getDatatype());
+			}
+		} else {
+			throw new IllegalArgumentException("Unsupported RDF value: "
+					+ value);
+		}
+	}
+
+	void writeDatatype(IRI datatype) {
+		if (datatype == null || XSD_STRING.equals(datatype)) {
+			return;
+		}
+		writeByte('^');
+		writeByte('^');
+		writeIri(datatype.stringValue());
+	}
+
+	void writeStringLiteral(String value) {
+		writeByte('"');
+		writeString(value, false);
+		writeByte('"');
+	}
+
+	/**
+	 * Writes an IRI in angle brackets, using the encoded forms of vocabulary
+	 * and cached IRIs if possible.
+	 */
+	void writeIri(String iri) {
+		byte[] encoded = vocabularyIris.get(iri);
+		if (encoded == null && iri.length() <= MAX_CACHED_IRI_LENGTH) {
+			encoded = this.iriCache.get(iri);
+			if (encoded == null) {
+				if (this.iriCache.size() >= MAX_CACHED_IRIS) {
+					this.iriCache.clear();
+				}
+				this.iriCache.put(iri, writeAndEncodeIri(iri));
+				return;
+			}
+		}
+		if (encoded != null) {
+			writeBytes(encoded);
+		} else {
+			writeByte('<');
+			writeString(iri, true);
+			writeByte('>');
+		}
+	}
+
+	/**
+	 * Writes the given string in UTF-8, escaping the characters that are not
+	 * allowed in N-Triples IRIs or literals, respectively.
+	 */
+	void writeString(String s, boolean isIri) {
+		int length = s.length();
+		for (int i = 0; i < length; i++) {
+			ensureCapacity(MAX_CHARACTER_BYTES);
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				writeAsciiCharacter(c, isIri);
+			} else if (c < 0x800) {
+				this.buffer[this.position++] = (byte) (0xC0 | (c >> 6));
+				this.buffer[this.position++] = (byte) (0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < length
+					&& Character.isLowSurrogate(s.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, s.charAt(++i));
+				this.buffer[this.position++] = (byte) (0xF0 | (codePoint >> 18));
+				this.buffer[this.position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				this.buffer[this.position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				this.buffer[this.position++] = (byte) (0x80 | (codePoint & 0x3F));
+			} else {
+				if (Character.isSurrogate(c)) {
+					// unpaired surrogates cannot be encoded
+					c = '\uFFFD';
+				}
+				this.buffer[this.position++] = (byte) (0xE0 | (c >> 12));
+				this.buffer[this.position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				this.buffer[this.position++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+	}
+
+	void writeAsciiCharacter(char c, boolean isIri) {
+		if (isIri) {
+			if (c <= 0x20 || c == '<' || c == '>' || c == '"' || c == '{'
+					|| c == '}' || c == '|' || c == '^' || c == '`'
+					|| c == '\\' || c == 0x7F) {
+				writeUnicodeEscape(c);
+				return;
+			}
+		} else {
+			switch (c) {
+			case '\\':
+			case '"':
+				this.buffer[this.position++] = '\\';
+				this.buffer[this.position++] = (byte) c;
+				return;
+			case '\n':
+				this.buffer[this.position++] = '\\';
+				this.buffer[this.position++] = 'n';
+				return;
+			case '\r':
+				this.buffer[this.position++] = '\\';
+				this.buffer[this.position++] = 'r';
+				return;
+			case '\t':
+				this.buffer[this.position++] = '\\';
+				this.buffer[this.position++] = 't';
+				return;
+			default:
+				if (c < 0x20 || c == 0x7F) {
+					writeUnicodeEscape(c);
+					return;
+				}
+			}
+		}
+		this.buffer[this.position++] = (byte) c;
+	}
+
+	void writeUnicodeEscape(char c) {
+		this.buffer[this.position++] = '\\';
+		this.buffer[this.position++] = 'u';
+		for (int shift = 12; shift >= 0; shift -= 4) {
+			this.buffer[this.position++] = HEX_DIGITS[(c >> shift) & 0xF];
+		}
+	}
+
+	/**
+	 * Writes the decimal digits of the given number. The buffer must have
+	 * space for 11 bytes.
+	 */
+	void writeInt(int value) {
+		long rest = value;
+		if (rest < 0) {
+			this.buffer[this.position++] = '-';
+			rest = -rest;
+		}
+		int digits = 1;
+		for (long bound = 10; bound <= rest; bound *= 10) {
+			digits++;
+		}
+		for (int i = this.position + digits - 1; i >= this.position; i--) {
+			this.buffer[i] = (byte) ('0' + rest % 10);
+			rest /= 10;
+		}
+		this.position += digits;
+	}
+
+	void writeByte(char c) {
+		ensureCapacity(1);
+		this.buffer[this.position++] = (byte) c;
+	}
+
+	void writeBytes(byte[] bytes) {
+		if (bytes.length > this.buffer.length - this.position) {
+			writeBuffer();
+			if (bytes.length > this.buffer.length) {
+				writeToOutput(bytes, bytes.length);
+				return;
+			}
+		}
+		System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+		this.position += bytes.length;
+	}
+
+	void ensureCapacity(int bytes) {
+		if (this.buffer.length - this.position < bytes) {
+			writeBuffer();
+		}
+	}
+
+	void writeBuffer() {
+		writeToOutput(this.buffer, this.position);
+		this.position = 0;
+	}
+
+	void writeToOutput(byte[] bytes, int length) {
+		try {
+			this.output.write(bytes, 0, length);
+		} catch (IOException e) {
+			throw new RDFHandlerException(e);
+		}
+	}
+
+	/**
+	 * Writes a short IRI in angle brackets and returns a copy of the bytes
+	 * that were written.
+	 */
+	byte[] writeAndEncodeIri(String iri) {
+		ensureCapacity(MAX_CACHED_IRI_LENGTH * MAX_CHARACTER_BYTES + 2);
+		int start = this.position;
+		this.buffer[this.position++] = '<';
+		writeString(iri, true);
+		this.buffer[this.position++] = '>';
+		return Arrays.copyOfRange(this.buffer, start, this.position);
+	}
+
+}
@@ -0,0 +1,344 @@
+package org.wikidata.wdtk.rdf;
+
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentDumpProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.Sites;
+
+/**
+ * Parallel variant of {@link RdfSerializer} that writes N-Triples.
+ * <p>
+ * Documents are converted by a pool of worker threads. Each worker has its
+ * own {@link RdfConverter}, which writes the triples of one document into a
+ * buffer of the worker, using an {@link NTriplesRdfWriter}. The buffers are
+ * then written to the output on the thread that delivers the documents, in
+ * the order in which the documents were received. The number of documents
+ * in flight is bounded per worker.
+ * <p>
+ * The output can be split into several shards: the documents are distributed
+ * over the given output streams in turn. Since every line of N-Triples is a
+ * complete triple, the shards can be loaded separately or concatenated.
+ * <p>
+ * By default, auxiliary triples, e.g., for references and complex values, are
+ * only deduplicated within each worker. The output may therefore contain some
+ * triples more than once, which does not change the RDF graph. A
+ * {@link ResourceDeduplicator} that is shared by all workers can be set with
+ * {@link #setValueDeduplicator(ResourceDeduplicator)} and
+ * {@link #setReferenceDeduplicator(ResourceDeduplicator)}.
+ * <p>
+ * The {@link PropertyRegister} is shared by all workers. Lookups of known
+ * properties do not lock the register, so the workers only wait for each
+ * other when a property has to be fetched. Loading a snapshot of the
+ * register with {@link PropertyRegister#loadSnapshot(java.io.InputStream)}
+ * before processing a dump avoids such fetches.
+ */
+public class ParallelRdfSerializer implements EntityDocumentDumpProcessor {
+
+	/**
+	 * Maximal number of documents that are waiting to be converted or written
+	 * per worker thread. This bounds the memory used for buffering.
+	 */
+	static final int DOCUMENTS_PER_THREAD = 64;
+
+	final List<OutputStream> outputs;
+	final Sites sites;
+	final PropertyRegister propertyRegister;
+	final int threadCount;
+
+	/**
+	 * Workers of the threads of the pool. Each thread of the pool creates its
+	 * own worker when it converts its first document.
+	 */
+	final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+	final ArrayDeque<Future<ConvertedDocument>> pending = new ArrayDeque<>();
+
+	volatile int tasks = RdfSerializer.TASK_ALL_ENTITIES
+			| RdfSerializer.TASK_ALL_EXACT_DATA;
+
+	volatile ResourceDeduplicator valueDeduplicator = null;
+
+	volatile ResourceDeduplicator referenceDeduplicator = null;
+
+	ExecutorService executor;
+
+	long documentCount = 0;
+
+	long tripleCount = 0;
+
+	/**
+	 * Creates a new parallel RDF serializer that writes to a single output
+	 * stream.
+	 *
+	 * @param output
+	 *            the output stream to write to
+	 * @param sites
+	 *            information about site links
+	 * @param propertyRegister
+	 *            the property register used by all worker threads
+	 * @param threadCount
+	 *            number of threads used to convert documents
+	 */
+	public ParallelRdfSerializer(OutputStream output, Sites sites,
+			PropertyRegister propertyRegister, int threadCount) {
+		this(Collections.singletonList(output), sites, propertyRegister,
+				threadCount);
+	}
+
+	/**
+	 * Creates a new parallel RDF serializer that distributes the documents
+	 * over several output streams.
+	 *
+	 * @param outputs
+	 *            the output streams of the shards; the first one also
+	 *            receives the basic declarations
+	 * @param sites
+	 *            information about site links
+	 * @param propertyRegister
+	 *            the property register used by all worker threads
+	 * @param threadCount
+	 *            number of threads used to convert documents
+	 */
+	public ParallelRdfSerializer(List<OutputStream> outputs, Sites sites,
+			PropertyRegister propertyRegister, int threadCount) {
+		if (threadCount < 1) {
+			throw new IllegalArgumentException(
+					"The number of threads must be positive.");
+		}
+		if (outputs.isEmpty()) {
+			throw new IllegalArgumentException(
+					"At least one output stream is needed.");
+		}
+		this.outputs = outputs;
+		this.sites = sites;
+		this.propertyRegister = propertyRegister;
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Sets the tasks that should be performed during export. The value should
+	 * be a combination of flags such as {@link RdfSerializer#TASK_STATEMENTS}.
+	 *
+	 * @param tasks
+	 *            the tasks to be performed
+	 */
+	public void setTasks(int tasks) {
+		this.tasks = tasks;
+	}
+
+	/**
+	 * Returns the tasks that should be performed during export. The value
+	 * should be a combination of flags such as
+	 * {@link RdfSerializer#TASK_STATEMENTS}.
+	 *
+	 * @return tasks to be performed
+	 */
+	public int getTasks() {
+		return this.tasks;
+	}
+
+	/**
+	 * Sets the object that decides which complex values have already been
+	 * written, shared by all worker threads. Must be called before
+	 * {@link #open()}.
+	 *
+	 * @param deduplicator
+	 *            the deduplicator to use
+	 */
+	public void setValueDeduplicator(ResourceDeduplicator deduplicator) {
+		this.valueDeduplicator = deduplicator;
+	}
+
+	/**
+	 * Sets the object that decides which references have already been
+	 * written, shared by all worker threads. Must be called before
+	 * {@link #open()}.
+	 *
+	 * @param deduplicator
+	 *            the deduplicator to use
+	 */
+	public void setReferenceDeduplicator(ResourceDeduplicator deduplicator) {
+		this.referenceDeduplicator = deduplicator;
+	}
+
+	/**
+	 * Returns the number of triples that have been written so far. Triples of
+	 * documents that are still being converted are not counted.
+	 *
+	 * @return number of triples
+	 */
+	public long getTripleCount() {
+		return this.tripleCount;
+	}
+
+	@Override
+	public void open() {
+		this.executor = Executors.newFixedThreadPool(this.threadCount);
+		try {
+			RdfWriter rdfWriter = new NTriplesRdfWriter(this.outputs.get(0));
+			rdfWriter.start();
+			new RdfConverter(rdfWriter, this.sites, this.propertyRegister)
+					.writeBasicDeclarations();
+			// flushes the output without closing it
+			rdfWriter.finish();
+			this.tripleCount += rdfWriter.getTripleCount();
+		} catch (RDFHandlerException e) { // we cannot recover here
+			throw new RuntimeException(e.toString(), e);
+		}
+	}
+
+	@Override
+	public void processItemDocument(ItemDocument itemDocument) {
+		submitDocument(itemDocument);
+	}
+
+	@Override
+	public void processPropertyDocument(PropertyDocument propertyDocument) {
+		submitDocument(propertyDocument);
+	}
+
+	@Override
+	public void close() {
+		try {
+			while (!this.pending.isEmpty()) {
+				writeNextDocument();
+			}
+		} finally {
+			this.executor.shutdownNow();
+		}
+		for (OutputStream output : this.outputs) {
+			try {
+				output.close();
+			} catch (IOException e) {
+				throw new RuntimeException(e.toString(), e);
+			}
+		}
+	}
+
+	/**
+	 * Passes a document to the worker threads. If too many documents are
+	 * pending, the oldest ones are written first.
+	 *
+	 * @param document
+	 *            the document to convert
+	 */
+	void submitDocument(EntityDocument document) {
+		final int shard = (int) (this.documentCount++ % this.outputs.size());
+		this.pending.add(this.executor.submit(() -> this.workers.get()
+				.convert(document, shard)));
+		if (this.pending.size() >= this.threadCount * DOCUMENTS_PER_THREAD) {
+			writeNextDocument();
+		}
+	}
+
+	/**
+	 * Waits for the oldest pending document to be converted and writes its
+	 * triples to the output of its shard.
+	 */
+	void writeNextDocument() {
+		try {
+			ConvertedDocument converted = this.pending.poll().get();
+			this.outputs.get(converted.shard).write(converted.triples);
+			this.tripleCount += converted.tripleCount;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while serializing RDF", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause().toString(), e.getCause());
+		} catch (IOException e) {
+			throw new RuntimeException(e.toString(), e);
+		}
+	}
+
+	/**
+	 * The N-Triples of one document, ready to be written.
+	 */
+	static class ConvertedDocument {
+
+		final int shard;
+		final byte[] triples;
+		final long tripleCount;
+
+		ConvertedDocument(int shard, byte[] triples, long tripleCount) {
+			this.shard = shard;
+			this.triples = triples;
+			this.tripleCount = tripleCount;
+		}
+	}
+
+	/**
+	 * Converter and buffer of a single worker thread.
+	 */
+	class Worker {
+
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final NTriplesRdfWriter rdfWriter;
+		final RdfConverter rdfConverter;
+
+		Worker() {
+			this.rdfWriter = new NTriplesRdfWriter(this.buffer);
+			this.rdfConverter = new RdfConverter(this.rdfWriter,
+					ParallelRdfSerializer.this.sites,
+					ParallelRdfSerializer.this.propertyRegister);
+			if (ParallelRdfSerializer.this.valueDeduplicator != null) {
+				this.rdfConverter.setValueDeduplicator(
+						ParallelRdfSerializer.this.valueDeduplicator);
+			}
+			if (ParallelRdfSerializer.this.referenceDeduplicator != null) {
+				this.rdfConverter.setReferenceDeduplicator(
+						ParallelRdfSerializer.this.referenceDeduplicator);
+			}
+			this.rdfWriter.start();
+		}
+
+		ConvertedDocument convert(EntityDocument document, int shard) {
+			this.rdfConverter.setTasks(ParallelRdfSerializer.this.tasks);
+			long previousTripleCount = this.rdfWriter.getTripleCount();
+			if (document instanceof ItemDocument) {
+				this.rdfConverter.writeItemDocument((ItemDocument) document);
+			} else {
+				this.rdfConverter
+						.writePropertyDocument((PropertyDocument) document);
+			}
+			this.rdfWriter.flush();
+			byte[] triples = this.buffer.toByteArray();
+			this.buffer.reset();
+			return new ConvertedDocument(shard, triples,
+					this.rdfWriter.getTripleCount() - previousTripleCount);
+		}
+	}
+
+}
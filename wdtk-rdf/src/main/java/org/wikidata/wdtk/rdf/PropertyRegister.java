@@ -23,14 +23,22 @@ import java.io.IOException;
  */
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Map.Entry;
 
+import tools.jackson.core.JacksonException;
 import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
 
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.ValueFactory;
@@ -42,6 +50,7 @@ import org.wikidata.wdtk.datamodel.implementation.EntityIdValueImpl;
 import org.wikidata.wdtk.datamodel.implementation.PropertyIdValueImpl;
 import org.wikidata.wdtk.datamodel.interfaces.DatatypeIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
 import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.GlobeCoordinatesValue;
 import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
@@ -61,6 +70,22 @@ import org.wikidata.wdtk.wikibaseapi.apierrors.MediaWikiApiErrorException;
 /**
  * This class helps to manage information about Properties that has to obtained
  * by a webservice.
+ * <p>
+ * One register can be shared by several threads that convert documents in
+ * parallel. Lookups of known properties read an immutable copy of the known
+ * information and do not lock the register. Updates are synchronized, and
+ * unknown properties are fetched without holding the lock; a property that
+ * is already being fetched by one thread is not fetched again by others.
+ * <p>
+ * The known information can be saved with {@link #writeSnapshot(OutputStream)}
+ * and restored with {@link #loadSnapshot(InputStream)}, so that later jobs do
+ * not have to fetch it again. A snapshot can be built from a dump, using
+ * {@link #getPropertyDocumentProcessor()}, or with
+ * {@link #fetchUsingSPARQL(URI)}. To avoid blocking Web requests during
+ * conversion, fetching on demand can be disabled with
+ * {@link #setFetchOnDemand(boolean)}; unknown properties are then fetched by
+ * {@link #refresh()}, which can also run in the background, see
+ * {@link #startBackgroundRefresh(long, TimeUnit)}.
  *
  * @author Michael Guenther
  *
@@ -120,6 +145,41 @@ public class PropertyRegister {
 	 */
 	final Set<String> knownMissing;
 
+	/**
+	 * If false, unknown properties are not fetched when they are looked up,
+	 * but are remembered in {@link #pendingProperties} for the next refresh.
+	 */
+	volatile boolean fetchOnDemand = true;
+
+	/**
+	 * Properties that were looked up but are not known yet, and that should
+	 * be fetched on the next refresh.
+	 */
+	final Set<String> pendingProperties = new LinkedHashSet<>();
+
+	/**
+	 * Immutable copy of the known information about properties, by their
+	 * Pids, which is read by lookups without locking. Properties that are
+	 * known to be missing, or that wait for the next refresh while fetching on
+	 * demand is disabled, are included with empty information, so that
+	 * looking them up again does not lock the register either. It is set to
+	 * null whenever the known information changes, and created again on the
+	 * next lookup.
+	 */
+	volatile Map<String, PropertyInformation> knownProperties = null;
+
+	/**
+	 * Fetches of property information that are in progress, by the Pids of
+	 * all properties that are requested. A thread that looks up one of these
+	 * properties waits for the running fetch instead of fetching again.
+	 */
+	final Map<String, CompletableFuture<Void>> runningFetches = new HashMap<>();
+
+	/**
+	 * Executor that runs background refreshes, or null if there are none.
+	 */
+	ScheduledExecutorService refreshExecutor = null;
+
 	static final PropertyRegister WIKIDATA_PROPERTY_REGISTER = new PropertyRegister(
 			"P1921", BasicApiConnection.getWikidataApiConnection(),
 			Datamodel.SITE_WIKIDATA);
@@ -175,10 +235,7 @@ public class PropertyRegister {
 	 *         not be determined
 	 */
 	public String getPropertyType(PropertyIdValue propertyIdValue) {
-		if (!datatypes.containsKey(propertyIdValue.getId())) {
-			fetchPropertyInformation(propertyIdValue);
-		}
-		return datatypes.get(propertyIdValue.getId());
+		return getPropertyInformation(propertyIdValue).datatype;
 	}
 
 	/**
@@ -188,10 +245,10 @@ public class PropertyRegister {
 	 * @param propertyIdValue
 	 * @param datatypeIri
 	 */
-	public void setPropertyType(PropertyIdValue propertyIdValue,
+	public synchronized void setPropertyType(PropertyIdValue propertyIdValue,
 			String datatypeIri) {
 		datatypes.put(propertyIdValue.getId(), datatypeIri);
-
+		this.knownProperties = null;
 	}
 
 	/**
@@ -205,11 +262,102 @@ public class PropertyRegister {
 	 *         was found for the given property
 	 */
 	public String getPropertyUriPattern(PropertyIdValue propertyIdValue) {
-		if (!this.datatypes.containsKey(propertyIdValue.getId())) {
-			fetchPropertyInformation(propertyIdValue);
+		return getPropertyInformation(propertyIdValue).uriPattern;
+	}
+
+	/**
+	 * Returns the known information about the given property. The lock of
+	 * the register is only taken if the property is not in
+	 * {@link #knownProperties}, and it is not held while an unknown property
+	 * is fetched.
+	 *
+	 * @param propertyIdValue
+	 *            the property to look up
+	 * @return the information about the property, with null fields if the
+	 *         property is not known
+	 */
+	PropertyInformation getPropertyInformation(PropertyIdValue propertyIdValue) {
+		String propertyId = propertyIdValue.getId();
+		Map<String, PropertyInformation> known = this.knownProperties;
+		PropertyInformation information = known == null ? null : known.get(propertyId);
+		if (information == null) {
+			information = getKnownProperties(propertyId).get(propertyId);
+		}
+		if (information == null) {
+			lookUpUnknownProperty(propertyIdValue);
+			information = getKnownProperties(propertyId).get(propertyId);
+		}
+		return information == null ? PropertyInformation.UNKNOWN : information;
+	}
+
+	/**
+	 * Returns {@link #knownProperties}, creating it again if it is not
+	 * current.
+	 *
+	 * @param propertyId
+	 *            Pid of a property that was not found in the current copy,
+	 *            which is created again if the property is known now
+	 * @return the current copy of the known information
+	 */
+	synchronized Map<String, PropertyInformation> getKnownProperties(String propertyId) {
+		Map<String, PropertyInformation> known = this.knownProperties;
+		if (known == null || (!known.containsKey(propertyId)
+				&& (this.datatypes.containsKey(propertyId)
+						|| this.knownMissing.contains(propertyId)
+						|| (!this.fetchOnDemand && this.pendingProperties.contains(propertyId))))) {
+			known = new HashMap<>(2 * (this.datatypes.size()
+					+ this.knownMissing.size() + this.pendingProperties.size()));
+			if (!this.fetchOnDemand) {
+				for (String pendingPropertyId : this.pendingProperties) {
+					known.put(pendingPropertyId, PropertyInformation.UNKNOWN);
+				}
+			}
+			for (String missingPropertyId : this.knownMissing) {
+				known.put(missingPropertyId, PropertyInformation.UNKNOWN);
+			}
+			for (Entry<String, String> entry : this.datatypes.entrySet()) {
+				known.put(entry.getKey(), new PropertyInformation(entry.getValue(),
+						this.uriPatterns.get(entry.getKey())));
+			}
+			this.knownProperties = known;
+		}
+		return known;
+	}
+
+	/**
+	 * Sets whether properties that are not known yet should be fetched from
+	 * the Web API as soon as they are looked up. This is the default. If
+	 * disabled, lookups never block: the type of an unknown property is
+	 * reported as null, and the property is fetched by the next call of
+	 * {@link #refresh()}.
+	 *
+	 * @param fetchOnDemand
+	 *            true if unknown properties should be fetched immediately
+	 */
+	public void setFetchOnDemand(boolean fetchOnDemand) {
+		this.fetchOnDemand = fetchOnDemand;
+		synchronized (this) {
+			this.knownProperties = null;
 		}
-		return this.uriPatterns.get(propertyIdValue.getId());
+	}
 
+	/**
+	 * Fetches or queues an unknown property, depending on
+	 * {@link #fetchOnDemand}.
+	 *
+	 * @param propertyIdValue
+	 *            the property that was looked up
+	 */
+	void lookUpUnknownProperty(PropertyIdValue propertyIdValue) {
+		if (this.fetchOnDemand) {
+			fetchPropertyInformation(propertyIdValue);
+		} else {
+			synchronized (this) {
+				if (!this.knownMissing.contains(propertyIdValue.getId())) {
+					this.pendingProperties.add(propertyIdValue.getId());
+				}
+			}
+		}
 	}
 
 	/**
@@ -307,88 +455,368 @@ public class PropertyRegister {
 	 * properties are fetched in the same request and results cached so as to
 	 * limit the total number of Web requests made until all properties are
 	 * fetched.
+	 * <p>
+	 * The register is not locked while waiting for the Web API. If the
+	 * property is already being fetched by another thread, this method waits
+	 * for that fetch to finish instead.
 	 *
 	 * @param property
 	 */
 	protected void fetchPropertyInformation(PropertyIdValue property) {
 		int propertyIdNumber = Integer.parseInt(property.getId().substring(1));
-		// Don't do anything if all properties up to this index have already
-		// been fetched. In particular, don't try indefinitely to find a
-		// certain property type (maybe the property was deleted).
-		//
-		// If we previously tried to fetch this property and didn't
-		// find it, there is no point in trying again either.
-		if (this.smallestUnfetchedPropertyIdNumber > propertyIdNumber || knownMissing.contains(property.getId())) {
+		List<String> propertyIds;
+		CompletableFuture<Void> fetch;
+		synchronized (this) {
+			CompletableFuture<Void> runningFetch = this.runningFetches.get(property.getId());
+			if (runningFetch != null) {
+				propertyIds = null;
+				fetch = runningFetch;
+			} else {
+				// If we previously tried to fetch this property and didn't
+				// find it, there is no point in trying again.
+				if (knownMissing.contains(property.getId())
+						|| this.datatypes.containsKey(property.getId())) {
+					return;
+				}
+				// Don't do anything either if all properties up to this index
+				// have already been fetched. In particular, don't try
+				// indefinitely to find a certain property type (maybe the
+				// property was deleted). It is remembered as missing, so that
+				// further lookups do not need to lock the register.
+				if (this.smallestUnfetchedPropertyIdNumber > propertyIdNumber) {
+					knownMissing.add(property.getId());
+					this.knownProperties = null;
+					return;
+				}
+
+				propertyIds = new ArrayList<>(API_MAX_ENTITY_DOCUMENT_NUMBER);
+				propertyIds.add(property.getId());
+				for (int i = 1; i < API_MAX_ENTITY_DOCUMENT_NUMBER; i++) {
+					propertyIds.add("P" + this.smallestUnfetchedPropertyIdNumber);
+					this.smallestUnfetchedPropertyIdNumber++;
+				}
+
+				fetch = new CompletableFuture<>();
+				for (String propertyId : propertyIds) {
+					this.runningFetches.putIfAbsent(propertyId, fetch);
+				}
+			}
+		}
+
+		if (propertyIds == null) {
+			fetch.join();
 			return;
 		}
 
-		List<String> propertyIds = new ArrayList<>(
-				API_MAX_ENTITY_DOCUMENT_NUMBER);
+		try {
+			Map<String, EntityDocument> properties;
+			try {
+				properties = fetchPropertyDocuments(propertyIds);
+			} catch (MediaWikiApiErrorException|IOException e) {
+				logger.error("Error when trying to fetch property data: "
+						+ e.toString());
+				properties = Collections.emptyMap();
+			}
+
+			synchronized (this) {
+				for (EntityDocument propertyDocument : properties.values()) {
+					if (propertyDocument instanceof PropertyDocument) {
+						registerPropertyDocument((PropertyDocument) propertyDocument);
+						logger.info("Fetched type information for property "
+								+ propertyDocument.getEntityId().getId() + " online: "
+								+ this.datatypes.get(propertyDocument.getEntityId().getId()));
+					}
+				}
 
-		propertyIds.add(property.getId());
-		for (int i = 1; i < API_MAX_ENTITY_DOCUMENT_NUMBER; i++) {
-			propertyIds.add("P" + this.smallestUnfetchedPropertyIdNumber);
-			this.smallestUnfetchedPropertyIdNumber++;
+				if (!this.datatypes.containsKey(property.getId())) {
+					logger.error("Failed to fetch type information for property "
+							+ property.getId() + " online.");
+					knownMissing.add(property.getId());
+					this.knownProperties = null;
+				}
+			}
+		} finally {
+			synchronized (this) {
+				for (String propertyId : propertyIds) {
+					this.runningFetches.remove(propertyId, fetch);
+				}
+			}
+			fetch.complete(null);
 		}
+	}
 
-		dataFetcher.getFilter().setLanguageFilter(Collections.emptySet());
-		dataFetcher.getFilter().setSiteLinkFilter(Collections.emptySet());
+	/**
+	 * Fetches the documents of the given properties from the Web API, without
+	 * labels and site links. The register is not locked while waiting for the
+	 * response.
+	 *
+	 * @param propertyIds
+	 *            ids of the properties to fetch
+	 * @return map from ids to the documents that were found
+	 */
+	Map<String, EntityDocument> fetchPropertyDocuments(List<String> propertyIds)
+			throws MediaWikiApiErrorException, IOException {
+		synchronized (this.dataFetcher) {
+			dataFetcher.getFilter().setLanguageFilter(Collections.emptySet());
+			dataFetcher.getFilter().setSiteLinkFilter(Collections.emptySet());
+			return dataFetcher.getEntityDocuments(propertyIds);
+		}
+	}
 
-		Map<String, EntityDocument> properties;
-		try {
-			properties = dataFetcher.getEntityDocuments(propertyIds);
-		} catch (MediaWikiApiErrorException|IOException e) {
-			logger.error("Error when trying to fetch property data: "
-					+ e.toString());
-			properties = Collections.emptyMap();
+	/**
+	 * Adds the datatype and URI pattern of the given property to the register,
+	 * replacing any previous information about this property.
+	 *
+	 * @param propertyDocument
+	 *            the document of the property
+	 */
+	public synchronized void registerPropertyDocument(
+			PropertyDocument propertyDocument) {
+		String propertyId = propertyDocument.getEntityId().getId();
+		String datatype = AbstractRdfConverter.getDatatypeIri(propertyDocument
+				.getDatatype());
+		this.datatypes.put(propertyId, datatype);
+		this.uriPatterns.remove(propertyId);
+		this.knownMissing.remove(propertyId);
+		this.pendingProperties.remove(propertyId);
+		this.knownProperties = null;
+
+		if (!DatatypeIdValue.DT_STRING.equals(datatype) && !DatatypeIdValue.DT_EXTERNAL_ID.equals(datatype)) {
+			return;
 		}
 
-		for (Entry<String, EntityDocument> entry : properties.entrySet()) {
-			EntityDocument propertyDocument = entry.getValue();
-			if (!(propertyDocument instanceof PropertyDocument)) {
+		for (StatementGroup sg : propertyDocument.getStatementGroups()) {
+			if (!sg.getProperty().getId().equals(this.uriPatternPropertyId)) {
 				continue;
 			}
+			for (Statement statement : sg) {
+				if (statement.getMainSnak() instanceof ValueSnak
+						&& statement.getValue() instanceof StringValue) {
+					String uriPattern = ((StringValue) statement.getValue()).getString();
+					if (this.uriPatterns.containsKey(propertyId)) {
+						logger.info("Found multiple URI patterns for property "
+								+ propertyId
+								+ " but only one is supported in current code.");
+					}
+					this.uriPatterns.put(propertyId, uriPattern);
+				}
+			}
+		}
+	}
 
-			String datatype = AbstractRdfConverter.getDatatypeIri(((PropertyDocument) propertyDocument)
-					.getDatatype());
-			this.datatypes.put(entry.getKey(), datatype);
-			logger.info("Fetched type information for property "
-					+ entry.getKey() + " online: " + datatype);
+	/**
+	 * Returns a processor that adds all property documents it receives to
+	 * this register. It can be used to build the register in a pass over a
+	 * dump, before writing a snapshot.
+	 *
+	 * @return the processor
+	 */
+	public EntityDocumentProcessor getPropertyDocumentProcessor() {
+		return new EntityDocumentProcessor() {
+			@Override
+			public void processPropertyDocument(PropertyDocument propertyDocument) {
+				registerPropertyDocument(propertyDocument);
+			}
+		};
+	}
 
-			if (!DatatypeIdValue.DT_STRING.equals(datatype) && !DatatypeIdValue.DT_EXTERNAL_ID.equals(datatype)) {
-				continue;
+	/**
+	 * Fetches the properties that were looked up while fetching on demand was
+	 * disabled, and checks for new properties with ids above those already
+	 * fetched. At most {@link #API_MAX_ENTITY_DOCUMENT_NUMBER} properties are
+	 * fetched in one call. Lookups are not blocked while waiting for the Web
+	 * API.
+	 * <p>
+	 * The datatype of a property cannot change, so properties that are
+	 * already known are not fetched again.
+	 */
+	public void refresh() {
+		List<String> propertyIds = new ArrayList<>(API_MAX_ENTITY_DOCUMENT_NUMBER);
+		int firstNewPropertyIdNumber;
+		int lastNewPropertyIdNumber = 0;
+		synchronized (this) {
+			Iterator<String> pending = this.pendingProperties.iterator();
+			while (pending.hasNext()
+					&& propertyIds.size() < API_MAX_ENTITY_DOCUMENT_NUMBER / 2) {
+				propertyIds.add(pending.next());
+				pending.remove();
 			}
+			firstNewPropertyIdNumber = this.smallestUnfetchedPropertyIdNumber;
+			for (int i = firstNewPropertyIdNumber; propertyIds.size() < API_MAX_ENTITY_DOCUMENT_NUMBER; i++) {
+				if (!propertyIds.contains("P" + i)) {
+					propertyIds.add("P" + i);
+					lastNewPropertyIdNumber = i;
+				}
+			}
+		}
 
-			for (StatementGroup sg : ((PropertyDocument) propertyDocument)
-					.getStatementGroups()) {
-				if (!sg.getProperty().getId().equals(this.uriPatternPropertyId)) {
+		Map<String, EntityDocument> properties;
+		try {
+			properties = fetchPropertyDocuments(propertyIds);
+		} catch (MediaWikiApiErrorException|IOException e) {
+			logger.error("Error when trying to refresh property data: "
+					+ e.toString());
+			synchronized (this) {
+				for (String propertyId : propertyIds) {
+					if (Integer.parseInt(propertyId.substring(1)) < firstNewPropertyIdNumber) {
+						this.pendingProperties.add(propertyId);
+					}
+				}
+			}
+			return;
+		}
+
+		synchronized (this) {
+			int largestNewPropertyIdNumber = 0;
+			for (EntityDocument propertyDocument : properties.values()) {
+				if (!(propertyDocument instanceof PropertyDocument)) {
 					continue;
 				}
-				for (Statement statement : sg) {
-					if (statement.getMainSnak() instanceof ValueSnak
-							&& statement.getValue() instanceof StringValue) {
-						String uriPattern = ((StringValue) statement.getValue()).getString();
-						if (this.uriPatterns.containsKey(entry.getKey())) {
-							logger.info("Found multiple URI patterns for property "
-									+ entry.getKey()
-									+ " but only one is supported in current code.");
-						}
-						this.uriPatterns.put(entry.getKey(), uriPattern);
-					}
+				registerPropertyDocument((PropertyDocument) propertyDocument);
+				int number = Integer.parseInt(propertyDocument.getEntityId()
+						.getId().substring(1));
+				if (number >= firstNewPropertyIdNumber && number <= lastNewPropertyIdNumber) {
+					largestNewPropertyIdNumber = Math.max(largestNewPropertyIdNumber, number);
+				}
+			}
+			for (String propertyId : propertyIds) {
+				int number = Integer.parseInt(propertyId.substring(1));
+				if (number < firstNewPropertyIdNumber
+						&& !this.datatypes.containsKey(propertyId)) {
+					this.knownMissing.add(propertyId);
 				}
 			}
+			this.knownProperties = null;
+			if (largestNewPropertyIdNumber >= this.smallestUnfetchedPropertyIdNumber) {
+				this.smallestUnfetchedPropertyIdNumber = largestNewPropertyIdNumber + 1;
+			}
+			logger.info("Refreshed property information: " + properties.size()
+					+ " properties fetched.");
+		}
+	}
+
+	/**
+	 * Calls {@link #refresh()} regularly in a background thread, until
+	 * {@link #stopBackgroundRefresh()} is called. Has no effect if a
+	 * background refresh is already running.
+	 *
+	 * @param delay
+	 *            time between the end of one refresh and the start of the
+	 *            next
+	 * @param unit
+	 *            unit of the delay
+	 */
+	public synchronized void startBackgroundRefresh(long delay, TimeUnit unit) {
+		if (this.refreshExecutor != null) {
+			return;
+		}
+		this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "PropertyRegister refresh");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.refreshExecutor.scheduleWithFixedDelay(() -> {
+			try {
+				refresh();
+			} catch (RuntimeException e) {
+				// keep the schedule alive; the next refresh may succeed
+				logger.error("Error when refreshing property data: "
+						+ e.toString());
+			}
+		}, 0, delay, unit);
+	}
+
+	/**
+	 * Stops the background refresh started by
+	 * {@link #startBackgroundRefresh(long, TimeUnit)}, if any.
+	 */
+	public synchronized void stopBackgroundRefresh() {
+		if (this.refreshExecutor != null) {
+			this.refreshExecutor.shutdownNow();
+			this.refreshExecutor = null;
 		}
+	}
 
-		if (!this.datatypes.containsKey(property.getId())) {
-			logger.error("Failed to fetch type information for property "
-					+ property.getId() + " online.");
-			knownMissing.add(property.getId());
+	/**
+	 * Writes all known property datatypes and URI patterns as JSON. The
+	 * snapshot can be loaded with {@link #loadSnapshot(InputStream)}.
+	 *
+	 * @param output
+	 *            the stream to write to; it is not closed
+	 * @throws IOException
+	 *             if the snapshot could not be written
+	 */
+	public synchronized void writeSnapshot(OutputStream output) throws IOException {
+		JsonMapper mapper = new JsonMapper();
+		ObjectNode root = mapper.createObjectNode();
+		root.put("siteUri", this.siteUri);
+		root.put("uriPatternPropertyId", this.uriPatternPropertyId);
+		ObjectNode properties = root.putObject("properties");
+		for (Entry<String, String> entry : new TreeMap<>(this.datatypes).entrySet()) {
+			if (entry.getValue() == null) {
+				continue;
+			}
+			ObjectNode property = properties.putObject(entry.getKey());
+			property.put("datatype", entry.getValue());
+			if (this.uriPatterns.containsKey(entry.getKey())) {
+				property.put("uriPattern", this.uriPatterns.get(entry.getKey()));
+			}
+		}
+		try {
+			mapper.writeValue(output, root);
+		} catch (JacksonException e) {
+			throw new IOException("Could not write property register snapshot", e);
 		}
 	}
 
+	/**
+	 * Adds the property datatypes and URI patterns of a snapshot written by
+	 * {@link #writeSnapshot(OutputStream)} to the register. Properties with
+	 * smaller ids than the largest one in the snapshot are then considered
+	 * fetched: they are only fetched again if they are looked up while
+	 * fetching on demand is enabled and they are missing from the snapshot.
+	 *
+	 * @param input
+	 *            the stream to read from; it is not closed
+	 * @throws IOException
+	 *             if the snapshot could not be read, or if it was written for
+	 *             another site
+	 */
+	public synchronized void loadSnapshot(InputStream input) throws IOException {
+		JsonNode root;
+		try {
+			root = new JsonMapper().readTree(input);
+		} catch (JacksonException e) {
+			throw new IOException("Could not read property register snapshot", e);
+		}
+		String snapshotSiteUri = root.path("siteUri").asString();
+		if (!this.siteUri.equals(snapshotSiteUri)) {
+			throw new IOException("The property register snapshot is for site "
+					+ snapshotSiteUri + " and not for " + this.siteUri);
+		}
+		int largestPropertyIdNumber = 0;
+		for (Entry<String, JsonNode> entry : root.path("properties").properties()) {
+			String propertyId = entry.getKey();
+			this.datatypes.put(propertyId, entry.getValue().path("datatype").asString());
+			if (entry.getValue().has("uriPattern")) {
+				this.uriPatterns.put(propertyId, entry.getValue().path("uriPattern").asString());
+			}
+			this.knownMissing.remove(propertyId);
+			this.pendingProperties.remove(propertyId);
+			largestPropertyIdNumber = Math.max(largestPropertyIdNumber,
+					Integer.parseInt(propertyId.substring(1)));
+		}
+		this.smallestUnfetchedPropertyIdNumber = Math.max(
+				this.smallestUnfetchedPropertyIdNumber, largestPropertyIdNumber + 1);
+		this.knownProperties = null;
+		logger.info("Loaded type information for " + root.path("properties").size()
+				+ " properties from snapshot.");
+	}
+
 	/**
 	 * Fetches type information for all known properties from the given SPARQL endpoint, and adds it to the register.
-	 * The SPARQL endpoint must support the wikibase:propertyType predicate.
+	 * The SPARQL endpoint must support the wikibase:propertyType predicate. Lookups are not blocked while waiting for
+	 * the endpoint; the results are added at once when they have all been read.
 	 *
 	 * @param endpoint URI of the SPARQL service to use, for example "https://query.wikidata.org/sparql"
 	 */
@@ -421,6 +849,8 @@ public class PropertyRegister {
 			JsonNode bindings = root.path("results").path("bindings");
 
 			final ValueFactory valueFactory = SimpleValueFactory.getInstance();
+			final Map<String, String> fetchedDatatypes = new HashMap<>();
+			final Map<String, String> fetchedUriPatterns = new HashMap<>();
 			int count = 0;
 			int countPatterns = 0;
 			for (JsonNode binding : bindings) {
@@ -428,15 +858,21 @@ public class PropertyRegister {
 				final IRI propType = valueFactory.createIRI(binding.path("type").path("value").asText());
 
 				final PropertyIdValue propId = new PropertyIdValueImpl(property.getLocalName(), this.siteUri);
-				setPropertyType(propId, propType.toString());
+				fetchedDatatypes.put(propId.getId(), propType.toString());
 				count += 1;
 
 				if (binding.has("uri")) {
 					countPatterns += 1;
-					this.uriPatterns.put(propId.getId(), binding.path("uri").path("value").asText());
+					fetchedUriPatterns.put(propId.getId(), binding.path("uri").path("value").asText());
 				}
 			}
 
+			synchronized (this) {
+				this.datatypes.putAll(fetchedDatatypes);
+				this.uriPatterns.putAll(fetchedUriPatterns);
+				this.knownProperties = null;
+			}
+
 			logger.info("Fetched type information for " + count + " properties (" +
 					countPatterns + " with URI patterns) using SPARQL.");
 		} catch(IOException|URISyntaxException e) {
@@ -444,4 +880,24 @@ public class PropertyRegister {
 					+ e.toString());
 		}
 	}
+
+	/**
+	 * Immutable information about one property, as stored in
+	 * {@link PropertyRegister#knownProperties}.
+	 */
+	static final class PropertyInformation {
+
+		/**
+		 * Information about a property that is not known.
+		 */
+		static final PropertyInformation UNKNOWN = new PropertyInformation(null, null);
+
+		final String datatype;
+		final String uriPattern;
+
+		PropertyInformation(String datatype, String uriPattern) {
+			this.datatype = datatype;
+			this.uriPattern = uriPattern;
+		}
+	}
 }
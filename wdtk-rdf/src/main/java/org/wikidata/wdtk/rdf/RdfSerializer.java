@@ -36,6 +36,9 @@ import org.wikidata.wdtk.datamodel.interfaces.Sites;
 /**
  * This class implements {@link EntityDocumentDumpProcessor} to provide a RDF
  * serializer to render RDF graphs of {@link EntityDocument} objects.
+ * Documents are converted on the calling thread; see
+ * {@link ParallelRdfSerializer} for exporting large dumps with several
+ * threads.
  *
  * @author Michael Günther
  *
@@ -75,11 +78,32 @@ public class RdfSerializer implements EntityDocumentDumpProcessor {
 	 *            the output stream to write to
 	 * @param sites
 	 *            information about site links
+	 * @param propertyRegister
+	 *            register of property datatypes and URI patterns
 	 */
 	public RdfSerializer(RDFFormat format, OutputStream output, Sites sites,
 			PropertyRegister propertyRegister) {
+		this(new RdfWriter(format, output), output, sites, propertyRegister);
+	}
+
+	/**
+	 * Creates a new RDF serializer that uses the given writer, e.g., an
+	 * {@link NTriplesRdfWriter} for fast export to N-Triples.
+	 *
+	 * @param rdfWriter
+	 *            the writer to use
+	 * @param output
+	 *            the output stream that the writer writes to; it is closed
+	 *            by {@link #close()}
+	 * @param sites
+	 *            information about site links
+	 * @param propertyRegister
+	 *            register of property datatypes and URI patterns
+	 */
+	public RdfSerializer(RdfWriter rdfWriter, OutputStream output, Sites sites,
+			PropertyRegister propertyRegister) {
 		this.output = output;
-		this.rdfWriter = new RdfWriter(format, output);
+		this.rdfWriter = rdfWriter;
 		this.rdfConverter = new RdfConverter(this.rdfWriter, sites,
 				propertyRegister);
 	}
@@ -106,6 +130,30 @@ public class RdfSerializer implements EntityDocumentDumpProcessor {
 		return this.rdfConverter.getTasks();
 	}
 
+	/**
+	 * Sets the object that decides which complex values have already been
+	 * written. By default, a {@link LruResourceDeduplicator} of size
+	 * {@link LruResourceDeduplicator#DEFAULT_CAPACITY} is used, so that memory
+	 * use does not grow with the size of the dump.
+	 *
+	 * @param deduplicator
+	 *            the deduplicator to use
+	 */
+	public void setValueDeduplicator(ResourceDeduplicator deduplicator) {
+		this.rdfConverter.setValueDeduplicator(deduplicator);
+	}
+
+	/**
+	 * Sets the object that decides which references have already been
+	 * written. By default, a {@link LruResourceDeduplicator} is used.
+	 *
+	 * @param deduplicator
+	 *            the deduplicator to use
+	 */
+	public void setReferenceDeduplicator(ResourceDeduplicator deduplicator) {
+		this.rdfConverter.setReferenceDeduplicator(deduplicator);
+	}
+
 	/**
 	 * Returns the number of triples that have been written so far.
 	 *
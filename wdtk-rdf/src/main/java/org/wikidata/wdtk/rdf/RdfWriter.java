@@ -155,6 +155,14 @@ public class RdfWriter {
 		this.writer = writer;
 	}
 
+	/**
+	 * Constructor for subclasses that write triples without an RDF4J
+	 * {@link RDFWriter}. They must override all methods that write data.
+	 */
+	protected RdfWriter() {
+		this.writer = null;
+	}
+
 	public long getTripleCount() {
 		return this.tripleCount;
 	}
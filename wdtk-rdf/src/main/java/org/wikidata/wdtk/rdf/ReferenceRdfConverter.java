@@ -44,7 +44,8 @@ public class ReferenceRdfConverter {
 
 	final List<Reference> referenceQueue = new ArrayList<>();
 	final List<Resource> referenceSubjectQueue = new ArrayList<>();
-	final Set<Resource> declaredReferences = new HashSet<>();
+	ResourceDeduplicator declaredReferences = new LruResourceDeduplicator(
+			LruResourceDeduplicator.DEFAULT_CAPACITY);
 	final String siteUri;
 
 	/**
@@ -64,6 +65,17 @@ public class ReferenceRdfConverter {
 		this.siteUri = siteUri;
 	}
 
+	/**
+	 * Sets the object that decides which references have been written
+	 * already. By default, a {@link LruResourceDeduplicator} is used.
+	 *
+	 * @param deduplicator
+	 *            the deduplicator to use
+	 */
+	public void setDeduplicator(ResourceDeduplicator deduplicator) {
+		this.declaredReferences = deduplicator;
+	}
+
 	/**
 	 * Adds the given reference to the list of references that should still be
 	 * serialized, and returns the RDF resource that will be used as a subject.
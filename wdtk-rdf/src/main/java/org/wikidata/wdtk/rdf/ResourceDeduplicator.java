@@ -0,0 +1,175 @@
+package org.wikidata.wdtk.rdf;
+
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.eclipse.rdf4j.model.Resource;
+
+/**
+ * Remembers which auxiliary resources, such as value nodes and references,
+ * have already been written, so that their triples are only written once.
+ * Implementations differ in how much memory they use and how exact they are;
+ * see {@link ExactResourceDeduplicator}, {@link LruResourceDeduplicator} and
+ * {@link BloomFilterResourceDeduplicator}.
+ * <p>
+ * Resources are identified by a 128-bit key. For IRIs that end in a
+ * hexadecimal hash of at least 128 bits, as those of values and references
+ * do, the key is the last 128 bits of this hash. Other resources are hashed
+ * with MD5.
+ * <p>
+ * The methods of this class are synchronized, so that one object can be
+ * shared by several converters, e.g., in a {@link ParallelRdfSerializer}.
+ * The object also counts how many of the resources were found to be
+ * duplicates.
+ */
+public abstract class ResourceDeduplicator {
+
+	static final int KEY_HEX_DIGITS = 32;
+
+	long requestCount = 0;
+
+	long duplicateCount = 0;
+
+	long keyHigh;
+
+	long keyLow;
+
+	/**
+	 * Records that the triples of the given resource are written, unless this
+	 * has already happened before.
+	 *
+	 * @param resource
+	 *            the resource to record
+	 * @return true if the triples of the resource should be written, and
+	 *         false if the resource has (probably) been written already
+	 */
+	public synchronized boolean add(Resource resource) {
+		this.requestCount++;
+		computeKey(resource.stringValue());
+		if (addKey(this.keyHigh, this.keyLow)) {
+			return true;
+		}
+		this.duplicateCount++;
+		return false;
+	}
+
+	/**
+	 * Records the given key.
+	 *
+	 * @param high
+	 *            the upper 64 bits of the key
+	 * @param low
+	 *            the lower 64 bits of the key
+	 * @return true if the key was (possibly) not recorded before
+	 */
+	protected abstract boolean addKey(long high, long low);
+
+	/**
+	 * Returns the number of calls of {@link #add(Resource)} so far.
+	 *
+	 * @return number of requests
+	 */
+	public synchronized long getRequestCount() {
+		return this.requestCount;
+	}
+
+	/**
+	 * Returns the number of calls of {@link #add(Resource)} that found a
+	 * resource that was already written.
+	 *
+	 * @return number of duplicates
+	 */
+	public synchronized long getDuplicateCount() {
+		return this.duplicateCount;
+	}
+
+	/**
+	 * Returns the fraction of requests that found a duplicate, or 0 if there
+	 * were no requests yet.
+	 *
+	 * @return hit rate between 0 and 1
+	 */
+	public synchronized double getHitRate() {
+		return this.requestCount == 0 ? 0
+				: (double) this.duplicateCount / this.requestCount;
+	}
+
+	/**
+	 * Computes the key of the given IRI or blank node id and stores it in
+	 * {@link #keyHigh} and {@link #keyLow}.
+	 *
+	 * @param id
+	 *            the string value of the resource
+	 */
+	void computeKey(String id) {
+		int start = id.length();
+		while (start > 0 && Character.digit(id.charAt(start - 1), 16) >= 0
+				&& id.length() - start < KEY_HEX_DIGITS) {
+			start--;
+		}
+		if (id.length() - start == KEY_HEX_DIGITS) {
+			this.keyHigh = parseHex(id, start);
+			this.keyLow = parseHex(id, start + KEY_HEX_DIGITS / 2);
+		} else {
+			MessageDigest md = Vocabulary.md5.get();
+			md.reset();
+			byte[] digest = md.digest(id.getBytes(StandardCharsets.UTF_8));
+			this.keyHigh = bytesToLong(digest, 0);
+			this.keyLow = bytesToLong(digest, 8);
+		}
+	}
+
+	static long parseHex(String s, int start) {
+		long result = 0;
+		for (int i = start; i < start + KEY_HEX_DIGITS / 2; i++) {
+			result = (result << 4) | Character.digit(s.charAt(i), 16);
+		}
+		return result;
+	}
+
+	static long bytesToLong(byte[] bytes, int start) {
+		long result = 0;
+		for (int i = start; i < start + 8; i++) {
+			result = (result << 8) | (bytes[i] & 0xFF);
+		}
+		return result;
+	}
+
+	/**
+	 * Mixes the bits of a key into a well-distributed hash code.
+	 *
+	 * @param high
+	 *            the upper 64 bits of the key
+	 * @param low
+	 *            the lower 64 bits of the key
+	 * @return hash code
+	 */
+	static long mix(long high, long low) {
+		long h = high * 0x9E3779B97F4A7C15L ^ low;
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		return h;
+	}
+
+}
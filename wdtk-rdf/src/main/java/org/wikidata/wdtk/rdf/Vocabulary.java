@@ -20,7 +20,6 @@ package org.wikidata.wdtk.rdf;
  * #L%
  */
 
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -39,15 +38,19 @@ import org.wikidata.wdtk.wikibaseapi.RandomGuidGenerator;
  */
 public class Vocabulary {
 
-	final static MessageDigest md;
-	static {
+	/**
+	 * MD5 digests used to compute the URIs of references and values. Each
+	 * thread has its own digest, so that documents can be converted in
+	 * parallel.
+	 */
+	final static ThreadLocal<MessageDigest> md5 = ThreadLocal.withInitial(() -> {
 		try {
-			md = MessageDigest.getInstance("MD5");
+			return MessageDigest.getInstance("MD5");
 		} catch (NoSuchAlgorithmException e) {
 			throw new RuntimeException(
 					"Your Java does not support MD5 hashes. You should be concerned.");
 		}
-	}
+	});
 
 	private final static GuidGenerator GUID_GENERATOR = new RandomGuidGenerator();
 
@@ -565,6 +568,7 @@ public class Vocabulary {
 			return PREFIX_WIKIDATA_REFERENCE + hash;
 		}
 
+		MessageDigest md = md5.get();
 		md.reset();
 		reference.getSnakGroups().stream()
 				.flatMap(g -> g.getSnaks().stream())
@@ -576,6 +580,7 @@ public class Vocabulary {
 	}
 
 	public static String getTimeValueUri(TimeValue value) {
+		MessageDigest md = md5.get();
 		md.reset();
 		updateMessageDigestWithLong(md, value.getYear());
 		md.update(value.getMonth());
@@ -593,6 +598,7 @@ public class Vocabulary {
 	}
 
 	public static String getGlobeCoordinatesValueUri(GlobeCoordinatesValue value) {
+		MessageDigest md = md5.get();
 		md.reset();
 		updateMessageDigestWithString(md, value.getGlobe());
 		updateMessageDigestWithLong(md, Double.valueOf(value.getLatitude())
@@ -606,6 +612,7 @@ public class Vocabulary {
 	}
 
 	public static String getQuantityValueUri(QuantityValue value) {
+		MessageDigest md = md5.get();
 		md.reset();
 		updateMessageDigestWithInt(md, value.getNumericValue().hashCode());
 		if(value.getLowerBound() != null) {
@@ -632,20 +639,18 @@ public class Vocabulary {
 		}
 	}
 
-	static ByteBuffer longByteBuffer = ByteBuffer.allocate(Long.SIZE / 8);
+	// bytes are written in big-endian order, like a ByteBuffer would do
 
 	static void updateMessageDigestWithLong(MessageDigest md, long x) {
-		longByteBuffer.putLong(0, x);
-		longByteBuffer.rewind(); // important!
-		md.update(longByteBuffer);
+		for (int shift = Long.SIZE - 8; shift >= 0; shift -= 8) {
+			md.update((byte) (x >>> shift));
+		}
 	}
 
-	static ByteBuffer intByteBuffer = ByteBuffer.allocate(Integer.SIZE / 8);
-
 	static void updateMessageDigestWithInt(MessageDigest md, int x) {
-		intByteBuffer.putInt(0, x);
-		intByteBuffer.rewind(); // important!
-		md.update(intByteBuffer);
+		for (int shift = Integer.SIZE - 8; shift >= 0; shift -= 8) {
+			md.update((byte) (x >>> shift));
+		}
 	}
 
 	static void updateMessageDigestWithString(MessageDigest md, String s) {
@@ -35,6 +35,7 @@ import org.wikidata.wdtk.datamodel.interfaces.ValueVisitor;
 import org.wikidata.wdtk.rdf.OwlDeclarationBuffer;
 import org.wikidata.wdtk.rdf.PropertyRegister;
 import org.wikidata.wdtk.rdf.RdfWriter;
+import org.wikidata.wdtk.rdf.ResourceDeduplicator;
 
 /**
  * Class to convert Wikibase data values to RDF. The class is a visitor that
@@ -83,6 +84,20 @@ public class AnyValueConverter implements
 				rdfWriter, propertyRegister, rdfConversionBuffer);
 	}
 
+	/**
+	 * Sets the object that decides which complex values have been written
+	 * already. The object is used for all value types that need auxiliary
+	 * triples.
+	 *
+	 * @param deduplicator
+	 *            the deduplicator to use
+	 */
+	public void setDeduplicator(ResourceDeduplicator deduplicator) {
+		this.timeValueConverter.setDeduplicator(deduplicator);
+		this.globeCoordinatesValueConverter.setDeduplicator(deduplicator);
+		this.quantityValueConverter.setDeduplicator(deduplicator);
+	}
+
 	@Override
 	public Value getRdfValue(
 			org.wikidata.wdtk.datamodel.interfaces.Value value,
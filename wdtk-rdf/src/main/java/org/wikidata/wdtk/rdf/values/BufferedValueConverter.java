@@ -21,22 +21,24 @@ package org.wikidata.wdtk.rdf.values;
  */
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.wikidata.wdtk.rdf.LruResourceDeduplicator;
 import org.wikidata.wdtk.rdf.OwlDeclarationBuffer;
 import org.wikidata.wdtk.rdf.PropertyRegister;
 import org.wikidata.wdtk.rdf.RdfWriter;
+import org.wikidata.wdtk.rdf.ResourceDeduplicator;
 
 public abstract class BufferedValueConverter<V extends org.wikidata.wdtk.datamodel.interfaces.Value>
 		extends AbstractValueConverter<V> {
 
 	final List<V> valueQueue = new ArrayList<>();
 	final List<Resource> valueSubjectQueue = new ArrayList<>();
-	final HashSet<Resource> declaredValues = new HashSet<>();
+	ResourceDeduplicator declaredValues = new LruResourceDeduplicator(
+			LruResourceDeduplicator.DEFAULT_CAPACITY);
 
 	public BufferedValueConverter(RdfWriter rdfWriter,
 			PropertyRegister propertyRegister,
@@ -44,6 +46,17 @@ public abstract class BufferedValueConverter<V extends org.wikidata.wdtk.datamod
 		super(rdfWriter, propertyRegister, rdfConversionBuffer);
 	}
 
+	/**
+	 * Sets the object that decides which values have been written already.
+	 * By default, a {@link LruResourceDeduplicator} is used.
+	 *
+	 * @param deduplicator
+	 *            the deduplicator to use
+	 */
+	public void setDeduplicator(ResourceDeduplicator deduplicator) {
+		this.declaredValues = deduplicator;
+	}
+
 	/**
 	 * Adds the given value to the list of values that should still be
 	 * serialized. The given RDF resource will be used as a subject.
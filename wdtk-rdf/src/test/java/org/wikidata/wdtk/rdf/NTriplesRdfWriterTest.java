@@ -0,0 +1,149 @@
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.rdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.Before;
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.implementation.SitesImpl;
+
+public class NTriplesRdfWriterTest {
+
+	ByteArrayOutputStream out;
+
+	NTriplesRdfWriter rdfWriter;
+
+	final IRI subject = RdfWriter.factory.createIRI("http://example.org/Q1");
+
+	@Before
+	public void setUp() {
+		this.out = new ByteArrayOutputStream();
+		this.rdfWriter = new NTriplesRdfWriter(this.out);
+		this.rdfWriter.start();
+	}
+
+	String getOutput() {
+		this.rdfWriter.finish();
+		return new String(this.out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testSerialization() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		RdfSerializer serializer = new RdfSerializer(new NTriplesRdfWriter(
+				out), out, new SitesImpl(), new MockPropertyRegister());
+		serializer.open();
+		serializer.processItemDocument(new TestObjectFactory()
+				.createItemDocument());
+		serializer.close();
+
+		Model model = RdfTestHelpers.parseRdf(out.toString("UTF-8"));
+		assertTrue(Models.isomorphic(
+				RdfTestHelpers.parseRdf(RdfTestHelpers
+						.getResourceFromFile("completeRDFDocument.rdf")),
+				model));
+		assertEquals(out.toString("UTF-8").split("\n").length,
+				serializer.getTripleCount());
+	}
+
+	@Test
+	public void testSameTriplesAsRio() throws IOException {
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		RdfWriter rioWriter = new RdfWriter(RDFFormat.NTRIPLES, expected);
+		rioWriter.start();
+		writeTestTriples(rioWriter);
+		rioWriter.finish();
+
+		writeTestTriples(this.rdfWriter);
+
+		assertTrue(Models.isomorphic(
+				RdfTestHelpers.parseRdf(expected.toString("UTF-8")),
+				RdfTestHelpers.parseRdf(getOutput())));
+		assertEquals(rioWriter.getTripleCount(),
+				this.rdfWriter.getTripleCount());
+	}
+
+	void writeTestTriples(RdfWriter rdfWriter) {
+		rdfWriter.writeTripleValueObject(this.subject, RdfWriter.RDF_TYPE,
+				RdfWriter.WB_ITEM);
+		rdfWriter.writeTripleStringObject(this.subject, RdfWriter.RDFS_LABEL,
+				"quote \" backslash \\ newline \n tab \t bell \u0007");
+		rdfWriter.writeTripleValueObject(this.subject,
+				RdfWriter.SCHEMA_DESCRIPTION,
+				rdfWriter.getLiteral("été 東京 😀", "fr"));
+		rdfWriter.writeTripleIntegerObject(this.subject, RdfWriter.WB_RANK,
+				-2147483648);
+		rdfWriter.writeTripleIntegerObject(this.subject, RdfWriter.WB_RANK, 42);
+		rdfWriter.writeTripleLiteralObject(this.subject,
+				RdfWriter.WB_QUANTITY_AMOUNT, "+1.5", RdfWriter.XSD_DECIMAL);
+		rdfWriter.writeTripleLiteralObject(this.subject,
+				RdfWriter.SCHEMA_ABOUT, "plain", RdfWriter.XSD_STRING);
+		rdfWriter.writeTripleUriObject("http://example.org/Q2",
+				RdfWriter.RDFS_SEE_ALSO, "http://example.org/a%20b?c=d#e");
+		rdfWriter.writeTripleValueObject(rdfWriter.getFreshBNode(),
+				RdfWriter.OWL_ON_PROPERTY, this.subject);
+	}
+
+	@Test
+	public void testLiteralEscaping() {
+		this.rdfWriter.writeTripleStringObject(this.subject,
+				RdfWriter.RDFS_LABEL, "a\"b\\c\nd\u0001");
+		assertEquals("<http://example.org/Q1> "
+				+ "<http://www.w3.org/2000/01/rdf-schema#label> "
+				+ "\"a\\\"b\\\\c\\nd\\u0001\" .\n", getOutput());
+	}
+
+	@Test
+	public void testIntegerLiteral() {
+		this.rdfWriter.writeTripleIntegerObject(this.subject,
+				RdfWriter.WB_RANK, -120);
+		assertEquals("<http://example.org/Q1> <http://wikiba.se/ontology#rank> "
+				+ "\"-120\"^^<http://www.w3.org/2001/XMLSchema#int> .\n",
+				getOutput());
+	}
+
+	@Test
+	public void testLongOutput() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 2 * NTriplesRdfWriter.BUFFER_SIZE; i++) {
+			builder.append((char) ('a' + i % 26));
+		}
+		String label = builder.toString();
+		for (int i = 0; i < 10; i++) {
+			this.rdfWriter.writeTripleStringObject(this.subject,
+					RdfWriter.RDFS_LABEL, label);
+		}
+		String output = getOutput();
+		assertEquals(10, output.split("\n").length);
+		assertTrue(output.endsWith("\"" + label + "\" .\n"));
+	}
+
+}
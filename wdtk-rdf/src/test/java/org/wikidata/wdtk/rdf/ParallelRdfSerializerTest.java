@@ -0,0 +1,121 @@
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.rdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.implementation.SitesImpl;
+
+public class ParallelRdfSerializerTest {
+
+	final TestObjectFactory objectFactory = new TestObjectFactory();
+
+	@Test
+	public void testSerialization() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ParallelRdfSerializer serializer = new ParallelRdfSerializer(out,
+				new SitesImpl(), new MockPropertyRegister(), 2);
+		serializer.open();
+		serializer.processItemDocument(this.objectFactory.createItemDocument());
+		serializer.close();
+
+		Model model = RdfTestHelpers.parseRdf(out.toString("UTF-8"));
+		assertTrue(Models.isomorphic(
+				RdfTestHelpers.parseRdf(RdfTestHelpers
+						.getResourceFromFile("completeRDFDocument.rdf")),
+				model));
+		assertEquals(out.toString("UTF-8").split("\n").length,
+				serializer.getTripleCount());
+	}
+
+	@Test
+	public void testShardsContainSameTriples() throws IOException {
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		RdfSerializer serializer = new RdfSerializer(RDFFormat.NTRIPLES,
+				expected, new SitesImpl(), new MockPropertyRegister());
+		serializer.open();
+		for (int i = 0; i < 20; i++) {
+			serializer.processItemDocument(this.objectFactory
+					.createItemDocument());
+			serializer.processPropertyDocument(this.objectFactory
+					.createEmptyPropertyDocument());
+		}
+		serializer.close();
+
+		ByteArrayOutputStream shard0 = new ByteArrayOutputStream();
+		ByteArrayOutputStream shard1 = new ByteArrayOutputStream();
+		List<OutputStream> shards = Arrays.asList(shard0, shard1);
+		ParallelRdfSerializer parallelSerializer = new ParallelRdfSerializer(
+				shards, new SitesImpl(), new MockPropertyRegister(), 4);
+		parallelSerializer.open();
+		for (int i = 0; i < 20; i++) {
+			parallelSerializer.processItemDocument(this.objectFactory
+					.createItemDocument());
+			parallelSerializer.processPropertyDocument(this.objectFactory
+					.createEmptyPropertyDocument());
+		}
+		parallelSerializer.close();
+
+		assertTrue(shard0.size() > 0);
+		assertTrue(shard1.size() > 0);
+		Set<Statement> actual = getTriplesWithoutBlankNodes(RdfTestHelpers
+				.parseRdf(shard0.toString("UTF-8") + shard1.toString("UTF-8")));
+		assertEquals(getTriplesWithoutBlankNodes(RdfTestHelpers
+				.parseRdf(expected.toString("UTF-8"))), actual);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidThreadCount() {
+		new ParallelRdfSerializer(new ByteArrayOutputStream(),
+				new SitesImpl(), new MockPropertyRegister(), 0);
+	}
+
+	/**
+	 * Returns the triples of a model that contain no blank nodes. Blank nodes
+	 * are created independently by each worker, so they cannot be compared.
+	 */
+	Set<Statement> getTriplesWithoutBlankNodes(Model model) {
+		Set<Statement> result = new HashSet<>();
+		for (Statement statement : model) {
+			if (!(statement.getSubject() instanceof BNode)
+					&& !(statement.getObject() instanceof BNode)) {
+				result.add(statement);
+			}
+		}
+		return result;
+	}
+
+}
@@ -21,15 +21,20 @@ package org.wikidata.wdtk.rdf;
  */
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.hamcrest.core.IsIterableContaining;
 import org.junit.Before;
@@ -197,6 +202,57 @@ public class PropertyRegisterTest {
 				smallestBefore, this.propertyRegister.smallestUnfetchedPropertyIdNumber);
 	}
 
+	@Test
+	public void testConcurrentLookupsFetchOnce() throws InterruptedException {
+		AtomicInteger fetchCount = new AtomicInteger();
+		CountDownLatch fetchStarted = new CountDownLatch(1);
+		CountDownLatch fetchReleased = new CountDownLatch(1);
+		PropertyRegister register = new PropertyRegister("P1921",
+				new BasicApiConnection("http://localhost/"), this.siteIri) {
+			@Override
+			Map<String, EntityDocument> fetchPropertyDocuments(List<String> propertyIds)
+					throws MediaWikiApiErrorException, IOException {
+				fetchCount.incrementAndGet();
+				fetchStarted.countDown();
+				try {
+					fetchReleased.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				return propertyRegister.fetchPropertyDocuments(propertyIds);
+			}
+		};
+		register.setPropertyType(
+				dataObjectFactory.getPropertyIdValue("P31", this.siteIri),
+				DatatypeIdValue.DT_ITEM);
+		PropertyIdValue pid434 = dataObjectFactory.getPropertyIdValue("P434",
+				this.siteIri);
+
+		Thread firstLookup = new Thread(() -> register.getPropertyType(pid434));
+		firstLookup.start();
+		fetchStarted.await();
+
+		// known properties can be looked up while the fetch is running
+		assertEquals(DatatypeIdValue.DT_ITEM, register.getPropertyType(
+				dataObjectFactory.getPropertyIdValue("P31", this.siteIri)));
+
+		String[] uriPattern = new String[1];
+		Thread secondLookup = new Thread(
+				() -> uriPattern[0] = register.getPropertyUriPattern(pid434));
+		secondLookup.start();
+		while (secondLookup.isAlive()
+				&& secondLookup.getState() != Thread.State.WAITING) {
+			Thread.yield();
+		}
+		fetchReleased.countDown();
+		firstLookup.join();
+		secondLookup.join();
+
+		assertEquals(1, fetchCount.get());
+		assertEquals("http://musicbrainz.org/$1/artist", uriPattern[0]);
+		assertEquals(DatatypeIdValue.DT_STRING, register.getPropertyType(pid434));
+	}
+
 	@Test
 	public void testSetPropertyTypeFromEntityIdValue() {
 		PropertyIdValue pid = this.dataObjectFactory
@@ -252,4 +308,102 @@ public class PropertyRegisterTest {
 		assertEquals("P1921", pr.uriPatternPropertyId);
 	}
 
+	@Test
+	public void testSnapshot() throws IOException, MediaWikiApiErrorException {
+		PropertyIdValue pid434 = dataObjectFactory.getPropertyIdValue("P434",
+				this.siteIri);
+		PropertyIdValue pid508 = dataObjectFactory.getPropertyIdValue("P508",
+				this.siteIri);
+		this.propertyRegister.getPropertyType(pid434);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		this.propertyRegister.writeSnapshot(out);
+
+		PropertyRegister loadedRegister = new PropertyRegister("P1921",
+				new BasicApiConnection("http://localhost/"), this.siteIri);
+		WikibaseDataFetcher dataFetcher = Mockito
+				.mock(WikibaseDataFetcher.class);
+		loadedRegister.dataFetcher = dataFetcher;
+		loadedRegister.loadSnapshot(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals(DatatypeIdValue.DT_STRING,
+				loadedRegister.getPropertyType(pid434));
+		assertEquals("http://musicbrainz.org/$1/artist",
+				loadedRegister.getPropertyUriPattern(pid434));
+		assertEquals(DatatypeIdValue.DT_EXTERNAL_ID,
+				loadedRegister.getPropertyType(pid508));
+		assertEquals("http://purl.org/bncf/tid/$1",
+				loadedRegister.getPropertyUriPattern(pid508));
+		assertEquals(509, loadedRegister.smallestUnfetchedPropertyIdNumber);
+		Mockito.verify(dataFetcher, Mockito.never()).getEntityDocuments(
+				Mockito.anyList());
+	}
+
+	@Test(expected = IOException.class)
+	public void testSnapshotOfOtherSite() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new PropertyRegister("P1921", new BasicApiConnection(
+				"http://localhost/"), "http://example.com/entity/")
+				.writeSnapshot(out);
+		this.propertyRegister.loadSnapshot(new ByteArrayInputStream(out
+				.toByteArray()));
+	}
+
+	@Test
+	public void testRefreshWithoutFetchOnDemand() {
+		PropertyIdValue pid434 = dataObjectFactory.getPropertyIdValue("P434",
+				this.siteIri);
+		this.propertyRegister.setFetchOnDemand(false);
+		assertNull(this.propertyRegister.getPropertyType(pid434));
+		assertTrue(this.propertyRegister.pendingProperties.contains("P434"));
+
+		this.propertyRegister.refresh();
+		assertFalse(this.propertyRegister.pendingProperties.contains("P434"));
+		assertEquals(DatatypeIdValue.DT_STRING,
+				this.propertyRegister.getPropertyType(pid434));
+		assertEquals("http://musicbrainz.org/$1/artist",
+				this.propertyRegister.getPropertyUriPattern(pid434));
+		// P23 is the largest new property that was found
+		assertEquals(24,
+				this.propertyRegister.smallestUnfetchedPropertyIdNumber);
+	}
+
+	@Test
+	public void testUnknownPropertiesAreRemembered() {
+		// without fetching, unknown properties are remembered as pending
+		PropertyIdValue pid508 = dataObjectFactory.getPropertyIdValue("P508",
+				this.siteIri);
+		this.propertyRegister.setFetchOnDemand(false);
+		assertNull(this.propertyRegister.getPropertyType(pid508));
+		assertTrue(this.propertyRegister.knownProperties.containsKey("P508"));
+		this.propertyRegister.setFetchOnDemand(true);
+		assertEquals(DatatypeIdValue.DT_EXTERNAL_ID,
+				this.propertyRegister.getPropertyType(pid508));
+
+		// P434 was returned with P508
+		PropertyIdValue pid434 = dataObjectFactory.getPropertyIdValue("P434",
+				this.siteIri);
+		assertEquals(DatatypeIdValue.DT_STRING,
+				this.propertyRegister.getPropertyType(pid434));
+		// P7 was requested with P508 but not found
+		PropertyIdValue pid7 = dataObjectFactory.getPropertyIdValue("P7",
+				this.siteIri);
+		assertNull(this.propertyRegister.getPropertyType(pid7));
+		assertTrue(this.propertyRegister.knownMissing.contains("P7"));
+		assertTrue(this.propertyRegister.knownProperties.containsKey("P7"));
+	}
+
+	@Test
+	public void testPropertyDocumentProcessor() {
+		PropertyIdValue pid = dataObjectFactory.getPropertyIdValue("P99",
+				this.siteIri);
+		this.propertyRegister.getPropertyDocumentProcessor()
+				.processPropertyDocument(dataObjectFactory.getPropertyDocument(
+						pid, Collections.emptyList(), Collections.emptyList(),
+						Collections.emptyList(), Collections.emptyList(),
+						dataObjectFactory.getDatatypeIdValueFromJsonId(
+								DatatypeIdValue.JSON_DT_QUANTITY), 0));
+		assertEquals(DatatypeIdValue.DT_QUANTITY,
+				this.propertyRegister.getPropertyType(pid));
+	}
+
 }
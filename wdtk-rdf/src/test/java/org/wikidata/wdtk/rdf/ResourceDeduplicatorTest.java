@@ -0,0 +1,126 @@
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.rdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.Test;
+
+public class ResourceDeduplicatorTest {
+
+	final ValueFactory factory = SimpleValueFactory.getInstance();
+
+	IRI getValueIri(int i) {
+		return this.factory.createIRI(Vocabulary.PREFIX_WIKIDATA_VALUE
+				+ String.format("%016x%016x", i * 0x9E3779B97F4A7C15L, (long) i));
+	}
+
+	@Test
+	public void testKeyFromHash() {
+		ResourceDeduplicator deduplicator = new ExactResourceDeduplicator();
+		deduplicator.computeKey("http://www.wikidata.org/value/"
+				+ "0123456789abcdef0123456789ABCDEF");
+		assertEquals(0x0123456789abcdefL, deduplicator.keyHigh);
+		assertEquals(0x0123456789abcdefL, deduplicator.keyLow);
+	}
+
+	@Test
+	public void testKeyWithoutHash() {
+		ResourceDeduplicator deduplicator = new ExactResourceDeduplicator();
+		deduplicator.computeKey("http://example.org/a");
+		long high = deduplicator.keyHigh;
+		long low = deduplicator.keyLow;
+		deduplicator.computeKey("http://example.org/b");
+		assertFalse(high == deduplicator.keyHigh && low == deduplicator.keyLow);
+	}
+
+	@Test
+	public void testExactDeduplicator() {
+		ExactResourceDeduplicator deduplicator = new ExactResourceDeduplicator(4);
+		for (int i = 0; i < 10000; i++) {
+			assertTrue(deduplicator.add(getValueIri(i)));
+		}
+		for (int i = 0; i < 10000; i++) {
+			assertFalse(deduplicator.add(getValueIri(i)));
+		}
+		assertEquals(10000, deduplicator.size());
+		assertEquals(20000, deduplicator.getRequestCount());
+		assertEquals(10000, deduplicator.getDuplicateCount());
+		assertEquals(0.5, deduplicator.getHitRate(), 0.0);
+	}
+
+	@Test
+	public void testExactDeduplicatorZeroKey() {
+		ExactResourceDeduplicator deduplicator = new ExactResourceDeduplicator();
+		assertTrue(deduplicator.add(getValueIri(0)));
+		assertFalse(deduplicator.add(getValueIri(0)));
+		assertEquals(1, deduplicator.size());
+	}
+
+	@Test
+	public void testLruDeduplicator() {
+		LruResourceDeduplicator deduplicator = new LruResourceDeduplicator(2);
+		assertTrue(deduplicator.add(getValueIri(1)));
+		assertTrue(deduplicator.add(getValueIri(2)));
+		assertFalse(deduplicator.add(getValueIri(1)));
+		assertTrue(deduplicator.add(getValueIri(3)));
+		// 2 was the least recently used resource
+		assertTrue(deduplicator.add(getValueIri(2)));
+		assertFalse(deduplicator.add(getValueIri(3)));
+	}
+
+	@Test
+	public void testBloomFilterDeduplicator() {
+		BloomFilterResourceDeduplicator deduplicator = new BloomFilterResourceDeduplicator(
+				10000, 0.01);
+		int falsePositives = 0;
+		for (int i = 0; i < 10000; i++) {
+			if (!deduplicator.add(getValueIri(i))) {
+				falsePositives++;
+			}
+		}
+		for (int i = 0; i < 10000; i++) {
+			assertFalse(deduplicator.add(getValueIri(i)));
+		}
+		assertTrue(falsePositives < 200);
+	}
+
+	@Test
+	public void testEmptyHitRate() {
+		assertEquals(0.0, new LruResourceDeduplicator(1).getHitRate(), 0.0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidLruCapacity() {
+		new LruResourceDeduplicator(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidFalsePositiveProbability() {
+		new BloomFilterResourceDeduplicator(100, 1.0);
+	}
+
+}
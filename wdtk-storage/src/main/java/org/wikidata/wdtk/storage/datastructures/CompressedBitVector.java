@@ -0,0 +1,610 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Compressed implementation of {@link BitVector} for sparse bit vectors whose
+ * set bits are spread over a very large range of positions, such as revision
+ * ids. Memory usage is proportional to the number of <code>true</code> bits
+ * rather than to the largest position, which makes it possible to store bits
+ * at positions in the billions without allocating the whole range.
+ * <p>
+ * The representation follows the idea of Roaring bitmaps. Positions are split
+ * into chunks of 2<sup>16</sup> bits, keyed by the high bits of the position.
+ * Chunks without any <code>true</code> bit are not stored at all. A chunk with
+ * at most {@value #MAX_ARRAY_CONTAINER_SIZE} <code>true</code> bits stores
+ * their offsets in a sorted array of <b>char</b>; a denser chunk stores a
+ * plain bitmap of 1024 <b>long</b> words. Chunks are converted between both
+ * representations as bits are set and cleared.
+ * <p>
+ * Like {@link BitVectorImpl}, this bit vector is <i>flexible</i>: any
+ * non-negative position can be set without explicitly resizing the vector,
+ * and any non-negative position outside the vector contains a
+ * <code>false</code>.
+ *
+ */
+public class CompressedBitVector implements BitVector, Iterable<Boolean> {
+
+	static final int LG_CHUNK_SIZE = 16;
+	static final int CHUNK_MASK = 0xFFFF;
+	static final int MAX_ARRAY_CONTAINER_SIZE = 0x1000;
+	static final int BITMAP_SIZE_IN_WORDS = 0x400;
+	static final int GROWTH_FACTOR = 2;
+	static final int MINIMUM_ARRAY_SIZE = 4;
+
+	/**
+	 * Sorted keys (high bits of the positions) of the stored chunks.
+	 */
+	long[] keys = new long[MINIMUM_ARRAY_SIZE];
+	/**
+	 * Containers of the stored chunks, in the same order as {@link #keys}.
+	 */
+	Container[] containers = new Container[MINIMUM_ARRAY_SIZE];
+	/**
+	 * Number of stored chunks.
+	 */
+	int numberOfChunks = 0;
+	/**
+	 * Index of the chunk that was accessed last. Positions are usually
+	 * accessed with some locality, so this avoids most binary searches.
+	 */
+	int lastChunkIndex = 0;
+	long size = 0;
+
+	/**
+	 * Constructor of a bit vector of size 0.
+	 */
+	public CompressedBitVector() {
+	}
+
+	/**
+	 * Copy constructor of a bit vector.
+	 *
+	 * @param bitVector
+	 *            bit vector
+	 */
+	public CompressedBitVector(BitVector bitVector) {
+		Validate.notNull(bitVector, "Bit vector cannot be null.");
+		if (bitVector instanceof CompressedBitVector) {
+			CompressedBitVector other = (CompressedBitVector) bitVector;
+			this.keys = Arrays.copyOf(other.keys, other.keys.length);
+			this.containers = new Container[other.containers.length];
+			for (int i = 0; i < other.numberOfChunks; i++) {
+				this.containers[i] = other.containers[i].copy();
+			}
+			this.numberOfChunks = other.numberOfChunks;
+			this.size = other.size;
+		} else {
+			for (long position = 0; position < bitVector.size(); position++) {
+				if (bitVector.getBit(position)) {
+					setBit(position, true);
+				}
+			}
+			this.size = bitVector.size();
+		}
+	}
+
+	@Override
+	public boolean addBit(boolean bit) {
+		setBit(this.size, bit);
+		return true;
+	}
+
+	/**
+	 * @param position
+	 *            position
+	 * @throws IndexOutOfBoundsException
+	 *             if the position is a negative number
+	 */
+	void assertNonNegativePosition(long position)
+			throws IndexOutOfBoundsException {
+		if ((position < 0)) {
+			throw new IndexOutOfBoundsException("Position " + position
+					+ " is out of bounds.");
+		}
+	}
+
+	/**
+	 * Returns the number of <code>true</code> bits in this bit vector.
+	 *
+	 * @return the number of <code>true</code> bits
+	 */
+	public long countBits() {
+		long ret = 0;
+		for (int i = 0; i < this.numberOfChunks; i++) {
+			ret += this.containers[i].cardinality;
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns an estimate of the memory used by the chunks of this bit vector,
+	 * in bytes. The estimate only counts the arrays that store the bits and the
+	 * chunk index, without object headers.
+	 *
+	 * @return estimated memory usage in bytes
+	 */
+	public long getSizeInBytes() {
+		long ret = (long) this.keys.length * (Long.BYTES + Integer.BYTES);
+		for (int i = 0; i < this.numberOfChunks; i++) {
+			ret += this.containers[i].getSizeInBytes();
+		}
+		return ret;
+	}
+
+	/**
+	 * @return a hash code for the current bit vector, which is the same as the
+	 *         one of {@link BitVectorImpl} for the same sequence of bits
+	 */
+	int computeHashCode() {
+		// BitVectorImpl adds up 0x1F times each of its words; since the bits
+		// of a word do not overlap, the sum of all words is the sum of the
+		// values of all true bits within their words
+		long sumOfWords = 0;
+		for (int i = 0; i < this.numberOfChunks; i++) {
+			sumOfWords += this.containers[i].sumOfWords();
+		}
+		return (int) (this.size + (0x1F * sumOfWords));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof BitVector)) {
+			return false;
+		}
+		BitVector other = (BitVector) obj;
+		if (this.size != other.size()) {
+			return false;
+		}
+
+		if (other instanceof CompressedBitVector) {
+			// containers are normalized: empty chunks are not stored, and the
+			// representation of a chunk only depends on its cardinality
+			CompressedBitVector otherCompressed = (CompressedBitVector) other;
+			if (this.numberOfChunks != otherCompressed.numberOfChunks) {
+				return false;
+			}
+			for (int i = 0; i < this.numberOfChunks; i++) {
+				if (this.keys[i] != otherCompressed.keys[i]
+						|| !this.containers[i]
+								.equals(otherCompressed.containers[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		for (long i = 0; i < this.size; i++) {
+			// bit-by-bit comparison
+			if (getBit(i) != other.getBit(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the index of the chunk with the given key, or
+	 * <code>(-(insertion point) - 1)</code> if there is no such chunk.
+	 *
+	 * @param key
+	 *            key of the chunk
+	 * @return the index of the chunk, or a negative number if it is not stored
+	 */
+	int findChunk(long key) {
+		int index = this.lastChunkIndex;
+		if (index < this.numberOfChunks && this.keys[index] == key) {
+			return index;
+		}
+		index = Arrays.binarySearch(this.keys, 0, this.numberOfChunks, key);
+		if (index >= 0) {
+			this.lastChunkIndex = index;
+		}
+		return index;
+	}
+
+	@Override
+	public boolean getBit(long position) {
+		assertNonNegativePosition(position);
+		if (position >= this.size) {
+			return false;
+		}
+		int index = findChunk(position >>> LG_CHUNK_SIZE);
+		if (index < 0) {
+			return false;
+		}
+		return this.containers[index].contains((int) (position & CHUNK_MASK));
+	}
+
+	@Override
+	public int hashCode() {
+		return computeHashCode();
+	}
+
+	/**
+	 * Inserts a new empty chunk at the given index.
+	 *
+	 * @param index
+	 *            index of the new chunk
+	 * @param key
+	 *            key of the new chunk
+	 * @return the new container
+	 */
+	Container insertChunk(int index, long key) {
+		if (this.numberOfChunks == this.keys.length) {
+			int newLength = GROWTH_FACTOR * this.keys.length;
+			this.keys = Arrays.copyOf(this.keys, newLength);
+			this.containers = Arrays.copyOf(this.containers, newLength);
+		}
+		System.arraycopy(this.keys, index, this.keys, index + 1,
+				this.numberOfChunks - index);
+		System.arraycopy(this.containers, index, this.containers, index + 1,
+				this.numberOfChunks - index);
+		Container ret = new ArrayContainer();
+		this.keys[index] = key;
+		this.containers[index] = ret;
+		this.numberOfChunks++;
+		this.lastChunkIndex = index;
+		return ret;
+	}
+
+	@Override
+	public Iterator<Boolean> iterator() {
+		return new BitVectorIterator(this);
+	}
+
+	/**
+	 * Removes the (empty) chunk at the given index.
+	 *
+	 * @param index
+	 *            index of the chunk
+	 */
+	void removeChunk(int index) {
+		System.arraycopy(this.keys, index + 1, this.keys, index,
+				this.numberOfChunks - index - 1);
+		System.arraycopy(this.containers, index + 1, this.containers, index,
+				this.numberOfChunks - index - 1);
+		this.numberOfChunks--;
+		this.containers[this.numberOfChunks] = null;
+		this.lastChunkIndex = 0;
+	}
+
+	@Override
+	public void setBit(long position, boolean bit) {
+		assertNonNegativePosition(position);
+		if (position >= this.size) {
+			this.size = position + 1;
+		}
+
+		long key = position >>> LG_CHUNK_SIZE;
+		int offset = (int) (position & CHUNK_MASK);
+		int index = findChunk(key);
+		if (bit) {
+			Container container;
+			if (index < 0) {
+				index = -index - 1;
+				container = insertChunk(index, key);
+			} else {
+				container = this.containers[index];
+			}
+			this.containers[index] = container.add(offset);
+		} else if (index >= 0) {
+			Container container = this.containers[index].remove(offset);
+			if (container.cardinality == 0) {
+				removeChunk(index);
+			} else {
+				this.containers[index] = container;
+			}
+		}
+	}
+
+	@Override
+	public long size() {
+		return this.size;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (long position = 0; position < this.size;) {
+			sb.append(getBit(position) ? "1" : "0");
+			position++;
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Storage for the bits of one chunk of 2<sup>16</sup> positions.
+	 */
+	abstract static class Container {
+
+		/**
+		 * Number of <code>true</code> bits in this container.
+		 */
+		int cardinality = 0;
+
+		/**
+		 * @param offset
+		 *            position within the chunk
+		 * @return <code>true</code> if the bit at the given offset is set
+		 */
+		abstract boolean contains(int offset);
+
+		/**
+		 * Sets the bit at the given offset.
+		 *
+		 * @param offset
+		 *            position within the chunk
+		 * @return the container that stores the chunk afterwards, which is
+		 *         either this container or a converted one
+		 */
+		abstract Container add(int offset);
+
+		/**
+		 * Clears the bit at the given offset.
+		 *
+		 * @param offset
+		 *            position within the chunk
+		 * @return the container that stores the chunk afterwards, which is
+		 *         either this container or a converted one
+		 */
+		abstract Container remove(int offset);
+
+		/**
+		 * @return a deep copy of this container
+		 */
+		abstract Container copy();
+
+		/**
+		 * @return the size of the arrays of this container in bytes
+		 */
+		abstract long getSizeInBytes();
+
+		/**
+		 * @return the sum of the 64-bit words of this container
+		 */
+		abstract long sumOfWords();
+	}
+
+	/**
+	 * Container that stores the offsets of the <code>true</code> bits in a
+	 * sorted array. Used for chunks with at most
+	 * {@value CompressedBitVector#MAX_ARRAY_CONTAINER_SIZE} <code>true</code>
+	 * bits.
+	 */
+	static class ArrayContainer extends Container {
+
+		char[] offsets;
+
+		ArrayContainer() {
+			this.offsets = new char[MINIMUM_ARRAY_SIZE];
+		}
+
+		ArrayContainer(char[] offsets, int cardinality) {
+			this.offsets = offsets;
+			this.cardinality = cardinality;
+		}
+
+		int find(int offset) {
+			int last = this.cardinality - 1;
+			if (last < 0 || this.offsets[last] < offset) {
+				// common case of increasing positions
+				return -this.cardinality - 1;
+			}
+			return Arrays.binarySearch(this.offsets, 0, this.cardinality,
+					(char) offset);
+		}
+
+		@Override
+		boolean contains(int offset) {
+			return find(offset) >= 0;
+		}
+
+		@Override
+		Container add(int offset) {
+			int index = find(offset);
+			if (index >= 0) {
+				return this;
+			}
+			if (this.cardinality == MAX_ARRAY_CONTAINER_SIZE) {
+				return toBitmapContainer().add(offset);
+			}
+			index = -index - 1;
+			if (this.cardinality == this.offsets.length) {
+				this.offsets = Arrays.copyOf(this.offsets, Math.min(
+						GROWTH_FACTOR * this.offsets.length,
+						MAX_ARRAY_CONTAINER_SIZE));
+			}
+			System.arraycopy(this.offsets, index, this.offsets, index + 1,
+					this.cardinality - index);
+			this.offsets[index] = (char) offset;
+			this.cardinality++;
+			return this;
+		}
+
+		@Override
+		Container remove(int offset) {
+			int index = find(offset);
+			if (index >= 0) {
+				System.arraycopy(this.offsets, index + 1, this.offsets, index,
+						this.cardinality - index - 1);
+				this.cardinality--;
+			}
+			return this;
+		}
+
+		BitmapContainer toBitmapContainer() {
+			BitmapContainer ret = new BitmapContainer();
+			for (int i = 0; i < this.cardinality; i++) {
+				int offset = this.offsets[i];
+				ret.words[offset >>> 6] |= (1L << offset);
+			}
+			ret.cardinality = this.cardinality;
+			return ret;
+		}
+
+		@Override
+		Container copy() {
+			return new ArrayContainer(Arrays.copyOf(this.offsets,
+					this.offsets.length), this.cardinality);
+		}
+
+		@Override
+		long getSizeInBytes() {
+			return (long) this.offsets.length * Character.BYTES;
+		}
+
+		@Override
+		long sumOfWords() {
+			long ret = 0;
+			for (int i = 0; i < this.cardinality; i++) {
+				ret += (1L << this.offsets[i]);
+			}
+			return ret;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ArrayContainer)) {
+				return false;
+			}
+			ArrayContainer other = (ArrayContainer) obj;
+			return Arrays.equals(this.offsets, 0, this.cardinality,
+					other.offsets, 0, other.cardinality);
+		}
+
+		@Override
+		public int hashCode() {
+			int ret = 1;
+			for (int i = 0; i < this.cardinality; i++) {
+				ret = 0x1F * ret + this.offsets[i];
+			}
+			return ret;
+		}
+	}
+
+	/**
+	 * Container that stores all 2<sup>16</sup> bits of a chunk in an array of
+	 * <b>long</b>. Used for chunks with more than
+	 * {@value CompressedBitVector#MAX_ARRAY_CONTAINER_SIZE} <code>true</code>
+	 * bits.
+	 */
+	static class BitmapContainer extends Container {
+
+		final long[] words;
+
+		BitmapContainer() {
+			this.words = new long[BITMAP_SIZE_IN_WORDS];
+		}
+
+		BitmapContainer(long[] words, int cardinality) {
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		boolean contains(int offset) {
+			return (this.words[offset >>> 6] & (1L << offset)) != 0;
+		}
+
+		@Override
+		Container add(int offset) {
+			long mask = 1L << offset;
+			int index = offset >>> 6;
+			if ((this.words[index] & mask) == 0) {
+				this.words[index] |= mask;
+				this.cardinality++;
+			}
+			return this;
+		}
+
+		@Override
+		Container remove(int offset) {
+			long mask = 1L << offset;
+			int index = offset >>> 6;
+			if ((this.words[index] & mask) != 0) {
+				this.words[index] &= ~mask;
+				this.cardinality--;
+				if (this.cardinality <= MAX_ARRAY_CONTAINER_SIZE) {
+					return toArrayContainer();
+				}
+			}
+			return this;
+		}
+
+		ArrayContainer toArrayContainer() {
+			char[] offsets = new char[Math.max(this.cardinality,
+					MINIMUM_ARRAY_SIZE)];
+			int pos = 0;
+			for (int i = 0; i < BITMAP_SIZE_IN_WORDS; i++) {
+				long word = this.words[i];
+				while (word != 0) {
+					offsets[pos++] = (char) ((i << 6) + Long
+							.numberOfTrailingZeros(word));
+					word &= (word - 1);
+				}
+			}
+			return new ArrayContainer(offsets, this.cardinality);
+		}
+
+		@Override
+		Container copy() {
+			return new BitmapContainer(Arrays.copyOf(this.words,
+					BITMAP_SIZE_IN_WORDS), this.cardinality);
+		}
+
+		@Override
+		long getSizeInBytes() {
+			return (long) BITMAP_SIZE_IN_WORDS * Long.BYTES;
+		}
+
+		@Override
+		long sumOfWords() {
+			long ret = 0;
+			for (long word : this.words) {
+				ret += word;
+			}
+			return ret;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof BitmapContainer)) {
+				return false;
+			}
+			return Arrays.equals(this.words, ((BitmapContainer) obj).words);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(this.words);
+		}
+	}
+
+}
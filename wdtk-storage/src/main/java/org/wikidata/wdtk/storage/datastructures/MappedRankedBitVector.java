@@ -0,0 +1,689 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Implementation of {@link RankedBitVector} that keeps its bits in a
+ * memory-mapped file. The data does not use any space on the Java heap, and a
+ * vector that was written once can be opened again without reading or
+ * indexing its contents.
+ * <p>
+ * The file is divided into blocks of 512 bits. Each block is stored as one
+ * <b>long</b> with the number of <code>true</code> values before the block,
+ * followed by the 8 words of the block. Hence
+ * {@link #countBits(boolean, long)} needs to look at only one block, and
+ * {@link #findPosition(boolean, long)} performs a binary search on the block
+ * counts. The counts are updated lazily: changing a bit only marks the counts
+ * of the following blocks as invalid, and they are recomputed on the next
+ * query. Appending bits therefore invalidates only the last block.
+ * <p>
+ * Like {@link BitVectorImpl}, this bit vector is flexible, i.e., bits can be
+ * set at any non-negative position, and the file grows as needed.
+ * <p>
+ * Changes are written to the file by the operating system. Use
+ * {@link #flush()} to force them to the storage device. The vector must not be
+ * used after {@link #close()} has been called. The memory mappings are only
+ * released when the object is garbage collected, so on some systems, the file
+ * cannot be deleted before that.
+ */
+public class MappedRankedBitVector implements RankedBitVector,
+		Iterable<Boolean>, Closeable {
+
+	/**
+	 * Marker at the beginning of each file ("WDTKBITV").
+	 */
+	static final long MAGIC = 0x5744544b42495456L;
+
+	static final int VERSION = 1;
+
+	static final int HEADER_SIZE = 64;
+
+	static final int HEADER_SIZE_OFFSET = 16;
+
+	static final int HEADER_INDEXED_BLOCKS_OFFSET = 24;
+
+	static final int LG_BLOCK_SIZE = 9;
+
+	static final int BLOCK_SIZE = 1 << LG_BLOCK_SIZE;
+
+	static final int WORDS_PER_BLOCK = BLOCK_SIZE / BitVectorImpl.WORD_SIZE;
+
+	/**
+	 * Number of bytes of one block in the file, including its count.
+	 */
+	static final int BLOCK_BYTES = 8 * (WORDS_PER_BLOCK + 1);
+
+	/**
+	 * Default number of blocks that are mapped as one buffer. This has to be
+	 * small enough for the buffer to be indexed by an <b>int</b>.
+	 */
+	static final int DEFAULT_SEGMENT_BLOCKS = 1 << 24;
+
+	static final int MINIMUM_CAPACITY_BLOCKS = 16;
+
+	final FileChannel channel;
+
+	final MappedByteBuffer header;
+
+	/**
+	 * Number of blocks in one mapped segment.
+	 */
+	final int segmentBlocks;
+
+	MappedByteBuffer[] segments;
+
+	/**
+	 * Number of blocks that fit into the current mapping.
+	 */
+	long capacityBlocks;
+
+	long size;
+
+	/**
+	 * Number of blocks whose count of preceding <code>true</code> values is
+	 * up to date. The count of the first block is always zero.
+	 */
+	long indexedBlocks;
+
+	int hashCode;
+
+	boolean validHashCode = false;
+
+	/**
+	 * Opens the bit vector stored in the given file. If the file does not
+	 * exist, a new bit vector of size 0 is created.
+	 *
+	 * @param file
+	 *            the file that contains the bit vector
+	 * @throws IOException
+	 *             if the file could not be opened, or does not contain a bit
+	 *             vector
+	 */
+	public MappedRankedBitVector(Path file) throws IOException {
+		this(file, Files.exists(file) ? -1 : 0, DEFAULT_SEGMENT_BLOCKS);
+	}
+
+	/**
+	 * Creates a new bit vector of size <i>initialSize</i> in the given file.
+	 * An existing file is overwritten. The bit vector contains
+	 * <code>false</code> at all indexes.
+	 *
+	 * @param file
+	 *            the file to store the bit vector in
+	 * @param initialSize
+	 *            initial size of this bit vector
+	 * @throws IOException
+	 *             if the file could not be created
+	 */
+	public MappedRankedBitVector(Path file, long initialSize)
+			throws IOException {
+		this(file, checkSize(initialSize), DEFAULT_SEGMENT_BLOCKS);
+	}
+
+	/**
+	 * Creates a new bit vector in the given file that contains the same bits
+	 * as the given bit vector. An existing file is overwritten.
+	 *
+	 * @param file
+	 *            the file to store the bit vector in
+	 * @param bitVector
+	 *            bit vector to copy
+	 * @throws IOException
+	 *             if the file could not be created
+	 */
+	public MappedRankedBitVector(Path file, BitVector bitVector)
+			throws IOException {
+		this(file, Validate.notNull(bitVector, "Bit vector cannot be null.")
+				.size(), DEFAULT_SEGMENT_BLOCKS);
+		if (bitVector instanceof BitVectorImpl) {
+			long[] words = ((BitVectorImpl) bitVector).arrayOfBits;
+			int sizeInWords = (int) ((this.size + BitVectorImpl.WORD_MASK) >>> BitVectorImpl.LG_WORD_SIZE);
+			for (int i = 0; i < sizeInWords; i++) {
+				setWord(i, words[i]);
+			}
+			if ((this.size & BitVectorImpl.WORD_MASK) != 0) {
+				// clear unused bits of the last word
+				setWord(sizeInWords - 1, words[sizeInWords - 1]
+						& ((1L << (this.size & BitVectorImpl.WORD_MASK)) - 1));
+			}
+		} else {
+			for (long index = 0; index < this.size; index++) {
+				if (bitVector.getBit(index)) {
+					setBit(index, true);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file
+	 *            the file that contains the bit vector
+	 * @param initialSize
+	 *            initial size of a new bit vector, or -1 if an existing bit
+	 *            vector is opened
+	 * @param segmentBlocks
+	 *            number of blocks that are mapped as one buffer
+	 * @throws IOException
+	 *             if the file could not be opened or created
+	 */
+	MappedRankedBitVector(Path file, long initialSize, int segmentBlocks)
+			throws IOException {
+		this.segmentBlocks = segmentBlocks;
+		if (initialSize < 0) {
+			this.channel = FileChannel.open(file, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+		} else {
+			this.channel = FileChannel.open(file, StandardOpenOption.READ,
+					StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+		}
+
+		try {
+			if (initialSize < 0 && this.channel.size() < HEADER_SIZE) {
+				throw new IOException("File does not contain a bit vector.");
+			}
+			this.header = this.channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE);
+			this.header.order(ByteOrder.LITTLE_ENDIAN);
+			this.segments = new MappedByteBuffer[0];
+			if (initialSize < 0) {
+				readHeader();
+			} else {
+				this.header.putLong(0, MAGIC);
+				this.header.putInt(8, VERSION);
+				this.header.putLong(HEADER_SIZE_OFFSET, initialSize);
+				this.header.putLong(HEADER_INDEXED_BLOCKS_OFFSET, 1);
+				this.size = initialSize;
+				this.indexedBlocks = 1;
+				ensureCapacity(Math.max(MINIMUM_CAPACITY_BLOCKS,
+						getSizeInBlocks(initialSize)));
+			}
+		} catch (IOException | RuntimeException e) {
+			this.channel.close();
+			throw e;
+		}
+	}
+
+	static long checkSize(long initialSize) {
+		if (initialSize < 0) {
+			throw new IllegalArgumentException("Wrong bit vector size '"
+					+ initialSize + "'. Bit vector size must be non-negative.");
+		}
+		return initialSize;
+	}
+
+	/**
+	 * @param sizeInBits
+	 *            size in bits
+	 * @return the number of blocks needed for <i>sizeInBits</i> bits
+	 */
+	static long getSizeInBlocks(long sizeInBits) {
+		return (sizeInBits + BLOCK_SIZE - 1) >>> LG_BLOCK_SIZE;
+	}
+
+	/**
+	 * Returns the position of the <i>n</i>-th <code>true</code> bit of a word,
+	 * counting from the least significant bit.
+	 *
+	 * @param word
+	 *            word
+	 * @param n
+	 *            number of <code>true</code> bits to skip, must be smaller
+	 *            than the number of <code>true</code> bits in the word
+	 * @return position of the bit in the word
+	 */
+	static int selectInWord(long word, int n) {
+		for (int i = 0; i < n; i++) {
+			word &= word - 1;
+		}
+		return Long.numberOfTrailingZeros(word);
+	}
+
+	void readHeader() throws IOException {
+		if (this.header.getLong(0) != MAGIC) {
+			throw new IOException("File does not contain a bit vector.");
+		}
+		if (this.header.getInt(8) != VERSION) {
+			throw new IOException("Unsupported version "
+					+ this.header.getInt(8) + " of bit vector file.");
+		}
+		this.size = this.header.getLong(HEADER_SIZE_OFFSET);
+		this.indexedBlocks = this.header.getLong(HEADER_INDEXED_BLOCKS_OFFSET);
+		long fileBlocks = (this.channel.size() - HEADER_SIZE) / BLOCK_BYTES;
+		if (this.size < 0 || getSizeInBlocks(this.size) > fileBlocks
+				|| this.indexedBlocks < 1) {
+			throw new IOException("Bit vector file is corrupted.");
+		}
+		mapSegments(fileBlocks);
+	}
+
+	/**
+	 * Makes sure that the mapping contains at least the given number of
+	 * blocks. The capacity grows exponentially.
+	 *
+	 * @param blocks
+	 *            number of blocks needed
+	 * @throws IOException
+	 *             if the file could not be enlarged
+	 */
+	void ensureCapacity(long blocks) throws IOException {
+		if (blocks > this.capacityBlocks) {
+			mapSegments(Math.max(blocks, BitVectorImpl.GROWTH_FACTOR
+					* this.capacityBlocks));
+		}
+	}
+
+	/**
+	 * Maps the given number of blocks of the file to memory. Segments that
+	 * are already mapped completely are kept. The file is enlarged if
+	 * needed.
+	 *
+	 * @param blocks
+	 *            the new capacity in blocks
+	 * @throws IOException
+	 *             if the file could not be mapped
+	 */
+	void mapSegments(long blocks) throws IOException {
+		int segmentCount = (int) ((blocks + this.segmentBlocks - 1) / this.segmentBlocks);
+		int firstSegment = (int) (this.capacityBlocks / this.segmentBlocks);
+		MappedByteBuffer[] newSegments = Arrays.copyOf(this.segments,
+				segmentCount);
+		for (int i = firstSegment; i < segmentCount; i++) {
+			long firstBlock = (long) i * this.segmentBlocks;
+			long length = Math.min(this.segmentBlocks, blocks - firstBlock)
+					* BLOCK_BYTES;
+			newSegments[i] = this.channel.map(MapMode.READ_WRITE, HEADER_SIZE
+					+ firstBlock * BLOCK_BYTES, length);
+			newSegments[i].order(ByteOrder.LITTLE_ENDIAN);
+		}
+		this.segments = newSegments;
+		this.capacityBlocks = blocks;
+	}
+
+	/**
+	 * Returns the long stored at the given index of a block.
+	 *
+	 * @param block
+	 *            number of the block
+	 * @param index
+	 *            0 for the count, or 1 to 8 for the words of the block
+	 * @return stored value
+	 */
+	long getLong(long block, int index) {
+		return this.segments[(int) (block / this.segmentBlocks)]
+				.getLong((int) (block % this.segmentBlocks) * BLOCK_BYTES + 8
+						* index);
+	}
+
+	void putLong(long block, int index, long value) {
+		this.segments[(int) (block / this.segmentBlocks)].putLong(
+				(int) (block % this.segmentBlocks) * BLOCK_BYTES + 8 * index,
+				value);
+	}
+
+	/**
+	 * Returns a word of the bit vector. Words outside the mapped area are 0.
+	 *
+	 * @param wordIndex
+	 *            index of the word
+	 * @return word
+	 */
+	long getWord(long wordIndex) {
+		long block = wordIndex >>> 3;
+		if (block >= this.capacityBlocks) {
+			return 0;
+		}
+		return getLong(block, 1 + (int) (wordIndex & 7));
+	}
+
+	void setWord(long wordIndex, long word) {
+		long block = wordIndex >>> 3;
+		putLong(block, 1 + (int) (wordIndex & 7), word);
+		invalidateIndex(block);
+	}
+
+	/**
+	 * Marks the counts of all blocks after the given block as outdated.
+	 *
+	 * @param block
+	 *            the block that was changed
+	 */
+	void invalidateIndex(long block) {
+		this.validHashCode = false;
+		if (this.indexedBlocks > block + 1) {
+			this.indexedBlocks = block + 1;
+			this.header.putLong(HEADER_INDEXED_BLOCKS_OFFSET,
+					this.indexedBlocks);
+		}
+	}
+
+	/**
+	 * Recomputes the counts of all blocks that are outdated.
+	 */
+	void updateIndex() {
+		long blocks = getSizeInBlocks(this.size);
+		if (this.indexedBlocks >= blocks) {
+			return;
+		}
+		long block = this.indexedBlocks - 1;
+		long count = getLong(block, 0);
+		for (; block < blocks - 1; block++) {
+			count += countTrueBitsInBlock(block, WORDS_PER_BLOCK);
+			putLong(block + 1, 0, count);
+		}
+		this.indexedBlocks = blocks;
+		this.header.putLong(HEADER_INDEXED_BLOCKS_OFFSET, blocks);
+	}
+
+	/**
+	 * Returns the number of <code>true</code> values in the first words of a
+	 * block.
+	 *
+	 * @param block
+	 *            number of the block
+	 * @param words
+	 *            number of words to consider
+	 * @return number of <code>true</code> values
+	 */
+	long countTrueBitsInBlock(long block, int words) {
+		long count = 0;
+		for (int i = 1; i <= words; i++) {
+			count += Long.bitCount(getLong(block, i));
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of <code>true</code> values before the given block.
+	 * The index must be up to date.
+	 *
+	 * @param block
+	 *            number of the block
+	 * @return number of <code>true</code> values before the block
+	 */
+	long countTrueBitsBefore(long block) {
+		return block == 0 ? 0 : getLong(block, 0);
+	}
+
+	/**
+	 * Returns the number of values equal to <i>bit</i> before the given
+	 * block. The index must be up to date.
+	 *
+	 * @param bit
+	 *            bit
+	 * @param block
+	 *            number of the block
+	 * @return number of occurrences of <i>bit</i> before the block
+	 */
+	long countBitsBefore(boolean bit, long block) {
+		long trueValues = countTrueBitsBefore(block);
+		return bit ? trueValues : (block << LG_BLOCK_SIZE) - trueValues;
+	}
+
+	/**
+	 * @return the total number of <code>true</code> values
+	 */
+	long countTrueBits() {
+		if (this.size == 0) {
+			return 0;
+		}
+		updateIndex();
+		long lastBlock = getSizeInBlocks(this.size) - 1;
+		return countTrueBitsBefore(lastBlock)
+				+ countTrueBitsInBlock(lastBlock, WORDS_PER_BLOCK);
+	}
+
+	/**
+	 * @param position
+	 *            position
+	 * @throws IndexOutOfBoundsException
+	 *             if the position is a negative number
+	 */
+	void assertNonNegativePosition(long position) {
+		if (position < 0) {
+			throw new IndexOutOfBoundsException("Position " + position
+					+ " is out of bounds.");
+		}
+	}
+
+	/**
+	 * Ensures that the bit vector is large enough to contain an element at the
+	 * given position. If the bit vector needs to be enlarged, new
+	 * <code>false</code> elements are added.
+	 *
+	 * @param position
+	 *            position
+	 */
+	void ensureSize(long position) {
+		assertNonNegativePosition(position);
+		if (position >= this.size) {
+			try {
+				ensureCapacity(getSizeInBlocks(position + 1));
+			} catch (IOException e) {
+				throw new RuntimeException("Could not enlarge bit vector file: "
+						+ e.getMessage(), e);
+			}
+			this.validHashCode = false;
+			this.size = position + 1;
+			this.header.putLong(HEADER_SIZE_OFFSET, this.size);
+		}
+	}
+
+	@Override
+	public boolean addBit(boolean bit) {
+		setBit(this.size, bit);
+		return true;
+	}
+
+	@Override
+	public long countBits(boolean bit, long position) {
+		assertNonNegativePosition(position);
+		long trueValues;
+		if (position >= this.size) {
+			trueValues = countTrueBits();
+		} else {
+			updateIndex();
+			long block = position >>> LG_BLOCK_SIZE;
+			int wordInBlock = (int) ((position >>> BitVectorImpl.LG_WORD_SIZE) & 7);
+			long lastWord = getLong(block, 1 + wordInBlock);
+			int bitInWord = (int) (position & BitVectorImpl.WORD_MASK);
+			trueValues = countTrueBitsBefore(block)
+					+ countTrueBitsInBlock(block, wordInBlock)
+					+ Long.bitCount(lastWord << (BitVectorImpl.WORD_MASK - bitInWord));
+		}
+		return bit ? trueValues : ((position + 1) - trueValues);
+	}
+
+	@Override
+	public long findPosition(boolean bit, long nOccurrence) {
+		if (nOccurrence <= 0) {
+			return NOT_FOUND;
+		}
+		long trueValues = countTrueBits();
+		if (nOccurrence > (bit ? trueValues : this.size - trueValues)) {
+			return NOT_FOUND;
+		}
+
+		// find the last block with fewer occurrences before it
+		long low = 0;
+		long high = getSizeInBlocks(this.size) - 1;
+		while (low < high) {
+			long middle = (low + high + 1) >>> 1;
+			if (countBitsBefore(bit, middle) < nOccurrence) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+
+		long remaining = nOccurrence - countBitsBefore(bit, low);
+		for (int i = 1; i <= WORDS_PER_BLOCK; i++) {
+			long word = getLong(low, i);
+			if (!bit) {
+				word = ~word;
+			}
+			int count = Long.bitCount(word);
+			if (remaining <= count) {
+				return (low << LG_BLOCK_SIZE)
+						+ ((long) (i - 1) << BitVectorImpl.LG_WORD_SIZE)
+						+ selectInWord(word, (int) remaining - 1);
+			}
+			remaining -= count;
+		}
+		return NOT_FOUND;
+	}
+
+	@Override
+	public boolean getBit(long position) {
+		assertNonNegativePosition(position);
+		if (position >= this.size) {
+			return false;
+		}
+		return ((getWord(position >>> BitVectorImpl.LG_WORD_SIZE) >>> (position & BitVectorImpl.WORD_MASK)) & 1) == 1;
+	}
+
+	@Override
+	public void setBit(long position, boolean bit) {
+		ensureSize(position);
+		long wordIndex = position >>> BitVectorImpl.LG_WORD_SIZE;
+		long word = getWord(wordIndex);
+		long newWord = bit ? word | (1L << (position & BitVectorImpl.WORD_MASK))
+				: word & ~(1L << (position & BitVectorImpl.WORD_MASK));
+		if (newWord != word) {
+			setWord(wordIndex, newWord);
+		}
+	}
+
+	@Override
+	public long size() {
+		return this.size;
+	}
+
+	@Override
+	public Iterator<Boolean> iterator() {
+		return new BitVectorIterator(this);
+	}
+
+	/**
+	 * Forces all changes to be written to the storage device.
+	 */
+	public void flush() {
+		this.header.force();
+		for (MappedByteBuffer segment : this.segments) {
+			segment.force();
+		}
+	}
+
+	/**
+	 * Updates the index, writes all changes, and closes the file.
+	 *
+	 * @throws IOException
+	 *             if the file could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		updateIndex();
+		flush();
+		this.channel.close();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof BitVector)) {
+			return false;
+		}
+		BitVector other = (BitVector) obj;
+		if (this.size != other.size()) {
+			return false;
+		}
+
+		long comparisonFirstPos = 0;
+		if (other instanceof MappedRankedBitVector
+				|| other instanceof BitVectorImpl) {
+			// only full words can be compared, because the unused bits of
+			// other bit vectors can have any value
+			long fullWords = this.size >>> BitVectorImpl.LG_WORD_SIZE;
+			for (long i = 0; i < fullWords; i++) {
+				long otherWord = other instanceof BitVectorImpl ? ((BitVectorImpl) other).arrayOfBits[(int) i]
+						: ((MappedRankedBitVector) other).getWord(i);
+				if (getWord(i) != otherWord) {
+					return false;
+				}
+			}
+			comparisonFirstPos = fullWords << BitVectorImpl.LG_WORD_SIZE;
+		}
+
+		for (long i = comparisonFirstPos; i < this.size; i++) {
+			if (getBit(i) != other.getBit(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Computes the same hash code as {@link BitVectorImpl}, so that equal bit
+	 * vectors have equal hash codes.
+	 */
+	@Override
+	public int hashCode() {
+		if (!this.validHashCode) {
+			long ret = (int) this.size;
+			long fullWords = this.size >>> BitVectorImpl.LG_WORD_SIZE;
+			for (long i = 0; i < fullWords; i++) {
+				ret += 0x1F * getWord(i);
+			}
+			// bits after the end of the vector are always false
+			ret += 0x1F * getWord(fullWords);
+			this.hashCode = (int) ret;
+			this.validHashCode = true;
+		}
+		return this.hashCode;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (long position = 0; position < this.size; position++) {
+			sb.append(getBit(position) ? "1" : "0");
+		}
+		return sb.toString();
+	}
+
+}
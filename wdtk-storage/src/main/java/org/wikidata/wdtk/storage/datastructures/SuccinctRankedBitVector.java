@@ -0,0 +1,438 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Implementation of {@link RankedBitVector} with a succinct rank and select
+ * index in the style of <i>rank9</i>. Unlike {@link RankedBitVectorImpl},
+ * neither operation scans the bit vector bit by bit.
+ * <p>
+ * The bits are divided into blocks of 512 bits. For each block, the index
+ * stores two <b>long</b> values: the number of <code>true</code> values
+ * before the block, and the number of <code>true</code> values in the first
+ * 1 to 7 words of the block, packed as seven 9-bit fields. Hence
+ * {@link #countBits(boolean, long)} takes constant time and needs one call of
+ * {@link Long#bitCount(long)}.
+ * <p>
+ * For {@link #findPosition(boolean, long)}, the index also stores the block of
+ * every 4096-th occurrence of each bit value. A query only searches the blocks
+ * between two of these samples, then selects the word with the packed counts,
+ * and the bit within the word byte by byte.
+ * <p>
+ * The index uses about 28% of the space of the bits. It is updated lazily:
+ * changing a bit only invalidates the index from the block of that bit on,
+ * and the invalid part is rebuilt on the next query. Appending bits
+ * therefore only invalidates the last block.
+ *
+ * @see RankedBitVectorImpl
+ */
+public class SuccinctRankedBitVector implements RankedBitVector,
+		Iterable<Boolean> {
+
+	static final int LG_BLOCK_SIZE = 9;
+
+	static final int BLOCK_SIZE = 1 << LG_BLOCK_SIZE;
+
+	static final int WORDS_PER_BLOCK = BLOCK_SIZE / BitVectorImpl.WORD_SIZE;
+
+	/**
+	 * Width of each packed count of the words of a block.
+	 */
+	static final int SUB_COUNT_BITS = 9;
+
+	static final long SUB_COUNT_MASK = (1L << SUB_COUNT_BITS) - 1;
+
+	static final int LG_SELECT_SAMPLE_RATE = 12;
+
+	/**
+	 * Number of occurrences of a bit value between two select samples.
+	 */
+	static final int SELECT_SAMPLE_RATE = 1 << LG_SELECT_SAMPLE_RATE;
+
+	/**
+	 * Maximum number of blocks that are searched linearly, instead of using a
+	 * binary search.
+	 */
+	static final int LINEAR_SEARCH_BLOCKS = 8;
+
+	static final int MINIMUM_INDEX_SIZE = 16;
+
+	final BitVectorImpl bitVector;
+
+	/**
+	 * Rank index. Entry <code>2b</code> contains the number of
+	 * <code>true</code> values before block <i>b</i>, entry <code>2b+1</code>
+	 * the packed counts within block <i>b</i>. The entry after the last block
+	 * contains the total number of <code>true</code> values.
+	 */
+	long[] counts = new long[MINIMUM_INDEX_SIZE];
+
+	/**
+	 * Blocks of the occurrences 1, 4097, 8193, ... of <code>true</code>.
+	 */
+	int[] trueSamples = new int[MINIMUM_INDEX_SIZE];
+
+	int trueSampleCount;
+
+	/**
+	 * Blocks of the occurrences 1, 4097, 8193, ... of <code>false</code>.
+	 */
+	int[] falseSamples = new int[MINIMUM_INDEX_SIZE];
+
+	int falseSampleCount;
+
+	/**
+	 * Number of blocks whose entries in the index are up to date.
+	 */
+	int indexedBlocks;
+
+	/**
+	 * Constructor of a ranked bit vector of size 0.
+	 */
+	public SuccinctRankedBitVector() {
+		this.bitVector = new BitVectorImpl();
+	}
+
+	/**
+	 * Copy constructor of a ranked bit vector.
+	 *
+	 * @param bitVector
+	 *            bit vector
+	 */
+	public SuccinctRankedBitVector(BitVector bitVector) {
+		Validate.notNull(bitVector, "Bit vector cannot be null.");
+		if (bitVector instanceof SuccinctRankedBitVector) {
+			this.bitVector = new BitVectorImpl(
+					((SuccinctRankedBitVector) bitVector).bitVector);
+		} else {
+			this.bitVector = new BitVectorImpl(bitVector);
+		}
+	}
+
+	/**
+	 * Constructor of a ranked bit vector of size <i>initialSize</i>. The bit
+	 * vector contains <code>false</code> at all indexes.
+	 *
+	 * @param initialSize
+	 *            initial size of this ranked bit vector
+	 */
+	public SuccinctRankedBitVector(long initialSize) {
+		this.bitVector = new BitVectorImpl(initialSize);
+	}
+
+	/**
+	 * @param sizeInBits
+	 *            size in bits
+	 * @return the number of blocks needed for <i>sizeInBits</i> bits
+	 */
+	static int getSizeInBlocks(long sizeInBits) {
+		return (int) ((sizeInBits + BLOCK_SIZE - 1) >>> LG_BLOCK_SIZE);
+	}
+
+	/**
+	 * Returns the position of the <i>n</i>-th <code>true</code> bit of a word,
+	 * counting from the least significant bit. The word is first searched
+	 * byte by byte, so at most 15 steps are needed.
+	 *
+	 * @param word
+	 *            word
+	 * @param n
+	 *            number of <code>true</code> bits to skip, must be smaller
+	 *            than the number of <code>true</code> bits in the word
+	 * @return position of the bit in the word
+	 */
+	static int selectInWord(long word, int n) {
+		int shift = 0;
+		int count = Long.bitCount(word & 0xFF);
+		while (n >= count) {
+			n -= count;
+			shift += 8;
+			count = Long.bitCount((word >>> shift) & 0xFF);
+		}
+		long remaining = word >>> shift;
+		for (int i = 0; i < n; i++) {
+			remaining &= remaining - 1;
+		}
+		return shift + Long.numberOfTrailingZeros(remaining);
+	}
+
+	/**
+	 * @param wordIndex
+	 *            index of a word
+	 * @return the word, or 0 if it is outside the array of bits
+	 */
+	long getWord(int wordIndex) {
+		long[] words = this.bitVector.arrayOfBits;
+		return wordIndex < words.length ? words[wordIndex] : 0;
+	}
+
+	/**
+	 * Marks the index of the given block and all following blocks as invalid.
+	 *
+	 * @param block
+	 *            block
+	 */
+	void invalidateIndex(long block) {
+		if (block < this.indexedBlocks) {
+			this.indexedBlocks = (int) block;
+		}
+	}
+
+	/**
+	 * Rebuilds the invalid part of the index.
+	 */
+	void updateIndex() {
+		int blocks = getSizeInBlocks(this.bitVector.size());
+		if (this.indexedBlocks == blocks) {
+			return;
+		}
+		int first = this.indexedBlocks;
+		if (this.counts.length < 2 * blocks + 1) {
+			int newLength = this.counts.length;
+			while (newLength < 2 * blocks + 1) {
+				newLength = BitVectorImpl.GROWTH_FACTOR * newLength;
+			}
+			this.counts = Arrays.copyOf(this.counts, newLength);
+		}
+
+		// samples in blocks before the first invalid block remain valid
+		while (this.trueSampleCount > 0
+				&& this.trueSamples[this.trueSampleCount - 1] >= first) {
+			this.trueSampleCount--;
+		}
+		while (this.falseSampleCount > 0
+				&& this.falseSamples[this.falseSampleCount - 1] >= first) {
+			this.falseSampleCount--;
+		}
+
+		long size = this.bitVector.size();
+		long trueValues = this.counts[2 * first];
+		for (int block = first; block < blocks; block++) {
+			long blockStart = (long) block << LG_BLOCK_SIZE;
+			int firstWord = block * WORDS_PER_BLOCK;
+			long subCounts = 0;
+			int inBlock = 0;
+			for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+				if (i > 0) {
+					subCounts |= ((long) inBlock) << (SUB_COUNT_BITS * (i - 1));
+				}
+				inBlock += Long.bitCount(getWord(firstWord + i));
+			}
+			this.counts[2 * block] = trueValues;
+			this.counts[2 * block + 1] = subCounts;
+
+			long falseValues = blockStart - trueValues;
+			long blockFalse = Math.min(BLOCK_SIZE, size - blockStart) - inBlock;
+			trueValues += inBlock;
+			while (((long) this.trueSampleCount << LG_SELECT_SAMPLE_RATE) < trueValues) {
+				this.trueSamples = addSample(this.trueSamples,
+						this.trueSampleCount++, block);
+			}
+			while (((long) this.falseSampleCount << LG_SELECT_SAMPLE_RATE) < falseValues
+					+ blockFalse) {
+				this.falseSamples = addSample(this.falseSamples,
+						this.falseSampleCount++, block);
+			}
+		}
+		this.counts[2 * blocks] = trueValues;
+		this.indexedBlocks = blocks;
+	}
+
+	/**
+	 * Stores a select sample, and enlarges the array of samples if needed.
+	 *
+	 * @param samples
+	 *            samples
+	 * @param index
+	 *            index of the new sample
+	 * @param block
+	 *            block of the sample
+	 * @return the array that contains the samples
+	 */
+	static int[] addSample(int[] samples, int index, int block) {
+		int[] ret = samples;
+		if (index >= ret.length) {
+			ret = Arrays.copyOf(ret, BitVectorImpl.GROWTH_FACTOR * ret.length);
+		}
+		ret[index] = block;
+		return ret;
+	}
+
+	/**
+	 * @param bit
+	 *            bit
+	 * @param block
+	 *            block
+	 * @return number of occurrences of <i>bit</i> before the block
+	 */
+	long countBitsBefore(boolean bit, int block) {
+		long trueValues = this.counts[2 * block];
+		return bit ? trueValues : ((long) block << LG_BLOCK_SIZE) - trueValues;
+	}
+
+	/**
+	 * @param bit
+	 *            bit
+	 * @param block
+	 *            block
+	 * @param word
+	 *            word in the block, between 0 and 7
+	 * @return number of occurrences of <i>bit</i> in the block before the word
+	 */
+	long countBitsInBlock(boolean bit, int block, int word) {
+		long trueValues = word == 0 ? 0
+				: (this.counts[2 * block + 1] >>> (SUB_COUNT_BITS * (word - 1)))
+						& SUB_COUNT_MASK;
+		return bit ? trueValues
+				: ((long) word << BitVectorImpl.LG_WORD_SIZE) - trueValues;
+	}
+
+	@Override
+	public boolean addBit(boolean bit) {
+		setBit(size(), bit);
+		return true;
+	}
+
+	@Override
+	public long countBits(boolean bit, long position) {
+		if (position < 0) {
+			throw new IndexOutOfBoundsException("Position " + position
+					+ " is out of bounds.");
+		}
+		updateIndex();
+		long trueValues;
+		if (position >= size()) {
+			trueValues = this.counts[2 * this.indexedBlocks];
+		} else {
+			int block = (int) (position >>> LG_BLOCK_SIZE);
+			int wordIndex = (int) (position >>> BitVectorImpl.LG_WORD_SIZE);
+			int bitInWord = (int) (position & BitVectorImpl.WORD_MASK);
+			trueValues = this.counts[2 * block]
+					+ countBitsInBlock(true, block, wordIndex
+							& (WORDS_PER_BLOCK - 1))
+					+ Long.bitCount(getWord(wordIndex) << (BitVectorImpl.WORD_MASK - bitInWord));
+		}
+		return bit ? trueValues : ((position + 1) - trueValues);
+	}
+
+	@Override
+	public long findPosition(boolean bit, long nOccurrence) {
+		if (nOccurrence <= 0) {
+			return NOT_FOUND;
+		}
+		updateIndex();
+		long trueValues = this.counts[2 * this.indexedBlocks];
+		if (nOccurrence > (bit ? trueValues : size() - trueValues)) {
+			return NOT_FOUND;
+		}
+
+		// the occurrence is between two samples
+		int sample = (int) ((nOccurrence - 1) >>> LG_SELECT_SAMPLE_RATE);
+		int sampleCount = bit ? this.trueSampleCount : this.falseSampleCount;
+		int[] samples = bit ? this.trueSamples : this.falseSamples;
+		int low = samples[sample];
+		int high = sample + 1 < sampleCount ? samples[sample + 1]
+				: this.indexedBlocks - 1;
+
+		// find the last block with fewer occurrences before it
+		while (high - low > LINEAR_SEARCH_BLOCKS) {
+			int middle = (low + high + 1) >>> 1;
+			if (countBitsBefore(bit, middle) < nOccurrence) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		while (low < high && countBitsBefore(bit, low + 1) < nOccurrence) {
+			low++;
+		}
+
+		long remaining = nOccurrence - countBitsBefore(bit, low);
+		int word = WORDS_PER_BLOCK - 1;
+		while (countBitsInBlock(bit, low, word) >= remaining) {
+			word--;
+		}
+		remaining -= countBitsInBlock(bit, low, word);
+		int wordIndex = low * WORDS_PER_BLOCK + word;
+		long value = bit ? getWord(wordIndex) : ~getWord(wordIndex);
+		return ((long) wordIndex << BitVectorImpl.LG_WORD_SIZE)
+				+ selectInWord(value, (int) remaining - 1);
+	}
+
+	@Override
+	public boolean getBit(long position) {
+		return this.bitVector.getBit(position);
+	}
+
+	@Override
+	public void setBit(long position, boolean bit) {
+		long size = size();
+		if (position >= size) {
+			// the bits up to the position become false values
+			invalidateIndex(size >>> LG_BLOCK_SIZE);
+		} else if (getBit(position) == bit) {
+			return;
+		}
+		this.bitVector.setBit(position, bit);
+		invalidateIndex(position >>> LG_BLOCK_SIZE);
+	}
+
+	@Override
+	public long size() {
+		return this.bitVector.size();
+	}
+
+	@Override
+	public Iterator<Boolean> iterator() {
+		return this.bitVector.iterator();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj instanceof SuccinctRankedBitVector) {
+			return this.bitVector
+					.equals(((SuccinctRankedBitVector) obj).bitVector);
+		}
+		if (!(obj instanceof BitVector)) {
+			return false;
+		}
+		return this.bitVector.equals(obj);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.bitVector.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return this.bitVector.toString();
+	}
+
+}
@@ -0,0 +1,243 @@
+package org.wikidata.wdtk.storage.entitystore;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index that maps entity ids to the positions of their latest records in the
+ * log of an {@link EntityStore}.
+ * <p>
+ * Ids of the form "Q123", "P123", "L123" and "M123" are mapped with one array
+ * per letter, which is indexed by the number of the id. This needs 8 bytes per
+ * number up to the largest id, and no objects per entry, which matters for
+ * the hundreds of millions of entities of Wikidata. All other ids are kept in
+ * a hash map.
+ */
+class EntityIdIndex {
+
+	static final String ARRAY_PREFIXES = "QPLM";
+
+	/**
+	 * Largest number of an id that is mapped with an array.
+	 */
+	static final int MAX_ARRAY_ID = Integer.MAX_VALUE - 16;
+
+	static final int MINIMUM_ARRAY_SIZE = 1024;
+
+	/**
+	 * Positions of ids with the prefixes of {@link #ARRAY_PREFIXES}, stored
+	 * with an offset of 1 so that 0 marks a missing entry.
+	 */
+	final long[][] positions = new long[ARRAY_PREFIXES.length()][];
+
+	final Map<String, Long> otherPositions = new HashMap<>();
+
+	int size = 0;
+
+	/**
+	 * Returns the number of ids in this index.
+	 *
+	 * @return number of ids
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the position stored for the given id.
+	 *
+	 * @param id
+	 *            entity id, e.g., "Q42"
+	 * @return position, or -1 if the id is not in the index
+	 */
+	long get(String id) {
+		int prefix = getArrayPrefix(id);
+		if (prefix < 0) {
+			Long position = this.otherPositions.get(id);
+			return position == null ? -1 : position;
+		}
+		long[] array = this.positions[prefix];
+		int number = getNumber(id);
+		if (array == null || number >= array.length) {
+			return -1;
+		}
+		return array[number] - 1;
+	}
+
+	/**
+	 * Stores the position for the given id, replacing any previous position.
+	 *
+	 * @param id
+	 *            entity id, e.g., "Q42"
+	 * @param position
+	 *            non-negative position
+	 */
+	void put(String id, long position) {
+		if (position < 0) {
+			throw new IllegalArgumentException(
+					"Position must not be negative.");
+		}
+		int prefix = getArrayPrefix(id);
+		if (prefix < 0) {
+			if (this.otherPositions.put(id, position) == null) {
+				this.size++;
+			}
+			return;
+		}
+		int number = getNumber(id);
+		long[] array = ensureCapacity(prefix, number);
+		if (array[number] == 0) {
+			this.size++;
+		}
+		array[number] = position + 1;
+	}
+
+	/**
+	 * Returns the index of the array for ids with the prefix of the given id,
+	 * or -1 if the id is not mapped with an array. This is the case if the id
+	 * does not consist of one of the letters in {@link #ARRAY_PREFIXES} and a
+	 * number without leading zeros up to {@link #MAX_ARRAY_ID}.
+	 *
+	 * @param id
+	 *            entity id
+	 * @return index of the array, or -1
+	 */
+	static int getArrayPrefix(String id) {
+		int length = id.length();
+		if (length < 2 || length > 11) {
+			return -1;
+		}
+		int prefix = ARRAY_PREFIXES.indexOf(id.charAt(0));
+		if (prefix < 0 || id.charAt(1) == '0') {
+			return -1;
+		}
+		long number = 0;
+		for (int i = 1; i < length; i++) {
+			char c = id.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			number = 10 * number + (c - '0');
+		}
+		return number <= MAX_ARRAY_ID ? prefix : -1;
+	}
+
+	/**
+	 * Returns the number of an id for which
+	 * {@link #getArrayPrefix(String)} is not negative.
+	 *
+	 * @param id
+	 *            entity id
+	 * @return number of the id
+	 */
+	static int getNumber(String id) {
+		int number = 0;
+		for (int i = 1; i < id.length(); i++) {
+			number = 10 * number + (id.charAt(i) - '0');
+		}
+		return number;
+	}
+
+	long[] ensureCapacity(int prefix, int number) {
+		long[] array = this.positions[prefix];
+		if (array == null || number >= array.length) {
+			long newLength = array == null ? MINIMUM_ARRAY_SIZE : array.length;
+			while (newLength <= number) {
+				newLength = newLength + (newLength >> 1);
+			}
+			newLength = Math.min(newLength, (long) MAX_ARRAY_ID + 1);
+			array = array == null ? new long[(int) newLength] : Arrays.copyOf(
+					array, (int) newLength);
+			this.positions[prefix] = array;
+		}
+		return array;
+	}
+
+	/**
+	 * Writes the index to the given stream.
+	 *
+	 * @param out
+	 *            the stream to write to
+	 * @throws IOException
+	 *             if the stream could not be written
+	 */
+	void write(DataOutputStream out) throws IOException {
+		out.writeInt(this.size);
+		for (int prefix = 0; prefix < ARRAY_PREFIXES.length(); prefix++) {
+			long[] array = this.positions[prefix];
+			int length = array == null ? 0 : array.length;
+			// trailing missing entries are not written
+			while (length > 0 && array[length - 1] == 0) {
+				length--;
+			}
+			out.writeInt(length);
+			for (int i = 0; i < length; i++) {
+				out.writeLong(array[i]);
+			}
+		}
+		out.writeInt(this.otherPositions.size());
+		for (Map.Entry<String, Long> entry : this.otherPositions.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeLong(entry.getValue());
+		}
+	}
+
+	/**
+	 * Reads an index that was written with
+	 * {@link #write(DataOutputStream)}.
+	 *
+	 * @param in
+	 *            the stream to read from
+	 * @return the index
+	 * @throws IOException
+	 *             if the stream could not be read or is corrupted
+	 */
+	static EntityIdIndex read(DataInputStream in) throws IOException {
+		EntityIdIndex index = new EntityIdIndex();
+		index.size = in.readInt();
+		for (int prefix = 0; prefix < ARRAY_PREFIXES.length(); prefix++) {
+			int length = in.readInt();
+			if (length < 0 || length > MAX_ARRAY_ID + 1) {
+				throw new IOException("Entity id index is corrupted.");
+			}
+			if (length > 0) {
+				long[] array = new long[Math.max(length, MINIMUM_ARRAY_SIZE)];
+				for (int i = 0; i < length; i++) {
+					array[i] = in.readLong();
+				}
+				index.positions[prefix] = array;
+			}
+		}
+		int otherSize = in.readInt();
+		for (int i = 0; i < otherSize; i++) {
+			String id = in.readUTF();
+			index.otherPositions.put(id, in.readLong());
+		}
+		return index;
+	}
+
+}
@@ -0,0 +1,741 @@
+package org.wikidata.wdtk.storage.entitystore;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.helpers.BinaryDeserializer;
+import org.wikidata.wdtk.datamodel.helpers.BinarySerializer;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.EntityRedirectDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+
+/**
+ * Local store for the current revisions of entity documents. The store keeps
+ * all documents in an append-only log file in a directory, together with an
+ * index that maps each entity id to its latest record in the log. Hence a
+ * document can be fetched with {@link #get(EntityIdValue)} with one read of
+ * the file, and {@link #processEntityDocuments(EntityDocumentProcessor)}
+ * reads all documents in one sequential pass. Documents are stored in the
+ * format of {@link BinarySerializer}, which is much faster to read than the
+ * JSON of dumps, and no compressed dump needs to be decompressed.
+ * <p>
+ * The store is an {@link EntityDocumentProcessor}, so it can be filled and
+ * updated by processing dumps. It is first loaded from a JSON dump, and then
+ * kept current by applying the daily dumps of recent revisions:
+ *
+ * <pre>
+ * try (EntityStore store = new EntityStore(Paths.get("entities"))) {
+ * 	DumpProcessingController controller = new DumpProcessingController(
+ * 			"wikidatawiki");
+ * 	controller.registerEntityDocumentProcessor(store, null, true);
+ * 	controller.processMostRecentJsonDump(); // only once
+ * 	controller.processAllRecentRevisionDumps();
+ * }
+ * </pre>
+ * <p>
+ * A document only replaces the stored document of the same entity if its
+ * revision id is not smaller, so dumps can be applied in any order, and
+ * applying a dump again has no effect. A redirect of an entity removes its
+ * document from the store. Deletions are not part of the dumps and are
+ * therefore not applied.
+ * <p>
+ * Replaced documents remain in the log until {@link #compact()} is called.
+ * The index is written to disk by {@link #flush()} and {@link #close()}; if
+ * it is missing or out of date, e.g., after a crash, it is rebuilt from the
+ * log when the store is opened. All methods are synchronized.
+ */
+public class EntityStore implements EntityDocumentProcessor, Closeable {
+
+	static final Logger logger = LoggerFactory.getLogger(EntityStore.class);
+
+	static final String LOG_FILE_NAME = "entities.log";
+
+	static final String INDEX_FILE_NAME = "entities.index";
+
+	static final long LOG_MAGIC = 0x5744544b454e544cL;
+
+	static final long INDEX_MAGIC = 0x5744544b454e5449L;
+
+	static final int VERSION = 1;
+
+	static final int LOG_HEADER_SIZE = 16;
+
+	/**
+	 * Size of the length, revision id and id length at the start of each
+	 * record.
+	 */
+	static final int RECORD_HEADER_SIZE = 14;
+
+	static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+	static final int READ_BUFFER_SIZE = 1 << 16;
+
+	final Path directory;
+
+	final Path logFile;
+
+	final Path indexFile;
+
+	FileChannel channel;
+
+	EntityIdIndex index;
+
+	/**
+	 * Records that have been appended but not yet written to the file.
+	 */
+	final ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+
+	/**
+	 * Number of bytes of the log that have been written to the file.
+	 */
+	long flushedSize;
+
+	/**
+	 * True if documents were stored since the index was last written.
+	 */
+	boolean modified = false;
+
+	final ByteArrayOutputStream serializationBuffer = new ByteArrayOutputStream();
+
+	final BinarySerializer serializer = new BinarySerializer(
+			this.serializationBuffer);
+
+	/**
+	 * Opens the store in the given directory. If the directory does not
+	 * contain a store, an empty store is created.
+	 *
+	 * @param directory
+	 *            the directory that contains the files of the store
+	 * @throws IOException
+	 *             if the files could not be opened or created, or are
+	 *             corrupted
+	 */
+	public EntityStore(Path directory) throws IOException {
+		this.directory = directory;
+		this.logFile = directory.resolve(LOG_FILE_NAME);
+		this.indexFile = directory.resolve(INDEX_FILE_NAME);
+		Files.createDirectories(directory);
+
+		this.channel = FileChannel.open(this.logFile, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+		try {
+			if (this.channel.size() == 0) {
+				writeLogHeader(this.channel);
+				this.index = new EntityIdIndex();
+				this.flushedSize = LOG_HEADER_SIZE;
+				this.modified = true;
+			} else {
+				readLogHeader();
+				loadIndex();
+			}
+		} catch (IOException | RuntimeException e) {
+			this.channel.close();
+			throw e;
+		}
+	}
+
+	static void writeLogHeader(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+		header.putLong(LOG_MAGIC).putInt(VERSION).flip();
+		writeFully(channel, header, 0);
+	}
+
+	void readLogHeader() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+		if (this.channel.size() < LOG_HEADER_SIZE
+				|| !readFully(this.channel, header, 0)
+				|| header.getLong(0) != LOG_MAGIC) {
+			throw new IOException("File " + this.logFile
+					+ " does not contain an entity store.");
+		}
+		if (header.getInt(8) != VERSION) {
+			throw new IOException("Unsupported version " + header.getInt(8)
+					+ " of entity store.");
+		}
+	}
+
+	/**
+	 * Reads the index file and brings the index up to date with records that
+	 * were appended to the log after it was written. If there is no usable
+	 * index file, the index is rebuilt from the whole log.
+	 *
+	 * @throws IOException
+	 *             if the files could not be read
+	 */
+	void loadIndex() throws IOException {
+		long logSize = this.channel.size();
+		long indexedSize = LOG_HEADER_SIZE;
+		this.index = null;
+		if (Files.exists(this.indexFile)) {
+			try (DataInputStream in = new DataInputStream(
+					new BufferedInputStream(Files.newInputStream(this.indexFile),
+							READ_BUFFER_SIZE))) {
+				if (in.readLong() == INDEX_MAGIC && in.readInt() == VERSION) {
+					indexedSize = in.readLong();
+					if (indexedSize >= LOG_HEADER_SIZE && indexedSize <= logSize) {
+						this.index = EntityIdIndex.read(in);
+					}
+				}
+			} catch (IOException e) {
+				logger.warn("Could not read index of entity store "
+						+ this.directory + ": " + e.toString());
+				this.index = null;
+			}
+		}
+		if (this.index == null) {
+			logger.info("Rebuilding index of entity store " + this.directory
+					+ " ...");
+			this.index = new EntityIdIndex();
+			indexedSize = LOG_HEADER_SIZE;
+		}
+
+		long end = indexedSize;
+		if (indexedSize < logSize) {
+			try (RecordReader reader = new RecordReader(this.logFile,
+					indexedSize, logSize)) {
+				while (reader.next()) {
+					this.index.put(reader.id, reader.position);
+				}
+				end = reader.nextPosition;
+			}
+			this.modified = true;
+		}
+		if (end < logSize) {
+			logger.warn("Discarding incomplete record at the end of "
+					+ this.logFile + ".");
+			this.channel.truncate(end);
+		}
+		this.flushedSize = end;
+	}
+
+	/**
+	 * Returns the current document of the entity with the given id.
+	 *
+	 * @param entityId
+	 *            the id of the entity
+	 * @return the document, or null if the store does not contain the entity
+	 * @throws IOException
+	 *             if the document could not be read
+	 */
+	public synchronized EntityDocument get(EntityIdValue entityId)
+			throws IOException {
+		long position = this.index.get(entityId.getId());
+		if (position < 0) {
+			return null;
+		}
+		if (position >= this.flushedSize) {
+			flushWriteBuffer();
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+		readRecordFully(header, position);
+		int length = header.getInt(0);
+		int idLength = header.getShort(12) & 0xFFFF;
+		int payloadLength = length - (RECORD_HEADER_SIZE - 4) - idLength;
+		if (payloadLength == 0) {
+			return null;
+		}
+
+		ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+		readRecordFully(payload, position + RECORD_HEADER_SIZE + idLength);
+		return deserialize(payload.array());
+	}
+
+	/**
+	 * Stores the given document, unless the store already contains a document
+	 * of the same entity with a greater revision id, or with the same
+	 * revision id. Documents without revision id (0) always replace the
+	 * stored document. If the given document is an
+	 * {@link EntityRedirectDocument}, the stored document is removed instead.
+	 *
+	 * @param document
+	 *            the document to store
+	 * @return true if the document was stored
+	 * @throws IOException
+	 *             if the document could not be written
+	 */
+	public synchronized boolean put(EntityDocument document)
+			throws IOException {
+		String id = document.getEntityId().getId();
+		long revisionId = document.getRevisionId();
+		long position = this.index.get(id);
+		if (position >= 0) {
+			long storedRevisionId = readRevisionId(position);
+			if (storedRevisionId > revisionId
+					|| (storedRevisionId == revisionId && revisionId != 0)) {
+				return false;
+			}
+		}
+
+		byte[] payload;
+		if (document instanceof EntityRedirectDocument) {
+			payload = new byte[0];
+		} else {
+			payload = serialize(document);
+		}
+		this.index.put(id, append(id, revisionId, payload));
+		this.modified = true;
+		return true;
+	}
+
+	/**
+	 * Calls the given processor for every document in the store. The
+	 * documents are reported in the order in which they were stored.
+	 *
+	 * @param processor
+	 *            the processor that receives the documents
+	 * @throws IOException
+	 *             if the documents could not be read
+	 */
+	public synchronized void processEntityDocuments(
+			EntityDocumentProcessor processor) throws IOException {
+		flushWriteBuffer();
+		try (RecordReader reader = new RecordReader(this.logFile,
+				LOG_HEADER_SIZE, this.flushedSize)) {
+			while (reader.next()) {
+				if (reader.payloadLength > 0
+						&& this.index.get(reader.id) == reader.position) {
+					handleDocument(deserialize(reader.readPayload()),
+							processor);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Rewrites the log so that it only contains the current document of each
+	 * entity. This frees the space of replaced documents.
+	 *
+	 * @throws IOException
+	 *             if the log could not be rewritten
+	 */
+	public synchronized void compact() throws IOException {
+		compactLog();
+		flush();
+	}
+
+	/**
+	 * Replaces the log by a log that only contains the current document of
+	 * each entity, without writing the new index.
+	 *
+	 * @throws IOException
+	 *             if the log could not be rewritten
+	 */
+	void compactLog() throws IOException {
+		flushWriteBuffer();
+		Path compactFile = this.directory.resolve(LOG_FILE_NAME + ".compact");
+		EntityIdIndex compactIndex = new EntityIdIndex();
+		long compactSize = LOG_HEADER_SIZE;
+
+		try (FileChannel compactChannel = FileChannel.open(compactFile,
+				StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeLogHeader(compactChannel);
+			compactChannel.position(LOG_HEADER_SIZE);
+			try (RecordReader reader = new RecordReader(this.logFile,
+					LOG_HEADER_SIZE, this.flushedSize);
+					DataOutputStream out = new DataOutputStream(
+							new BufferedOutputStream(
+									Channels.newOutputStream(compactChannel),
+									WRITE_BUFFER_SIZE))) {
+				while (reader.next()) {
+					if (this.index.get(reader.id) != reader.position) {
+						continue;
+					}
+					byte[] idBytes = reader.id.getBytes(StandardCharsets.UTF_8);
+					out.writeInt(RECORD_HEADER_SIZE - 4 + idBytes.length
+							+ reader.payloadLength);
+					out.writeLong(reader.revisionId);
+					out.writeShort(idBytes.length);
+					out.write(idBytes);
+					out.write(reader.readPayload());
+					compactIndex.put(reader.id, compactSize);
+					compactSize += RECORD_HEADER_SIZE + idBytes.length
+							+ reader.payloadLength;
+				}
+				out.flush();
+				compactChannel.force(false);
+			}
+		}
+
+		this.channel.close();
+		// The old index refers to positions in the old log, and must not be
+		// used with the new log if we crash before the new index is written.
+		Files.deleteIfExists(this.indexFile);
+		Files.move(compactFile, this.logFile,
+				StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		this.channel = FileChannel.open(this.logFile, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		this.index = compactIndex;
+		this.flushedSize = compactSize;
+		this.modified = true;
+	}
+
+	/**
+	 * Writes all stored documents and the index to disk.
+	 *
+	 * @throws IOException
+	 *             if the files could not be written
+	 */
+	public synchronized void flush() throws IOException {
+		flushWriteBuffer();
+		if (!this.modified) {
+			return;
+		}
+		this.channel.force(false);
+
+		Path tempFile = this.directory.resolve(INDEX_FILE_NAME + ".part");
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(tempFile),
+						WRITE_BUFFER_SIZE))) {
+			out.writeLong(INDEX_MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(this.flushedSize);
+			this.index.write(out);
+		}
+		Files.move(tempFile, this.indexFile,
+				StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		this.modified = false;
+	}
+
+	/**
+	 * Writes all changes to disk and closes the files of the store. The store
+	 * must not be used afterwards.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (!this.channel.isOpen()) {
+			return;
+		}
+		try {
+			flush();
+		} finally {
+			this.channel.close();
+		}
+	}
+
+	@Override
+	public void processItemDocument(ItemDocument itemDocument) {
+		storeDocument(itemDocument);
+	}
+
+	@Override
+	public void processPropertyDocument(PropertyDocument propertyDocument) {
+		storeDocument(propertyDocument);
+	}
+
+	@Override
+	public void processLexemeDocument(LexemeDocument lexemeDocument) {
+		storeDocument(lexemeDocument);
+	}
+
+	@Override
+	public void processMediaInfoDocument(MediaInfoDocument mediaInfoDocument) {
+		storeDocument(mediaInfoDocument);
+	}
+
+	@Override
+	public void processEntityRedirectDocument(
+			EntityRedirectDocument entityRedirectDocument) {
+		storeDocument(entityRedirectDocument);
+	}
+
+	/**
+	 * Stores the given document, reporting exceptions as a RuntimeException,
+	 * since the processor interface does not allow us to throw checked
+	 * exceptions directly.
+	 *
+	 * @param document
+	 *            the document to store
+	 */
+	void storeDocument(EntityDocument document) {
+		try {
+			put(document);
+		} catch (IOException e) {
+			logger.error("Failed to store entity document: " + e.toString());
+			throw new RuntimeException(e.toString(), e);
+		}
+	}
+
+	/**
+	 * Calls the processing method that fits the type of the given document.
+	 *
+	 * @param document
+	 *            the document to process
+	 * @param processor
+	 *            the processor to call
+	 */
+	static void handleDocument(EntityDocument document,
+			EntityDocumentProcessor processor) {
+		if (document instanceof ItemDocument) {
+			processor.processItemDocument((ItemDocument) document);
+		} else if (document instanceof PropertyDocument) {
+			processor.processPropertyDocument((PropertyDocument) document);
+		} else if (document instanceof LexemeDocument) {
+			processor.processLexemeDocument((LexemeDocument) document);
+		} else if (document instanceof MediaInfoDocument) {
+			processor.processMediaInfoDocument((MediaInfoDocument) document);
+		}
+	}
+
+	/**
+	 * Serializes a single document in the binary format. Each document is
+	 * written as a complete binary dump, so that it can be read on its own.
+	 *
+	 * @param document
+	 *            the document to serialize
+	 * @return the serialized document
+	 */
+	byte[] serialize(EntityDocument document) {
+		this.serializationBuffer.reset();
+		this.serializer.open();
+		if (document instanceof ItemDocument) {
+			this.serializer.processItemDocument((ItemDocument) document);
+		} else if (document instanceof PropertyDocument) {
+			this.serializer
+					.processPropertyDocument((PropertyDocument) document);
+		} else if (document instanceof LexemeDocument) {
+			this.serializer.processLexemeDocument((LexemeDocument) document);
+		} else if (document instanceof MediaInfoDocument) {
+			this.serializer
+					.processMediaInfoDocument((MediaInfoDocument) document);
+		} else {
+			throw new IllegalArgumentException(
+					"Unsupported type of entity document: "
+							+ document.getClass().getName());
+		}
+		// only writes the end marker, closing the buffer has no effect
+		this.serializer.close();
+		return this.serializationBuffer.toByteArray();
+	}
+
+	static EntityDocument deserialize(byte[] payload) throws IOException {
+		EntityDocument document = new BinaryDeserializer(
+				new ByteArrayInputStream(payload)).next();
+		if (document == null) {
+			throw new IOException("Entity store contains an empty record.");
+		}
+		return document;
+	}
+
+	/**
+	 * Appends a record to the log.
+	 *
+	 * @param id
+	 *            the entity id
+	 * @param revisionId
+	 *            the revision id of the document
+	 * @param payload
+	 *            the serialized document, or an empty array if the entity was
+	 *            removed
+	 * @return the position of the record in the log
+	 * @throws IOException
+	 *             if the log could not be written
+	 */
+	long append(String id, long revisionId, byte[] payload)
+			throws IOException {
+		byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+		if (idBytes.length > 0xFFFF) {
+			throw new IllegalArgumentException("Entity id is too long.");
+		}
+		int recordSize = RECORD_HEADER_SIZE + idBytes.length + payload.length;
+		if (recordSize > this.writeBuffer.remaining()) {
+			flushWriteBuffer();
+		}
+		ByteBuffer buffer = recordSize > this.writeBuffer.capacity() ? ByteBuffer
+				.allocate(recordSize) : this.writeBuffer;
+
+		long position = this.flushedSize + this.writeBuffer.position();
+		buffer.putInt(recordSize - 4).putLong(revisionId)
+				.putShort((short) idBytes.length).put(idBytes).put(payload);
+		if (buffer != this.writeBuffer) {
+			buffer.flip();
+			writeFully(this.channel, buffer, this.flushedSize);
+			this.flushedSize += recordSize;
+		}
+		return position;
+	}
+
+	void flushWriteBuffer() throws IOException {
+		if (this.writeBuffer.position() == 0) {
+			return;
+		}
+		this.writeBuffer.flip();
+		int count = this.writeBuffer.remaining();
+		writeFully(this.channel, this.writeBuffer, this.flushedSize);
+		this.flushedSize += count;
+		this.writeBuffer.clear();
+	}
+
+	long readRevisionId(long position) throws IOException {
+		if (position >= this.flushedSize) {
+			flushWriteBuffer();
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(8);
+		readRecordFully(buffer, position + 4);
+		return buffer.getLong(0);
+	}
+
+	void readRecordFully(ByteBuffer buffer, long position) throws IOException {
+		if (!readFully(this.channel, buffer, position)) {
+			throw new IOException("Entity store " + this.directory
+					+ " is corrupted.");
+		}
+	}
+
+	static boolean readFully(FileChannel channel, ByteBuffer buffer,
+			long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int count = channel.read(buffer, position);
+			if (count < 0) {
+				return false;
+			}
+			position += count;
+		}
+		return true;
+	}
+
+	static void writeFully(FileChannel channel, ByteBuffer buffer,
+			long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	/**
+	 * Sequential reader for the records of a log file.
+	 */
+	static class RecordReader implements Closeable {
+
+		final DataInputStream in;
+
+		/**
+		 * Position up to which the file is read.
+		 */
+		final long end;
+
+		/**
+		 * Position of the current record.
+		 */
+		long position = -1;
+
+		/**
+		 * Position of the record after the current record.
+		 */
+		long nextPosition;
+
+		long revisionId;
+
+		String id;
+
+		int payloadLength;
+
+		boolean payloadRead = true;
+
+		RecordReader(Path file, long start, long end) throws IOException {
+			FileChannel fileChannel = FileChannel.open(file,
+					StandardOpenOption.READ);
+			fileChannel.position(start);
+			this.in = new DataInputStream(new BufferedInputStream(
+					Channels.newInputStream(fileChannel), READ_BUFFER_SIZE));
+			this.nextPosition = start;
+			this.end = end;
+		}
+
+		/**
+		 * Reads the header of the next record.
+		 *
+		 * @return false if there are no more complete records
+		 * @throws IOException
+		 *             if the file could not be read
+		 */
+		boolean next() throws IOException {
+			if (!this.payloadRead) {
+				this.in.skipNBytes(this.payloadLength);
+			}
+			if (this.nextPosition + RECORD_HEADER_SIZE > this.end) {
+				return false;
+			}
+			int length = this.in.readInt();
+			long revision = this.in.readLong();
+			int idLength = this.in.readUnsignedShort();
+			int payload = length - (RECORD_HEADER_SIZE - 4) - idLength;
+			if (payload < 0 || this.nextPosition + 4 + length > this.end) {
+				return false;
+			}
+			byte[] idBytes = new byte[idLength];
+			this.in.readFully(idBytes);
+
+			this.position = this.nextPosition;
+			this.nextPosition += 4 + length;
+			this.revisionId = revision;
+			this.id = new String(idBytes, StandardCharsets.UTF_8);
+			this.payloadLength = payload;
+			this.payloadRead = false;
+			return true;
+		}
+
+		/**
+		 * Reads the payload of the current record.
+		 *
+		 * @return the payload
+		 * @throws IOException
+		 *             if the file could not be read
+		 */
+		byte[] readPayload() throws IOException {
+			byte[] payload = new byte[this.payloadLength];
+			this.in.readFully(payload);
+			this.payloadRead = true;
+			return payload;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.in.close();
+		}
+	}
+
+}
@@ -0,0 +1,173 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link CompressedBitVector}.
+ *
+ */
+public class CompressedBitVectorTest {
+
+	void assertEqualsForBitVector(BitVector bv0, BitVector bv1) {
+		Assert.assertEquals(bv0, bv0);
+		Assert.assertEquals(bv0, bv1);
+		Assert.assertEquals(bv1, bv0);
+		Assert.assertEquals(bv0.hashCode(), bv1.hashCode());
+	}
+
+	@Test
+	public void testAdd() {
+		CompressedBitVector bv = new CompressedBitVector();
+		Assert.assertEquals(0, bv.size());
+
+		for (int i = 0; i < 0x30000; i++) {
+			boolean value = (i % 3) == 0;
+			bv.addBit(value);
+			Assert.assertEquals(i + 1, bv.size());
+			Assert.assertEquals(value, bv.getBit(i));
+		}
+		Assert.assertEquals(0x10000, bv.countBits());
+	}
+
+	@Test
+	public void testEmptyBitVector() {
+		CompressedBitVector bv0 = new CompressedBitVector();
+		assertEqualsForBitVector(bv0, new CompressedBitVector());
+		assertEqualsForBitVector(bv0, new BitVectorImpl());
+		Assert.assertEquals("", bv0.toString());
+	}
+
+	@Test
+	public void testEqualityWithBitVectorImpl() {
+		CompressedBitVector bv0 = new CompressedBitVector();
+		BitVectorImpl bv1 = new BitVectorImpl();
+
+		PseudorandomBooleanGenerator generator = new PseudorandomBooleanGenerator(
+				0x1234);
+		for (int i = 0; i < 0x100000; i++) {
+			boolean value = generator.getPseudorandomBoolean();
+			bv0.addBit(value);
+			bv1.addBit(value);
+		}
+		assertEqualsForBitVector(bv0, bv1);
+
+		CompressedBitVector bv2 = new CompressedBitVector(bv1);
+		assertEqualsForBitVector(bv0, bv2);
+		CompressedBitVector bv3 = new CompressedBitVector(bv0);
+		assertEqualsForBitVector(bv0, bv3);
+
+		bv2.setBit(0x12345, false);
+		bv3.setBit(0x12345, true);
+		Assert.assertNotEquals(bv2, bv3);
+		Assert.assertNotEquals(bv3, bv2);
+	}
+
+	@Test
+	public void testSparsePositions() {
+		CompressedBitVector bv = new CompressedBitVector();
+		long[] positions = { 3_000_000_000L, 5L, 2_000_000_000L,
+				2_000_065_536L, 0x7FFFFFFFFFFFL };
+		for (long position : positions) {
+			Assert.assertFalse(bv.getBit(position));
+			bv.setBit(position, true);
+			Assert.assertTrue(bv.getBit(position));
+		}
+		for (long position : positions) {
+			Assert.assertTrue(bv.getBit(position));
+			Assert.assertFalse(bv.getBit(position + 1));
+		}
+		Assert.assertEquals(0x7FFFFFFFFFFFL + 1, bv.size());
+		Assert.assertEquals(positions.length, bv.countBits());
+		Assert.assertEquals(positions.length, bv.numberOfChunks);
+		Assert.assertTrue(bv.getSizeInBytes() < 1000);
+		Assert.assertFalse(bv.getBit(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testContainerConversion() {
+		CompressedBitVector bv = new CompressedBitVector();
+		long base = 0x50000;
+		for (int i = 0; i < CompressedBitVector.MAX_ARRAY_CONTAINER_SIZE; i++) {
+			bv.setBit(base + 7L * i, true);
+		}
+		Assert.assertTrue(bv.containers[0] instanceof CompressedBitVector.ArrayContainer);
+
+		bv.setBit(base + 1, true);
+		Assert.assertTrue(bv.containers[0] instanceof CompressedBitVector.BitmapContainer);
+		Assert.assertEquals(CompressedBitVector.MAX_ARRAY_CONTAINER_SIZE + 1,
+				bv.countBits());
+
+		bv.setBit(base + 1, false);
+		Assert.assertTrue(bv.containers[0] instanceof CompressedBitVector.ArrayContainer);
+		for (int i = 0; i < CompressedBitVector.MAX_ARRAY_CONTAINER_SIZE; i++) {
+			Assert.assertTrue(bv.getBit(base + 7L * i));
+			Assert.assertFalse(bv.getBit(base + 7L * i + 1));
+		}
+
+		for (int i = 0; i < CompressedBitVector.MAX_ARRAY_CONTAINER_SIZE; i++) {
+			bv.setBit(base + 7L * i, false);
+		}
+		Assert.assertEquals(0, bv.numberOfChunks);
+		Assert.assertEquals(0, bv.countBits());
+		Assert.assertEquals(base + 7L
+				* (CompressedBitVector.MAX_ARRAY_CONTAINER_SIZE - 1) + 1,
+				bv.size());
+	}
+
+	@Test
+	public void testSetBitInRandomOrder() {
+		CompressedBitVector bv0 = new CompressedBitVector();
+		BitVectorImpl bv1 = new BitVectorImpl();
+		PseudorandomBooleanGenerator generator = new PseudorandomBooleanGenerator(
+				0x4321);
+		long position = 0x3FFFF;
+		for (int i = 0; i < 0x40000; i++) {
+			position = (position * 0x5DEECE66DL + 0xB) & 0x3FFFF;
+			boolean value = generator.getPseudorandomBoolean();
+			bv0.setBit(position, value);
+			bv1.setBit(position, value);
+		}
+		assertEqualsForBitVector(bv0, bv1);
+	}
+
+	@Test
+	public void testToString() {
+		CompressedBitVector bv = new CompressedBitVector();
+		bv.addBit(true);
+		bv.addBit(false);
+		bv.setBit(4, true);
+		Assert.assertEquals("10001", bv.toString());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testInvalidArgumentSetBit() {
+		(new CompressedBitVector()).setBit(-1, true);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testInvalidArgumentGetBit() {
+		(new CompressedBitVector()).getBit(-1);
+	}
+
+}
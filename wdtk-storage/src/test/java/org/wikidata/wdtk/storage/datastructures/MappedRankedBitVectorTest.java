@@ -0,0 +1,213 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link MappedRankedBitVector}.
+ */
+public class MappedRankedBitVectorTest {
+
+	Path directory;
+
+	Path file;
+
+	@Before
+	public void setUp() throws IOException {
+		this.directory = Files.createTempDirectory("wdtk-bitvector");
+		this.file = this.directory.resolve("bits.bin");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(this.file);
+		Files.deleteIfExists(this.directory);
+	}
+
+	/**
+	 * Asserts that rank and select of the given vector agree with those of a
+	 * {@link RankedBitVectorImpl} with the same bits.
+	 *
+	 * @param bv
+	 *            bit vector to check
+	 * @param step
+	 *            distance of the positions that are checked
+	 */
+	void assertSameRankAndSelect(RankedBitVector bv, int step) {
+		RankedBitVectorImpl expected = new RankedBitVectorImpl(bv);
+		Assert.assertEquals(expected, bv);
+		Assert.assertEquals(expected.hashCode(), bv.hashCode());
+		for (long i = 0; i <= bv.size() + 1; i += step) {
+			Assert.assertEquals(expected.countBits(true, i),
+					bv.countBits(true, i));
+			Assert.assertEquals(expected.countBits(false, i),
+					bv.countBits(false, i));
+			Assert.assertEquals(expected.findPosition(true, i),
+					bv.findPosition(true, i));
+			Assert.assertEquals(expected.findPosition(false, i),
+					bv.findPosition(false, i));
+		}
+	}
+
+	@Test
+	public void testAddAndGet() throws IOException {
+		try (MappedRankedBitVector bv = new MappedRankedBitVector(this.file)) {
+			Assert.assertEquals(0, bv.size());
+			for (int i = 0; i < 0x3000; i++) {
+				bv.addBit((i % 3) == 0);
+				Assert.assertEquals(i + 1, bv.size());
+			}
+			for (int i = 0; i < 0x3000; i++) {
+				Assert.assertEquals((i % 3) == 0, bv.getBit(i));
+			}
+			Assert.assertFalse(bv.getBit(0x3000));
+			assertSameRankAndSelect(bv, 1);
+		}
+	}
+
+	@Test
+	public void testPseudorandomBits() throws IOException {
+		PseudorandomBooleanGenerator generator = new PseudorandomBooleanGenerator(
+				0x1234);
+		BitVectorImpl bits = new BitVectorImpl();
+		for (int i = 0; i < 0x40000; i++) {
+			bits.addBit(generator.getPseudorandomBoolean());
+		}
+		try (MappedRankedBitVector bv = new MappedRankedBitVector(this.file,
+				bits)) {
+			Assert.assertEquals(bits, bv);
+			Assert.assertEquals(bv, bits);
+			assertSameRankAndSelect(bv, 0x123);
+
+			for (int i = 0; i < 0x40000; i += 0x777) {
+				bv.setBit(i, !bv.getBit(i));
+			}
+			assertSameRankAndSelect(bv, 0x123);
+		}
+	}
+
+	@Test
+	public void testReopen() throws IOException {
+		BitVectorImpl expected = new BitVectorImpl();
+		try (MappedRankedBitVector bv = new MappedRankedBitVector(this.file,
+				0x100)) {
+			for (int i = 0; i < 0x5000; i++) {
+				boolean value = (i % 7) == 0 || (i % 11) == 0;
+				bv.setBit(i * 3, value);
+				expected.setBit(i * 3, value);
+			}
+		}
+		try (MappedRankedBitVector bv = new MappedRankedBitVector(this.file)) {
+			Assert.assertEquals(0x5000 * 3 - 2, bv.size());
+			Assert.assertEquals(expected, bv);
+			Assert.assertEquals(bv.getSizeInBlocks(bv.size()), bv.indexedBlocks);
+			assertSameRankAndSelect(bv, 0x31);
+
+			bv.addBit(true);
+			Assert.assertEquals(expected.size() + 1, bv.size());
+		}
+	}
+
+	@Test
+	public void testSeveralSegments() throws IOException {
+		try (MappedRankedBitVector bv = new MappedRankedBitVector(this.file,
+				0, 3)) {
+			for (int i = 0; i < 0x4000; i++) {
+				bv.addBit((i % 5) == 0 || (i % 64) == 63);
+			}
+			Assert.assertEquals(0x4000 / MappedRankedBitVector.BLOCK_SIZE,
+					bv.getSizeInBlocks(bv.size()));
+			assertSameRankAndSelect(bv, 1);
+			bv.setBit(0x10000, true);
+			Assert.assertTrue(bv.getBit(0x10000));
+			Assert.assertEquals(bv.countBits(true, 0x3FFF) + 1,
+					bv.countBits(true, 0x10000));
+		}
+	}
+
+	@Test
+	public void testEmptyBitVector() throws IOException {
+		try (MappedRankedBitVector bv = new MappedRankedBitVector(this.file,
+				0)) {
+			Assert.assertEquals(new BitVectorImpl(), bv);
+			Assert.assertEquals(new BitVectorImpl().hashCode(), bv.hashCode());
+			Assert.assertEquals(RankedBitVector.NOT_FOUND,
+					bv.findPosition(true, 1));
+			Assert.assertEquals(RankedBitVector.NOT_FOUND,
+					bv.findPosition(false, 1));
+			Assert.assertEquals(0, bv.countBits(true, 10));
+			Assert.assertEquals(11, bv.countBits(false, 10));
+			Assert.assertEquals("", bv.toString());
+		}
+	}
+
+	@Test
+	public void testIteratorAndToString() throws IOException {
+		try (MappedRankedBitVector bv = new MappedRankedBitVector(this.file)) {
+			for (int i = 0; i < 0x10; i++) {
+				bv.addBit((i % 3) == 0);
+			}
+			Assert.assertEquals("1001001001001001", bv.toString());
+			Iterator<Boolean> it = bv.iterator();
+			for (int i = 0; i < 0x10; i++) {
+				Assert.assertEquals((i % 3) == 0, it.next());
+			}
+			Assert.assertFalse(it.hasNext());
+		}
+	}
+
+	@Test
+	public void testSelectInWord() {
+		Assert.assertEquals(0, MappedRankedBitVector.selectInWord(1, 0));
+		Assert.assertEquals(63,
+				MappedRankedBitVector.selectInWord(Long.MIN_VALUE, 0));
+		Assert.assertEquals(5, MappedRankedBitVector.selectInWord(0x2A, 2));
+		Assert.assertEquals(63, MappedRankedBitVector.selectInWord(-1L, 63));
+	}
+
+	@Test(expected = IOException.class)
+	public void testInvalidFile() throws IOException {
+		Files.write(this.file, new byte[] { 1, 2, 3 });
+		new MappedRankedBitVector(this.file).close();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidInitialSize() throws IOException {
+		new MappedRankedBitVector(this.file, -1).close();
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testNegativePosition() throws IOException {
+		try (MappedRankedBitVector bv = new MappedRankedBitVector(this.file)) {
+			bv.getBit(-1);
+		}
+	}
+
+}
@@ -0,0 +1,170 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Iterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link SuccinctRankedBitVector}.
+ */
+public class SuccinctRankedBitVectorTest {
+
+	/**
+	 * Asserts that rank and select of the given vector agree with those of a
+	 * {@link RankedBitVectorImpl} with the same bits.
+	 *
+	 * @param bv
+	 *            bit vector to check
+	 * @param step
+	 *            distance of the positions that are checked
+	 */
+	void assertSameRankAndSelect(RankedBitVector bv, int step) {
+		RankedBitVectorImpl expected = new RankedBitVectorImpl(bv);
+		Assert.assertEquals(expected, bv);
+		Assert.assertEquals(bv, expected);
+		Assert.assertEquals(expected.hashCode(), bv.hashCode());
+		for (long i = 0; i <= bv.size(); i += step) {
+			Assert.assertEquals(expected.countBits(true, i),
+					bv.countBits(true, i));
+			Assert.assertEquals(expected.countBits(false, i),
+					bv.countBits(false, i));
+			Assert.assertEquals(expected.findPosition(true, i),
+					bv.findPosition(true, i));
+			Assert.assertEquals(expected.findPosition(false, i),
+					bv.findPosition(false, i));
+		}
+	}
+
+	@Test
+	public void testAddAndGet() {
+		SuccinctRankedBitVector bv = new SuccinctRankedBitVector();
+		Assert.assertEquals(0, bv.size());
+		for (int i = 0; i < 0x3000; i++) {
+			bv.addBit((i % 3) == 0);
+			Assert.assertEquals(i + 1, bv.size());
+			if ((i % 0x101) == 0) {
+				Assert.assertEquals(i / 3 + 1, bv.countBits(true, i));
+				Assert.assertEquals(i, bv.findPosition(true, i / 3 + 1) + i % 3);
+			}
+		}
+		for (int i = 0; i < 0x3000; i++) {
+			Assert.assertEquals((i % 3) == 0, bv.getBit(i));
+		}
+		Assert.assertFalse(bv.getBit(0x3000));
+		assertSameRankAndSelect(bv, 1);
+	}
+
+	@Test
+	public void testPseudorandomBits() {
+		PseudorandomBooleanGenerator generator = new PseudorandomBooleanGenerator(
+				0x1234);
+		BitVectorImpl bits = new BitVectorImpl();
+		for (int i = 0; i < 0x40000; i++) {
+			bits.addBit(generator.getPseudorandomBoolean());
+		}
+		SuccinctRankedBitVector bv = new SuccinctRankedBitVector(bits);
+		Assert.assertEquals(bits, bv);
+		Assert.assertEquals(bv, bits);
+		assertSameRankAndSelect(bv, 0x123);
+
+		for (int i = 0; i < 0x40000; i += 0x777) {
+			bv.setBit(i, !bv.getBit(i));
+		}
+		assertSameRankAndSelect(bv, 0x123);
+		assertSameRankAndSelect(new SuccinctRankedBitVector(bv), 0x321);
+	}
+
+	@Test
+	public void testSparseAndDenseBits() {
+		SuccinctRankedBitVector sparse = new SuccinctRankedBitVector(0x20000);
+		SuccinctRankedBitVector dense = new SuccinctRankedBitVector();
+		for (int i = 0; i < 0x20000; i++) {
+			dense.addBit(true);
+		}
+		for (int i = 0; i < 0x20000; i += 0x3E9) {
+			sparse.setBit(i, true);
+			dense.setBit(i, false);
+		}
+		assertSameRankAndSelect(sparse, 0x3B);
+		assertSameRankAndSelect(dense, 0x3B);
+
+		sparse.setBit(0x30000, true);
+		Assert.assertEquals(0x30001, sparse.size());
+		Assert.assertEquals(0x30000,
+				sparse.findPosition(true, sparse.countBits(true, 0x30000)));
+		assertSameRankAndSelect(sparse, 0x3B);
+	}
+
+	@Test
+	public void testEmptyBitVector() {
+		SuccinctRankedBitVector bv = new SuccinctRankedBitVector();
+		Assert.assertEquals(new BitVectorImpl(), bv);
+		Assert.assertEquals(new SuccinctRankedBitVector(0), bv);
+		Assert.assertNotEquals(bv, new Object());
+		Assert.assertEquals(new BitVectorImpl().hashCode(), bv.hashCode());
+		Assert.assertEquals(RankedBitVector.NOT_FOUND, bv.findPosition(true, 0));
+		Assert.assertEquals(RankedBitVector.NOT_FOUND, bv.findPosition(true, 1));
+		Assert.assertEquals(RankedBitVector.NOT_FOUND,
+				bv.findPosition(false, 1));
+		Assert.assertEquals(0, bv.countBits(true, 10));
+		Assert.assertEquals(11, bv.countBits(false, 10));
+		Assert.assertEquals("", bv.toString());
+	}
+
+	@Test
+	public void testIteratorAndToString() {
+		SuccinctRankedBitVector bv = new SuccinctRankedBitVector();
+		for (int i = 0; i < 0x10; i++) {
+			bv.addBit((i % 3) == 0);
+		}
+		Assert.assertEquals("1001001001001001", bv.toString());
+		Iterator<Boolean> it = bv.iterator();
+		for (int i = 0; i < 0x10; i++) {
+			Assert.assertEquals((i % 3) == 0, it.next());
+		}
+		Assert.assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void testSelectInWord() {
+		Assert.assertEquals(0, SuccinctRankedBitVector.selectInWord(1, 0));
+		Assert.assertEquals(63,
+				SuccinctRankedBitVector.selectInWord(Long.MIN_VALUE, 0));
+		Assert.assertEquals(5, SuccinctRankedBitVector.selectInWord(0x2A, 2));
+		Assert.assertEquals(40,
+				SuccinctRankedBitVector.selectInWord(0x0000010000000101L, 2));
+		Assert.assertEquals(63, SuccinctRankedBitVector.selectInWord(-1L, 63));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidInitialSize() {
+		new SuccinctRankedBitVector(-1);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testNegativePosition() {
+		new SuccinctRankedBitVector().countBits(true, -1);
+	}
+
+}
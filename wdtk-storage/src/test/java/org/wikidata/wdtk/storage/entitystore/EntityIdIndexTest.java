@@ -0,0 +1,109 @@
+package org.wikidata.wdtk.storage.entitystore;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class EntityIdIndexTest {
+
+	@Test
+	public void testArrayPrefix() {
+		assertEquals(0, EntityIdIndex.getArrayPrefix("Q42"));
+		assertEquals(1, EntityIdIndex.getArrayPrefix("P31"));
+		assertEquals(2, EntityIdIndex.getArrayPrefix("L1"));
+		assertEquals(3, EntityIdIndex.getArrayPrefix("M2147483631"));
+		assertEquals(-1, EntityIdIndex.getArrayPrefix("M2147483632"));
+		assertEquals(-1, EntityIdIndex.getArrayPrefix("Q"));
+		assertEquals(-1, EntityIdIndex.getArrayPrefix("Q042"));
+		assertEquals(-1, EntityIdIndex.getArrayPrefix("Q4x"));
+		assertEquals(-1, EntityIdIndex.getArrayPrefix("L1-F1"));
+		assertEquals(-1, EntityIdIndex.getArrayPrefix("X1"));
+	}
+
+	@Test
+	public void testPutAndGet() {
+		EntityIdIndex index = new EntityIdIndex();
+		index.put("Q42", 0);
+		index.put("Q100000", 100);
+		index.put("P31", 200);
+		index.put("Q042", 300);
+		index.put("L1-F1", 400);
+
+		assertEquals(0, index.get("Q42"));
+		assertEquals(100, index.get("Q100000"));
+		assertEquals(200, index.get("P31"));
+		assertEquals(300, index.get("Q042"));
+		assertEquals(400, index.get("L1-F1"));
+		assertEquals(-1, index.get("Q43"));
+		assertEquals(-1, index.get("Q10000000"));
+		assertEquals(-1, index.get("P42"));
+		assertEquals(-1, index.get("L1-F2"));
+		assertEquals(5, index.size());
+
+		index.put("Q42", 500);
+		index.put("L1-F1", 600);
+		assertEquals(500, index.get("Q42"));
+		assertEquals(600, index.get("L1-F1"));
+		assertEquals(5, index.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativePosition() {
+		new EntityIdIndex().put("Q42", -1);
+	}
+
+	@Test
+	public void testWriteAndRead() throws IOException {
+		EntityIdIndex index = new EntityIdIndex();
+		for (int i = 1; i < 5000; i += 3) {
+			index.put("Q" + i, 10L * i);
+		}
+		index.put("M7", 70);
+		index.put("L5-S1", 51);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (DataOutputStream dataOut = new DataOutputStream(out)) {
+			index.write(dataOut);
+		}
+		EntityIdIndex copy = EntityIdIndex.read(new DataInputStream(
+				new ByteArrayInputStream(out.toByteArray())));
+
+		assertEquals(index.size(), copy.size());
+		for (int i = 1; i < 5000; i++) {
+			assertEquals(index.get("Q" + i), copy.get("Q" + i));
+		}
+		assertEquals(70, copy.get("M7"));
+		assertEquals(51, copy.get("L5-S1"));
+		assertEquals(-1, copy.get("P1"));
+
+		copy.put("Q6000", 6);
+		assertEquals(6, copy.get("Q6000"));
+	}
+
+}
@@ -0,0 +1,306 @@
+package org.wikidata.wdtk.storage.entitystore;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.ItemDocumentBuilder;
+import org.wikidata.wdtk.datamodel.helpers.PropertyDocumentBuilder;
+import org.wikidata.wdtk.datamodel.interfaces.DatatypeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.EntityRedirectDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+
+public class EntityStoreTest {
+
+	Path directory;
+
+	@Before
+	public void setUp() throws IOException {
+		this.directory = Files.createTempDirectory("wdtk-entitystore");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<Path> files = Files.walk(this.directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> {
+				try {
+					Files.delete(path);
+				} catch (IOException e) {
+					// ignore
+				}
+			});
+		}
+	}
+
+	static ItemDocument makeItem(String id, String label, long revisionId) {
+		return ItemDocumentBuilder
+				.forItemId(Datamodel.makeWikidataItemIdValue(id))
+				.withLabel(label, "en").withRevisionId(revisionId).build();
+	}
+
+	static PropertyDocument makeProperty(String id, long revisionId) {
+		return PropertyDocumentBuilder
+				.forPropertyIdAndDatatype(
+						Datamodel.makeWikidataPropertyIdValue(id),
+						DatatypeIdValue.DT_ITEM)
+				.withLabel("property " + id, "en")
+				.withRevisionId(revisionId).build();
+	}
+
+	static EntityRedirectDocument makeRedirect(ItemIdValue id,
+			ItemIdValue targetId, long revisionId) {
+		return new EntityRedirectDocument() {
+			@Override
+			public EntityIdValue getEntityId() {
+				return id;
+			}
+
+			@Override
+			public long getRevisionId() {
+				return revisionId;
+			}
+
+			@Override
+			public EntityIdValue getTargetId() {
+				return targetId;
+			}
+
+			@Override
+			public EntityRedirectDocument withRevisionId(long newRevisionId) {
+				return makeRedirect(id, targetId, newRevisionId);
+			}
+		};
+	}
+
+	static List<EntityDocument> getAllDocuments(EntityStore store)
+			throws IOException {
+		List<EntityDocument> documents = new ArrayList<>();
+		store.processEntityDocuments(new EntityDocumentProcessor() {
+			@Override
+			public void processItemDocument(ItemDocument itemDocument) {
+				documents.add(itemDocument);
+			}
+
+			@Override
+			public void processPropertyDocument(
+					PropertyDocument propertyDocument) {
+				documents.add(propertyDocument);
+			}
+		});
+		return documents;
+	}
+
+	@Test
+	public void testPutAndGet() throws IOException {
+		ItemDocument q1 = makeItem("Q1", "universe", 5);
+		PropertyDocument p31 = makeProperty("P31", 7);
+		try (EntityStore store = new EntityStore(this.directory)) {
+			assertTrue(store.put(q1));
+			assertTrue(store.put(p31));
+
+			assertEquals(q1, store.get(q1.getEntityId()));
+			assertEquals(p31, store.get(p31.getEntityId()));
+			assertNull(store.get(Datamodel.makeWikidataItemIdValue("Q2")));
+		}
+	}
+
+	@Test
+	public void testOlderRevisionsAreIgnored() throws IOException {
+		ItemDocument q1 = makeItem("Q1", "universe", 10);
+		try (EntityStore store = new EntityStore(this.directory)) {
+			assertTrue(store.put(q1));
+			assertFalse(store.put(makeItem("Q1", "old universe", 5)));
+			assertFalse(store.put(makeItem("Q1", "same universe", 10)));
+			assertEquals(q1, store.get(q1.getEntityId()));
+
+			ItemDocument newQ1 = makeItem("Q1", "new universe", 11);
+			assertTrue(store.put(newQ1));
+			assertEquals(newQ1, store.get(q1.getEntityId()));
+		}
+	}
+
+	@Test
+	public void testRedirectRemovesDocument() throws IOException {
+		ItemIdValue q1 = Datamodel.makeWikidataItemIdValue("Q1");
+		ItemIdValue q2 = Datamodel.makeWikidataItemIdValue("Q2");
+		try (EntityStore store = new EntityStore(this.directory)) {
+			store.processItemDocument(makeItem("Q1", "universe", 10));
+			store.processEntityRedirectDocument(makeRedirect(q1, q2, 12));
+			assertNull(store.get(q1));
+
+			// older revisions do not reappear
+			assertFalse(store.put(makeItem("Q1", "universe", 11)));
+			assertNull(store.get(q1));
+			assertTrue(getAllDocuments(store).isEmpty());
+		}
+	}
+
+	@Test
+	public void testProcessEntityDocuments() throws IOException {
+		ItemDocument q1 = makeItem("Q1", "universe", 10);
+		ItemDocument q2 = makeItem("Q2", "earth", 20);
+		PropertyDocument p31 = makeProperty("P31", 30);
+		ItemDocument newQ1 = makeItem("Q1", "new universe", 40);
+		try (EntityStore store = new EntityStore(this.directory)) {
+			store.processItemDocument(q1);
+			store.processItemDocument(q2);
+			store.processPropertyDocument(p31);
+			store.processItemDocument(newQ1);
+
+			List<EntityDocument> expected = new ArrayList<>();
+			expected.add(q2);
+			expected.add(p31);
+			expected.add(newQ1);
+			assertEquals(expected, getAllDocuments(store));
+		}
+	}
+
+	@Test
+	public void testReopen() throws IOException {
+		ItemDocument q1 = makeItem("Q1", "universe", 10);
+		ItemDocument q2 = makeItem("Q2", "earth", 20);
+		try (EntityStore store = new EntityStore(this.directory)) {
+			store.put(q1);
+			store.put(makeItem("Q2", "old earth", 15));
+			store.put(q2);
+		}
+
+		try (EntityStore store = new EntityStore(this.directory)) {
+			assertEquals(q1, store.get(q1.getEntityId()));
+			assertEquals(q2, store.get(q2.getEntityId()));
+			assertEquals(2, getAllDocuments(store).size());
+		}
+
+		// without index file, the index is rebuilt from the log
+		Files.delete(this.directory.resolve(EntityStore.INDEX_FILE_NAME));
+		try (EntityStore store = new EntityStore(this.directory)) {
+			assertEquals(q1, store.get(q1.getEntityId()));
+			assertEquals(q2, store.get(q2.getEntityId()));
+			assertEquals(2, getAllDocuments(store).size());
+		}
+	}
+
+	@Test
+	public void testRecoverRecordsAfterIndex() throws IOException {
+		ItemDocument q1 = makeItem("Q1", "universe", 10);
+		ItemDocument q2 = makeItem("Q2", "earth", 20);
+		try (EntityStore store = new EntityStore(this.directory)) {
+			store.put(q1);
+		}
+		long logSize = Files.size(this.directory
+				.resolve(EntityStore.LOG_FILE_NAME));
+
+		// records written after the index, followed by an incomplete record
+		EntityStore store = new EntityStore(this.directory);
+		store.put(q2);
+		store.flushWriteBuffer();
+		store.channel.close();
+		Files.write(this.directory.resolve(EntityStore.LOG_FILE_NAME),
+				new byte[] { 0, 0, 1, 0, 0 }, StandardOpenOption.APPEND);
+
+		try (EntityStore reopened = new EntityStore(this.directory)) {
+			assertEquals(q1, reopened.get(q1.getEntityId()));
+			assertEquals(q2, reopened.get(q2.getEntityId()));
+			assertTrue(reopened.flushedSize > logSize);
+			assertEquals(reopened.flushedSize, Files.size(this.directory
+					.resolve(EntityStore.LOG_FILE_NAME)));
+		}
+	}
+
+	@Test
+	public void testCompact() throws IOException {
+		ItemDocument q2 = makeItem("Q2", "earth", 20);
+		ItemIdValue q1 = Datamodel.makeWikidataItemIdValue("Q1");
+		try (EntityStore store = new EntityStore(this.directory)) {
+			for (int revision = 1; revision <= 100; revision++) {
+				store.put(makeItem("Q1", "universe " + revision, revision));
+			}
+			store.put(q2);
+			long size = store.flushedSize + store.writeBuffer.position();
+
+			store.compact();
+
+			assertTrue(store.flushedSize < size / 10);
+			assertEquals(makeItem("Q1", "universe 100", 100), store.get(q1));
+			assertEquals(q2, store.get(q2.getEntityId()));
+			assertFalse(store.put(makeItem("Q1", "universe", 50)));
+		}
+
+		try (EntityStore store = new EntityStore(this.directory)) {
+			assertEquals(makeItem("Q1", "universe 100", 100), store.get(q1));
+			assertEquals(2, getAllDocuments(store).size());
+		}
+	}
+
+	@Test
+	public void testCrashAfterCompact() throws IOException {
+		ItemDocument q2 = makeItem("Q2", "earth", 20);
+		ItemIdValue q1 = Datamodel.makeWikidataItemIdValue("Q1");
+		EntityStore store = new EntityStore(this.directory);
+		store.put(q2);
+		store.put(makeItem("Q1", "u", 1));
+		store.flush();
+		for (int revision = 2; revision <= 100; revision++) {
+			store.put(makeItem("Q1", "universe " + revision, revision));
+		}
+
+		// the new log is larger than the log of the old index, but the new
+		// index is not written
+		store.compactLog();
+		store.channel.close();
+
+		try (EntityStore reopened = new EntityStore(this.directory)) {
+			assertEquals(makeItem("Q1", "universe 100", 100),
+					reopened.get(q1));
+			assertEquals(q2, reopened.get(q2.getEntityId()));
+			assertEquals(2, getAllDocuments(reopened).size());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testNoEntityStore() throws IOException {
+		Files.write(this.directory.resolve(EntityStore.LOG_FILE_NAME),
+				new byte[100]);
+		new EntityStore(this.directory).close();
+	}
+
+}
@@ -25,6 +25,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileSystems;
@@ -40,6 +41,8 @@ import java.util.zip.GZIPInputStream;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 import org.wikidata.wdtk.util.CompressionType;
 import org.wikidata.wdtk.util.DirectoryManager;
+import org.wikidata.wdtk.util.ParallelBZip2InputStream;
+import org.wikidata.wdtk.util.ParallelGzipInputStream;
 
 /**
  * Mock implementation of {@link DirectoryManager} that simulates file access
@@ -282,6 +285,15 @@ public class MockDirectoryManager implements DirectoryManager {
 		files.put(filePath, fileContents.getBytes(StandardCharsets.UTF_8));
 	}
 
+	@Override
+	public void replaceFileAtomic(String fileName, String fileContents)
+			throws IOException {
+		Path filePath = this.directory.resolve(fileName);
+		ensureWritePermission(filePath);
+
+		files.put(filePath, fileContents.getBytes(StandardCharsets.UTF_8));
+	}
+
 	@Override
 	public OutputStream getOutputStreamForFile(String fileName)
 			throws IOException {
@@ -299,11 +311,35 @@ public class MockDirectoryManager implements DirectoryManager {
 		} else if (compressionType == CompressionType.BZ2) {
 			return new BZip2CompressorInputStream(
 					getInputStreamForMockFile(fileName));
+		} else if (compressionType == CompressionType.GZIP_PARALLEL) {
+			return new ParallelGzipInputStream(
+					getInputStreamForMockFile(fileName));
+		} else if (compressionType == CompressionType.BZ2_PARALLEL) {
+			return new ParallelBZip2InputStream(
+					getInputStreamForMockFile(fileName));
 		} else {
 			return getInputStreamForMockFile(fileName);
 		}
 	}
 
+	@Override
+	public SeekableByteChannel getSeekableByteChannelForFile(String fileName,
+			boolean write) throws IOException {
+		Path filePath = this.directory.resolve(fileName);
+		if (write) {
+			ensureWritePermission(filePath);
+			if (!hasFile(fileName)) {
+				return new MockSeekableByteChannel(filePath, new byte[0], true);
+			}
+		} else if (!hasFile(fileName)) {
+			throw new FileNotFoundException("Could not find file \"" + fileName
+					+ "\" in current directory \"" + this.directory.toString()
+					+ "\"");
+		}
+		return new MockSeekableByteChannel(filePath, files.get(filePath),
+				write);
+	}
+
 	/**
 	 * Get an input stream for the mocked contents of the given file, or throw
 	 * an exception if the file does not exist.
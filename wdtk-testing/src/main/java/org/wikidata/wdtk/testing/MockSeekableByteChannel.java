@@ -0,0 +1,149 @@
+package org.wikidata.wdtk.testing;
+
+/*
+ * #%L
+ * Wikidata Toolkit Testing Utilities
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Channel for random access to the contents of a mocked file. If the channel
+ * is writable, the contents of the mocked file are replaced when the channel
+ * is closed.
+ */
+public class MockSeekableByteChannel implements SeekableByteChannel {
+
+	final Path targetPath;
+	final boolean writable;
+
+	byte[] contents;
+	int size;
+	long position = 0;
+	boolean open = true;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param filePath
+	 *            the path of the mocked file
+	 * @param contents
+	 *            the current contents of the mocked file
+	 * @param writable
+	 *            if true, the channel can be used to write the file
+	 */
+	public MockSeekableByteChannel(Path filePath, byte[] contents,
+			boolean writable) {
+		this.targetPath = filePath;
+		this.contents = Arrays.copyOf(contents, contents.length);
+		this.size = contents.length;
+		this.writable = writable;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return this.open;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.open && this.writable) {
+			MockDirectoryManager.files.put(this.targetPath,
+					Arrays.copyOf(this.contents, this.size));
+		}
+		this.open = false;
+	}
+
+	@Override
+	public int read(ByteBuffer dst) throws IOException {
+		ensureOpen();
+		if (this.position >= this.size) {
+			return -1;
+		}
+		int count = (int) Math.min(dst.remaining(), this.size - this.position);
+		dst.put(this.contents, (int) this.position, count);
+		this.position += count;
+		return count;
+	}
+
+	@Override
+	public int write(ByteBuffer src) throws IOException {
+		ensureOpen();
+		if (!this.writable) {
+			throw new NonWritableChannelException();
+		}
+		int count = src.remaining();
+		int end = Math.addExact((int) this.position, count);
+		if (end > this.contents.length) {
+			this.contents = Arrays.copyOf(this.contents,
+					Math.max(end, 2 * this.contents.length));
+		}
+		src.get(this.contents, (int) this.position, count);
+		this.position = end;
+		this.size = Math.max(this.size, end);
+		return count;
+	}
+
+	@Override
+	public long position() throws IOException {
+		ensureOpen();
+		return this.position;
+	}
+
+	@Override
+	public SeekableByteChannel position(long newPosition) throws IOException {
+		ensureOpen();
+		if (newPosition < 0 || newPosition > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid position "
+					+ newPosition);
+		}
+		this.position = newPosition;
+		return this;
+	}
+
+	@Override
+	public long size() throws IOException {
+		ensureOpen();
+		return this.size;
+	}
+
+	@Override
+	public SeekableByteChannel truncate(long newSize) throws IOException {
+		ensureOpen();
+		if (!this.writable) {
+			throw new NonWritableChannelException();
+		}
+		if (newSize < this.size) {
+			this.size = (int) newSize;
+		}
+		this.position = Math.min(this.position, this.size);
+		return this;
+	}
+
+	void ensureOpen() throws IOException {
+		if (!this.open) {
+			throw new ClosedChannelException();
+		}
+	}
+}
@@ -142,6 +142,7 @@ public class MockStringContentFactory {
 			Mockito.doThrow(new IOException())
 					.when(is)
 					.read(Mockito.any(), Mockito.anyInt(), Mockito.anyInt());
+			Mockito.doThrow(new IOException()).when(is).readAllBytes();
 		} catch (IOException e) {
 			throw new RuntimeException(
 					"Mockito should not throw anything here. Strange.", e);
@@ -166,9 +167,12 @@ public class MockStringContentFactory {
 			return string.getBytes(StandardCharsets.UTF_8);
 		case BZ2:
 		case GZIP:
+		case BZ2_PARALLEL:
+		case GZIP_PARALLEL:
 			ByteArrayOutputStream out = new ByteArrayOutputStream();
 			OutputStreamWriter ow;
-			if (compressionType == CompressionType.GZIP) {
+			if (compressionType == CompressionType.GZIP
+					|| compressionType == CompressionType.GZIP_PARALLEL) {
 				ow = new OutputStreamWriter(
 						new GzipCompressorOutputStream(out),
 						StandardCharsets.UTF_8);
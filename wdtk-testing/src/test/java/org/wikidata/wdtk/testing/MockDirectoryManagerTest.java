@@ -26,6 +26,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Path;
@@ -166,6 +168,27 @@ public class MockDirectoryManagerTest {
 		assertEquals("New contents", content);
 	}
 
+	@Test
+	public void writeFileUsingSeekableByteChannel() throws IOException {
+		mdm.createFile("newfile.txt", "0123456789");
+		try (SeekableByteChannel channel = mdm.getSeekableByteChannelForFile(
+				"newfile.txt", true)) {
+			channel.position(8);
+			channel.write(ByteBuffer.wrap("abcd"
+					.getBytes(StandardCharsets.UTF_8)));
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(4);
+		try (SeekableByteChannel channel = mdm.getSeekableByteChannelForFile(
+				"newfile.txt", false)) {
+			assertEquals(12, channel.size());
+			channel.position(7);
+			channel.read(buffer);
+		}
+		assertEquals("7abc", new String(buffer.array(),
+				StandardCharsets.UTF_8));
+	}
+
 	@Test
 	public void readFileFails() throws IOException {
 		mdm.setReturnFailingReaders(true);
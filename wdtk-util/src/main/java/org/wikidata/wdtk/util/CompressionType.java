@@ -22,11 +22,31 @@ package org.wikidata.wdtk.util;
 
 /**
  * Enum for denoting several basic file types for which we provide transparent
- * decompression.
+ * decompression. The parallel variants denote the same file types, but ask for
+ * decompression on several threads, see {@link ParallelBZip2InputStream} and
+ * {@link ParallelGzipInputStream}.
  * 
  * @author Markus Kroetzsch
  * 
  */
 public enum CompressionType {
-	NONE, GZIP, BZ2
+	NONE, GZIP, BZ2, GZIP_PARALLEL, BZ2_PARALLEL;
+
+	/**
+	 * Returns the variant of this compression type that uses parallel
+	 * decompression, if there is one.
+	 *
+	 * @return the parallel compression type, or this type if there is no
+	 *         parallel variant
+	 */
+	public CompressionType toParallel() {
+		switch (this) {
+		case GZIP:
+			return GZIP_PARALLEL;
+		case BZ2:
+			return BZ2_PARALLEL;
+		default:
+			return this;
+		}
+	}
 }
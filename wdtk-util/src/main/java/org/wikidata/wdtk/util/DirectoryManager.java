@@ -23,6 +23,7 @@ package org.wikidata.wdtk.util;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.util.List;
 
 /**
@@ -108,6 +109,43 @@ public interface DirectoryManager {
 	long createFileAtomic(String fileName, InputStream inputStream)
 			throws IOException;
 
+	/**
+	 * Creates a new file in the current directory from the data of the given
+	 * input stream, and returns an input stream to access the contents of the
+	 * file, possibly uncompressing it if required. Implementations may write
+	 * the file while the returned stream is read, so that the data can be
+	 * processed while it arrives, e.g., during a download. In this case, the
+	 * data is written to a temporary file as in
+	 * {@link #createFileAtomic(String, InputStream)}, which is only moved to
+	 * its final location if the returned stream has been read to its end
+	 * before closing it. If the returned stream is closed earlier, the file is
+	 * not created.
+	 * <p>
+	 * The default implementation creates the file completely before returning
+	 * a stream to read it. The given input stream is owned by this method and
+	 * the returned stream. It is important to close the returned stream after
+	 * using it.
+	 *
+	 * @param fileName
+	 *            the name of the file
+	 * @param inputStream
+	 *            the input stream from which to load the file
+	 * @param compressionType
+	 *            for types other than {@link CompressionType#NONE}, the
+	 *            returned input stream will provide access to the uncompressed
+	 *            content
+	 * @return an InputStream to fetch data from the file
+	 * @throws IOException
+	 */
+	default InputStream createFileWhileReading(String fileName,
+			InputStream inputStream, CompressionType compressionType)
+			throws IOException {
+		try (InputStream in = inputStream) {
+			createFileAtomic(fileName, in);
+		}
+		return getInputStreamForFile(fileName, compressionType);
+	}
+
 	/**
 	 * Creates a new file in the current directory, and fill it with the given
 	 * data, encoded in UTF-8. Should only be used for short pieces of data.
@@ -120,6 +158,33 @@ public interface DirectoryManager {
 	 */
 	void createFile(String fileName, String fileContents) throws IOException;
 
+	/**
+	 * Creates or replaces the file of the given name in the current directory
+	 * with the given data, encoded in UTF-8. The data is written to a
+	 * temporary file first, which is then moved over the old file, so that
+	 * concurrent readers, and readers after a crash, see either the old or the
+	 * new contents but never a partially written file. Should only be used
+	 * for short pieces of data.
+	 * <p>
+	 * The default implementation does not support this and throws an
+	 * exception.
+	 *
+	 * @param fileName
+	 *            the name of the file
+	 * @param fileContents
+	 *            the data to write into the file
+	 * @throws IOException
+	 *             if the file could not be written, or if in read-only mode
+	 * @throws UnsupportedOperationException
+	 *             if this directory manager does not support replacing files
+	 */
+	default void replaceFileAtomic(String fileName, String fileContents)
+			throws IOException {
+		throw new UnsupportedOperationException(
+				"Atomic replacement of files is not supported by "
+						+ getClass().getName());
+	}
+
 	/**
 	 * Opens and returns an output stream that can be used to write to the file
 	 * of the given name within the current directory. The stream is owned by
@@ -151,6 +216,35 @@ public interface DirectoryManager {
 	InputStream getInputStreamForFile(String fileName,
 			CompressionType compressionType) throws IOException;
 
+	/**
+	 * Opens a channel for random access to the bytes of the file of the given
+	 * name within the current directory, without any decompression. This is
+	 * used for files of fixed-size records, such as indexes, that are read or
+	 * updated at arbitrary positions. If the channel is opened for writing,
+	 * the file is created if it does not exist yet. The channel is owned by
+	 * the caller and must be closed after use.
+	 * <p>
+	 * The default implementation does not support random access and throws an
+	 * exception.
+	 *
+	 * @param fileName
+	 *            the name of the file
+	 * @param write
+	 *            if true, the channel can also be used to write the file
+	 * @return the channel to access the file
+	 * @throws IOException
+	 *             if the file could not be opened, or if write access is
+	 *             requested in read-only mode
+	 * @throws UnsupportedOperationException
+	 *             if this directory manager does not support random access
+	 */
+	default SeekableByteChannel getSeekableByteChannelForFile(String fileName,
+			boolean write) throws IOException {
+		throw new UnsupportedOperationException(
+				"Random access to files is not supported by "
+						+ getClass().getName());
+	}
+
 	/**
 	 * Returns a list of the names of all subdirectories of the base directory.
 	 * The glob pattern can be used to filter the names; "*" should be used if
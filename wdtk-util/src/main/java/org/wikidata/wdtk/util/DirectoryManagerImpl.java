@@ -21,21 +21,28 @@ package org.wikidata.wdtk.util;
  */
 
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
@@ -49,6 +56,12 @@ import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
  */
 public class DirectoryManagerImpl implements DirectoryManager {
 
+	/**
+	 * Size of the buffer for writing files while their data is read by
+	 * another consumer.
+	 */
+	static final int WRITE_BUFFER_SIZE = 1 << 20;
+
 	/**
 	 * The directory that this object is managing.
 	 */
@@ -143,6 +156,126 @@ public class DirectoryManagerImpl implements DirectoryManager {
 		return fileSize;
 	}
 
+	/**
+	 * Creates the file while the returned stream is read. The data is written
+	 * to a temporary file, which is moved to its final location when the
+	 * returned stream is closed after reading all of its data. Any input that
+	 * follows the end of the compressed data is then also copied to the file.
+	 */
+	@Override
+	public InputStream createFileWhileReading(String fileName,
+			InputStream inputStream, CompressionType compressionType)
+			throws IOException {
+		Path filePath = this.directory.resolve(fileName);
+		Path fileTempPath = this.directory.resolve(fileName + ".part");
+
+		TeeInputStream teeInputStream;
+		try {
+			ensureWritePermission(filePath);
+			if (Files.exists(filePath)) {
+				throw new FileAlreadyExistsException(filePath.toString());
+			}
+			teeInputStream = new TeeInputStream(inputStream,
+					new BufferedOutputStream(Files.newOutputStream(
+							fileTempPath, StandardOpenOption.WRITE,
+							StandardOpenOption.TRUNCATE_EXISTING,
+							StandardOpenOption.CREATE), WRITE_BUFFER_SIZE));
+		} catch (IOException e) {
+			inputStream.close();
+			throw e;
+		}
+
+		try {
+			return new FileCreatingInputStream(getCompressorInputStream(
+					teeInputStream, compressionType), teeInputStream,
+					fileTempPath, filePath);
+		} catch (IOException | RuntimeException e) {
+			teeInputStream.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Input stream returned by
+	 * {@link DirectoryManagerImpl#createFileWhileReading(String, InputStream, CompressionType)}
+	 * . It moves the temporary file to its final location when it is closed
+	 * after reaching the end of the data, and deletes it otherwise.
+	 */
+	static class FileCreatingInputStream extends FilterInputStream {
+
+		final TeeInputStream teeInputStream;
+		final Path fileTempPath;
+		final Path filePath;
+
+		boolean endOfData = false;
+		boolean closed = false;
+
+		FileCreatingInputStream(InputStream in, TeeInputStream teeInputStream,
+				Path fileTempPath, Path filePath) {
+			super(in);
+			this.teeInputStream = teeInputStream;
+			this.fileTempPath = fileTempPath;
+			this.filePath = filePath;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = this.in.read();
+			if (b < 0) {
+				this.endOfData = true;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int count = this.in.read(b, off, len);
+			if (count < 0) {
+				this.endOfData = true;
+			}
+			return count;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			try {
+				if (this.endOfData) {
+					// decompressors may stop before the end of the input
+					this.teeInputStream.copyRemaining();
+				}
+			} finally {
+				this.in.close();
+			}
+			if (this.endOfData && this.teeInputStream.isComplete()) {
+				Files.move(this.fileTempPath, this.filePath);
+			} else {
+				// the file is not created from incomplete data
+				Files.deleteIfExists(this.fileTempPath);
+			}
+		}
+	}
+
+	/**
+	 * Returns the path of a file in this directory, for writing it with means
+	 * other than the methods of this class, such as a
+	 * {@link RangeRequestDownloader}.
+	 *
+	 * @param fileName
+	 *            the name of the file
+	 * @return the path of the file
+	 * @throws IOException
+	 *             if in read-only mode
+	 */
+	public Path getPathForWriting(String fileName) throws IOException {
+		Path filePath = this.directory.resolve(fileName);
+		ensureWritePermission(filePath);
+		return filePath;
+	}
+
 	@Override
 	public void createFile(String fileName, String fileContents)
 			throws IOException {
@@ -156,6 +289,36 @@ public class DirectoryManagerImpl implements DirectoryManager {
 		}
 	}
 
+	/**
+	 * Writes the data to a temporary file with a unique name, so that
+	 * concurrent replacements of the same file do not interfere, and moves it
+	 * to its final location atomically if the file system supports this.
+	 */
+	@Override
+	public void replaceFileAtomic(String fileName, String fileContents)
+			throws IOException {
+		Path filePath = this.directory.resolve(fileName);
+		ensureWritePermission(filePath);
+
+		Path fileTempPath = this.directory.resolve(fileName + "."
+				+ UUID.randomUUID() + ".part");
+		try {
+			Files.write(fileTempPath,
+					fileContents.getBytes(StandardCharsets.UTF_8),
+					StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW);
+			try {
+				Files.move(fileTempPath, filePath,
+						StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(fileTempPath, filePath,
+						StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(fileTempPath);
+		}
+	}
+
 	@Override
 	public OutputStream getOutputStreamForFile(String fileName)
 			throws IOException {
@@ -176,6 +339,19 @@ public class DirectoryManagerImpl implements DirectoryManager {
 		return getCompressorInputStream(fileInputStream, compressionType);
 	}
 
+	@Override
+	public SeekableByteChannel getSeekableByteChannelForFile(String fileName,
+			boolean write) throws IOException {
+		Path filePath = this.directory.resolve(fileName);
+		if (write) {
+			ensureWritePermission(filePath);
+			return FileChannel.open(filePath, StandardOpenOption.READ,
+					StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+		} else {
+			return FileChannel.open(filePath, StandardOpenOption.READ);
+		}
+	}
+
 	/**
 	 * Returns an input stream that applies the required decompression to the
 	 * given input stream.
@@ -198,6 +374,10 @@ public class DirectoryManagerImpl implements DirectoryManager {
 		case BZ2:
 			return new BZip2CompressorInputStream(new BufferedInputStream(
 					inputStream));
+		case GZIP_PARALLEL:
+			return new ParallelGzipInputStream(inputStream);
+		case BZ2_PARALLEL:
+			return new ParallelBZip2InputStream(inputStream);
 		default:
 			throw new IllegalArgumentException("Unsupported compression type: "
 					+ compressionType);
@@ -0,0 +1,497 @@
+package org.wikidata.wdtk.util;
+
+/*
+ * #%L
+ * Wikidata Toolkit Utilities
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+/**
+ * Input stream that decompresses bzip2 data on several threads. The
+ * compressed input is split at the (bit-aligned) signatures that start each
+ * bzip2 block. Each block is then wrapped into a stream of its own and
+ * decompressed independently. Streams that consist of several concatenated
+ * bzip2 streams are supported as well.
+ * <p>
+ * For large files, this is considerably faster than
+ * {@link BZip2CompressorInputStream} if enough processor cores are available,
+ * but it also uses more memory, since several blocks are buffered at any time.
+ * <p>
+ * Since blocks are independent, decompression can also start at any block of
+ * a bzip2 file, see {@link #openAtBlock(InputStream, long, int)}. The
+ * positions of the blocks can be obtained with a {@link BlockListener}.
+ */
+public class ParallelBZip2InputStream extends ParallelDecompressorInputStream {
+
+	/**
+	 * Listener that is notified of the position of each block in the
+	 * compressed and in the decompressed data.
+	 */
+	public interface BlockListener {
+		/**
+		 * Called before the first byte of a block is returned by the stream.
+		 *
+		 * @param compressedBitOffset
+		 *            the position of the first bit of the block signature in
+		 *            the compressed input
+		 * @param decompressedOffset
+		 *            the number of decompressed bytes before this block
+		 */
+		void blockStarted(long compressedBitOffset, long decompressedOffset);
+	}
+
+	/**
+	 * The 48 bit signature at the start of every compressed block (the BCD
+	 * encoding of pi).
+	 */
+	static final long BLOCK_MAGIC = 0x314159265359L;
+	/**
+	 * The 48 bit signature at the end of every stream (the BCD encoding of
+	 * sqrt(pi)).
+	 */
+	static final long END_OF_STREAM_MAGIC = 0x177245385090L;
+
+	static final long MAGIC_MASK = (1L << 48) - 1;
+
+	/**
+	 * Maximal number of bits in a chunk that starts with an end of stream
+	 * signature: the signature, the stream checksum, the padding to the next
+	 * byte, and the header of the next stream.
+	 */
+	static final int MAX_END_OF_STREAM_BITS = 48 + 32 + 7 + 32;
+
+	/**
+	 * Compressed bzip2 blocks are a little smaller than one megabyte. Larger
+	 * chunks indicate that the input is not in the expected format.
+	 */
+	static final int MAX_CHUNK_SIZE = 8 << 20;
+
+	final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+	int readBufferLength = 0;
+	int readBufferPosition = 0;
+
+	/**
+	 * Buffer for the chunk that is currently being read. The first byte of the
+	 * buffer contains the first bit of the chunk.
+	 */
+	byte[] chunkBuffer = new byte[1 << 20];
+	int chunkBufferLength = 0;
+	/**
+	 * Position of the first bit of the current chunk in the buffer, or -1 if
+	 * no signature was found yet.
+	 */
+	int chunkStartBit = -1;
+	/**
+	 * Position of the first byte of the chunk buffer in the input.
+	 */
+	long chunkBufferOffset = 0;
+	/**
+	 * The last 64 bits that have been read.
+	 */
+	long window = 0;
+	boolean headerChecked = false;
+	boolean inputExhausted = false;
+
+	BlockListener blockListener = null;
+
+	/**
+	 * Constructor. Uses as many threads as there are processors.
+	 *
+	 * @param in
+	 *            the stream of compressed data
+	 */
+	public ParallelBZip2InputStream(InputStream in) {
+		this(in, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param in
+	 *            the stream of compressed data
+	 * @param threadCount
+	 *            the number of threads used for decompression
+	 */
+	public ParallelBZip2InputStream(InputStream in, int threadCount) {
+		super(in, threadCount);
+		start();
+	}
+
+	/**
+	 * Returns a stream that decompresses a bzip2 file starting from the block
+	 * at the given position. This does not require reading any of the data
+	 * before this block, provided that the given input stream supports
+	 * skipping efficiently (like file streams do).
+	 *
+	 * @param in
+	 *            the stream of the whole bzip2 file
+	 * @param blockBitOffset
+	 *            the position of the first bit of the block signature, e.g.,
+	 *            as reported to a {@link BlockListener}
+	 * @param threadCount
+	 *            the number of threads used for decompression
+	 * @return the stream of decompressed data from the given block onwards
+	 * @throws IOException
+	 *             if the input could not be read
+	 */
+	public static ParallelBZip2InputStream openAtBlock(InputStream in,
+			long blockBitOffset, int threadCount) throws IOException {
+		long toSkip = blockBitOffset / 8;
+		while (toSkip > 0) {
+			long skipped = in.skip(toSkip);
+			if (skipped <= 0) {
+				if (in.read() < 0) {
+					throw new EOFException("Block offset is beyond the end of the input.");
+				}
+				skipped = 1;
+			}
+			toSkip -= skipped;
+		}
+		InputStream header = new ByteArrayInputStream(
+				"BZh9".getBytes(StandardCharsets.US_ASCII));
+		return new ParallelBZip2InputStream(new SequenceInputStream(header,
+				new BitShiftInputStream(in, (int) (blockBitOffset % 8))),
+				threadCount);
+	}
+
+	/**
+	 * Sets a listener that is notified whenever the data of a new block is
+	 * returned. This should be set before reading from the stream.
+	 *
+	 * @param blockListener
+	 *            the listener, or null to remove the listener
+	 */
+	public void setBlockListener(BlockListener blockListener) {
+		this.blockListener = blockListener;
+	}
+
+	@Override
+	void chunkStarted(Chunk chunk, long chunkOutputOffset) {
+		if (this.blockListener != null) {
+			this.blockListener.blockStarted(chunk.inputBitOffset,
+					chunkOutputOffset);
+		}
+	}
+
+	@Override
+	Chunk readChunk() throws IOException {
+		if (this.inputExhausted) {
+			return null;
+		}
+
+		while (true) {
+			if (this.readBufferPosition >= this.readBufferLength) {
+				this.readBufferLength = this.in.read(this.readBuffer);
+				this.readBufferPosition = 0;
+				if (this.readBufferLength <= 0) {
+					this.inputExhausted = true;
+					return finalChunk();
+				}
+			}
+
+			byte b = this.readBuffer[this.readBufferPosition++];
+			appendToChunkBuffer(b);
+			this.window = (this.window << 8) | (b & 0xff);
+
+			if (!this.headerChecked && this.chunkBufferLength == 3) {
+				checkHeader();
+			}
+
+			// Check the signatures ending at each bit of the new byte:
+			for (int shift = 7; shift >= 0; shift--) {
+				long candidate = (this.window >>> shift) & MAGIC_MASK;
+				if (candidate == BLOCK_MAGIC || candidate == END_OF_STREAM_MAGIC) {
+					int magicStartBit = this.chunkBufferLength * 8 - shift - 48;
+					if (magicStartBit < 0) {
+						continue;
+					}
+					Chunk chunk = startNewChunk(magicStartBit);
+					if (chunk != null) {
+						return chunk;
+					}
+				}
+			}
+
+			if (this.chunkBufferLength > MAX_CHUNK_SIZE) {
+				throw new IOException(
+						"Could not find a bzip2 block boundary in the input.");
+			}
+		}
+	}
+
+	@Override
+	byte[] decompress(Chunk chunk) throws IOException {
+		if (chunk.bitLength < 48 + 32) {
+			throw new IOException("Incomplete bzip2 block.");
+		}
+		long magic = readBits(chunk.data, chunk.startBit, 48);
+		if (magic == END_OF_STREAM_MAGIC) {
+			if (chunk.bitLength > MAX_END_OF_STREAM_BITS) {
+				throw new IOException("Unexpected data after end of bzip2 stream.");
+			}
+			return new byte[0];
+		}
+
+		long blockCrc = readBits(chunk.data, chunk.startBit + 48, 32);
+
+		// Wrap the block into a stream of its own. For a single block, the
+		// combined stream checksum is the same as the block checksum.
+		BitWriter writer = new BitWriter(
+				(int) ((chunk.bitLength + 7) / 8) + 4 + 11);
+		writer.writeBits('B', 8);
+		writer.writeBits('Z', 8);
+		writer.writeBits('h', 8);
+		writer.writeBits('9', 8);
+		writer.copyBits(chunk.data, chunk.startBit, chunk.bitLength);
+		writer.writeBits(END_OF_STREAM_MAGIC, 48);
+		writer.writeBits(blockCrc, 32);
+
+		try (InputStream blockStream = new BZip2CompressorInputStream(
+				new ByteArrayInputStream(writer.toByteArray()))) {
+			return blockStream.readAllBytes();
+		}
+	}
+
+	/**
+	 * Checks that the input starts with a bzip2 stream header.
+	 *
+	 * @throws IOException
+	 *             if the header is not found
+	 */
+	void checkHeader() throws IOException {
+		if (this.chunkBuffer[0] != 'B' || this.chunkBuffer[1] != 'Z'
+				|| this.chunkBuffer[2] != 'h') {
+			throw new IOException("Stream is not in the BZip2 format");
+		}
+		this.headerChecked = true;
+	}
+
+	/**
+	 * Starts a new chunk at the given bit of the chunk buffer and returns the
+	 * previous chunk, if any.
+	 *
+	 * @param startBit
+	 *            position of the signature in the chunk buffer
+	 * @return the chunk that ends before the signature, or null if this is the
+	 *         first signature
+	 */
+	Chunk startNewChunk(int startBit) {
+		Chunk result = null;
+		if (this.chunkStartBit >= 0) {
+			int endByte = (startBit + 7) / 8;
+			result = new Chunk(Arrays.copyOf(this.chunkBuffer, endByte),
+					this.chunkStartBit, startBit - this.chunkStartBit, false,
+					8 * this.chunkBufferOffset + this.chunkStartBit);
+		}
+
+		int startByte = startBit / 8;
+		this.chunkBufferOffset += startByte;
+		this.chunkBufferLength -= startByte;
+		System.arraycopy(this.chunkBuffer, startByte, this.chunkBuffer, 0,
+				this.chunkBufferLength);
+		this.chunkStartBit = startBit % 8;
+		return result;
+	}
+
+	/**
+	 * Returns the chunk that ends with the input.
+	 *
+	 * @return the last chunk
+	 * @throws IOException
+	 *             if the input did not contain any bzip2 data
+	 */
+	Chunk finalChunk() throws IOException {
+		if (this.chunkStartBit < 0) {
+			if (this.chunkBufferLength == 0) {
+				return null;
+			}
+			throw new IOException("Stream is not in the BZip2 format");
+		}
+		return new Chunk(Arrays.copyOf(this.chunkBuffer,
+				this.chunkBufferLength), this.chunkStartBit,
+				this.chunkBufferLength * 8L - this.chunkStartBit, false,
+				8 * this.chunkBufferOffset + this.chunkStartBit);
+	}
+
+	void appendToChunkBuffer(byte b) {
+		if (this.chunkBufferLength == this.chunkBuffer.length) {
+			this.chunkBuffer = Arrays.copyOf(this.chunkBuffer,
+					2 * this.chunkBuffer.length);
+		}
+		this.chunkBuffer[this.chunkBufferLength++] = b;
+	}
+
+	/**
+	 * Reads up to 64 bits from the given position of a byte array, starting
+	 * with the most significant bit of each byte.
+	 *
+	 * @param data
+	 *            the array to read from
+	 * @param bitPosition
+	 *            the position of the first bit
+	 * @param count
+	 *            the number of bits to read
+	 * @return the bits as a number
+	 */
+	static long readBits(byte[] data, long bitPosition, int count) {
+		long result = 0;
+		for (int i = 0; i < count; i++) {
+			long position = bitPosition + i;
+			int bit = (data[(int) (position >>> 3)] >>> (7 - (position & 7))) & 1;
+			result = (result << 1) | bit;
+		}
+		return result;
+	}
+
+	/**
+	 * Input stream that drops the given number of leading bits from another
+	 * stream, so that the remaining bits are aligned to bytes again. The last
+	 * byte is padded with zeros.
+	 */
+	static class BitShiftInputStream extends InputStream {
+		final InputStream in;
+		final int shift;
+		final byte[] buffer = new byte[1 << 16];
+		/**
+		 * The next byte of the input, or -1 if the input is exhausted.
+		 */
+		int next;
+
+		BitShiftInputStream(InputStream in, int shift) throws IOException {
+			this.in = in;
+			this.shift = shift;
+			this.next = shift == 0 ? 0 : in.read();
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			int count = read(b, 0, 1);
+			return count <= 0 ? -1 : (b[0] & 0xff);
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (this.shift == 0) {
+				return this.in.read(b, off, len);
+			}
+			if (this.next < 0) {
+				return -1;
+			}
+			int count = this.in.read(this.buffer, 0,
+					Math.min(len, this.buffer.length));
+			if (count <= 0) {
+				b[off] = (byte) (this.next << this.shift);
+				this.next = -1;
+				return 1;
+			}
+			for (int i = 0; i < count; i++) {
+				int value = this.buffer[i] & 0xff;
+				b[off + i] = (byte) ((this.next << this.shift) | (value >>> (8 - this.shift)));
+				this.next = value;
+			}
+			return count;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.in.close();
+		}
+	}
+
+	/**
+	 * Simple helper for writing bit sequences to a byte array, starting with
+	 * the most significant bit of each byte.
+	 */
+	static class BitWriter {
+		byte[] buffer;
+		long bitPosition = 0;
+
+		BitWriter(int initialSize) {
+			this.buffer = new byte[initialSize];
+		}
+
+		void writeBits(long value, int count) {
+			for (int i = count - 1; i >= 0; i--) {
+				writeBit((int) (value >>> i) & 1);
+			}
+		}
+
+		void writeBit(int bit) {
+			int index = (int) (this.bitPosition >>> 3);
+			ensureCapacity(index + 1);
+			if (bit != 0) {
+				this.buffer[index] |= (byte) (0x80 >>> (this.bitPosition & 7));
+			}
+			this.bitPosition++;
+		}
+
+		/**
+		 * Appends a range of bits from the given array. Whole bytes are copied
+		 * at once, so this is much faster than writing single bits.
+		 */
+		void copyBits(byte[] data, long startBit, long count) {
+			long end = startBit + count;
+			long position = startBit;
+			while (position < end && (position & 7) != 0) {
+				writeBit((data[(int) (position >>> 3)] >>> (7 - (position & 7))) & 1);
+				position++;
+			}
+
+			int shift = (int) (this.bitPosition & 7);
+			int index = (int) (this.bitPosition >>> 3);
+			int fullBytes = (int) ((end - position) >>> 3);
+			ensureCapacity(index + fullBytes + 1);
+			int source = (int) (position >>> 3);
+			for (int i = 0; i < fullBytes; i++) {
+				int value = data[source + i] & 0xff;
+				this.buffer[index + i] |= (byte) (value >>> shift);
+				if (shift != 0) {
+					this.buffer[index + i + 1] = (byte) (value << (8 - shift));
+				}
+			}
+			this.bitPosition += 8L * fullBytes;
+			position += 8L * fullBytes;
+
+			while (position < end) {
+				writeBit((data[(int) (position >>> 3)] >>> (7 - (position & 7))) & 1);
+				position++;
+			}
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(this.buffer, (int) ((this.bitPosition + 7) >>> 3));
+		}
+
+		private void ensureCapacity(int size) {
+			if (size > this.buffer.length) {
+				this.buffer = Arrays.copyOf(this.buffer,
+						Math.max(size, 2 * this.buffer.length));
+			}
+		}
+	}
+}
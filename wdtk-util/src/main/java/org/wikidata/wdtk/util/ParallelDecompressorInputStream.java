@@ -0,0 +1,440 @@
+package org.wikidata.wdtk.util;
+
+/*
+ * #%L
+ * Wikidata Toolkit Utilities
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for input streams that decompress data on several threads. The
+ * compressed input is read by one thread that splits it into independent
+ * chunks (e.g., compression blocks or archive members). These chunks are
+ * decompressed by a pool of worker threads, and the results are returned by
+ * this stream in their original order.
+ * <p>
+ * Chunk boundaries are detected heuristically by searching for signature bit
+ * patterns, which may also occur by chance inside compressed data. If a chunk
+ * cannot be decompressed, it is therefore joined with the following chunk and
+ * decompressed again, until the data is decoded or it is clear that the input
+ * is corrupted.
+ * <p>
+ * All threads are daemon threads. The worker threads are released when the
+ * input has been split completely, or when they have been idle for
+ * {@link #IDLE_THREAD_TIMEOUT_SECONDS}, so that a stream that is abandoned
+ * without closing it does not keep them alive.
+ */
+abstract class ParallelDecompressorInputStream extends InputStream {
+
+	/**
+	 * Maximal number of chunks that are joined when trying to recover from a
+	 * chunk that could not be decompressed.
+	 */
+	static final int MAX_JOINED_CHUNKS = 64;
+
+	/**
+	 * Number of bytes read from the underlying stream at once.
+	 */
+	static final int READ_BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Number of seconds after which idle worker threads are released.
+	 */
+	static final long IDLE_THREAD_TIMEOUT_SECONDS = 10;
+
+	/**
+	 * A piece of compressed data. The data is given as a range of bits in a
+	 * byte array, since some formats do not align their blocks to bytes.
+	 */
+	static class Chunk {
+		final byte[] data;
+		/**
+		 * Index of the first bit of the chunk in the first byte, counting from
+		 * the most significant bit.
+		 */
+		final int startBit;
+		/**
+		 * Total number of bits in the chunk.
+		 */
+		final long bitLength;
+		/**
+		 * If true, this chunk is only the start of the remaining input, which
+		 * has to be decompressed sequentially.
+		 */
+		final boolean tail;
+		/**
+		 * Position of the first bit of the chunk in the whole input.
+		 */
+		final long inputBitOffset;
+
+		Chunk(byte[] data, int startBit, long bitLength, boolean tail) {
+			this(data, startBit, bitLength, tail, 0);
+		}
+
+		Chunk(byte[] data, int startBit, long bitLength, boolean tail,
+				long inputBitOffset) {
+			this.data = data;
+			this.startBit = startBit;
+			this.bitLength = bitLength;
+			this.tail = tail;
+			this.inputBitOffset = inputBitOffset;
+		}
+
+		/**
+		 * Returns a chunk that consists of this chunk followed by the given
+		 * chunk. It is assumed that the chunks are adjacent in the input, so
+		 * that the last byte of this chunk is the first byte of the next chunk
+		 * if the boundary is not byte-aligned.
+		 *
+		 * @param next
+		 *            the chunk that follows this one in the input
+		 * @return the combined chunk
+		 */
+		Chunk join(Chunk next) {
+			int overlap = (this.startBit + this.bitLength) % 8 == 0 ? 0 : 1;
+			int length = this.data.length - overlap;
+			byte[] joined = Arrays.copyOf(this.data, length + next.data.length);
+			System.arraycopy(next.data, 0, joined, length, next.data.length);
+			return new Chunk(joined, this.startBit, this.bitLength
+					+ next.bitLength, next.tail, this.inputBitOffset);
+		}
+	}
+
+	/**
+	 * A chunk together with the pending result of its decompression. Special
+	 * tasks without chunks mark the end of the input or an error.
+	 */
+	static class Task {
+		final Chunk chunk;
+		final Future<byte[]> result;
+		final IOException error;
+
+		Task(Chunk chunk, Future<byte[]> result, IOException error) {
+			this.chunk = chunk;
+			this.result = result;
+			this.error = error;
+		}
+
+		boolean isEnd() {
+			return this.chunk == null && this.error == null;
+		}
+	}
+
+	static final Task END = new Task(null, null, null);
+
+	final InputStream in;
+	final ExecutorService executor;
+	final BlockingQueue<Task> tasks;
+	final Thread splitterThread;
+
+	byte[] current = new byte[0];
+	int position = 0;
+	/**
+	 * Number of decompressed bytes that were returned before the current
+	 * chunk.
+	 */
+	long outputOffset = 0;
+	InputStream tailStream = null;
+	boolean finished = false;
+	volatile boolean closed = false;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param in
+	 *            the stream of compressed data
+	 * @param threadCount
+	 *            the number of threads used for decompression
+	 */
+	ParallelDecompressorInputStream(InputStream in, int threadCount) {
+		if (threadCount < 1) {
+			throw new IllegalArgumentException(
+					"The number of decompression threads must be positive.");
+		}
+		this.in = in;
+		ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+				threadCount, threadCount, IDLE_THREAD_TIMEOUT_SECONDS,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "wdtk-decompressor");
+					thread.setDaemon(true);
+					return thread;
+				});
+		threadPoolExecutor.allowCoreThreadTimeOut(true);
+		this.executor = threadPoolExecutor;
+		this.tasks = new ArrayBlockingQueue<>(2 * threadCount);
+		this.splitterThread = new Thread(this::splitInput, "wdtk-decompressor-splitter");
+		this.splitterThread.setDaemon(true);
+	}
+
+	/**
+	 * Starts reading the input. Subclasses must call this at the end of their
+	 * constructor, once all fields used by {@link #readChunk()} are set.
+	 */
+	void start() {
+		this.splitterThread.start();
+	}
+
+	/**
+	 * Reads the next chunk from the input stream {@link #in}. This is only
+	 * called from the splitter thread.
+	 *
+	 * @return the next chunk or null if the input is exhausted
+	 * @throws IOException
+	 *             if the input could not be read or is malformed
+	 */
+	abstract Chunk readChunk() throws IOException;
+
+	/**
+	 * Decompresses the given chunk. This is called from several threads in
+	 * parallel.
+	 *
+	 * @param chunk
+	 *            the chunk to decompress
+	 * @return the decompressed data
+	 * @throws IOException
+	 *             if the chunk is not a valid compressed unit
+	 */
+	abstract byte[] decompress(Chunk chunk) throws IOException;
+
+	/**
+	 * Returns a stream that sequentially decompresses data that starts with the
+	 * given tail chunk and continues with the rest of the input. This is used
+	 * when the input could not be split further.
+	 *
+	 * @param data
+	 *            the stream of the compressed data
+	 * @return the stream of decompressed data
+	 * @throws IOException
+	 *             if the decompressor could not be created
+	 */
+	InputStream decompressSequentially(InputStream data) throws IOException {
+		throw new IOException("Sequential decompression is not supported.");
+	}
+
+	/**
+	 * Called when the decompressed data of a chunk is about to be returned by
+	 * this stream. Chunks that were joined after a decompression error are
+	 * reported as one chunk. This is called from the thread that reads from
+	 * this stream.
+	 *
+	 * @param chunk
+	 *            the chunk, which is not empty and not a tail chunk
+	 * @param chunkOutputOffset
+	 *            the number of decompressed bytes before this chunk
+	 */
+	void chunkStarted(Chunk chunk, long chunkOutputOffset) {
+	}
+
+	/**
+	 * Main method of the splitter thread.
+	 */
+	void splitInput() {
+		try {
+			Chunk chunk = readChunk();
+			while (chunk != null && !this.closed) {
+				if (chunk.tail) {
+					this.tasks.put(new Task(chunk, null, null));
+					return;
+				}
+				final Chunk submitted = chunk;
+				this.tasks.put(new Task(chunk, this.executor
+						.submit(() -> decompress(submitted)), null));
+				chunk = readChunk();
+			}
+			this.tasks.put(END);
+		} catch (IOException e) {
+			putError(e);
+		} catch (RuntimeException e) {
+			putError(new IOException(e.toString(), e));
+		} catch (InterruptedException e) {
+			// closed while waiting; nobody reads the queue any more
+		} finally {
+			// no more chunks are submitted; let the workers finish and exit
+			this.executor.shutdown();
+		}
+	}
+
+	private void putError(IOException e) {
+		try {
+			this.tasks.put(new Task(null, null, e));
+		} catch (InterruptedException e1) {
+			// closed while waiting; nobody reads the queue any more
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] b = new byte[1];
+		int count = read(b, 0, 1);
+		return count <= 0 ? -1 : (b[0] & 0xff);
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		while (this.position >= this.current.length) {
+			if (this.tailStream != null) {
+				return this.tailStream.read(b, off, len);
+			}
+			if (this.finished || !nextChunk()) {
+				return -1;
+			}
+		}
+		int count = Math.min(len, this.current.length - this.position);
+		System.arraycopy(this.current, this.position, b, off, count);
+		this.position += count;
+		return count;
+	}
+
+	@Override
+	public int available() throws IOException {
+		if (this.tailStream != null && this.position >= this.current.length) {
+			return this.tailStream.available();
+		}
+		return this.current.length - this.position;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.closed = true;
+		this.splitterThread.interrupt();
+		this.executor.shutdownNow();
+		if (this.tailStream != null) {
+			this.tailStream.close();
+		}
+		this.in.close();
+	}
+
+	/**
+	 * Makes the decompressed data of the next chunk available as
+	 * {@link #current}.
+	 *
+	 * @return false if there are no more chunks
+	 * @throws IOException
+	 *             if the data could not be decompressed
+	 */
+	boolean nextChunk() throws IOException {
+		if (this.closed) {
+			throw new IOException("Stream closed");
+		}
+		Task task = takeTask();
+		if (task.isEnd()) {
+			this.finished = true;
+			return false;
+		}
+		if (task.chunk.tail) {
+			startTail(task.chunk);
+			return true;
+		}
+
+		IOException failure;
+		try {
+			setCurrent(task.chunk, task.result.get());
+			return true;
+		} catch (ExecutionException e) {
+			failure = toIOException(e.getCause());
+		} catch (InterruptedException e) {
+			throw interrupted();
+		}
+
+		// The chunk could not be decoded; maybe we split at a signature that
+		// occurred only by chance. Try again with the next chunks appended.
+		Chunk joined = task.chunk;
+		for (int i = 1; i < MAX_JOINED_CHUNKS; i++) {
+			Task next = takeTask();
+			if (next.isEnd()) {
+				throw failure;
+			}
+			if (next.result != null) {
+				next.result.cancel(false);
+			}
+			joined = joined.join(next.chunk);
+			if (joined.tail) {
+				startTail(joined);
+				return true;
+			}
+			try {
+				setCurrent(joined, decompress(joined));
+				return true;
+			} catch (IOException e) {
+				failure = e;
+			}
+		}
+		throw failure;
+	}
+
+	private Task takeTask() throws IOException {
+		Task task;
+		try {
+			task = this.tasks.take();
+		} catch (InterruptedException e) {
+			throw interrupted();
+		}
+		if (task.error != null) {
+			throw new IOException(task.error.getMessage(), task.error);
+		}
+		return task;
+	}
+
+	private void setCurrent(Chunk chunk, byte[] data) {
+		this.outputOffset += this.current.length;
+		this.current = data;
+		this.position = 0;
+		if (data.length > 0) {
+			chunkStarted(chunk, this.outputOffset);
+		}
+	}
+
+	private void startTail(Chunk chunk) throws IOException {
+		this.outputOffset += this.current.length;
+		this.current = new byte[0];
+		this.position = 0;
+		this.tailStream = decompressSequentially(new SequenceInputStream(
+				new ByteArrayInputStream(chunk.data), this.in));
+	}
+
+	private static IOException toIOException(Throwable cause) {
+		if (cause instanceof IOException) {
+			return (IOException) cause;
+		} else {
+			return new IOException(cause.toString(), cause);
+		}
+	}
+
+	private static IOException interrupted() {
+		Thread.currentThread().interrupt();
+		return new InterruptedIOException(
+				"Interrupted while waiting for decompressed data");
+	}
+}
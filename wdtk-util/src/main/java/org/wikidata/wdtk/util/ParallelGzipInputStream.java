@@ -0,0 +1,172 @@
+package org.wikidata.wdtk.util;
+
+/*
+ * #%L
+ * Wikidata Toolkit Utilities
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Input stream that decompresses gzip data on several threads. This only
+ * helps for files that consist of many concatenated gzip members, as created
+ * by parallel compressors such as pigz or in the BGZF format. Several
+ * consecutive members are grouped into chunks of about
+ * {@link #TARGET_CHUNK_SIZE} bytes, which are then decompressed independently.
+ * <p>
+ * Ordinary gzip files consist of a single member that can only be
+ * decompressed sequentially. If no member boundary is found within the first
+ * {@link #MAX_CHUNK_SIZE} bytes of a chunk, the rest of the input is therefore
+ * decompressed with a {@link GZIPInputStream} as usual.
+ */
+public class ParallelGzipInputStream extends ParallelDecompressorInputStream {
+
+	/**
+	 * Chunks are cut at the first member boundary after this many bytes.
+	 */
+	static final int TARGET_CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * If a chunk grows larger than this, the remaining input is decompressed
+	 * sequentially.
+	 */
+	static final int MAX_CHUNK_SIZE = 16 << 20;
+
+	final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+	int readBufferLength = 0;
+	int readBufferPosition = 0;
+
+	byte[] chunkBuffer = new byte[2 * TARGET_CHUNK_SIZE];
+	int chunkBufferLength = 0;
+	/**
+	 * The last four bytes that have been read.
+	 */
+	int window = 0;
+	boolean inputExhausted = false;
+
+	/**
+	 * Constructor. Uses as many threads as there are processors.
+	 *
+	 * @param in
+	 *            the stream of compressed data
+	 */
+	public ParallelGzipInputStream(InputStream in) {
+		this(in, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param in
+	 *            the stream of compressed data
+	 * @param threadCount
+	 *            the number of threads used for decompression
+	 */
+	public ParallelGzipInputStream(InputStream in, int threadCount) {
+		super(in, threadCount);
+		start();
+	}
+
+	@Override
+	Chunk readChunk() throws IOException {
+		if (this.inputExhausted) {
+			return null;
+		}
+
+		while (true) {
+			if (this.readBufferPosition >= this.readBufferLength) {
+				this.readBufferLength = this.in.read(this.readBuffer);
+				this.readBufferPosition = 0;
+				if (this.readBufferLength <= 0) {
+					this.inputExhausted = true;
+					if (this.chunkBufferLength == 0) {
+						return null;
+					}
+					return cutChunk(this.chunkBufferLength, false);
+				}
+			}
+
+			byte b = this.readBuffer[this.readBufferPosition++];
+			appendToChunkBuffer(b);
+			this.window = (this.window << 8) | (b & 0xff);
+
+			// A member starts with the magic bytes 0x1f 0x8b, the compression
+			// method 8 (deflate), and a flag byte with reserved bits unset.
+			if ((this.window & 0xffffff00) == 0x1f8b0800
+					&& (this.window & 0xe0) == 0
+					&& this.chunkBufferLength - 4 >= TARGET_CHUNK_SIZE) {
+				return cutChunk(this.chunkBufferLength - 4, false);
+			}
+
+			if (this.chunkBufferLength > MAX_CHUNK_SIZE) {
+				// Hand over all data read so far; the rest of the input will
+				// be read by the sequential decompressor.
+				while (this.readBufferPosition < this.readBufferLength) {
+					appendToChunkBuffer(this.readBuffer[this.readBufferPosition++]);
+				}
+				this.inputExhausted = true;
+				return cutChunk(this.chunkBufferLength, true);
+			}
+		}
+	}
+
+	@Override
+	byte[] decompress(Chunk chunk) throws IOException {
+		try (InputStream memberStream = new GZIPInputStream(
+				new ByteArrayInputStream(chunk.data))) {
+			return memberStream.readAllBytes();
+		}
+	}
+
+	@Override
+	InputStream decompressSequentially(InputStream data) throws IOException {
+		return new GZIPInputStream(data);
+	}
+
+	/**
+	 * Returns the first bytes of the chunk buffer as a chunk, and keeps the
+	 * remaining bytes as the start of the next chunk.
+	 *
+	 * @param length
+	 *            the number of bytes in the chunk
+	 * @param tail
+	 *            true if the chunk should be decompressed together with the
+	 *            rest of the input
+	 * @return the chunk
+	 */
+	Chunk cutChunk(int length, boolean tail) {
+		Chunk result = new Chunk(Arrays.copyOf(this.chunkBuffer, length), 0,
+				8L * length, tail);
+		this.chunkBufferLength -= length;
+		System.arraycopy(this.chunkBuffer, length, this.chunkBuffer, 0,
+				this.chunkBufferLength);
+		return result;
+	}
+
+	void appendToChunkBuffer(byte b) {
+		if (this.chunkBufferLength == this.chunkBuffer.length) {
+			this.chunkBuffer = Arrays.copyOf(this.chunkBuffer,
+					2 * this.chunkBuffer.length);
+		}
+		this.chunkBuffer[this.chunkBufferLength++] = b;
+	}
+}
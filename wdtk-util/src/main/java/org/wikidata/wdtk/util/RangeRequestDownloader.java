@@ -0,0 +1,758 @@
+package org.wikidata.wdtk.util;
+
+/*
+ * #%L
+ * Wikidata Toolkit Utilities
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Downloads large files over HTTP with several parallel range requests and
+ * can resume interrupted downloads. The file is split into pieces of a fixed
+ * size, which are fetched by a number of worker threads and written to their
+ * place in a preallocated file with the suffix {@value #PART_SUFFIX}. Every
+ * completed piece is recorded in a small progress file with the suffix
+ * {@value #PROGRESS_SUFFIX}, so that a later call for the same target only
+ * fetches the pieces that are still missing, provided that the length and
+ * the ETag or modification date of the remote file are unchanged. Failed
+ * pieces are retried a few times before the download is given up. If the
+ * remote file changes during the download, the download is started again.
+ * <p>
+ * If an MD5 checksum is given, it is computed while the download runs: as
+ * soon as a piece and all pieces before it are complete, it is read back
+ * from the file (usually from the operating system's cache) and added to the
+ * checksum by one of the workers, while the others continue to fetch. When
+ * the download of a file with a wrong checksum completes, the partial file
+ * and the progress are deleted and an exception is thrown.
+ * <p>
+ * Servers that do not announce support for range requests in their response
+ * to a HEAD request, or do not report the length of the file, are handled
+ * with a single request, as by {@link DirectoryManager#createFileAtomic(String,
+ * java.io.InputStream)}. Connections are opened with
+ * {@link WebResourceFetcherImpl#getUrlConnection(URL)}, so the configured
+ * user agent and proxy are used.
+ */
+public class RangeRequestDownloader {
+
+	static final Logger logger = LoggerFactory
+			.getLogger(RangeRequestDownloader.class);
+
+	/**
+	 * Suffix of the file that receives the data until the download is
+	 * complete. It differs from the suffix of the temporary files of
+	 * {@link DirectoryManagerImpl}, so that a download with a single request
+	 * never writes to the file of a range download.
+	 */
+	public static final String PART_SUFFIX = ".ranges.part";
+
+	/**
+	 * Suffix of the file that records which pieces of the
+	 * {@value #PART_SUFFIX} file are complete.
+	 */
+	public static final String PROGRESS_SUFFIX = ".ranges.progress";
+
+	static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Number of times that a download is started again because the remote
+	 * file changed, before giving up.
+	 */
+	static final int MAX_RESTARTS = 2;
+
+	int parallelRequests = 2;
+	long pieceSize = 32L * 1024 * 1024;
+	int maxRetries = 5;
+	long retryDelay = 1000;
+
+	/**
+	 * Returns the number of range requests that are run in parallel.
+	 *
+	 * @return number of parallel requests
+	 */
+	public int getParallelRequests() {
+		return this.parallelRequests;
+	}
+
+	/**
+	 * Sets the number of range requests that are run in parallel. The default
+	 * is 2. Public dump mirrors often limit the number of connections per
+	 * client, so large values are not useful.
+	 *
+	 * @param parallelRequests
+	 *            number of parallel requests
+	 */
+	public void setParallelRequests(int parallelRequests) {
+		if (parallelRequests < 1) {
+			throw new IllegalArgumentException(
+					"The number of parallel requests must be positive.");
+		}
+		this.parallelRequests = parallelRequests;
+	}
+
+	/**
+	 * Returns the size of the pieces that are fetched with one range request.
+	 *
+	 * @return piece size in bytes
+	 */
+	public long getPieceSize() {
+		return this.pieceSize;
+	}
+
+	/**
+	 * Sets the size of the pieces that are fetched with one range request. The
+	 * default is 32MiB. An interrupted download loses at most one piece per
+	 * parallel request. Changing the piece size makes the progress of earlier
+	 * interrupted downloads unusable.
+	 *
+	 * @param pieceSize
+	 *            piece size in bytes
+	 */
+	public void setPieceSize(long pieceSize) {
+		if (pieceSize < 1) {
+			throw new IllegalArgumentException(
+					"The piece size must be positive.");
+		}
+		this.pieceSize = pieceSize;
+	}
+
+	/**
+	 * Sets how often the request for a piece is repeated after a failure, and
+	 * how long to wait before the first repetition. The wait time doubles for
+	 * each further repetition. The defaults are 5 retries and 1000ms.
+	 *
+	 * @param maxRetries
+	 *            number of retries per piece
+	 * @param retryDelay
+	 *            wait time before the first retry in milliseconds
+	 */
+	public void setRetries(int maxRetries, long retryDelay) {
+		if (maxRetries < 0 || retryDelay < 0) {
+			throw new IllegalArgumentException(
+					"Retries and delay cannot be negative.");
+		}
+		this.maxRetries = maxRetries;
+		this.retryDelay = retryDelay;
+	}
+
+	/**
+	 * Downloads the file at the given URL to the given path, resuming an
+	 * earlier interrupted download to the same path if possible. The target
+	 * file only appears once it is complete and has been verified.
+	 *
+	 * @param urlString
+	 *            the URL to fetch
+	 * @param target
+	 *            the file to create or replace
+	 * @param expectedMd5
+	 *            the expected MD5 checksum as a hexadecimal string, or null
+	 *            if the download should not be verified
+	 * @return the size of the file in bytes
+	 * @throws IOException
+	 *             if the download failed or the checksum did not match; the
+	 *             progress made so far is kept unless the checksum was wrong
+	 */
+	public long download(String urlString, Path target, String expectedMd5)
+			throws IOException {
+		URL url = new URL(urlString);
+		for (int restarts = 0;; restarts++) {
+			try {
+				return downloadOnce(url, target, expectedMd5);
+			} catch (RemoteFileChangedException e) {
+				Files.deleteIfExists(siblingPath(target, PART_SUFFIX));
+				Files.deleteIfExists(siblingPath(target, PROGRESS_SUFFIX));
+				if (restarts >= MAX_RESTARTS) {
+					throw e;
+				}
+				logger.warn("{} changed during the download; starting again.",
+						urlString);
+			}
+		}
+	}
+
+	/**
+	 * Downloads the file once, as described for
+	 * {@link #download(String, Path, String)}.
+	 *
+	 * @throws RemoteFileChangedException
+	 *             if the remote file changed during the download
+	 */
+	long downloadOnce(URL url, Path target, String expectedMd5)
+			throws IOException {
+		String urlString = url.toString();
+		RemoteFile remote = probe(url);
+		if (remote == null) {
+			logger.debug("Server does not support range requests for {}; using a single request.",
+					urlString);
+			return downloadSequentially(url, target, expectedMd5);
+		}
+
+		Path partFile = siblingPath(target, PART_SUFFIX);
+		Path progressFile = siblingPath(target, PROGRESS_SUFFIX);
+		Progress progress = Progress.load(progressFile);
+		if (progress == null || !progress.matches(remote, this.pieceSize)
+				|| !Files.exists(partFile)
+				|| Files.size(partFile) < progress.getCompleteLength()) {
+			progress = new Progress(remote, this.pieceSize);
+			Files.deleteIfExists(partFile);
+		} else {
+			logger.info("Resuming download of {} with {} of {} pieces already complete.",
+					urlString, progress.countDone(), progress.pieceCount);
+		}
+
+		try (FileChannel channel = FileChannel.open(partFile,
+				StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			preallocate(channel, remote.length);
+			ChecksumUpdater checksum = expectedMd5 == null ? null
+					: new ChecksumUpdater(channel, progress);
+			if (checksum != null) {
+				checksum.advance();
+			}
+			fetchMissingPieces(url, channel, progress, progressFile, checksum);
+			channel.force(false);
+
+			if (checksum != null) {
+				String actualMd5 = checksum.finish();
+				if (!actualMd5.equalsIgnoreCase(expectedMd5)) {
+					channel.close();
+					Files.deleteIfExists(partFile);
+					Files.deleteIfExists(progressFile);
+					throw new IOException("MD5 checksum of " + urlString
+							+ " is " + actualMd5 + " but should be "
+							+ expectedMd5 + ".");
+				}
+			}
+		}
+
+		Files.move(partFile, target, StandardCopyOption.REPLACE_EXISTING);
+		Files.deleteIfExists(progressFile);
+		return remote.length;
+	}
+
+	/**
+	 * Thrown if the server answers a range request with the whole file,
+	 * because the file changed since the download was started. Such a
+	 * request is not retried, since all pieces have to be fetched again.
+	 */
+	static class RemoteFileChangedException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		RemoteFileChangedException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * Length and version of a file on a server that accepts range requests.
+	 */
+	static class RemoteFile {
+		final long length;
+		/**
+		 * ETag or, if not available, modification date of the file; empty if
+		 * the server provides neither.
+		 */
+		final String version;
+
+		RemoteFile(long length, String version) {
+			this.length = length;
+			this.version = version;
+		}
+	}
+
+	/**
+	 * Sends a HEAD request for the given URL and returns the length and
+	 * version of the file if the server supports range requests for it.
+	 *
+	 * @return information about the file, or null if it has to be fetched
+	 *         with a single request
+	 */
+	RemoteFile probe(URL url) throws IOException {
+		URLConnection connection = WebResourceFetcherImpl.getUrlConnection(url);
+		if (!(connection instanceof HttpURLConnection)) {
+			return null;
+		}
+		HttpURLConnection httpConnection = (HttpURLConnection) connection;
+		httpConnection.setRequestMethod("HEAD");
+		try {
+			if (httpConnection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+				return null;
+			}
+			long length = httpConnection.getContentLengthLong();
+			if (length <= 0 || !"bytes".equalsIgnoreCase(
+					httpConnection.getHeaderField("Accept-Ranges"))) {
+				return null;
+			}
+			String version = httpConnection.getHeaderField("ETag");
+			if (version == null) {
+				version = httpConnection.getHeaderField("Last-Modified");
+			}
+			return new RemoteFile(length, version == null ? "" : version);
+		} finally {
+			httpConnection.disconnect();
+		}
+	}
+
+	/**
+	 * Fetches all pieces that are not marked as done in the progress, using
+	 * the configured number of threads.
+	 */
+	void fetchMissingPieces(URL url, FileChannel channel, Progress progress,
+			Path progressFile, ChecksumUpdater checksum) throws IOException {
+		Queue<Integer> missing = new ConcurrentLinkedQueue<>();
+		for (int piece = 0; piece < progress.pieceCount; piece++) {
+			if (!progress.isDone(piece)) {
+				missing.add(piece);
+			}
+		}
+		if (missing.isEmpty()) {
+			return;
+		}
+
+		int threads = Math.min(this.parallelRequests, missing.size());
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Void>> workers = new ArrayList<>(threads);
+			for (int i = 0; i < threads; i++) {
+				workers.add(executor.submit(() -> {
+					Integer piece;
+					while ((piece = missing.poll()) != null) {
+						long start = piece * progress.pieceSize;
+						long end = Math.min(start + progress.pieceSize,
+								progress.length);
+						fetchPieceWithRetries(url, channel, start, end,
+								progress.version);
+						channel.force(false);
+						progress.markDone(piece, progressFile);
+						if (checksum != null) {
+							checksum.advance();
+						}
+					}
+					return null;
+				}));
+			}
+			IOException failure = null;
+			for (Future<Void> worker : workers) {
+				try {
+					worker.get();
+				} catch (ExecutionException e) {
+					// stop the other workers after the current piece
+					missing.clear();
+					if (failure == null) {
+						failure = e.getCause() instanceof IOException
+								? (IOException) e.getCause()
+								: new IOException(e.getCause());
+					}
+				} catch (InterruptedException e) {
+					missing.clear();
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException(
+							"Interrupted while downloading " + url);
+				}
+			}
+			if (failure != null) {
+				throw failure;
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	void fetchPieceWithRetries(URL url, FileChannel channel, long start,
+			long end, String version) throws IOException {
+		long delay = this.retryDelay;
+		for (int attempt = 0;; attempt++) {
+			try {
+				fetchPiece(url, channel, start, end, version);
+				return;
+			} catch (RemoteFileChangedException e) {
+				throw e;
+			} catch (IOException e) {
+				if (attempt >= this.maxRetries) {
+					throw e;
+				}
+				logger.warn("Failed to fetch bytes {}-{} of {} ({}); retrying in {}ms.",
+						start, end - 1, url, e.getMessage(), delay);
+			}
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException(
+						"Interrupted while downloading " + url);
+			}
+			delay *= 2;
+		}
+	}
+
+	/**
+	 * Fetches the bytes from start (inclusive) to end (exclusive) and writes
+	 * them to the same positions of the channel.
+	 */
+	void fetchPiece(URL url, FileChannel channel, long start, long end,
+			String version) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) WebResourceFetcherImpl
+				.getUrlConnection(url);
+		connection.setRequestProperty("Range", "bytes=" + start + "-"
+				+ (end - 1));
+		if (!version.isEmpty()) {
+			// the server answers with the whole file if it has changed
+			connection.setRequestProperty("If-Range", version);
+		}
+		try {
+			int responseCode = connection.getResponseCode();
+			if (responseCode == HttpURLConnection.HTTP_OK && !version.isEmpty()) {
+				throw new RemoteFileChangedException(url + " is no longer at version "
+						+ version + ".");
+			}
+			if (responseCode != HttpURLConnection.HTTP_PARTIAL) {
+				throw new IOException("Expected partial content for bytes "
+						+ start + "-" + (end - 1) + " but got HTTP status "
+						+ responseCode + ".");
+			}
+			String contentRange = connection.getHeaderField("Content-Range");
+			if (contentRange == null || !contentRange
+					.startsWith("bytes " + start + "-" + (end - 1) + "/")) {
+				throw new IOException("Unexpected content range "
+						+ contentRange + " for bytes " + start + "-"
+						+ (end - 1) + ".");
+			}
+			long position = start;
+			try (InputStream inputStream = connection.getInputStream()) {
+				byte[] buffer = new byte[BUFFER_SIZE];
+				int read;
+				while (position < end && (read = inputStream.read(buffer, 0,
+						(int) Math.min(buffer.length, end - position))) != -1) {
+					ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+					while (byteBuffer.hasRemaining()) {
+						position += channel.write(byteBuffer, position);
+					}
+				}
+			}
+			if (position != end) {
+				throw new IOException("Connection closed after "
+						+ (position - start) + " of " + (end - start)
+						+ " bytes.");
+			}
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	/**
+	 * Fallback for servers without range support: fetches the whole file with
+	 * one request, computing the checksum on the way.
+	 */
+	long downloadSequentially(URL url, Path target, String expectedMd5)
+			throws IOException {
+		Path partFile = siblingPath(target, PART_SUFFIX);
+		MessageDigest digest = newMd5Digest();
+		long size = 0;
+		try (InputStream inputStream = new DigestInputStream(
+				WebResourceFetcherImpl.getUrlConnection(url).getInputStream(),
+				digest);
+				OutputStream outputStream = Files.newOutputStream(partFile)) {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = inputStream.read(buffer)) != -1) {
+				outputStream.write(buffer, 0, read);
+				size += read;
+			}
+		}
+		if (expectedMd5 != null) {
+			String actualMd5 = toHex(digest.digest());
+			if (!actualMd5.equalsIgnoreCase(expectedMd5)) {
+				Files.deleteIfExists(partFile);
+				throw new IOException("MD5 checksum of " + url + " is "
+						+ actualMd5 + " but should be " + expectedMd5 + ".");
+			}
+		}
+		Files.move(partFile, target, StandardCopyOption.REPLACE_EXISTING);
+		return size;
+	}
+
+	/**
+	 * Extends or truncates the channel to the given length without writing
+	 * the data in between, which creates a sparse file on most file systems.
+	 */
+	static void preallocate(FileChannel channel, long length)
+			throws IOException {
+		long size = channel.size();
+		if (size > length) {
+			channel.truncate(length);
+		} else if (size < length) {
+			channel.write(ByteBuffer.wrap(new byte[1]), length - 1);
+		}
+	}
+
+	static Path siblingPath(Path target, String suffix) {
+		return target.resolveSibling(target.getFileName().toString() + suffix);
+	}
+
+	static MessageDigest newMd5Digest() {
+		try {
+			return MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform has to support MD5
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static String toHex(byte[] bytes) {
+		StringBuilder builder = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			builder.append(Character.forDigit((b >> 4) & 0xf, 16))
+					.append(Character.forDigit(b & 0xf, 16));
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Computes the checksum of the pieces in order, as far as they are
+	 * complete. Only one thread reads pieces for the checksum at a time; other
+	 * threads that call {@link #advance()} meanwhile return at once, and the
+	 * pieces they completed are added by the reading thread.
+	 */
+	static class ChecksumUpdater {
+		final FileChannel channel;
+		final Progress progress;
+		final MessageDigest digest = newMd5Digest();
+		final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		/**
+		 * True while a thread reads pieces for the checksum.
+		 */
+		final AtomicBoolean advancing = new AtomicBoolean(false);
+		volatile int nextPiece = 0;
+
+		ChecksumUpdater(FileChannel channel, Progress progress) {
+			this.channel = channel;
+			this.progress = progress;
+		}
+
+		/**
+		 * Adds all complete pieces that directly follow the pieces added
+		 * before, unless another thread is doing this already.
+		 */
+		void advance() throws IOException {
+			// check again after giving up the flag, since a piece may have
+			// been completed by a thread that found the flag taken
+			while (hasNextPiece() && this.advancing.compareAndSet(false, true)) {
+				try {
+					while (hasNextPiece()) {
+						addPiece(this.nextPiece);
+						this.nextPiece++;
+					}
+				} finally {
+					this.advancing.set(false);
+				}
+			}
+		}
+
+		boolean hasNextPiece() {
+			int piece = this.nextPiece;
+			return piece < this.progress.pieceCount
+					&& this.progress.isDone(piece);
+		}
+
+		void addPiece(int piece) throws IOException {
+			long position = piece * this.progress.pieceSize;
+			long end = Math.min(position + this.progress.pieceSize,
+					this.progress.length);
+			while (position < end) {
+				this.buffer.clear();
+				this.buffer.limit((int) Math.min(this.buffer.capacity(),
+						end - position));
+				int read = this.channel.read(this.buffer, position);
+				if (read < 0) {
+					throw new IOException("Unexpected end of file.");
+				}
+				this.buffer.flip();
+				this.digest.update(this.buffer);
+				position += read;
+			}
+		}
+
+		/**
+		 * Adds the remaining pieces and returns the checksum. This must only
+		 * be called when no other thread uses this object any more.
+		 */
+		String finish() throws IOException {
+			advance();
+			if (this.nextPiece < this.progress.pieceCount) {
+				throw new IOException("Download is incomplete.");
+			}
+			return toHex(this.digest.digest());
+		}
+	}
+
+	/**
+	 * Completed pieces of a download, stored as a properties file.
+	 */
+	static class Progress {
+		final long length;
+		final long pieceSize;
+		final String version;
+		final int pieceCount;
+		final boolean[] done;
+
+		Progress(RemoteFile remote, long pieceSize) {
+			this(remote.length, pieceSize, remote.version);
+		}
+
+		Progress(long length, long pieceSize, String version) {
+			long count = (length + pieceSize - 1) / pieceSize;
+			if (count > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException(
+						"Too many pieces; use a larger piece size.");
+			}
+			this.length = length;
+			this.pieceSize = pieceSize;
+			this.version = version;
+			this.pieceCount = (int) count;
+			this.done = new boolean[this.pieceCount];
+		}
+
+		boolean matches(RemoteFile remote, long pieceSize) {
+			return this.length == remote.length
+					&& this.pieceSize == pieceSize
+					&& this.version.equals(remote.version);
+		}
+
+		synchronized boolean isDone(int piece) {
+			return this.done[piece];
+		}
+
+		/**
+		 * Returns the length that the partial file must at least have if it
+		 * contains all pieces that are marked as done. A shorter file was
+		 * changed after the progress was recorded, and cannot be resumed.
+		 *
+		 * @return end of the last completed piece
+		 */
+		synchronized long getCompleteLength() {
+			for (int piece = this.pieceCount - 1; piece >= 0; piece--) {
+				if (this.done[piece]) {
+					return Math.min((piece + 1) * this.pieceSize, this.length);
+				}
+			}
+			return 0;
+		}
+
+		synchronized int countDone() {
+			int count = 0;
+			for (boolean pieceDone : this.done) {
+				if (pieceDone) {
+					count++;
+				}
+			}
+			return count;
+		}
+
+		synchronized void markDone(int piece, Path progressFile)
+				throws IOException {
+			this.done[piece] = true;
+			save(progressFile);
+		}
+
+		void save(Path progressFile) throws IOException {
+			StringBuilder pieces = new StringBuilder(this.pieceCount);
+			for (boolean pieceDone : this.done) {
+				pieces.append(pieceDone ? '1' : '0');
+			}
+			Properties properties = new Properties();
+			properties.setProperty("length", Long.toString(this.length));
+			properties.setProperty("pieceSize", Long.toString(this.pieceSize));
+			properties.setProperty("version", this.version);
+			properties.setProperty("done", pieces.toString());
+			Path tempFile = siblingPath(progressFile, ".tmp");
+			try (Writer writer = Files.newBufferedWriter(tempFile,
+					StandardCharsets.UTF_8)) {
+				properties.store(writer, null);
+			}
+			Files.move(tempFile, progressFile,
+					StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		}
+
+		/**
+		 * Reads the progress from the given file.
+		 *
+		 * @return the progress, or null if the file does not exist or cannot
+		 *         be read
+		 */
+		static Progress load(Path progressFile) {
+			if (!Files.exists(progressFile)) {
+				return null;
+			}
+			Properties properties = new Properties();
+			try (Reader reader = Files.newBufferedReader(progressFile,
+					StandardCharsets.UTF_8)) {
+				properties.load(reader);
+				Progress progress = new Progress(
+						Long.parseLong(properties.getProperty("length")),
+						Long.parseLong(properties.getProperty("pieceSize")),
+						Objects.requireNonNull(properties.getProperty("version")));
+				String pieces = properties.getProperty("done");
+				if (pieces.length() != progress.pieceCount) {
+					return null;
+				}
+				for (int i = 0; i < progress.pieceCount; i++) {
+					progress.done[i] = pieces.charAt(i) == '1';
+				}
+				return progress;
+			} catch (IOException | RuntimeException e) {
+				logger.warn("Ignoring unreadable download progress in {}: {}",
+						progressFile, e.toString());
+				return null;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,170 @@
+package org.wikidata.wdtk.util;
+
+/*
+ * #%L
+ * Wikidata Toolkit Utilities
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Input stream that writes a copy of all bytes that are read from it to an
+ * output stream. This can be used to store data while it is being processed,
+ * e.g., to save a download to disk while it is decompressed and parsed.
+ * <p>
+ * Bytes that are skipped are also read and copied, so that the output always
+ * contains a prefix of the input. Marking is not supported. Closing this
+ * stream closes both the input and the output stream.
+ */
+public class TeeInputStream extends FilterInputStream {
+
+	static final int COPY_BUFFER_SIZE = 8192;
+
+	final OutputStream out;
+
+	/**
+	 * Number of bytes that have been read and copied.
+	 */
+	long byteCount = 0;
+
+	/**
+	 * True if the end of the input has been reached.
+	 */
+	boolean endOfInput = false;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param in
+	 *            the stream to read from
+	 * @param out
+	 *            the stream that a copy of all bytes read is written to
+	 */
+	public TeeInputStream(InputStream in, OutputStream out) {
+		super(in);
+		this.out = out;
+	}
+
+	/**
+	 * Returns the number of bytes that have been read so far. All of them
+	 * have also been written to the output stream.
+	 *
+	 * @return number of bytes
+	 */
+	public long getByteCount() {
+		return this.byteCount;
+	}
+
+	/**
+	 * Returns true if the input has been read to its end, so that the output
+	 * stream has received a complete copy.
+	 *
+	 * @return true if the end of the input has been reached
+	 */
+	public boolean isComplete() {
+		return this.endOfInput;
+	}
+
+	/**
+	 * Reads the remaining input, copying it to the output stream. This is
+	 * useful for completing the copy when a consumer does not need the rest
+	 * of the input, e.g., trailing bytes after the end of compressed data.
+	 *
+	 * @return the number of bytes that were copied
+	 * @throws IOException
+	 *             if the input could not be read or the output not written
+	 */
+	public long copyRemaining() throws IOException {
+		byte[] buffer = new byte[COPY_BUFFER_SIZE];
+		long count = 0;
+		int read;
+		while ((read = read(buffer, 0, buffer.length)) >= 0) {
+			count += read;
+		}
+		return count;
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = this.in.read();
+		if (b < 0) {
+			this.endOfInput = true;
+		} else {
+			this.out.write(b);
+			this.byteCount++;
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int count = this.in.read(b, off, len);
+		if (count < 0) {
+			this.endOfInput = true;
+		} else {
+			this.out.write(b, off, count);
+			this.byteCount += count;
+		}
+		return count;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		byte[] buffer = new byte[(int) Math.min(COPY_BUFFER_SIZE,
+				Math.max(n, 1))];
+		long skipped = 0;
+		while (skipped < n) {
+			int count = read(buffer, 0,
+					(int) Math.min(buffer.length, n - skipped));
+			if (count < 0) {
+				break;
+			}
+			skipped += count;
+		}
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+		// not supported
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		throw new IOException("Mark and reset are not supported.");
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			this.in.close();
+		} finally {
+			this.out.close();
+		}
+	}
+
+}
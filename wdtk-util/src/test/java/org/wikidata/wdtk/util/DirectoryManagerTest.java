@@ -20,7 +20,11 @@ package org.wikidata.wdtk.util;
  * #L%
  */
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
@@ -29,9 +33,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
 
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
@@ -90,6 +101,11 @@ public class DirectoryManagerTest {
 		dm.createFileAtomic("new-test-file.txt", in);
 	}
 
+	@Test(expected = IOException.class)
+	public void NoPathForWritingReadOnly() throws IOException {
+		dm.getPathForWriting("new-test-file.txt");
+	}
+
 	@Test
 	public void getCompressionInputStreamNone() throws IOException {
 		ByteArrayInputStream in = new ByteArrayInputStream(
@@ -128,4 +144,186 @@ public class DirectoryManagerTest {
 			assertEquals("Test data", reader.readLine());
 		}
 	}
+
+	@Test
+	public void getCompressionInputStreamBz2Parallel() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		OutputStreamWriter ow = new OutputStreamWriter(
+				new BZip2CompressorOutputStream(out), StandardCharsets.UTF_8);
+		ow.write("Test data");
+		ow.close();
+
+		ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+		InputStream cin = dm.getCompressorInputStream(in, CompressionType.BZ2_PARALLEL);
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(cin))) {
+			assertEquals("Test data", reader.readLine());
+		}
+	}
+
+	@Test
+	public void getCompressionInputStreamGzipParallel() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		OutputStreamWriter ow = new OutputStreamWriter(
+				new GzipCompressorOutputStream(out), StandardCharsets.UTF_8);
+		ow.write("Test data");
+		ow.close();
+
+		ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+		InputStream cin = dm.getCompressorInputStream(in, CompressionType.GZIP_PARALLEL);
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(cin))) {
+			assertEquals("Test data", reader.readLine());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void NoCreateFileWhileReadingReadOnly() throws IOException {
+		ByteArrayInputStream in = new ByteArrayInputStream(
+				"new contents".getBytes(StandardCharsets.UTF_8));
+		dm.createFileWhileReading("new-test-file.txt", in,
+				CompressionType.NONE);
+	}
+
+	@Test
+	public void createFileWhileReading() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		OutputStreamWriter ow = new OutputStreamWriter(
+				new GzipCompressorOutputStream(out), StandardCharsets.UTF_8);
+		ow.write("Test data");
+		ow.close();
+		// trailing bytes that the decompressor does not need to read
+		byte[] data = Arrays.copyOf(out.toByteArray(), out.size() + 100000);
+
+		Path directory = Files.createTempDirectory("wdtk-directory-test");
+		try {
+			DirectoryManagerImpl writableDm = new DirectoryManagerImpl(
+					directory, false);
+			InputStream cin = writableDm.createFileWhileReading("test.gz",
+					new ByteArrayInputStream(data), CompressionType.GZIP);
+			try (BufferedReader reader = new BufferedReader(
+					new InputStreamReader(cin, StandardCharsets.UTF_8))) {
+				assertFalse(writableDm.hasFile("test.gz"));
+				assertEquals("Test data", reader.readLine());
+				assertEquals(null, reader.readLine());
+			}
+
+			assertTrue(writableDm.hasFile("test.gz"));
+			assertFalse(writableDm.hasFile("test.gz.part"));
+			assertArrayEquals(data,
+					Files.readAllBytes(directory.resolve("test.gz")));
+		} finally {
+			deleteDirectory(directory);
+		}
+	}
+
+	@Test
+	public void createFileWhileReadingIncomplete() throws IOException {
+		byte[] data = "Line1\nLine2\n".getBytes(StandardCharsets.UTF_8);
+
+		Path directory = Files.createTempDirectory("wdtk-directory-test");
+		try {
+			DirectoryManagerImpl writableDm = new DirectoryManagerImpl(
+					directory, false);
+			try (InputStream in = writableDm.createFileWhileReading(
+					"test.txt", new ByteArrayInputStream(data),
+					CompressionType.NONE)) {
+				assertEquals('L', in.read());
+			}
+
+			assertFalse(writableDm.hasFile("test.txt"));
+			assertFalse(writableDm.hasFile("test.txt.part"));
+		} finally {
+			deleteDirectory(directory);
+		}
+	}
+
+	@Test
+	public void createFileWhileReadingExisting() throws IOException {
+		Path directory = Files.createTempDirectory("wdtk-directory-test");
+		try {
+			DirectoryManagerImpl writableDm = new DirectoryManagerImpl(
+					directory, false);
+			writableDm.createFile("test.txt", "old contents");
+			ByteArrayInputStream in = new ByteArrayInputStream(
+					"new contents".getBytes(StandardCharsets.UTF_8));
+
+			assertThrows(FileAlreadyExistsException.class,
+					() -> writableDm.createFileWhileReading("test.txt", in,
+							CompressionType.NONE));
+		} finally {
+			deleteDirectory(directory);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void NoSeekableByteChannelForWritingReadOnly() throws IOException {
+		dm.getSeekableByteChannelForFile("new-test-file.txt", true);
+	}
+
+	@Test
+	public void writeFileWithSeekableByteChannel() throws IOException {
+		Path directory = Files.createTempDirectory("wdtk-directory-test");
+		try {
+			DirectoryManagerImpl writableDm = new DirectoryManagerImpl(
+					directory, false);
+			writableDm.createFile("test.txt", "0123456789");
+			try (SeekableByteChannel channel = writableDm
+					.getSeekableByteChannelForFile("test.txt", true)) {
+				channel.position(2);
+				channel.write(ByteBuffer.wrap("ab"
+						.getBytes(StandardCharsets.UTF_8)));
+			}
+
+			ByteBuffer buffer = ByteBuffer.allocate(3);
+			try (SeekableByteChannel channel = writableDm
+					.getSeekableByteChannelForFile("test.txt", false)) {
+				assertEquals(10, channel.size());
+				channel.position(1);
+				channel.read(buffer);
+			}
+			assertEquals("1ab", new String(buffer.array(),
+					StandardCharsets.UTF_8));
+		} finally {
+			deleteDirectory(directory);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void NoReplaceFileAtomicReadOnly() throws IOException {
+		dm.replaceFileAtomic("new-test-file.txt", "new contents");
+	}
+
+	@Test
+	public void replaceFileAtomic() throws IOException {
+		Path directory = Files.createTempDirectory("wdtk-directory-test");
+		try {
+			DirectoryManagerImpl writableDm = new DirectoryManagerImpl(
+					directory, false);
+			writableDm.replaceFileAtomic("test.txt", "old contents");
+			writableDm.replaceFileAtomic("test.txt", "new contents");
+
+			assertEquals("new contents", new String(
+					Files.readAllBytes(directory.resolve("test.txt")),
+					StandardCharsets.UTF_8));
+			// no temporary files are left behind
+			try (Stream<Path> files = Files.list(directory)) {
+				assertEquals(1, files.count());
+			}
+		} finally {
+			deleteDirectory(directory);
+		}
+	}
+
+	void deleteDirectory(Path directory) throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> {
+				try {
+					Files.delete(path);
+				} catch (IOException e) {
+					// ignore
+				}
+			});
+		}
+	}
 }
@@ -0,0 +1,240 @@
+package org.wikidata.wdtk.util;
+
+/*
+ * #%L
+ * Wikidata Toolkit Utilities
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.junit.Test;
+
+public class ParallelDecompressorInputStreamTest {
+
+	/**
+	 * Creates some text that compresses into several bzip2 blocks when using a
+	 * small block size.
+	 */
+	static byte[] getTestData(int length) {
+		Random random = new Random(42);
+		StringBuilder builder = new StringBuilder();
+		while (builder.length() < length) {
+			builder.append("{\"id\":\"Q").append(random.nextInt(100000))
+					.append("\",\"label\":\"")
+					.append(Long.toString(random.nextLong(), 36))
+					.append("\"}\n");
+		}
+		return builder.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	static byte[] bzip2(byte[] data, int blockSize) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (OutputStream cout = new BZip2CompressorOutputStream(out, blockSize)) {
+			cout.write(data);
+		}
+		return out.toByteArray();
+	}
+
+	static byte[] gzip(byte[] data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (OutputStream cout = new GzipCompressorOutputStream(out)) {
+			cout.write(data);
+		}
+		return out.toByteArray();
+	}
+
+	static byte[] concat(byte[] first, byte[] second) {
+		byte[] result = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+
+	static byte[] readAll(InputStream in) throws IOException {
+		try (InputStream stream = in) {
+			return stream.readAllBytes();
+		}
+	}
+
+	@Test
+	public void testBzip2SeveralBlocks() throws IOException {
+		byte[] data = getTestData(1000000);
+		byte[] compressed = bzip2(data, 1);
+
+		assertArrayEquals(data, readAll(new ParallelBZip2InputStream(
+				new ByteArrayInputStream(compressed), 3)));
+	}
+
+	@Test
+	public void testBzip2SingleBlock() throws IOException {
+		byte[] data = "Test data".getBytes(StandardCharsets.UTF_8);
+		byte[] compressed = bzip2(data, 9);
+
+		assertArrayEquals(data, readAll(new ParallelBZip2InputStream(
+				new ByteArrayInputStream(compressed), 2)));
+	}
+
+	@Test
+	public void testBzip2ConcatenatedStreams() throws IOException {
+		byte[] data1 = getTestData(300000);
+		byte[] data2 = "Some more data".getBytes(StandardCharsets.UTF_8);
+		byte[] compressed = concat(bzip2(data1, 1), bzip2(data2, 5));
+
+		assertArrayEquals(concat(data1, data2),
+				readAll(new ParallelBZip2InputStream(new ByteArrayInputStream(
+						compressed), 2)));
+	}
+
+	@Test
+	public void testBzip2Empty() throws IOException {
+		byte[] compressed = bzip2(new byte[0], 9);
+
+		assertArrayEquals(new byte[0], readAll(new ParallelBZip2InputStream(
+				new ByteArrayInputStream(compressed), 2)));
+	}
+
+	@Test
+	public void testBzip2RecoversFromWrongSplit() throws IOException {
+		byte[] data = getTestData(500000);
+		byte[] compressed = bzip2(data, 1);
+
+		// Split every chunk in two, as if a block signature occurred by
+		// chance inside the block:
+		ParallelBZip2InputStream in = new ParallelBZip2InputStream(
+				new ByteArrayInputStream(compressed), 2) {
+			Chunk pending;
+
+			@Override
+			Chunk readChunk() throws IOException {
+				if (pending != null) {
+					Chunk result = pending;
+					pending = null;
+					return result;
+				}
+				Chunk chunk = super.readChunk();
+				if (chunk == null || chunk.bitLength < 1000) {
+					return chunk;
+				}
+				long cut = chunk.startBit + chunk.bitLength / 2 + 3;
+				pending = new Chunk(Arrays.copyOfRange(chunk.data,
+						(int) (cut / 8), chunk.data.length), (int) (cut % 8),
+						chunk.bitLength - (cut - chunk.startBit), false);
+				return new Chunk(Arrays.copyOf(chunk.data, (int) ((cut + 7) / 8)),
+						chunk.startBit, cut - chunk.startBit, false);
+			}
+		};
+
+		assertArrayEquals(data, readAll(in));
+	}
+
+	@Test
+	public void testBzip2OpenAtBlock() throws IOException {
+		byte[] data = getTestData(500000);
+		byte[] compressed = bzip2(data, 1);
+
+		List<long[]> blocks = new ArrayList<>();
+		ParallelBZip2InputStream in = new ParallelBZip2InputStream(
+				new ByteArrayInputStream(compressed), 2);
+		in.setBlockListener((compressedBitOffset, decompressedOffset) -> blocks
+				.add(new long[] { compressedBitOffset, decompressedOffset }));
+		assertArrayEquals(data, readAll(in));
+
+		assertTrue(blocks.size() > 2);
+		assertEquals(32, blocks.get(0)[0]);
+		assertEquals(0, blocks.get(0)[1]);
+		for (long[] block : blocks) {
+			byte[] suffix = Arrays.copyOfRange(data, (int) block[1],
+					data.length);
+			assertArrayEquals(suffix, readAll(ParallelBZip2InputStream
+					.openAtBlock(new ByteArrayInputStream(compressed),
+							block[0], 2)));
+		}
+	}
+
+	@Test
+	public void testThreadsReleasedWithoutClose() throws IOException,
+			InterruptedException {
+		byte[] data = getTestData(500000);
+		byte[] compressed = new byte[0];
+		for (int i = 0; i < data.length; i += 100000) {
+			compressed = concat(compressed, gzip(Arrays.copyOfRange(data, i,
+					Math.min(data.length, i + 100000))));
+		}
+
+		ParallelGzipInputStream in = new ParallelGzipInputStream(
+				new ByteArrayInputStream(compressed), 2);
+		assertArrayEquals(data, in.readAllBytes());
+		// the stream is not closed
+		assertTrue(in.executor.awaitTermination(10, TimeUnit.SECONDS));
+	}
+
+	@Test(expected = IOException.class)
+	public void testBzip2InvalidInput() throws IOException {
+		readAll(new ParallelBZip2InputStream(new ByteArrayInputStream(
+				"not compressed".getBytes(StandardCharsets.UTF_8)), 2));
+	}
+
+	@Test
+	public void testGzipSeveralMembers() throws IOException {
+		byte[] data = getTestData(4000000);
+		byte[] compressed = new byte[0];
+		for (int i = 0; i < data.length; i += 100000) {
+			compressed = concat(compressed, gzip(Arrays.copyOfRange(data, i,
+					Math.min(data.length, i + 100000))));
+		}
+
+		assertArrayEquals(data, readAll(new ParallelGzipInputStream(
+				new ByteArrayInputStream(compressed), 3)));
+	}
+
+	@Test
+	public void testGzipSingleMember() throws IOException {
+		byte[] data = getTestData(200000);
+		byte[] compressed = gzip(data);
+
+		assertArrayEquals(data, readAll(new ParallelGzipInputStream(
+				new ByteArrayInputStream(compressed), 2)));
+	}
+
+	@Test
+	public void testGzipLargeSingleMember() throws IOException {
+		Random random = new Random(7);
+		byte[] noise = new byte[ParallelGzipInputStream.MAX_CHUNK_SIZE + 1000];
+		random.nextBytes(noise);
+		byte[] data = concat(noise, getTestData(1000));
+		byte[] compressed = gzip(data);
+
+		assertArrayEquals(data, readAll(new ParallelGzipInputStream(
+				new ByteArrayInputStream(compressed), 2)));
+	}
+}
@@ -0,0 +1,335 @@
+package org.wikidata.wdtk.util;
+
+/*
+ * #%L
+ * Wikidata Toolkit Utilities
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class RangeRequestDownloaderTest {
+
+	static final int PIECE_SIZE = 1000;
+
+	/**
+	 * Serves a byte array with support for single byte ranges, like the dump
+	 * mirrors do.
+	 */
+	class StandInServer {
+		final HttpServer server;
+		final byte[] content;
+		boolean rangesSupported = true;
+		volatile String etag = "\"v1\"";
+		/**
+		 * Number of range requests that are cut off half-way before the
+		 * server starts to answer them completely.
+		 */
+		final AtomicInteger failures = new AtomicInteger();
+		final AtomicInteger rangeRequests = new AtomicInteger();
+		final AtomicInteger fullRequests = new AtomicInteger();
+		/**
+		 * Number of range requests that are answered before the ETag of the
+		 * file changes, or a negative number if it never changes.
+		 */
+		final AtomicInteger rangeRequestsBeforeChange = new AtomicInteger(-1);
+
+		StandInServer(byte[] content) throws IOException {
+			this.content = content;
+			this.server = HttpServer.create(new InetSocketAddress(
+					InetAddress.getLoopbackAddress(), 0), 0);
+			this.server.createContext("/dump.bz2", this::handle);
+			this.server.start();
+		}
+
+		String getUrl() {
+			return "http://127.0.0.1:"
+					+ this.server.getAddress().getPort() + "/dump.bz2";
+		}
+
+		void handle(HttpExchange exchange) throws IOException {
+			try {
+				if (this.rangesSupported) {
+					exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+					exchange.getResponseHeaders().set("ETag", this.etag);
+				}
+				if ("HEAD".equals(exchange.getRequestMethod())) {
+					exchange.getResponseHeaders().set("Content-Length",
+							Integer.toString(this.content.length));
+					exchange.sendResponseHeaders(200, -1);
+					return;
+				}
+				String range = exchange.getRequestHeaders().getFirst("Range");
+				String ifRange = exchange.getRequestHeaders()
+						.getFirst("If-Range");
+				if (!this.rangesSupported || range == null
+						|| (ifRange != null && !ifRange.equals(this.etag))) {
+					this.fullRequests.incrementAndGet();
+					exchange.sendResponseHeaders(200, this.content.length);
+					try (OutputStream out = exchange.getResponseBody()) {
+						out.write(this.content);
+					}
+					return;
+				}
+				this.rangeRequests.incrementAndGet();
+				String[] bounds = range.substring("bytes=".length()).split("-");
+				int start = Integer.parseInt(bounds[0]);
+				int end = Integer.parseInt(bounds[1]) + 1;
+				exchange.getResponseHeaders().set("Content-Range", "bytes "
+						+ start + "-" + (end - 1) + "/" + this.content.length);
+				exchange.sendResponseHeaders(206, end - start);
+				OutputStream out = exchange.getResponseBody();
+				if (this.failures.getAndDecrement() > 0) {
+					// send half of the announced bytes and drop the connection
+					out.write(this.content, start, (end - start) / 2);
+					out.flush();
+					return;
+				}
+				out.write(this.content, start, end - start);
+				out.close();
+				if (this.rangeRequestsBeforeChange.decrementAndGet() == 0) {
+					this.etag = "\"v2\"";
+				}
+			} finally {
+				exchange.close();
+			}
+		}
+	}
+
+	Path directory;
+	StandInServer server;
+	RangeRequestDownloader downloader;
+	byte[] content;
+
+	@Before
+	public void setUp() throws IOException {
+		// requests must go to the local server even if other tests set a proxy
+		WebResourceFetcherImpl.setProxy(null);
+		this.directory = Files.createTempDirectory("wdtk-download-test");
+		this.content = new byte[PIECE_SIZE * 7 + 123];
+		new Random(42).nextBytes(this.content);
+		this.server = new StandInServer(this.content);
+		this.downloader = new RangeRequestDownloader();
+		this.downloader.setPieceSize(PIECE_SIZE);
+		this.downloader.setParallelRequests(3);
+		this.downloader.setRetries(2, 0);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		WebResourceFetcherImpl.setProxy(null);
+		this.server.server.stop(0);
+		try (Stream<Path> files = Files.walk(this.directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> {
+				try {
+					Files.delete(path);
+				} catch (IOException e) {
+					// ignore
+				}
+			});
+		}
+	}
+
+	String md5(byte[] bytes) {
+		return RangeRequestDownloader.toHex(RangeRequestDownloader
+				.newMd5Digest().digest(bytes));
+	}
+
+	@Test
+	public void testParallelDownload() throws IOException {
+		Path target = this.directory.resolve("dump.bz2");
+		long size = this.downloader.download(this.server.getUrl(), target,
+				md5(this.content));
+
+		assertEquals(this.content.length, size);
+		assertArrayEquals(this.content, Files.readAllBytes(target));
+		assertEquals(8, this.server.rangeRequests.get());
+		assertEquals(0, this.server.fullRequests.get());
+		assertFalse(Files.exists(RangeRequestDownloader.siblingPath(target,
+				RangeRequestDownloader.PART_SUFFIX)));
+		assertFalse(Files.exists(RangeRequestDownloader.siblingPath(target,
+				RangeRequestDownloader.PROGRESS_SUFFIX)));
+	}
+
+	@Test
+	public void testDownloadWithoutChecksum() throws IOException {
+		Path target = this.directory.resolve("dump.bz2");
+		this.downloader.download(this.server.getUrl(), target, null);
+		assertArrayEquals(this.content, Files.readAllBytes(target));
+	}
+
+	@Test
+	public void testResumeInterruptedDownload() throws IOException {
+		Path target = this.directory.resolve("dump.bz2");
+		Path progressFile = RangeRequestDownloader.siblingPath(target,
+				RangeRequestDownloader.PROGRESS_SUFFIX);
+		this.downloader.setParallelRequests(1);
+		this.downloader.setRetries(0, 0);
+		// let three pieces through, then cut off the fourth
+		RangeRequestDownloader.Progress progress = new RangeRequestDownloader.Progress(
+				this.content.length, PIECE_SIZE, this.server.etag);
+		for (int i = 0; i < 3; i++) {
+			progress.done[i] = true;
+		}
+		Path partFile = RangeRequestDownloader.siblingPath(target,
+				RangeRequestDownloader.PART_SUFFIX);
+		Files.write(partFile, Arrays.copyOf(this.content,
+				3 * PIECE_SIZE));
+		progress.save(progressFile);
+		this.server.failures.set(1);
+
+		assertThrows(IOException.class, () -> this.downloader.download(
+				this.server.getUrl(), target, md5(this.content)));
+		assertFalse(Files.exists(target));
+		assertTrue(Files.exists(progressFile));
+
+		this.server.rangeRequests.set(0);
+		this.downloader.download(this.server.getUrl(), target,
+				md5(this.content));
+		assertArrayEquals(this.content, Files.readAllBytes(target));
+		// only the five missing pieces were fetched again
+		assertEquals(5, this.server.rangeRequests.get());
+	}
+
+	@Test
+	public void testTruncatedPartFileIsNotResumed() throws IOException {
+		Path target = this.directory.resolve("dump.bz2");
+		RangeRequestDownloader.Progress progress = new RangeRequestDownloader.Progress(
+				this.content.length, PIECE_SIZE, this.server.etag);
+		for (int i = 0; i < 3; i++) {
+			progress.done[i] = true;
+		}
+		Files.write(RangeRequestDownloader.siblingPath(target,
+				RangeRequestDownloader.PART_SUFFIX), new byte[0]);
+		progress.save(RangeRequestDownloader.siblingPath(target,
+				RangeRequestDownloader.PROGRESS_SUFFIX));
+
+		this.downloader.download(this.server.getUrl(), target,
+				md5(this.content));
+		assertArrayEquals(this.content, Files.readAllBytes(target));
+		assertEquals(8, this.server.rangeRequests.get());
+	}
+
+	@Test
+	public void testRetryFailedPiece() throws IOException {
+		Path target = this.directory.resolve("dump.bz2");
+		this.server.failures.set(2);
+		this.downloader.download(this.server.getUrl(), target,
+				md5(this.content));
+		assertEquals(10, this.server.rangeRequests.get());
+		assertArrayEquals(this.content, Files.readAllBytes(target));
+	}
+
+	@Test
+	public void testChangedFileRestartsDownload() throws IOException {
+		Path target = this.directory.resolve("dump.bz2");
+		RangeRequestDownloader.Progress progress = new RangeRequestDownloader.Progress(
+				this.content.length, PIECE_SIZE, "\"old\"");
+		progress.done[0] = true;
+		Files.write(RangeRequestDownloader.siblingPath(target,
+				RangeRequestDownloader.PART_SUFFIX), new byte[PIECE_SIZE]);
+		progress.save(RangeRequestDownloader.siblingPath(target,
+				RangeRequestDownloader.PROGRESS_SUFFIX));
+
+		this.downloader.download(this.server.getUrl(), target,
+				md5(this.content));
+		assertArrayEquals(this.content, Files.readAllBytes(target));
+		assertEquals(8, this.server.rangeRequests.get());
+	}
+
+	@Test
+	public void testFileChangesDuringDownload() throws IOException {
+		Path target = this.directory.resolve("dump.bz2");
+		this.downloader.setParallelRequests(1);
+		this.server.rangeRequestsBeforeChange.set(1);
+
+		this.downloader.download(this.server.getUrl(), target,
+				md5(this.content));
+		assertArrayEquals(this.content, Files.readAllBytes(target));
+		// the second piece was answered with the whole file, which is not
+		// retried but leads to a new download of all pieces
+		assertEquals(1, this.server.fullRequests.get());
+		assertEquals(9, this.server.rangeRequests.get());
+	}
+
+	@Test
+	public void testChecksumMismatch() {
+		Path target = this.directory.resolve("dump.bz2");
+		assertThrows(IOException.class, () -> this.downloader.download(
+				this.server.getUrl(), target, md5(new byte[1])));
+		assertFalse(Files.exists(target));
+		assertFalse(Files.exists(RangeRequestDownloader.siblingPath(target,
+				RangeRequestDownloader.PART_SUFFIX)));
+		assertFalse(Files.exists(RangeRequestDownloader.siblingPath(target,
+				RangeRequestDownloader.PROGRESS_SUFFIX)));
+	}
+
+	@Test
+	public void testServerWithoutRangeSupport() throws IOException {
+		this.server.rangesSupported = false;
+		Path target = this.directory.resolve("dump.bz2");
+		long size = this.downloader.download(this.server.getUrl(), target,
+				md5(this.content));
+
+		assertEquals(this.content.length, size);
+		assertArrayEquals(this.content, Files.readAllBytes(target));
+		assertEquals(1, this.server.fullRequests.get());
+		assertEquals(0, this.server.rangeRequests.get());
+	}
+
+	@Test
+	public void testProgressRoundTrip() throws IOException {
+		Path progressFile = this.directory.resolve("p.progress");
+		RangeRequestDownloader.Progress progress = new RangeRequestDownloader.Progress(
+				2500, 1000, "\"v\"");
+		progress.markDone(1, progressFile);
+
+		RangeRequestDownloader.Progress loaded = RangeRequestDownloader.Progress
+				.load(progressFile);
+		assertEquals(3, loaded.pieceCount);
+		assertFalse(loaded.isDone(0));
+		assertTrue(loaded.isDone(1));
+		assertEquals(1, loaded.countDone());
+		assertTrue(loaded.matches(new RangeRequestDownloader.RemoteFile(2500,
+				"\"v\""), 1000));
+		assertFalse(loaded.matches(new RangeRequestDownloader.RemoteFile(2500,
+				"\"w\""), 1000));
+	}
+}
@@ -0,0 +1,97 @@
+package org.wikidata.wdtk.util;
+
+/*
+ * #%L
+ * Wikidata Toolkit Utilities
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TeeInputStreamTest {
+
+	static byte[] getData(int length) {
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (byte) (i * 31);
+		}
+		return data;
+	}
+
+	@Test
+	public void readCopiesData() throws IOException {
+		byte[] data = getData(20000);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		TeeInputStream in = new TeeInputStream(new ByteArrayInputStream(data),
+				out);
+
+		assertEquals(data[0] & 0xFF, in.read());
+		byte[] buffer = new byte[1000];
+		assertEquals(1000, in.read(buffer, 0, 1000));
+		assertArrayEquals(Arrays.copyOfRange(data, 1, 1001), buffer);
+		assertArrayEquals(Arrays.copyOf(data, 1001), out.toByteArray());
+		assertEquals(1001, in.getByteCount());
+		assertFalse(in.isComplete());
+	}
+
+	@Test
+	public void skipCopiesData() throws IOException {
+		byte[] data = getData(20000);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		TeeInputStream in = new TeeInputStream(new ByteArrayInputStream(data),
+				out);
+
+		assertEquals(15000, in.skip(15000));
+		assertEquals(5000, in.skip(15000));
+		assertEquals(-1, in.read());
+		assertTrue(in.isComplete());
+		assertArrayEquals(data, out.toByteArray());
+	}
+
+	@Test
+	public void copyRemaining() throws IOException {
+		byte[] data = getData(20000);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		TeeInputStream in = new TeeInputStream(new ByteArrayInputStream(data),
+				out);
+
+		in.read(new byte[100]);
+		assertEquals(19900, in.copyRemaining());
+		assertTrue(in.isComplete());
+		assertEquals(20000, in.getByteCount());
+		assertArrayEquals(data, out.toByteArray());
+	}
+
+	@Test
+	public void markNotSupported() {
+		TeeInputStream in = new TeeInputStream(new ByteArrayInputStream(
+				new byte[0]), new ByteArrayOutputStream());
+		assertFalse(in.markSupported());
+	}
+
+}
@@ -40,8 +40,13 @@ public class WebResourceFetcherTest {
 	public void testSetProxy() {
 		Proxy proxy = new Proxy(Proxy.Type.HTTP, new InetSocketAddress(
 				"test.adress", 8080));
-		WebResourceFetcherImpl.setProxy(proxy);
-		assertTrue(WebResourceFetcherImpl.hasProxy());
-		assertEquals(proxy, WebResourceFetcherImpl.getProxy());
+		try {
+			WebResourceFetcherImpl.setProxy(proxy);
+			assertTrue(WebResourceFetcherImpl.hasProxy());
+			assertEquals(proxy, WebResourceFetcherImpl.getProxy());
+		} finally {
+			// the proxy is global and would be used by other tests
+			WebResourceFetcherImpl.setProxy(null);
+		}
 	}
 }
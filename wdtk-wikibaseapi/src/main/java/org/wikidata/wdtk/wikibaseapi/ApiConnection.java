@@ -26,6 +26,10 @@ import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
 import java.net.URLEncoder;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -33,6 +37,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -56,6 +61,9 @@ import tools.jackson.databind.ObjectMapper;
 import tools.jackson.databind.exc.JsonNodeException;
 import tools.jackson.databind.json.JsonMapper;
 
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
 import okhttp3.OkHttpClient;
@@ -147,6 +155,13 @@ public abstract class ApiConnection {
      */
     protected String customUserAgent = loadDefaultUserAgent();
 
+	/**
+	 * Number of requests that the HTTP client may execute concurrently for
+	 * asynchronous calls. For non-positive values, the default limits of the
+	 * client are used.
+	 */
+	protected int maxConcurrentRequests = -1;
+
 	/**
 	 * Http client used for making requests.
 	 */
@@ -303,6 +318,22 @@ public abstract class ApiConnection {
 		return readTimeout;
 	}
 
+	/**
+	 * Sets the number of requests that may be executed concurrently when
+	 * using {@link #sendRequestAsync(String, Map)}. The limits of the HTTP
+	 * client are only ever raised to this value, never lowered.
+	 * For non-positive values, the default limits of the client are used.
+	 *
+	 * @param maxConcurrentRequests
+	 *            the number of concurrent requests to allow
+	 */
+	public synchronized void setMaxConcurrentRequests(int maxConcurrentRequests) {
+		this.maxConcurrentRequests = maxConcurrentRequests;
+		if (client != null) {
+			applyMaxConcurrentRequests();
+		}
+	}
+
     @JsonProperty("customUserAgent")
     public String getCustomUserAgent() {
         return customUserAgent;
@@ -431,6 +462,43 @@ public abstract class ApiConnection {
         }
     }
 
+    /**
+     * Sends a request to the API with the given parameters and the given
+     * request method without blocking the calling thread. The returned future
+     * is completed with the result JSON tree, or exceptionally with an
+     * {@link IOException} or {@link MediaWikiApiErrorException} in the same
+     * situations where {@link #sendJsonRequest(String, Map)} would throw them.
+     * Like the blocking method, it makes sure that the "format": "json"
+     * parameter is set.
+     *
+     * @param requestMethod
+     *            either POST or GET
+     * @param parameters
+     *            Maps parameter keys to values. Out of this map the function
+     *            will create a query string for the request.
+     * @return future API result
+     */
+    public CompletableFuture<JsonNode> sendJsonRequestAsync(String requestMethod,
+                                                            Map<String, String> parameters) {
+        parameters.put(ApiConnection.PARAM_FORMAT, "json");
+        if (loggedIn) {
+            parameters.put(ApiConnection.ASSERT_PARAMETER, "user");
+        }
+        CompletableFuture<JsonNode> result = new CompletableFuture<>();
+        sendRequestAsync(requestMethod, parameters).whenComplete((response, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            try (Response r = response) {
+                result.complete(parseResponse(checkResponse(r)));
+            } catch (IOException | MediaWikiApiErrorException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
     private Response checkResponse(Response response) throws IOException {
         if (!response.isSuccessful()) {
             logger.error(
@@ -452,6 +520,9 @@ public abstract class ApiConnection {
             this.checkErrors(root);
             this.logWarnings(root);
             return root;
+        } catch (MaxlagErrorException e) {
+            e.setRetryAfter(parseRetryAfter(response.header("Retry-After")));
+            throw e;
         } catch (StreamReadException e) {
             logger.error(
                     "JSON parse failed. Status: '{}', Headers: '{}', Body: '{}'",
@@ -464,6 +535,33 @@ public abstract class ApiConnection {
         }
     }
 
+    /**
+     * Parses the value of a Retry-After header, which is either a number of
+     * seconds or an HTTP date.
+     *
+     * @param value
+     *            the value of the header, or null
+     * @return the number of seconds to wait, or -1 if the value is missing or
+     *         cannot be parsed
+     */
+    static int parseRetryAfter(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value.trim(),
+                        DateTimeFormatter.RFC_1123_DATE_TIME);
+                return (int) Math.max(0,
+                        Duration.between(ZonedDateTime.now(), date).getSeconds());
+            } catch (DateTimeParseException e2) {
+                return -1;
+            }
+        }
+    }
+
     /**
      * Sends a request to the API with the given parameters and the given
      * request method and returns the result string. It automatically fills the
@@ -490,6 +588,54 @@ public abstract class ApiConnection {
     public Response sendRequest(String requestMethod,
                                    Map<String, String> parameters,
                                    Map<String, ImmutablePair<String,File>> files) throws IOException {
+        return getClient().newCall(buildRequest(requestMethod, parameters, files)).execute();
+    }
+
+    /**
+     * Sends a request to the API with the given parameters and the given
+     * request method without blocking the calling thread. The request is
+     * executed by the dispatcher of the HTTP client, and the returned future
+     * is completed with the response once it arrives. Cancelling the future
+     * cancels the request. The caller is responsible for closing the response.
+     *
+     * Warning: You probably want to use ApiConnection.sendJsonRequestAsync
+     * that parses the response and checks it for errors.
+     *
+     * @param requestMethod
+     *            either POST or GET
+     * @param parameters
+     *            Maps parameter keys to values. Out of this map the function
+     *            will create a query string for the request.
+     * @return future API result
+     */
+    public CompletableFuture<Response> sendRequestAsync(String requestMethod,
+                                                        Map<String, String> parameters) {
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        Call call = getClient().newCall(buildRequest(requestMethod, parameters, null));
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                if (!result.complete(response)) {
+                    response.close();
+                }
+            }
+        });
+        result.whenComplete((response, failure) -> {
+            if (result.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return result;
+    }
+
+    private Request buildRequest(String requestMethod,
+                                 Map<String, String> parameters,
+                                 Map<String, ImmutablePair<String,File>> files) {
         Request request;
         String queryString = getQueryString(parameters);
         if ("GET".equalsIgnoreCase(requestMethod)) {
@@ -513,13 +659,16 @@ public abstract class ApiConnection {
         } else {
             throw new IllegalArgumentException("Expected the requestMethod to be either GET or POST, but got " + requestMethod);
         }
-
-        if (client == null) {
-            buildClient();
-        }
-        return client.newCall(request).execute();
+        return request;
     }
 
+	private synchronized OkHttpClient getClient() {
+		if (client == null) {
+			buildClient();
+		}
+		return client;
+	}
+
 	private void buildClient() {
 		OkHttpClient.Builder builder = getClientBuilder();
 		if (connectTimeout >= 0) {
@@ -529,6 +678,17 @@ public abstract class ApiConnection {
 			builder.readTimeout(readTimeout, TimeUnit.MILLISECONDS);
 		}
 		client = builder.build();
+		applyMaxConcurrentRequests();
+	}
+
+	private void applyMaxConcurrentRequests() {
+		if (maxConcurrentRequests > 0) {
+			Dispatcher dispatcher = client.dispatcher();
+			dispatcher.setMaxRequestsPerHost(Math.max(maxConcurrentRequests,
+					dispatcher.getMaxRequestsPerHost()));
+			dispatcher.setMaxRequests(Math.max(maxConcurrentRequests,
+					dispatcher.getMaxRequests()));
+		}
 	}
 
 	/**
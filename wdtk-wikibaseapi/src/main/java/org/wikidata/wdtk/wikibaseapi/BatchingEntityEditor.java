@@ -0,0 +1,399 @@
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.wikibaseapi;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.helpers.EntityUpdateBuilder;
+import org.wikidata.wdtk.datamodel.helpers.FormUpdateBuilder;
+import org.wikidata.wdtk.datamodel.helpers.ItemUpdateBuilder;
+import org.wikidata.wdtk.datamodel.helpers.LexemeUpdateBuilder;
+import org.wikidata.wdtk.datamodel.helpers.MediaInfoUpdateBuilder;
+import org.wikidata.wdtk.datamodel.helpers.PropertyUpdateBuilder;
+import org.wikidata.wdtk.datamodel.helpers.SenseUpdateBuilder;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.EntityUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.FormUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.ItemUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.SenseUpdate;
+import org.wikidata.wdtk.wikibaseapi.apierrors.MediaWikiApiErrorException;
+
+/**
+ * Collects {@link EntityUpdate} objects and writes all updates of the same
+ * entity as a single edit. Updates are buffered per entity ID and merged with
+ * the {@code append} methods of the matching update builders, so that later
+ * updates are applied on top of earlier ones. The combined update is sent
+ * with {@link WikibaseDataEditor#editEntityDocument(EntityUpdate, boolean,
+ * String, List)} once the configured number of updates has been collected
+ * for the entity, once the oldest of them has waited longer than the
+ * configured delay, or when {@link #flush()} or {@link #close()} is called.
+ * <p>
+ * The base revision of a merged update is the first non-zero base revision
+ * among the collected updates, so that the API still reports an edit conflict
+ * if the entity changed since it was first read. Updates that the builders
+ * refuse to merge with the pending changes of their entity cause the pending
+ * changes to be written first.
+ * <p>
+ * All edits use the summary and tags given on construction. Delays are only
+ * checked when updates are added or when {@link #flushExpired()} is called;
+ * the class does not start any threads of its own and is not thread-safe.
+ */
+public class BatchingEntityEditor implements AutoCloseable {
+
+	static final Logger logger = LoggerFactory
+			.getLogger(BatchingEntityEditor.class);
+
+	/**
+	 * Changes collected for one entity.
+	 */
+	static class PendingUpdate {
+		EntityUpdate update;
+		int count;
+		/**
+		 * Time (in the scale of {@link System#nanoTime()}) at which the
+		 * first of the collected updates was added.
+		 */
+		final long firstAdded;
+
+		PendingUpdate(EntityUpdate update, long firstAdded) {
+			this.update = update;
+			this.count = 1;
+			this.firstAdded = firstAdded;
+		}
+	}
+
+	final WikibaseDataEditor editor;
+	final String summary;
+	final List<String> tags;
+
+	int maxBatchSize = 50;
+	long maxBatchDelayNanos = TimeUnit.SECONDS.toNanos(30);
+
+	final Map<EntityIdValue, PendingUpdate> pending = new LinkedHashMap<>();
+
+	int updateCount = 0;
+	int editCount = 0;
+
+	/**
+	 * Creates a new batching editor that writes with the given editing
+	 * session.
+	 *
+	 * @param editor
+	 *            the session used to write the merged updates
+	 * @param summary
+	 *            summary for all edits
+	 * @param tags
+	 *            string identifiers of the tags to apply to all edits,
+	 *            {@code null} or empty for no tags
+	 */
+	public BatchingEntityEditor(WikibaseDataEditor editor, String summary,
+			List<String> tags) {
+		Objects.requireNonNull(editor, "Editor cannot be null.");
+		this.editor = editor;
+		this.summary = summary;
+		this.tags = tags;
+	}
+
+	/**
+	 * Returns the maximal number of updates that are merged into one edit.
+	 *
+	 * @return maximal number of updates per edit
+	 */
+	public int getMaxBatchSize() {
+		return this.maxBatchSize;
+	}
+
+	/**
+	 * Sets the maximal number of updates that are merged into one edit. When
+	 * this number of updates has been collected for an entity, they are
+	 * written immediately. The default is 50. A value of 1 disables batching.
+	 *
+	 * @param maxBatchSize
+	 *            maximal number of updates per edit
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		if (maxBatchSize < 1) {
+			throw new IllegalArgumentException(
+					"Batch size must be positive.");
+		}
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Returns the maximal time that updates are kept before being written,
+	 * in milliseconds.
+	 *
+	 * @return maximal delay in milliseconds
+	 */
+	public long getMaxBatchDelay() {
+		return TimeUnit.NANOSECONDS.toMillis(this.maxBatchDelayNanos);
+	}
+
+	/**
+	 * Sets the maximal time that updates are kept before being written. The
+	 * default is 30 seconds.
+	 *
+	 * @param delay
+	 *            maximal delay
+	 * @param unit
+	 *            time unit of the delay
+	 */
+	public void setMaxBatchDelay(long delay, TimeUnit unit) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Delay cannot be negative.");
+		}
+		this.maxBatchDelayNanos = unit.toNanos(delay);
+	}
+
+	/**
+	 * Returns the number of updates that have been added so far.
+	 *
+	 * @return number of added updates
+	 */
+	public int getUpdateCount() {
+		return this.updateCount;
+	}
+
+	/**
+	 * Returns the number of edits that have been sent so far. Together with
+	 * {@link #getUpdateCount()}, this shows how many requests batching saved.
+	 *
+	 * @return number of edits
+	 */
+	public int getEditCount() {
+		return this.editCount;
+	}
+
+	/**
+	 * Returns the number of entities with updates that have not been written
+	 * yet.
+	 *
+	 * @return number of entities with pending updates
+	 */
+	public int getPendingEntityCount() {
+		return this.pending.size();
+	}
+
+	/**
+	 * Adds an update to the batch of its entity. If this completes the batch,
+	 * or if the batch of this or any other entity has waited longer than the
+	 * maximal delay, the affected batches are written. If the update conflicts
+	 * with the pending updates of its entity, these are written first, and
+	 * the given update stays pending even if writing them fails.
+	 *
+	 * @param update
+	 *            the changes to write
+	 * @throws IOException
+	 *             if there was an IO problem, such as missing network
+	 *             connection
+	 * @throws MediaWikiApiErrorException
+	 *             if MediaWiki API returned an error response
+	 */
+	public void addUpdate(EntityUpdate update) throws IOException,
+			MediaWikiApiErrorException {
+		addUpdate(update, System.nanoTime());
+	}
+
+	void addUpdate(EntityUpdate update, long now) throws IOException,
+			MediaWikiApiErrorException {
+		Objects.requireNonNull(update, "Update cannot be null.");
+		this.updateCount++;
+		EntityIdValue entityId = update.getEntityId();
+		PendingUpdate entry = this.pending.get(entityId);
+		if (entry != null) {
+			EntityUpdate merged = null;
+			try {
+				merged = merge(entry.update, update);
+			} catch (IllegalArgumentException e) {
+				logger.debug("Writing pending changes of {} before an update that conflicts with them: {}",
+						entityId.getId(), e.getMessage());
+			}
+			if (merged != null) {
+				entry.update = merged;
+				entry.count++;
+			} else {
+				// queue the new update before writing the older changes, so
+				// that it stays pending if writing them fails
+				PendingUpdate conflicting = entry;
+				entry = new PendingUpdate(update, now);
+				this.pending.remove(entityId);
+				this.pending.put(entityId, entry);
+				write(entityId, conflicting);
+			}
+		} else {
+			entry = new PendingUpdate(update, now);
+			this.pending.put(entityId, entry);
+		}
+		if (entry.count >= this.maxBatchSize) {
+			flush(entityId);
+		}
+		flushExpired(now);
+	}
+
+	/**
+	 * Writes the pending updates of all entities whose oldest update has
+	 * waited longer than the maximal delay.
+	 *
+	 * @throws IOException
+	 *             if there was an IO problem, such as missing network
+	 *             connection
+	 * @throws MediaWikiApiErrorException
+	 *             if MediaWiki API returned an error response
+	 */
+	public void flushExpired() throws IOException, MediaWikiApiErrorException {
+		flushExpired(System.nanoTime());
+	}
+
+	void flushExpired(long now) throws IOException,
+			MediaWikiApiErrorException {
+		List<EntityIdValue> expired = new ArrayList<>();
+		for (Map.Entry<EntityIdValue, PendingUpdate> entry : this.pending
+				.entrySet()) {
+			if (now - entry.getValue().firstAdded >= this.maxBatchDelayNanos) {
+				expired.add(entry.getKey());
+			}
+		}
+		for (EntityIdValue entityId : expired) {
+			flush(entityId);
+		}
+	}
+
+	/**
+	 * Writes the pending updates of the given entity, if any. The updates are
+	 * discarded even if writing them fails, so that a failing edit is not
+	 * repeated with every later flush.
+	 *
+	 * @param entityId
+	 *            the entity whose updates should be written
+	 * @return the result of the edit, or {@code null} if there were no
+	 *         pending updates for the entity
+	 * @throws IOException
+	 *             if there was an IO problem, such as missing network
+	 *             connection
+	 * @throws MediaWikiApiErrorException
+	 *             if MediaWiki API returned an error response
+	 */
+	public EditingResult flush(EntityIdValue entityId) throws IOException,
+			MediaWikiApiErrorException {
+		PendingUpdate entry = this.pending.remove(entityId);
+		if (entry == null) {
+			return null;
+		}
+		return write(entityId, entry);
+	}
+
+	/**
+	 * Writes the given updates of an entity, which are no longer pending.
+	 *
+	 * @param entityId
+	 *            the entity whose updates should be written
+	 * @param entry
+	 *            the updates to write
+	 * @return the result of the edit
+	 * @throws IOException
+	 *             if there was an IO problem, such as missing network
+	 *             connection
+	 * @throws MediaWikiApiErrorException
+	 *             if MediaWiki API returned an error response
+	 */
+	EditingResult write(EntityIdValue entityId, PendingUpdate entry)
+			throws IOException, MediaWikiApiErrorException {
+		this.editCount++;
+		if (entry.count > 1) {
+			logger.debug("Writing {} merged updates of {} in one edit.",
+					entry.count, entityId.getId());
+		}
+		return this.editor.editEntityDocument(entry.update, false,
+				this.summary, this.tags);
+	}
+
+	/**
+	 * Writes the pending updates of all entities.
+	 *
+	 * @throws IOException
+	 *             if there was an IO problem, such as missing network
+	 *             connection
+	 * @throws MediaWikiApiErrorException
+	 *             if MediaWiki API returned an error response
+	 */
+	public void flush() throws IOException, MediaWikiApiErrorException {
+		for (EntityIdValue entityId : new ArrayList<>(this.pending.keySet())) {
+			flush(entityId);
+		}
+	}
+
+	/**
+	 * Writes all pending updates. Equivalent to {@link #flush()}.
+	 */
+	@Override
+	public void close() throws IOException, MediaWikiApiErrorException {
+		flush();
+	}
+
+	/**
+	 * Combines two updates of the same entity into one, with the changes of
+	 * the second update applied on top of the first.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the updates cannot be combined
+	 */
+	static EntityUpdate merge(EntityUpdate first, EntityUpdate second) {
+		long revisionId = first.getBaseRevisionId() != 0
+				? first.getBaseRevisionId() : second.getBaseRevisionId();
+		EntityUpdateBuilder builder = EntityUpdateBuilder
+				.forBaseRevisionId(first.getEntityId(), revisionId);
+		if (builder instanceof ItemUpdateBuilder) {
+			((ItemUpdateBuilder) builder).append((ItemUpdate) first)
+					.append((ItemUpdate) second);
+		} else if (builder instanceof PropertyUpdateBuilder) {
+			((PropertyUpdateBuilder) builder).append((PropertyUpdate) first)
+					.append((PropertyUpdate) second);
+		} else if (builder instanceof LexemeUpdateBuilder) {
+			((LexemeUpdateBuilder) builder).append((LexemeUpdate) first)
+					.append((LexemeUpdate) second);
+		} else if (builder instanceof FormUpdateBuilder) {
+			((FormUpdateBuilder) builder).append((FormUpdate) first)
+					.append((FormUpdate) second);
+		} else if (builder instanceof SenseUpdateBuilder) {
+			((SenseUpdateBuilder) builder).append((SenseUpdate) first)
+					.append((SenseUpdate) second);
+		} else if (builder instanceof MediaInfoUpdateBuilder) {
+			((MediaInfoUpdateBuilder) builder).apply((MediaInfoUpdate) first)
+					.apply((MediaInfoUpdate) second);
+		} else {
+			throw new IllegalArgumentException(
+					"Unsupported update type " + first.getClass().getName());
+		}
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.wikibaseapi;
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+
+/**
+ * Entry of an {@link EntityDocumentCache}: an entity document together with
+ * the time at which it was last known to be the current revision of the
+ * entity.
+ */
+public class CachedEntityDocument {
+
+	private final EntityDocument document;
+
+	private final long validationTime;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param document
+	 *            the cached document
+	 * @param validationTime
+	 *            time in milliseconds since the epoch at which the document
+	 *            was last known to be current
+	 */
+	public CachedEntityDocument(EntityDocument document, long validationTime) {
+		Validate.notNull(document, "Cached document cannot be null");
+		this.document = document;
+		this.validationTime = validationTime;
+	}
+
+	/**
+	 * Returns the cached document.
+	 *
+	 * @return the document
+	 */
+	public EntityDocument getDocument() {
+		return this.document;
+	}
+
+	/**
+	 * Returns the time at which the document was last known to be current.
+	 *
+	 * @return time in milliseconds since the epoch
+	 */
+	public long getValidationTime() {
+		return this.validationTime;
+	}
+
+	/**
+	 * Returns a copy of this entry with the given validation time, used when
+	 * the document has been found to be still current.
+	 *
+	 * @param newValidationTime
+	 *            time in milliseconds since the epoch
+	 * @return the updated entry
+	 */
+	public CachedEntityDocument withValidationTime(long newValidationTime) {
+		return new CachedEntityDocument(this.document, newValidationTime);
+	}
+}
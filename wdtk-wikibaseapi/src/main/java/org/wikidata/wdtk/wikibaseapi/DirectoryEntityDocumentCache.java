@@ -0,0 +1,206 @@
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.wikibaseapi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.helpers.JsonSerializer;
+import org.wikidata.wdtk.datamodel.implementation.EntityDocumentImpl;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.util.CompressionType;
+import org.wikidata.wdtk.util.DirectoryManager;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+
+/**
+ * {@link EntityDocumentCache} that stores one JSON file per entity in a
+ * directory, so that cached documents survive restarts of the application.
+ * Reading and writing files is much slower than accessing memory, so this
+ * cache is usually combined with an {@link LruEntityDocumentCache} in a
+ * {@link TieredEntityDocumentCache}.
+ * <p>
+ * Failures to read or write cache files are logged and otherwise treated like
+ * missing entries, so that they never prevent data from being fetched.
+ * Files are replaced with
+ * {@link DirectoryManager#replaceFileAtomic(String, String)}, so that a
+ * crash or a concurrent reader never sees a partially written entry.
+ * Since {@link DirectoryManager} cannot delete files, removed entries are
+ * overwritten with empty files, and {@link #clear()} records the time of
+ * clearing in a separate file; entries validated before that time are
+ * ignored.
+ */
+public class DirectoryEntityDocumentCache implements EntityDocumentCache {
+
+	static final Logger logger = LoggerFactory
+			.getLogger(DirectoryEntityDocumentCache.class);
+
+	/**
+	 * Name of the file that records when the cache was last cleared.
+	 */
+	static final String CLEARED_FILE_NAME = "cache-cleared";
+
+	/**
+	 * Pattern of entity ids that can safely be used as file names.
+	 */
+	static final Pattern ENTITY_ID_PATTERN = Pattern.compile("[A-Za-z0-9-]+");
+
+	final DirectoryManager directoryManager;
+
+	final DatamodelMapper mapper;
+
+	/**
+	 * Time in milliseconds since the epoch at which the cache was last
+	 * cleared.
+	 */
+	volatile long clearTime = 0;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param directoryManager
+	 *            directory in which cache files are stored
+	 * @param siteIri
+	 *            the URI identifying the site that the cached data is from,
+	 *            used when reading the documents
+	 */
+	public DirectoryEntityDocumentCache(DirectoryManager directoryManager,
+			String siteIri) {
+		this.directoryManager = directoryManager;
+		this.mapper = new DatamodelMapper(siteIri);
+		if (directoryManager.hasFile(CLEARED_FILE_NAME)) {
+			try (InputStream inputStream = directoryManager
+					.getInputStreamForFile(CLEARED_FILE_NAME,
+							CompressionType.NONE)) {
+				this.clearTime = Long.parseLong(new String(inputStream
+						.readAllBytes(), StandardCharsets.UTF_8).trim());
+			} catch (IOException | NumberFormatException e) {
+				logger.warn("Could not read the time when the entity cache was cleared: "
+						+ e.toString());
+			}
+		}
+	}
+
+	@Override
+	public CachedEntityDocument get(String entityId) {
+		String fileName = getFileName(entityId);
+		if (fileName == null || !this.directoryManager.hasFile(fileName)) {
+			return null;
+		}
+		try (InputStream inputStream = this.directoryManager
+				.getInputStreamForFile(fileName, CompressionType.NONE)) {
+			byte[] contents = inputStream.readAllBytes();
+			if (contents.length == 0) {
+				return null;
+			}
+			JsonNode root = this.mapper.readTree(contents);
+			long validationTime = root.path("validationTime").asLong();
+			if (validationTime <= this.clearTime) {
+				return null;
+			}
+			EntityDocument document = this.mapper.treeToValue(
+					root.path("document"), EntityDocumentImpl.class);
+			return new CachedEntityDocument(document, validationTime);
+		} catch (IOException | JacksonException e) {
+			logger.warn("Could not read cached entity " + entityId + ": "
+					+ e.toString());
+			return null;
+		}
+	}
+
+	@Override
+	public void put(String entityId, CachedEntityDocument entry) {
+		String fileName = getFileName(entityId);
+		if (fileName == null) {
+			return;
+		}
+		try {
+			String json = "{\"validationTime\":" + entry.getValidationTime()
+					+ ",\"document\":"
+					+ JsonSerializer.getJsonString(entry.getDocument()) + "}";
+			writeFile(fileName, json);
+		} catch (IOException | JacksonException e) {
+			logger.warn("Could not write cached entity " + entityId + ": "
+					+ e.toString());
+		}
+	}
+
+	@Override
+	public void remove(String entityId) {
+		String fileName = getFileName(entityId);
+		if (fileName == null || !this.directoryManager.hasFile(fileName)) {
+			return;
+		}
+		try {
+			writeFile(fileName, "");
+		} catch (IOException e) {
+			logger.warn("Could not remove cached entity " + entityId + ": "
+					+ e.toString());
+		}
+	}
+
+	@Override
+	public void clear() {
+		this.clearTime = System.currentTimeMillis();
+		try {
+			writeFile(CLEARED_FILE_NAME, Long.toString(this.clearTime));
+		} catch (IOException e) {
+			logger.warn("Could not record the time when the entity cache was cleared: "
+					+ e.toString());
+		}
+	}
+
+	/**
+	 * Returns the name of the cache file for the given entity id, or null if
+	 * the id cannot be used in a file name.
+	 *
+	 * @param entityId
+	 *            requested entity id
+	 * @return file name or null
+	 */
+	String getFileName(String entityId) {
+		if (!ENTITY_ID_PATTERN.matcher(entityId).matches()) {
+			return null;
+		}
+		return entityId + ".json";
+	}
+
+	/**
+	 * Replaces the contents of the given file atomically, so that concurrent
+	 * readers and readers after a crash never see a partially written entry.
+	 *
+	 * @param fileName
+	 *            the file to write
+	 * @param contents
+	 *            the new contents of the file
+	 * @throws IOException
+	 *             if the file could not be written
+	 */
+	void writeFile(String fileName, String contents) throws IOException {
+		this.directoryManager.replaceFileAtomic(fileName, contents);
+	}
+}
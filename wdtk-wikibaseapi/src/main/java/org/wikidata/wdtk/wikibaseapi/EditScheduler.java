@@ -0,0 +1,403 @@
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.wikibaseapi;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.wikibaseapi.apierrors.MediaWikiApiErrorException;
+
+/**
+ * Schedules edits of one or more editing sessions so that they run close to
+ * the highest rate that the target sites accept. Instead of a fixed time per
+ * edit, the scheduler maintains an edit rate for each site (identified by its
+ * API URL) and adjusts it in the way of AIMD congestion control: every
+ * successful edit increases the rate a little, up to a maximum, while every
+ * maxlag error cuts it by a constant factor and pauses all edits to the site
+ * for the time requested by the server in its Retry-After header, or for
+ * the reported lag if there is no such header.
+ * <p>
+ * All sessions that edit the same site share its rate, so that several bot
+ * accounts working on one wiki do not together overload it, while sessions
+ * on different sites do not slow each other down. A scheduler is used by
+ * setting it on each {@link WikibaseDataEditor} with
+ * {@link WikibaseDataEditor#setEditScheduler(EditScheduler)}, or by running
+ * a queue of tasks with {@link #runEditTasks(Collection, Collection)}. This
+ * class is thread-safe.
+ */
+public class EditScheduler {
+
+	static final Logger logger = LoggerFactory.getLogger(EditScheduler.class);
+
+	/**
+	 * A unit of editing work that can be executed with any of the sessions
+	 * passed to {@link EditScheduler#runEditTasks(Collection, Collection)}.
+	 */
+	@FunctionalInterface
+	public interface EditTask {
+
+		/**
+		 * Performs the edits of this task.
+		 *
+		 * @param editor
+		 *            the session to use for editing
+		 * @throws IOException
+		 * @throws MediaWikiApiErrorException
+		 */
+		void perform(WikibaseDataEditor editor) throws IOException,
+				MediaWikiApiErrorException;
+	}
+
+	/**
+	 * Edit rate and pauses for one site.
+	 */
+	static class SiteState {
+		double editsPerSecond;
+		/**
+		 * Earliest time (in the scale of {@link System#nanoTime()}) at which
+		 * the next edit may start.
+		 */
+		long nextEditTime;
+		boolean started = false;
+		/**
+		 * End of the last pause caused by a maxlag error, in the scale of
+		 * {@link System#nanoTime()}; only meaningful if {@link #paused} is
+		 * set.
+		 */
+		long pauseEnd;
+		boolean paused = false;
+	}
+
+	double initialEditsPerSecond = 0.5;
+	double minEditsPerSecond = 0.05;
+	double maxEditsPerSecond = 5;
+	double rateIncreasePerSecond = 0.02;
+	double rateDecreaseFactor = 0.5;
+	long maxPauseMillis = 60000;
+
+	final Map<String, SiteState> sites = new HashMap<>();
+
+	/**
+	 * Returns the edit rate with which sites start, in edits per second.
+	 *
+	 * @return initial edit rate
+	 */
+	public synchronized double getInitialEditsPerSecond() {
+		return this.initialEditsPerSecond;
+	}
+
+	/**
+	 * Sets the edit rate with which sites start, in edits per second. The
+	 * default is 0.5, which corresponds to the default
+	 * {@link WikibaseDataEditor#getAverageTimePerEdit() average time per edit}
+	 * of two seconds.
+	 *
+	 * @param editsPerSecond
+	 *            initial edit rate
+	 */
+	public synchronized void setInitialEditsPerSecond(double editsPerSecond) {
+		this.initialEditsPerSecond = editsPerSecond;
+	}
+
+	/**
+	 * Sets the range in which the edit rate of each site is kept, in edits
+	 * per second. The defaults are 0.05 and 5.
+	 *
+	 * @param minEditsPerSecond
+	 *            the rate below which the scheduler never goes
+	 * @param maxEditsPerSecond
+	 *            the rate above which the scheduler never goes
+	 */
+	public synchronized void setEditRateLimits(double minEditsPerSecond,
+			double maxEditsPerSecond) {
+		if (minEditsPerSecond <= 0 || maxEditsPerSecond < minEditsPerSecond) {
+			throw new IllegalArgumentException(
+					"Edit rate limits must be positive and ordered.");
+		}
+		this.minEditsPerSecond = minEditsPerSecond;
+		this.maxEditsPerSecond = maxEditsPerSecond;
+	}
+
+	/**
+	 * Sets how fast the edit rate grows while edits succeed, and how strongly
+	 * it is reduced when the server reports excessive lag. The defaults are
+	 * an increase of 0.02 edits per second for every second of successful
+	 * editing, and a decrease to half of the rate.
+	 *
+	 * @param rateIncreasePerSecond
+	 *            additive increase of the edit rate per second of editing
+	 * @param rateDecreaseFactor
+	 *            factor between 0 and 1 that the rate is multiplied with on
+	 *            each maxlag error
+	 */
+	public synchronized void setRateAdjustment(double rateIncreasePerSecond,
+			double rateDecreaseFactor) {
+		if (rateIncreasePerSecond < 0 || rateDecreaseFactor <= 0
+				|| rateDecreaseFactor > 1) {
+			throw new IllegalArgumentException(
+					"Invalid edit rate adjustment parameters.");
+		}
+		this.rateIncreasePerSecond = rateIncreasePerSecond;
+		this.rateDecreaseFactor = rateDecreaseFactor;
+	}
+
+	/**
+	 * Sets the longest pause in milliseconds that a maxlag error can cause
+	 * when the server does not send a Retry-After header. The default is one
+	 * minute.
+	 *
+	 * @param maxPauseMillis
+	 *            maximal pause in milliseconds
+	 */
+	public synchronized void setMaxPause(long maxPauseMillis) {
+		this.maxPauseMillis = maxPauseMillis;
+	}
+
+	/**
+	 * Returns the current edit rate for the site of the given connection.
+	 *
+	 * @param connection
+	 *            connection to the site
+	 * @return edit rate in edits per second
+	 */
+	public synchronized double getEditsPerSecond(ApiConnection connection) {
+		return getSiteState(connection.getApiBaseUrl()).editsPerSecond;
+	}
+
+	/**
+	 * Waits until the next edit to the site of the given connection may be
+	 * made, and reserves this time slot. Slots are handed out in the order in
+	 * which this method is called, also across threads. If a maxlag error
+	 * pauses the site while waiting, a new slot after the pause is reserved
+	 * and awaited.
+	 *
+	 * @param connection
+	 *            connection to the site that is going to be edited
+	 * @throws InterruptedException
+	 *             if the thread was interrupted while waiting; the edit
+	 *             should not be made then
+	 */
+	public void awaitEditSlot(ApiConnection connection)
+			throws InterruptedException {
+		String siteKey = connection.getApiBaseUrl();
+		long waitTime = reserveEditSlot(siteKey, System.nanoTime());
+		while (waitTime > 0) {
+			TimeUnit.NANOSECONDS.sleep(waitTime);
+			waitTime = reserveEditSlotIfPaused(siteKey, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Records that an edit to the site of the given connection succeeded,
+	 * which increases the edit rate of the site.
+	 *
+	 * @param connection
+	 *            connection to the site that was edited
+	 */
+	public synchronized void reportSuccess(ApiConnection connection) {
+		SiteState site = getSiteState(connection.getApiBaseUrl());
+		// adding increase/rate per edit adds about increase per second
+		site.editsPerSecond = Math.min(this.maxEditsPerSecond,
+				site.editsPerSecond + this.rateIncreasePerSecond
+						/ site.editsPerSecond);
+	}
+
+	/**
+	 * Records that an edit to the site of the given connection was rejected
+	 * because of excessive lag. The edit rate of the site is decreased, and
+	 * further edits to the site are paused.
+	 *
+	 * @param connection
+	 *            connection to the site that was edited
+	 * @param lag
+	 *            the lag in seconds reported by the server, or 0 if unknown
+	 * @param retryAfterSeconds
+	 *            the value of the Retry-After header of the response in
+	 *            seconds, or a negative value if there was no such header
+	 */
+	public void reportMaxlag(ApiConnection connection, double lag,
+			int retryAfterSeconds) {
+		reportMaxlag(connection.getApiBaseUrl(), lag, retryAfterSeconds,
+				System.nanoTime());
+	}
+
+	/**
+	 * Executes the given tasks with the given editing sessions. Each session
+	 * runs in its own thread and takes the next task from a shared queue
+	 * whenever it has completed the previous one, so that faster sessions
+	 * take on more work. All sessions are set to use this scheduler. Failing
+	 * tasks do not stop the other tasks; their exceptions are returned.
+	 * <p>
+	 * Every session must be able to execute every task, e.g., because the
+	 * sessions belong to different accounts on the same site. Tasks for
+	 * different sites should be run in separate calls, which can still share
+	 * this scheduler.
+	 *
+	 * @param editors
+	 *            the editing sessions to use
+	 * @param tasks
+	 *            the tasks to execute
+	 * @return map from failed tasks to the exceptions they threw
+	 * @throws InterruptedException
+	 *             if the thread was interrupted while waiting for the tasks
+	 */
+	public Map<EditTask, Exception> runEditTasks(
+			Collection<WikibaseDataEditor> editors, Collection<EditTask> tasks)
+			throws InterruptedException {
+		if (editors.isEmpty()) {
+			throw new IllegalArgumentException(
+					"At least one editing session is needed to run edit tasks.");
+		}
+		Queue<EditTask> queue = new ConcurrentLinkedQueue<>(tasks);
+		Map<EditTask, Exception> failures = Collections
+				.synchronizedMap(new LinkedHashMap<>());
+
+		List<Callable<Void>> workers = new ArrayList<>();
+		for (WikibaseDataEditor editor : editors) {
+			editor.setEditScheduler(this);
+			workers.add(() -> {
+				EditTask task;
+				while ((task = queue.poll()) != null
+						&& !Thread.currentThread().isInterrupted()) {
+					try {
+						task.perform(editor);
+					} catch (IOException | MediaWikiApiErrorException
+							| RuntimeException e) {
+						logger.error("Edit task failed: " + e.toString());
+						failures.put(task, e);
+					}
+				}
+				return null;
+			});
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(editors.size());
+		try {
+			executor.invokeAll(workers);
+		} finally {
+			executor.shutdownNow();
+		}
+		return failures;
+	}
+
+	/**
+	 * Reserves the next edit slot for the given site.
+	 *
+	 * @param siteKey
+	 *            API URL of the site
+	 * @param now
+	 *            current time in nanoseconds
+	 * @return time to wait before the edit, in nanoseconds
+	 */
+	synchronized long reserveEditSlot(String siteKey, long now) {
+		SiteState site = getSiteState(siteKey);
+		long start = site.started ? Math.max(now, site.nextEditTime) : now;
+		site.started = true;
+		site.nextEditTime = start
+				+ (long) (TimeUnit.SECONDS.toNanos(1) / site.editsPerSecond);
+		return start - now;
+	}
+
+	/**
+	 * Reserves a new edit slot for the given site if edits to it are paused
+	 * at the given time. This is used after waiting for a slot that was
+	 * reserved before a maxlag error paused the site; slots reserved after
+	 * the error already lie after the end of the pause.
+	 *
+	 * @param siteKey
+	 *            API URL of the site
+	 * @param now
+	 *            current time in nanoseconds
+	 * @return time to wait before the edit, in nanoseconds, or 0 if the site
+	 *         is not paused
+	 */
+	synchronized long reserveEditSlotIfPaused(String siteKey, long now) {
+		SiteState site = getSiteState(siteKey);
+		if (!site.paused || now - site.pauseEnd >= 0) {
+			return 0;
+		}
+		return reserveEditSlot(siteKey, now);
+	}
+
+	/**
+	 * Records a maxlag error for the given site.
+	 *
+	 * @param siteKey
+	 *            API URL of the site
+	 * @param lag
+	 *            reported lag in seconds
+	 * @param retryAfterSeconds
+	 *            value of the Retry-After header, or negative if unknown
+	 * @param now
+	 *            current time in nanoseconds
+	 */
+	synchronized void reportMaxlag(String siteKey, double lag,
+			int retryAfterSeconds, long now) {
+		SiteState site = getSiteState(siteKey);
+		site.editsPerSecond = Math.max(this.minEditsPerSecond,
+				site.editsPerSecond * this.rateDecreaseFactor);
+
+		long pauseMillis;
+		if (retryAfterSeconds >= 0) {
+			pauseMillis = TimeUnit.SECONDS.toMillis(retryAfterSeconds);
+		} else {
+			pauseMillis = Math.min(this.maxPauseMillis,
+					Math.max(1000, (long) (lag * 1000)));
+		}
+		logger.warn("Lag of " + lag + " seconds on " + siteKey
+				+ ": pausing edits for " + pauseMillis
+				+ " milliseconds, reducing edit rate to "
+				+ String.format("%.3f", site.editsPerSecond)
+				+ " edits per second.");
+		long pauseEnd = now + TimeUnit.MILLISECONDS.toNanos(pauseMillis);
+		if (!site.paused || pauseEnd - site.pauseEnd > 0) {
+			site.pauseEnd = pauseEnd;
+			site.paused = true;
+		}
+		if (!site.started || pauseEnd - site.nextEditTime > 0) {
+			site.nextEditTime = pauseEnd;
+			site.started = true;
+		}
+	}
+
+	SiteState getSiteState(String siteKey) {
+		return this.sites.computeIfAbsent(siteKey, key -> {
+			SiteState site = new SiteState();
+			site.editsPerSecond = Math.max(this.minEditsPerSecond,
+					Math.min(this.maxEditsPerSecond, this.initialEditsPerSecond));
+			return site;
+		});
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.wikibaseapi;
+
+/**
+ * Cache for entity documents retrieved by {@link WikibaseDataFetcher}. Entries
+ * are indexed by the entity id that was requested, which may differ from the
+ * id of the document in case of redirects. Each entry records when it was
+ * last known to be current, so that the fetcher can decide when to check it
+ * against the latest revision id on the site.
+ * <p>
+ * Implementations must be safe to use from several threads at once.
+ *
+ * @see LruEntityDocumentCache
+ * @see DirectoryEntityDocumentCache
+ * @see TieredEntityDocumentCache
+ */
+public interface EntityDocumentCache {
+
+	/**
+	 * Returns the cached entry for the given entity id.
+	 *
+	 * @param entityId
+	 *            the requested entity id, e.g., "Q42"
+	 * @return the cached entry, or null if there is none
+	 */
+	CachedEntityDocument get(String entityId);
+
+	/**
+	 * Stores an entry for the given entity id, replacing any previous entry.
+	 *
+	 * @param entityId
+	 *            the requested entity id, e.g., "Q42"
+	 * @param entry
+	 *            the entry to store
+	 */
+	void put(String entityId, CachedEntityDocument entry);
+
+	/**
+	 * Removes the entry for the given entity id, if any.
+	 *
+	 * @param entityId
+	 *            the requested entity id, e.g., "Q42"
+	 */
+	void remove(String entityId);
+
+	/**
+	 * Removes all entries from the cache.
+	 */
+	void clear();
+}
@@ -0,0 +1,97 @@
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.wikibaseapi;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory {@link EntityDocumentCache} of bounded size. When the cache is
+ * full, the entry that was used least recently is evicted.
+ */
+public class LruEntityDocumentCache implements EntityDocumentCache {
+
+	/**
+	 * Default number of entries kept in memory.
+	 */
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	private final Map<String, CachedEntityDocument> entries;
+
+	/**
+	 * Creates a cache with {@link #DEFAULT_CAPACITY} entries.
+	 */
+	public LruEntityDocumentCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a cache with the given capacity.
+	 *
+	 * @param capacity
+	 *            maximal number of entries kept in memory
+	 */
+	public LruEntityDocumentCache(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException(
+					"The capacity of the cache must be positive.");
+		}
+		this.entries = new LinkedHashMap<String, CachedEntityDocument>(16,
+				0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<String, CachedEntityDocument> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	@Override
+	public synchronized CachedEntityDocument get(String entityId) {
+		return this.entries.get(entityId);
+	}
+
+	@Override
+	public synchronized void put(String entityId, CachedEntityDocument entry) {
+		this.entries.put(entityId, entry);
+	}
+
+	@Override
+	public synchronized void remove(String entityId) {
+		this.entries.remove(entityId);
+	}
+
+	@Override
+	public synchronized void clear() {
+		this.entries.clear();
+	}
+
+	/**
+	 * Returns the number of entries in the cache.
+	 *
+	 * @return the number of entries
+	 */
+	public synchronized int size() {
+		return this.entries.size();
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.wikibaseapi;
+
+/**
+ * {@link EntityDocumentCache} that combines a small and fast cache with a
+ * larger and slower one, typically an {@link LruEntityDocumentCache} in front
+ * of a {@link DirectoryEntityDocumentCache}. Entries are written to both
+ * tiers. Entries that are only found in the second tier are copied to the
+ * first one when they are read.
+ */
+public class TieredEntityDocumentCache implements EntityDocumentCache {
+
+	private final EntityDocumentCache firstTier;
+
+	private final EntityDocumentCache secondTier;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param firstTier
+	 *            the cache that is looked up first
+	 * @param secondTier
+	 *            the cache that is looked up if the first one has no entry
+	 */
+	public TieredEntityDocumentCache(EntityDocumentCache firstTier,
+			EntityDocumentCache secondTier) {
+		this.firstTier = firstTier;
+		this.secondTier = secondTier;
+	}
+
+	@Override
+	public CachedEntityDocument get(String entityId) {
+		CachedEntityDocument entry = this.firstTier.get(entityId);
+		if (entry == null) {
+			entry = this.secondTier.get(entityId);
+			if (entry != null) {
+				this.firstTier.put(entityId, entry);
+			}
+		}
+		return entry;
+	}
+
+	@Override
+	public void put(String entityId, CachedEntityDocument entry) {
+		this.firstTier.put(entityId, entry);
+		this.secondTier.put(entityId, entry);
+	}
+
+	@Override
+	public void remove(String entityId) {
+		this.firstTier.remove(entityId);
+		this.secondTier.remove(entityId);
+	}
+
+	@Override
+	public void clear() {
+		this.firstTier.clear();
+		this.secondTier.clear();
+	}
+}
@@ -21,6 +21,7 @@
 package org.wikidata.wdtk.wikibaseapi;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -120,6 +121,12 @@ public class WbEditingAction {
 	 */
 	int remainingEdits = -1;
 
+	/**
+	 * Scheduler that adapts the edit rate to the load of the site, or null
+	 * if the fixed {@link #averageMsecsPerEdit} should be used.
+	 */
+	EditScheduler editScheduler = null;
+
 	/**
 	 * Creates an object to modify data on a Wikibase site. The API is used to
 	 * request the changes. The site URI is necessary since it is not contained
@@ -218,6 +225,31 @@ public class WbEditingAction {
 		this.averageMsecsPerEdit = milliseconds;
 	}
 
+	/**
+	 * Returns the scheduler used to pace edits, or null if edits are paced
+	 * with the fixed {@link #getAverageTimePerEdit() average time per edit}.
+	 *
+	 * @return the edit scheduler or null
+	 */
+	public EditScheduler getEditScheduler() {
+		return this.editScheduler;
+	}
+
+	/**
+	 * Sets a scheduler to pace edits. If set, the scheduler replaces both the
+	 * fixed {@link #getAverageTimePerEdit() average time per edit} and the
+	 * exponential backoff on maxlag errors: it adapts the edit rate to the
+	 * lag reported by the site, and it can be shared with other sessions. The
+	 * number of retries on maxlag errors is still limited by
+	 * {@link #getMaxLagMaxRetries()}.
+	 *
+	 * @param editScheduler
+	 *            the scheduler to use, or null to use the fixed edit rate
+	 */
+	public void setEditScheduler(EditScheduler editScheduler) {
+		this.editScheduler = editScheduler;
+	}
+
 	/**
 	 * Executes the API action "wbeditentity" for the given parameters. Created
 	 * or modified items are returned as a result. In particular, this is
@@ -735,7 +767,12 @@ public class WbEditingAction {
 			return null;
 		}
 
-		checkEditSpeed();
+		EditScheduler scheduler = this.editScheduler;
+		if (scheduler == null) {
+			checkEditSpeed();
+		} else {
+			awaitEditSlot(scheduler);
+		}
 		JsonNode result = null;
 
 		int retry = getMaxLagMaxRetries();
@@ -744,20 +781,30 @@ public class WbEditingAction {
 		while (retry > 0) {
 			try {
 				result = this.connection.sendJsonRequest("POST", parameters);
+				if (scheduler != null) {
+					scheduler.reportSuccess(this.connection);
+				}
 				break;
 			} catch (TokenErrorException e) { // try again with a fresh token
 				lastException = e;
 				connection.clearToken("csrf");
 				parameters.put("token", connection.getOrFetchToken("csrf"));
-			} catch (MaxlagErrorException e) { // wait for 5 seconds
+			} catch (MaxlagErrorException e) {
 				lastException = e;
-				logger.warn(e.getMessage() + String.format(" -- pausing for %d milliseconds.", maxLagSleepTime));
-				try {
-					Thread.sleep(maxLagSleepTime);
-				} catch (InterruptedException ex) {
-					Thread.currentThread().interrupt();
+				if (scheduler != null) {
+					// the scheduler pauses all sessions on this site
+					scheduler.reportMaxlag(this.connection, e.getLag(),
+							e.getRetryAfter());
+					awaitEditSlot(scheduler);
+				} else { // wait with exponential backoff
+					logger.warn(e.getMessage() + String.format(" -- pausing for %d milliseconds.", maxLagSleepTime));
+					try {
+						Thread.sleep(maxLagSleepTime);
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+					maxLagSleepTime *= getMaxLagBackOffFactor();
 				}
-				maxLagSleepTime *= getMaxLagBackOffFactor();
 			}
 			retry--;
 		}
@@ -812,6 +859,26 @@ public class WbEditingAction {
 		return mapper.readerFor(EntityDocumentImpl.class).readValue(entityNode);
 	}
 
+	/**
+	 * Waits for the next edit slot of the given scheduler.
+	 *
+	 * @param scheduler
+	 *            the scheduler of this session
+	 * @throws InterruptedIOException
+	 *             if the thread was interrupted while waiting, so that the
+	 *             edit is not made
+	 */
+	private void awaitEditSlot(EditScheduler scheduler)
+			throws InterruptedIOException {
+		try {
+			scheduler.awaitEditSlot(this.connection);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(
+					"Interrupted while waiting for the next edit slot.");
+		}
+	}
+
 	/**
 	 * Makes sure that we are not editing too fast. The method stores the last
 	 * {@link WbEditingAction#editTimeWindow} time points when an edit was
@@ -27,6 +27,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
 
 import org.wikidata.wdtk.datamodel.helpers.Datamodel;
 import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
@@ -161,10 +162,79 @@ public class WbGetEntitiesAction {
 	public Map<String, EntityDocument> wbGetEntities(String ids, String sites,
 			String titles, String props, String languages, String sitefilter)
 			throws MediaWikiApiErrorException, IOException {
+		Map<String, String> parameters = getParameters(ids, sites, titles,
+				props, languages, sitefilter);
+		JsonNode root = this.connection.sendJsonRequest("POST", parameters);
+		return getEntityDocuments(root, sites, titles);
+	}
+
+	/**
+	 * Asynchronous version of {@link #wbGetEntities(WbGetEntitiesActionData)}.
+	 * The request is sent without blocking the calling thread, and the
+	 * returned future is completed with the map of retrieved documents once
+	 * the response has been parsed. The future completes exceptionally with
+	 * the exceptions that the blocking method would throw.
+	 *
+	 * @param properties
+	 *            parameter setting for wbgetentities
+	 * @return future map of document identifiers or titles to documents
+	 *         retrieved via the API URL
+	 * @throws IllegalArgumentException
+	 *             if the given combination of parameters does not make sense
+	 */
+	public CompletableFuture<Map<String, EntityDocument>> wbGetEntitiesAsync(
+			WbGetEntitiesActionData properties) {
+		Map<String, String> parameters = getParameters(properties.ids,
+				properties.sites, properties.titles, properties.props,
+				properties.languages, properties.sitefilter);
+		return this.connection.sendJsonRequestAsync("POST", parameters)
+				.thenApply(root -> getEntityDocuments(root, properties.sites,
+						properties.titles));
+	}
 
+	/**
+	 * Retrieves the ids of the latest revisions of the given entities, without
+	 * retrieving their data. This is a cheap way to check whether locally
+	 * stored copies of the entities are still current.
+	 *
+	 * @param ids
+	 *            list of ids of entities, separated by the pipe character |
+	 * @return map from the requested ids of existing entities to the ids of
+	 *         their latest revisions
+	 * @throws MediaWikiApiErrorException
+	 *             if the API returns an error
+	 * @throws IOException
+	 *             if we encounter network errors, or HTTP 500 errors on Wikibase's side
+	 */
+	public Map<String, Long> wbGetRevisionIds(String ids)
+			throws MediaWikiApiErrorException, IOException {
+		Map<String, String> parameters = getParameters(ids, null, null,
+				"info", null, null);
+		JsonNode root = this.connection.sendJsonRequest("POST", parameters);
+
+		Map<String, Long> result = new HashMap<>();
+		for (Entry<String, JsonNode> entry : root.path("entities").properties()) {
+			JsonNode entityNode = entry.getValue();
+			if (!entityNode.has("missing") && entityNode.has("lastrevid")) {
+				result.put(entry.getKey(), entityNode.get("lastrevid").asLong());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Builds the request parameters of a wbgetentities action. See
+	 * {@link #wbGetEntities(String, String, String, String, String, String)}
+	 * for a description of the parameters.
+	 *
+	 * @return map of request parameters
+	 * @throws IllegalArgumentException
+	 *             if the given combination of parameters does not make sense
+	 */
+	Map<String, String> getParameters(String ids, String sites, String titles,
+			String props, String languages, String sitefilter) {
 		Map<String, String> parameters = new HashMap<>();
 		parameters.put(ApiConnection.PARAM_ACTION, "wbgetentities");
-		List<String> titlesList = titles == null ? Collections.emptyList() : Arrays.asList(titles.split("\\|"));
 
 		if (ids != null) {
 			parameters.put("ids", ids);
@@ -194,10 +264,26 @@ public class WbGetEntitiesAction {
 		if (sitefilter != null) {
 			parameters.put("sitefilter", sitefilter);
 		}
+		return parameters;
+	}
 
+	/**
+	 * Reads the entity documents from the result of a wbgetentities action.
+	 *
+	 * @param root
+	 *            root node of the JSON result
+	 * @param sites
+	 *            site key that was used together with titles, or null
+	 * @param titles
+	 *            titles that were requested, or null if ids were requested
+	 * @return map of document identifiers or titles to documents
+	 * @throws MalformedResponseException
+	 *             if one of the returned entities cannot be parsed
+	 */
+	Map<String, EntityDocument> getEntityDocuments(JsonNode root, String sites,
+			String titles) {
 		Map<String, EntityDocument> result = new HashMap<>();
-
-		JsonNode root = this.connection.sendJsonRequest("POST", parameters);
+		List<String> titlesList = titles == null ? Collections.emptyList() : Arrays.asList(titles.split("\\|"));
 
 		JsonNode entities = root.path("entities");
 		int i = 0;
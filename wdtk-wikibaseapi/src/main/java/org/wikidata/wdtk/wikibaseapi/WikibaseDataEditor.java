@@ -263,6 +263,30 @@ public class WikibaseDataEditor {
 		this.wbEditingAction.setAverageTimePerEdit(milliseconds);
 	}
 
+	/**
+	 * Returns the scheduler used to pace edits, or null if edits are paced
+	 * with the fixed average time per edit.
+	 *
+	 * @see WbEditingAction#getEditScheduler()
+	 * @return the edit scheduler or null
+	 */
+	public EditScheduler getEditScheduler() {
+		return this.wbEditingAction.getEditScheduler();
+	}
+
+	/**
+	 * Sets a scheduler that adapts the edit rate to the lag of the site. The
+	 * same scheduler can be shared by several editors, e.g., for different
+	 * bot accounts.
+	 *
+	 * @see WbEditingAction#setEditScheduler(EditScheduler)
+	 * @param editScheduler
+	 *            the scheduler to use, or null to use the fixed edit rate
+	 */
+	public void setEditScheduler(EditScheduler editScheduler) {
+		this.wbEditingAction.setEditScheduler(editScheduler);
+	}
+
 	/**
 	 * Returns the number of edits that will be performed before entering
 	 * simulation mode, or -1 if there is no limit on the number of edits
@@ -22,6 +22,9 @@ package org.wikidata.wdtk.wikibaseapi;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 import org.wikidata.wdtk.datamodel.helpers.Datamodel;
 import org.wikidata.wdtk.datamodel.interfaces.DocumentDataFilter;
@@ -62,6 +65,23 @@ public class WikibaseDataFetcher {
 	 */
 	int maxListSize = 50;
 
+	/**
+	 * Maximal number of wbgetentities requests that are kept in flight by
+	 * {@link #getEntityDocumentsAsync(List)}.
+	 */
+	int maxConcurrentRequests = 5;
+
+	/**
+	 * Cache of entity documents, or null if documents are not cached.
+	 */
+	EntityDocumentCache cache = null;
+
+	/**
+	 * Time in milliseconds for which cached documents are used without
+	 * checking whether they are still current.
+	 */
+	long cacheRevalidationInterval = 60000;
+
 	/**
 	 * Creates an object to fetch data from wikidata.org. This convenience
 	 * method creates a default {@link ApiConnection} that is not logged in. To
@@ -123,6 +143,81 @@ public class WikibaseDataFetcher {
 		return this.filter;
 	}
 
+	/**
+	 * Returns the maximal number of wbgetentities requests that are sent
+	 * concurrently when fetching entities asynchronously.
+	 *
+	 * @return the maximal number of concurrent requests
+	 */
+	public int getMaxConcurrentRequests() {
+		return this.maxConcurrentRequests;
+	}
+
+	/**
+	 * Sets the maximal number of wbgetentities requests that are sent
+	 * concurrently by {@link #getEntityDocumentsAsync(List)} and
+	 * {@link #getEntityDocumentsInBulk(List)}. The default is 5. Please keep
+	 * this number small when accessing public Wikibase sites, in accordance
+	 * with their API etiquette.
+	 *
+	 * @param maxConcurrentRequests
+	 *            the maximal number of concurrent requests, at least 1
+	 */
+	public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+		if (maxConcurrentRequests < 1) {
+			throw new IllegalArgumentException(
+					"At least one request must be allowed at a time.");
+		}
+		this.maxConcurrentRequests = maxConcurrentRequests;
+		this.wbGetEntitiesAction.connection
+				.setMaxConcurrentRequests(maxConcurrentRequests);
+	}
+
+	/**
+	 * Sets the cache of entity documents used by
+	 * {@link #getEntityDocument(String)} and {@link #getEntityDocuments(List)}.
+	 * Documents found in the cache are returned without any request if they
+	 * were validated recently enough (see
+	 * {@link #setCacheRevalidationInterval(long, TimeUnit)}). Older documents
+	 * are revalidated by requesting only the latest revision ids of the
+	 * entities, and only entities that have changed are downloaded again.
+	 * <p>
+	 * The cache should be cleared when the {@link #getFilter() filter} is
+	 * changed, since cached documents reflect the filter that was used when
+	 * they were retrieved. Lookups by title and asynchronous lookups do not
+	 * use the cache.
+	 *
+	 * @param cache
+	 *            the cache to use, or null to disable caching
+	 */
+	public void setEntityDocumentCache(EntityDocumentCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Returns the cache of entity documents.
+	 *
+	 * @return the cache, or null if documents are not cached
+	 */
+	public EntityDocumentCache getEntityDocumentCache() {
+		return this.cache;
+	}
+
+	/**
+	 * Sets the time for which cached documents are returned without checking
+	 * whether a newer revision exists. The default is one minute. A value of
+	 * zero means that cached documents are revalidated on each access, which
+	 * still avoids downloading documents that have not changed.
+	 *
+	 * @param interval
+	 *            the revalidation interval
+	 * @param unit
+	 *            the unit of the interval
+	 */
+	public void setCacheRevalidationInterval(long interval, TimeUnit unit) {
+		this.cacheRevalidationInterval = unit.toMillis(interval);
+	}
+
 	/**
 	 * Fetches the documents for the entity of the given string IDs. The result
 	 * is an {@link EntityDocument} or null if the data could not be fetched.
@@ -171,6 +266,95 @@ public class WikibaseDataFetcher {
 	 */
 	public Map<String, EntityDocument> getEntityDocuments(List<String> entityIds)
 			throws MediaWikiApiErrorException, IOException {
+		if (this.cache == null) {
+			return fetchEntityDocuments(entityIds);
+		}
+		EntityDocumentCache cache = this.cache;
+		long now = System.currentTimeMillis();
+
+		Map<String, EntityDocument> result = new HashMap<>();
+		Map<String, CachedEntityDocument> staleEntries = new LinkedHashMap<>();
+		List<String> missingEntityIds = new ArrayList<>();
+		for (String entityId : new LinkedHashSet<>(entityIds)) {
+			CachedEntityDocument entry = cache.get(entityId);
+			if (entry == null) {
+				missingEntityIds.add(entityId);
+			} else if (now - entry.getValidationTime() < this.cacheRevalidationInterval) {
+				result.put(entityId, entry.getDocument());
+			} else {
+				staleEntries.put(entityId, entry);
+			}
+		}
+
+		if (!staleEntries.isEmpty()) {
+			Map<String, Long> revisionIds = fetchRevisionIds(new ArrayList<>(
+					staleEntries.keySet()));
+			for (Map.Entry<String, CachedEntityDocument> stale : staleEntries
+					.entrySet()) {
+				Long revisionId = revisionIds.get(stale.getKey());
+				EntityDocument document = stale.getValue().getDocument();
+				if (revisionId != null
+						&& revisionId == document.getRevisionId()) {
+					putIntoCache(cache, stale.getKey(), stale.getValue()
+							.withValidationTime(now));
+					result.put(stale.getKey(), document);
+				} else {
+					missingEntityIds.add(stale.getKey());
+				}
+			}
+		}
+
+		if (!missingEntityIds.isEmpty()) {
+			Map<String, EntityDocument> fetched = fetchEntityDocuments(missingEntityIds);
+			for (String entityId : missingEntityIds) {
+				EntityDocument document = fetched.get(entityId);
+				if (document != null) {
+					putIntoCache(cache, entityId, new CachedEntityDocument(
+							document, now));
+					result.put(entityId, document);
+				} else {
+					cache.remove(entityId);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Stores a cache entry under the id of its document. If the entity was
+	 * requested with a different id, e.g., the id of a redirect or an id in
+	 * lower case, the entry is also stored under the requested id, so that
+	 * later requests with either id are answered from the cache.
+	 *
+	 * @param cache
+	 *            the cache to update
+	 * @param requestedId
+	 *            the id with which the entity was requested
+	 * @param entry
+	 *            the entry to store
+	 */
+	void putIntoCache(EntityDocumentCache cache, String requestedId,
+			CachedEntityDocument entry) {
+		String entityId = entry.getDocument().getEntityId().getId();
+		cache.put(entityId, entry);
+		if (!entityId.equals(requestedId)) {
+			cache.put(requestedId, entry);
+		}
+	}
+
+	/**
+	 * Fetches the documents for the entities of the given string IDs from the
+	 * API, without using the cache.
+	 *
+	 * @param entityIds
+	 *            list of string IDs of requested entities
+	 * @return map from IDs for which data could be found to the documents that
+	 *         were retrieved
+	 * @throws MediaWikiApiErrorException
+	 * @throws IOException
+	 */
+	Map<String, EntityDocument> fetchEntityDocuments(List<String> entityIds)
+			throws MediaWikiApiErrorException, IOException {
 		Map<String, EntityDocument> result = new HashMap<>();
 		List<String> newEntityIds = new ArrayList<>(entityIds);
 		boolean moreItems = !newEntityIds.isEmpty();
@@ -190,6 +374,92 @@ public class WikibaseDataFetcher {
 		return result;
 	}
 
+	/**
+	 * Fetches the ids of the latest revisions of the entities of the given
+	 * string IDs, splitting the list into requests of acceptable size.
+	 *
+	 * @param entityIds
+	 *            list of string IDs of entities
+	 * @return map from IDs of existing entities to their latest revision ids
+	 * @throws MediaWikiApiErrorException
+	 * @throws IOException
+	 */
+	Map<String, Long> fetchRevisionIds(List<String> entityIds)
+			throws MediaWikiApiErrorException, IOException {
+		Map<String, Long> result = new HashMap<>();
+		for (int i = 0; i < entityIds.size(); i += maxListSize) {
+			result.putAll(this.wbGetEntitiesAction.wbGetRevisionIds(ApiConnection
+					.implodeObjects(entityIds.subList(i,
+							Math.min(i + maxListSize, entityIds.size())))));
+		}
+		return result;
+	}
+
+	/**
+	 * Fetches the documents for the entities of the given string IDs without
+	 * blocking the calling thread. The IDs are split into requests of at most
+	 * 50 entities, and up to {@link #getMaxConcurrentRequests()} of these
+	 * requests are in flight at any time; whenever one of them completes, the
+	 * next one is sent. The result is a map from entity IDs to
+	 * {@link EntityDocument} objects. It is possible that a requested ID could
+	 * not be found: then this key is not set in the map.
+	 * <p>
+	 * If one of the requests fails, the returned future is completed
+	 * exceptionally with the {@link IOException} or
+	 * {@link MediaWikiApiErrorException} of this request, and no further
+	 * requests are sent.
+	 *
+	 * @param entityIds
+	 *            list of string IDs (e.g., "P31", "Q42") of requested entities
+	 * @return future map from IDs for which data could be found to the
+	 *         documents that were retrieved
+	 */
+	public CompletableFuture<Map<String, EntityDocument>> getEntityDocumentsAsync(
+			List<String> entityIds) {
+		List<WbGetEntitiesActionData> requests = new ArrayList<>();
+		for (int i = 0; i < entityIds.size(); i += maxListSize) {
+			WbGetEntitiesActionData properties = new WbGetEntitiesActionData();
+			properties.ids = ApiConnection.implodeObjects(entityIds.subList(i,
+					Math.min(i + maxListSize, entityIds.size())));
+			configureProperties(properties);
+			requests.add(properties);
+		}
+		return new EntityRequestPipeline(requests).start();
+	}
+
+	/**
+	 * Fetches the documents for the entities of the given string IDs, keeping
+	 * several requests in flight at the same time. This is a blocking version
+	 * of {@link #getEntityDocumentsAsync(List)}, which is much faster than
+	 * {@link #getEntityDocuments(List)} for large lists of IDs, since the time
+	 * it takes is not dominated by the latency of each request.
+	 *
+	 * @param entityIds
+	 *            list of string IDs (e.g., "P31", "Q42") of requested entities
+	 * @return map from IDs for which data could be found to the documents that
+	 *         were retrieved
+	 * @throws MediaWikiApiErrorException
+	 * @throws IOException
+	 */
+	public Map<String, EntityDocument> getEntityDocumentsInBulk(
+			List<String> entityIds) throws MediaWikiApiErrorException,
+			IOException {
+		try {
+			return getEntityDocumentsAsync(entityIds).join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof MediaWikiApiErrorException) {
+				throw (MediaWikiApiErrorException) cause;
+			} else if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else {
+				throw new IOException(cause);
+			}
+		}
+	}
+
 	/**
 	 * Fetches the document for the entity that has a page of the given title on
 	 * the given site. Site keys should be some site identifier known to the
@@ -509,4 +779,85 @@ public class WikibaseDataFetcher {
 				.getSiteLinkFilter());
 	}
 
+	/**
+	 * Sends a list of wbgetentities requests with a bounded number of
+	 * requests in flight, and collects their results. New requests are sent
+	 * from the completion of earlier ones, so no thread is blocked while
+	 * waiting for responses.
+	 */
+	class EntityRequestPipeline {
+
+		final Iterator<WbGetEntitiesActionData> pendingRequests;
+		final Map<String, EntityDocument> documents = new HashMap<>();
+		final CompletableFuture<Map<String, EntityDocument>> result = new CompletableFuture<>();
+		final int maxRequestsInFlight = maxConcurrentRequests;
+
+		int requestsInFlight = 0;
+		/**
+		 * True while some thread is sending requests. Responses that arrive
+		 * in the meantime only update the counters, so that requests that
+		 * complete immediately do not lead to deep recursion.
+		 */
+		boolean sending = false;
+
+		EntityRequestPipeline(List<WbGetEntitiesActionData> requests) {
+			this.pendingRequests = requests.iterator();
+		}
+
+		CompletableFuture<Map<String, EntityDocument>> start() {
+			sendRequests();
+			return this.result;
+		}
+
+		void sendRequests() {
+			synchronized (this) {
+				if (this.sending) {
+					return;
+				}
+				this.sending = true;
+			}
+			while (true) {
+				WbGetEntitiesActionData properties;
+				synchronized (this) {
+					if (this.result.isDone()
+							|| this.requestsInFlight >= this.maxRequestsInFlight
+							|| !this.pendingRequests.hasNext()) {
+						this.sending = false;
+						if (this.requestsInFlight == 0
+								&& !this.pendingRequests.hasNext()) {
+							this.result.complete(this.documents);
+						}
+						return;
+					}
+					properties = this.pendingRequests.next();
+					this.requestsInFlight++;
+				}
+
+				CompletableFuture<Map<String, EntityDocument>> request;
+				try {
+					request = wbGetEntitiesAction.wbGetEntitiesAsync(properties);
+				} catch (RuntimeException e) {
+					request = CompletableFuture.failedFuture(e);
+				}
+				request.whenComplete(this::requestCompleted);
+			}
+		}
+
+		void requestCompleted(Map<String, EntityDocument> requestResult,
+				Throwable failure) {
+			synchronized (this) {
+				this.requestsInFlight--;
+				if (failure != null) {
+					this.result.completeExceptionally(
+							failure instanceof CompletionException
+									&& failure.getCause() != null
+									? failure.getCause() : failure);
+				} else {
+					this.documents.putAll(requestResult);
+				}
+			}
+			sendRequests();
+		}
+	}
+
 }
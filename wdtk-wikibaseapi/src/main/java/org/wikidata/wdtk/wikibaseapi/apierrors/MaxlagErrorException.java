@@ -35,6 +35,8 @@ public class MaxlagErrorException extends MediaWikiApiErrorException {
 	
 	protected double lag = 0;
 
+	protected int retryAfter = -1;
+
 	/**
 	 * Creates a new exception.
 	 *
@@ -71,4 +73,27 @@ public class MaxlagErrorException extends MediaWikiApiErrorException {
 	public double getLag() {
 		return lag;
 	}
+
+	/**
+	 * Retrieves the number of seconds after which the server asked clients
+	 * to retry, as given in the Retry-After header of the response. Returns
+	 * -1 if the response did not have this header.
+	 *
+	 * @return
+	 *    the time to wait before retrying, in seconds, or -1
+	 */
+	public int getRetryAfter() {
+		return retryAfter;
+	}
+
+	/**
+	 * Sets the number of seconds after which the server asked clients to
+	 * retry. See {@link #getRetryAfter()}.
+	 *
+	 * @param retryAfter
+	 *    the time to wait before retrying, in seconds, or -1 if unknown
+	 */
+	public void setRetryAfter(int retryAfter) {
+		this.retryAfter = retryAfter;
+	}
 }
@@ -184,6 +184,16 @@ public class BasicApiConnectionTest {
 		assertNotNull(connection.getOrFetchToken("csrf"));
 	}
 
+	@Test
+	public void testParseRetryAfter() {
+		assertEquals(-1, ApiConnection.parseRetryAfter(null));
+		assertEquals(5, ApiConnection.parseRetryAfter("5"));
+		assertEquals(0, ApiConnection.parseRetryAfter("-3"));
+		assertEquals(-1, ApiConnection.parseRetryAfter("soon"));
+		assertEquals(0, ApiConnection.parseRetryAfter(
+				"Wed, 21 Oct 2015 07:28:00 GMT"));
+	}
+
 	@Test
 	public void testGetLoginToken() throws IOException, MediaWikiApiErrorException {
 		assertNotNull(connection.getOrFetchToken("login"));
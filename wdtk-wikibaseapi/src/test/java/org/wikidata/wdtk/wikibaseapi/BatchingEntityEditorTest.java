@@ -0,0 +1,196 @@
+package org.wikidata.wdtk.wikibaseapi;
+
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.only;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.ItemUpdateBuilder;
+import org.wikidata.wdtk.datamodel.helpers.JsonSerializer;
+import org.wikidata.wdtk.datamodel.helpers.TermUpdateBuilder;
+import org.wikidata.wdtk.datamodel.interfaces.EntityUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemUpdate;
+import org.wikidata.wdtk.wikibaseapi.apierrors.MediaWikiApiErrorException;
+
+public class BatchingEntityEditorTest {
+
+	static final List<String> TAGS = Arrays.asList("tag1");
+
+	ItemIdValue Q1 = Datamodel.makeWikidataItemIdValue("Q1");
+	ItemIdValue Q2 = Datamodel.makeWikidataItemIdValue("Q2");
+	WbEditingAction action;
+	BatchingEntityEditor batcher;
+
+	@Before
+	public void setUp() throws IOException {
+		action = mock(WbEditingAction.class);
+		WikibaseDataFetcher fetcher = new WikibaseDataFetcher(
+				new MockBasicApiConnection(), Datamodel.SITE_WIKIDATA);
+		WikibaseDataEditor editor = new WikibaseDataEditor(action, fetcher,
+				Datamodel.SITE_WIKIDATA, new MockGuidGenerator("ID"));
+		batcher = new BatchingEntityEditor(editor, "test summary", TAGS);
+	}
+
+	private ItemUpdate labelUpdate(ItemIdValue id, long revisionId,
+			String text, String language) {
+		return ItemUpdateBuilder.forBaseRevisionId(id, revisionId)
+				.updateLabels(TermUpdateBuilder.create()
+						.put(Datamodel.makeMonolingualTextValue(text, language))
+						.build())
+				.build();
+	}
+
+	private void expectEdit(String id, EntityUpdate update, long revisionId)
+			throws IOException, MediaWikiApiErrorException {
+		ItemDocument document = mock(ItemDocument.class);
+		when(document.getRevisionId()).thenReturn(1234L);
+		when(action.wbEditEntity(id, null, null, null,
+				JsonSerializer.getJsonString(update), false, false,
+				revisionId, "test summary", TAGS)).thenReturn(document);
+	}
+
+	@Test
+	public void testMergeUpdatesOfOneEntity() throws IOException,
+			MediaWikiApiErrorException {
+		ItemUpdate merged = ItemUpdateBuilder.forBaseRevisionId(Q1, 123)
+				.updateLabels(TermUpdateBuilder.create()
+						.put(Datamodel.makeMonolingualTextValue("hello", "en"))
+						.put(Datamodel.makeMonolingualTextValue("hallo", "de"))
+						.build())
+				.build();
+		expectEdit("Q1", merged, 123);
+
+		batcher.addUpdate(labelUpdate(Q1, 123, "hello", "en"));
+		batcher.addUpdate(labelUpdate(Q1, 0, "hallo", "de"));
+		verifyNoInteractions(action);
+		assertEquals(1, batcher.getPendingEntityCount());
+
+		assertEquals(new EditingResult(1234L), batcher.flush(Q1));
+		verify(action, only()).wbEditEntity("Q1", null, null, null,
+				JsonSerializer.getJsonString(merged), false, false, 123,
+				"test summary", TAGS);
+		assertEquals(2, batcher.getUpdateCount());
+		assertEquals(1, batcher.getEditCount());
+		assertEquals(0, batcher.getPendingEntityCount());
+	}
+
+	@Test
+	public void testLaterUpdateWins() {
+		EntityUpdate merged = BatchingEntityEditor.merge(
+				labelUpdate(Q1, 0, "first", "en"),
+				labelUpdate(Q1, 42, "second", "en"));
+		assertEquals(labelUpdate(Q1, 42, "second", "en"), merged);
+	}
+
+	@Test
+	public void testFlushWhenBatchIsFull() throws IOException,
+			MediaWikiApiErrorException {
+		batcher.setMaxBatchSize(2);
+		ItemUpdate merged = ItemUpdateBuilder.forBaseRevisionId(Q1, 123)
+				.updateLabels(TermUpdateBuilder.create()
+						.put(Datamodel.makeMonolingualTextValue("hello", "en"))
+						.put(Datamodel.makeMonolingualTextValue("hallo", "de"))
+						.build())
+				.build();
+		expectEdit("Q1", merged, 123);
+
+		batcher.addUpdate(labelUpdate(Q1, 123, "hello", "en"));
+		batcher.addUpdate(labelUpdate(Q1, 123, "hallo", "de"));
+
+		verify(action, only()).wbEditEntity("Q1", null, null, null,
+				JsonSerializer.getJsonString(merged), false, false, 123,
+				"test summary", TAGS);
+		assertEquals(0, batcher.getPendingEntityCount());
+	}
+
+	@Test
+	public void testFlushExpiredBatches() throws IOException,
+			MediaWikiApiErrorException {
+		batcher.setMaxBatchDelay(10, TimeUnit.SECONDS);
+		ItemUpdate first = ItemUpdateBuilder.forBaseRevisionId(Q1, 123)
+				.updateLabels(TermUpdateBuilder.create()
+						.put(Datamodel.makeMonolingualTextValue("hello", "en"))
+						.put(Datamodel.makeMonolingualTextValue("hallo", "de"))
+						.build())
+				.build();
+		expectEdit("Q1", first, 123);
+
+		batcher.addUpdate(first, 0);
+		batcher.addUpdate(labelUpdate(Q2, 5, "bonjour", "fr"),
+				TimeUnit.SECONDS.toNanos(5));
+		verifyNoInteractions(action);
+
+		batcher.flushExpired(TimeUnit.SECONDS.toNanos(11));
+		verify(action, only()).wbEditEntity("Q1", null, null, null,
+				JsonSerializer.getJsonString(first), false, false, 123,
+				"test summary", TAGS);
+		assertEquals(1, batcher.getPendingEntityCount());
+	}
+
+	@Test
+	public void testCloseWritesEverything() throws IOException,
+			MediaWikiApiErrorException {
+		ItemUpdate first = ItemUpdateBuilder.forBaseRevisionId(Q1, 123)
+				.updateLabels(TermUpdateBuilder.create()
+						.put(Datamodel.makeMonolingualTextValue("hello", "en"))
+						.put(Datamodel.makeMonolingualTextValue("hallo", "de"))
+						.build())
+				.build();
+		ItemUpdate second = ItemUpdateBuilder.forBaseRevisionId(Q2, 5)
+				.updateLabels(TermUpdateBuilder.create()
+						.put(Datamodel.makeMonolingualTextValue("hello", "en"))
+						.put(Datamodel.makeMonolingualTextValue("hallo", "de"))
+						.build())
+				.build();
+		expectEdit("Q1", first, 123);
+		expectEdit("Q2", second, 5);
+
+		batcher.addUpdate(first);
+		batcher.addUpdate(second);
+		batcher.close();
+
+		assertEquals(2, batcher.getEditCount());
+		assertEquals(0, batcher.getPendingEntityCount());
+		assertEquals(null, batcher.flush(Q1));
+	}
+
+	@Test
+	public void testInvalidBatchSize() {
+		assertThrows(IllegalArgumentException.class,
+				() -> batcher.setMaxBatchSize(0));
+	}
+
+}
@@ -0,0 +1,160 @@
+package org.wikidata.wdtk.wikibaseapi;
+
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.wikibaseapi.EditScheduler.EditTask;
+
+public class EditSchedulerTest {
+
+	static final String SITE = "https://www.wikidata.org/w/api.php";
+	static final String OTHER_SITE = "https://test.wikidata.org/w/api.php";
+	static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	public void testSlotsFollowEditRate() {
+		EditScheduler scheduler = new EditScheduler();
+		scheduler.setInitialEditsPerSecond(2);
+
+		assertEquals(0, scheduler.reserveEditSlot(SITE, 0));
+		assertEquals(SECOND / 2, scheduler.reserveEditSlot(SITE, 0));
+		assertEquals(SECOND, scheduler.reserveEditSlot(SITE, 0));
+		// no waiting if enough time has passed
+		assertEquals(0, scheduler.reserveEditSlot(SITE, 10 * SECOND));
+		// other sites are independent
+		assertEquals(0, scheduler.reserveEditSlot(OTHER_SITE, 10 * SECOND));
+	}
+
+	@Test
+	public void testAdditiveIncrease() {
+		EditScheduler scheduler = new EditScheduler();
+		scheduler.setInitialEditsPerSecond(1);
+		scheduler.setEditRateLimits(0.1, 1.5);
+		scheduler.setRateAdjustment(0.1, 0.5);
+		MockBasicApiConnection con = new MockBasicApiConnection();
+
+		scheduler.reportSuccess(con);
+		assertEquals(1.1, scheduler.getEditsPerSecond(con), 0.0001);
+		for (int i = 0; i < 100; i++) {
+			scheduler.reportSuccess(con);
+		}
+		assertEquals(1.5, scheduler.getEditsPerSecond(con), 0.0001);
+	}
+
+	@Test
+	public void testMultiplicativeDecreaseAndPause() {
+		EditScheduler scheduler = new EditScheduler();
+		scheduler.setInitialEditsPerSecond(4);
+		scheduler.setEditRateLimits(1, 10);
+
+		assertEquals(0, scheduler.reserveEditSlot(SITE, 0));
+		scheduler.reportMaxlag(SITE, 2.5, -1, 0);
+		assertEquals(2, scheduler.getSiteState(SITE).editsPerSecond, 0.0001);
+		// pause for the reported lag, then continue at the reduced rate
+		assertEquals(2500 * 1000000L, scheduler.reserveEditSlot(SITE, 0));
+		assertEquals(3 * SECOND - SECOND / 2,
+				scheduler.reserveEditSlot(SITE, SECOND / 2));
+
+		// Retry-After takes precedence over the lag
+		scheduler.reportMaxlag(SITE, 2.5, 7, 10 * SECOND);
+		assertEquals(1, scheduler.getSiteState(SITE).editsPerSecond, 0.0001);
+		assertEquals(7 * SECOND, scheduler.reserveEditSlot(SITE, 10 * SECOND));
+
+		// the rate does not go below the minimum
+		scheduler.reportMaxlag(SITE, 0, 0, 20 * SECOND);
+		assertEquals(1, scheduler.getSiteState(SITE).editsPerSecond, 0.0001);
+	}
+
+	@Test
+	public void testPauseMovesReservedSlots() {
+		EditScheduler scheduler = new EditScheduler();
+		scheduler.setInitialEditsPerSecond(2);
+
+		assertEquals(0, scheduler.reserveEditSlot(SITE, 0));
+		assertEquals(SECOND / 2, scheduler.reserveEditSlot(SITE, 0));
+		// not paused yet
+		assertEquals(0, scheduler.reserveEditSlotIfPaused(SITE, SECOND / 2));
+		scheduler.reportMaxlag(SITE, 3, -1, SECOND / 10);
+		// the session that slept until its slot has to wait for the pause
+		assertEquals(3 * SECOND - SECOND / 2 + SECOND / 10,
+				scheduler.reserveEditSlotIfPaused(SITE, SECOND / 2));
+		// slots after the end of the pause are kept
+		assertEquals(0,
+				scheduler.reserveEditSlotIfPaused(SITE, 4 * SECOND));
+	}
+
+	@Test
+	public void testMaxPause() {
+		EditScheduler scheduler = new EditScheduler();
+		scheduler.setMaxPause(5000);
+		scheduler.reportMaxlag(SITE, 3600, -1, 0);
+		assertEquals(5 * SECOND, scheduler.reserveEditSlot(SITE, 0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidRateLimits() {
+		new EditScheduler().setEditRateLimits(2, 1);
+	}
+
+	@Test
+	public void testRunEditTasksWithSharedQueue() throws InterruptedException {
+		EditScheduler scheduler = new EditScheduler();
+		WikibaseDataEditor editor1 = new WikibaseDataEditor(
+				new MockBasicApiConnection(), Datamodel.SITE_WIKIDATA);
+		WikibaseDataEditor editor2 = new WikibaseDataEditor(
+				new MockBasicApiConnection(), Datamodel.SITE_WIKIDATA);
+
+		Map<Integer, WikibaseDataEditor> executed = new ConcurrentHashMap<>();
+		List<EditTask> tasks = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			int taskId = i;
+			tasks.add(editor -> executed.put(taskId, editor));
+		}
+		EditTask failingTask = editor -> {
+			throw new IOException("offline");
+		};
+		tasks.add(failingTask);
+
+		Map<EditTask, Exception> failures = scheduler.runEditTasks(
+				Arrays.asList(editor1, editor2), tasks);
+
+		assertEquals(20, executed.size());
+		assertTrue(executed.values().stream().allMatch(
+				editor -> editor == editor1 || editor == editor2));
+		assertEquals(Collections.singleton(failingTask), failures.keySet());
+		assertTrue(failures.get(failingTask) instanceof IOException);
+		assertEquals(scheduler, editor1.getEditScheduler());
+		assertEquals(scheduler, editor2.getEditScheduler());
+	}
+}
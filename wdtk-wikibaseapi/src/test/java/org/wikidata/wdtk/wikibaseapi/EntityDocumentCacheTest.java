@@ -0,0 +1,147 @@
+package org.wikidata.wdtk.wikibaseapi;
+
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.ItemDocumentBuilder;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.testing.MockDirectoryManager;
+
+public class EntityDocumentCacheTest {
+
+	final EntityDocument q42 = ItemDocumentBuilder
+			.forItemId(Datamodel.makeWikidataItemIdValue("Q42"))
+			.withLabel("Douglas Adams", "en").withRevisionId(1234).build();
+	final EntityDocument q1 = ItemDocumentBuilder
+			.forItemId(Datamodel.makeWikidataItemIdValue("Q1"))
+			.withLabel("universe", "en").withRevisionId(5678).build();
+
+	MockDirectoryManager directoryManager;
+
+	@Before
+	public void setUp() throws IOException {
+		directoryManager = new MockDirectoryManager(Paths.get("/cache"), true,
+				false);
+	}
+
+	@Test
+	public void testLruEviction() {
+		LruEntityDocumentCache cache = new LruEntityDocumentCache(2);
+		cache.put("Q42", new CachedEntityDocument(q42, 1));
+		cache.put("Q1", new CachedEntityDocument(q1, 2));
+		assertEquals(q42, cache.get("Q42").getDocument());
+
+		// Q1 is now the least recently used entry
+		cache.put("Q2", new CachedEntityDocument(q1, 3));
+		assertEquals(2, cache.size());
+		assertNull(cache.get("Q1"));
+		assertEquals(q42, cache.get("Q42").getDocument());
+
+		cache.remove("Q42");
+		assertNull(cache.get("Q42"));
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLruInvalidCapacity() {
+		new LruEntityDocumentCache(0);
+	}
+
+	@Test
+	public void testDirectoryCacheRoundTrip() {
+		DirectoryEntityDocumentCache cache = new DirectoryEntityDocumentCache(
+				directoryManager, Datamodel.SITE_WIKIDATA);
+		cache.put("Q42", new CachedEntityDocument(q42, 1000));
+
+		DirectoryEntityDocumentCache otherCache = new DirectoryEntityDocumentCache(
+				directoryManager, Datamodel.SITE_WIKIDATA);
+		CachedEntityDocument entry = otherCache.get("Q42");
+		assertEquals(q42, entry.getDocument());
+		assertEquals(1000, entry.getValidationTime());
+		assertNull(otherCache.get("Q1"));
+
+		otherCache.remove("Q42");
+		assertNull(cache.get("Q42"));
+	}
+
+	@Test
+	public void testDirectoryCacheClear() {
+		DirectoryEntityDocumentCache cache = new DirectoryEntityDocumentCache(
+				directoryManager, Datamodel.SITE_WIKIDATA);
+		cache.put("Q42", new CachedEntityDocument(q42, 1000));
+		cache.clear();
+		assertNull(cache.get("Q42"));
+
+		// the time of clearing is persisted
+		DirectoryEntityDocumentCache otherCache = new DirectoryEntityDocumentCache(
+				directoryManager, Datamodel.SITE_WIKIDATA);
+		assertNull(otherCache.get("Q42"));
+		otherCache.put("Q42", new CachedEntityDocument(q42,
+				System.currentTimeMillis() + 1000));
+		assertEquals(q42, otherCache.get("Q42").getDocument());
+	}
+
+	@Test
+	public void testDirectoryCacheIgnoresUnsafeIds() {
+		DirectoryEntityDocumentCache cache = new DirectoryEntityDocumentCache(
+				directoryManager, Datamodel.SITE_WIKIDATA);
+		cache.put("../Q42", new CachedEntityDocument(q42, 1000));
+		assertNull(cache.get("../Q42"));
+	}
+
+	@Test
+	public void testDirectoryCacheWithFailingReaders() {
+		DirectoryEntityDocumentCache cache = new DirectoryEntityDocumentCache(
+				directoryManager, Datamodel.SITE_WIKIDATA);
+		cache.put("Q42", new CachedEntityDocument(q42, 1000));
+		directoryManager.setReturnFailingReaders(true);
+		assertNull(cache.get("Q42"));
+	}
+
+	@Test
+	public void testTieredCachePromotesEntries() {
+		LruEntityDocumentCache memory = new LruEntityDocumentCache();
+		DirectoryEntityDocumentCache disk = new DirectoryEntityDocumentCache(
+				directoryManager, Datamodel.SITE_WIKIDATA);
+		disk.put("Q42", new CachedEntityDocument(q42, 1000));
+
+		TieredEntityDocumentCache cache = new TieredEntityDocumentCache(memory,
+				disk);
+		assertEquals(q42, cache.get("Q42").getDocument());
+		assertEquals(q42, memory.get("Q42").getDocument());
+
+		cache.put("Q1", new CachedEntityDocument(q1, 2000));
+		assertEquals(q1, disk.get("Q1").getDocument());
+
+		cache.remove("Q42");
+		assertNull(memory.get("Q42"));
+		assertNull(disk.get("Q42"));
+	}
+}
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import okhttp3.MediaType;
 import okhttp3.Protocol;
@@ -130,4 +131,16 @@ public class MockBasicApiConnection extends BasicApiConnection {
 		}
 	}
 
+	@Override
+	public CompletableFuture<Response> sendRequestAsync(String requestMethod,
+			Map<String, String> parameters) {
+		CompletableFuture<Response> result = new CompletableFuture<>();
+		try {
+			result.complete(sendRequest(requestMethod, parameters, null));
+		} catch (IOException e) {
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
 }
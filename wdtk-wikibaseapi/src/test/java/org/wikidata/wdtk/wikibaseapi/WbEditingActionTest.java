@@ -23,6 +23,7 @@ import static org.junit.Assert.assertEquals;
  */
 
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -137,6 +138,42 @@ public class WbEditingActionTest {
 		weea.wbEditEntity("Q42", null, null, null, "{}", false, false, 0, null, null);
 	}
 
+	@Test
+	public void testApiErrorMaxLagWithScheduler() throws IOException,
+			MediaWikiApiErrorException {
+		MockBasicApiConnection con = new MockBasicApiConnection();
+		Map<String, String> params = new HashMap<>();
+		params.put("action", "query");
+		params.put("meta", "tokens");
+		params.put("type", "csrf");
+		params.put("format", "json");
+		con.setWebResourceFromPath(params, this.getClass(),
+				"/query-csrf-token-loggedin-response.json",
+				CompressionType.NONE);
+
+		params.clear();
+		params.put("action", "wbeditentity");
+		params.put("id", "Q42");
+		params.put("token", "42307b93c79b0cb558d2dfb4c3c92e0955e06041+\\");
+		params.put("format", "json");
+		params.put("data", "{}");
+		params.put("maxlag", "5");
+		con.setWebResourceFromPath(params, this.getClass(),
+				"/error-maxlag.json", CompressionType.NONE);
+
+		EditScheduler scheduler = new EditScheduler();
+		scheduler.setInitialEditsPerSecond(800);
+		scheduler.setEditRateLimits(100, 1000);
+		scheduler.setMaxPause(0); // speed up the test ...
+		WbEditingAction weea = new WbEditingAction(con,
+				Datamodel.SITE_WIKIDATA);
+		weea.setEditScheduler(scheduler);
+		weea.setMaxLagMaxRetries(3);
+		assertThrows(MaxlagErrorException.class, () -> weea.wbEditEntity(
+				"Q42", null, null, null, "{}", false, false, 0, null, null));
+		assertEquals(100, scheduler.getEditsPerSecond(con), 0.001);
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void testIdAndSite() throws IOException, MediaWikiApiErrorException {
 		WbEditingAction weea = new WbEditingAction(
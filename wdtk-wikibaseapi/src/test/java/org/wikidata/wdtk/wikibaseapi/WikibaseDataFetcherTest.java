@@ -22,6 +22,11 @@ package org.wikidata.wdtk.wikibaseapi;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -32,6 +37,8 @@ import org.wikidata.wdtk.util.CompressionType;
 import org.wikidata.wdtk.wikibaseapi.apierrors.MediaWikiApiErrorException;
 import org.wikidata.wdtk.wikibaseapi.apierrors.NoSuchEntityErrorException;
 
+import okhttp3.Response;
+
 import static org.junit.Assert.*;
 
 public class WikibaseDataFetcherTest {
@@ -334,6 +341,191 @@ public class WikibaseDataFetcherTest {
 		assertTrue(results.containsKey("Q42"));
 	}
 
+	@Test
+	public void testGetEntityDocumentsAsyncSplitted() {
+		List<String> entityIds = Arrays.asList("Q6", "Q42", "P31", "Q1");
+
+		Map<String, String> parameters1 = new HashMap<>();
+		setStandardParameters(parameters1);
+		parameters1.put("ids", "Q6|Q42|P31");
+
+		Map<String, String> parameters2 = new HashMap<>();
+		setStandardParameters(parameters2);
+		parameters2.put("ids", "Q1");
+
+		try {
+			con.setWebResourceFromPath(parameters1, this.getClass(),
+					"/wbgetentities-Q6-Q42-P31.json", CompressionType.NONE);
+			con.setWebResourceFromPath(parameters2, this.getClass(),
+					"/wbgetentities-Q1.json", CompressionType.NONE);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+
+		wdf.maxListSize = 3;
+
+		Map<String, EntityDocument> results = wdf
+				.getEntityDocumentsAsync(entityIds).join();
+
+		assertEquals(3, results.size());
+		assertFalse(results.containsKey("Q6"));
+		assertTrue(results.containsKey("Q1"));
+		assertTrue(results.containsKey("P31"));
+		assertTrue(results.containsKey("Q42"));
+	}
+
+	@Test(expected = NoSuchEntityErrorException.class)
+	public void testGetEntityDocumentsInBulkError() throws IOException,
+			MediaWikiApiErrorException {
+		Map<String, String> parameters = new HashMap<>();
+		setStandardParameters(parameters);
+		parameters.put("ids", "bogus");
+		con.setWebResourceFromPath(parameters, getClass(),
+				"/wbgetentities-bogus.json", CompressionType.NONE);
+		wdf.getEntityDocumentsInBulk(Collections.singletonList("bogus"));
+	}
+
+	@Test
+	public void testGetEntityDocumentsInBulkMissingMock() {
+		assertThrows(IOException.class, () -> wdf
+				.getEntityDocumentsInBulk(Arrays.asList("Q1", "Q2")));
+	}
+
+	@Test
+	public void testGetEntityDocumentsInBulkLimitsRequestsInFlight()
+			throws IOException, MediaWikiApiErrorException {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		AtomicInteger requestsInFlight = new AtomicInteger();
+		AtomicInteger maxRequestsInFlight = new AtomicInteger();
+		MockBasicApiConnection slowConnection = new MockBasicApiConnection() {
+			@Override
+			public CompletableFuture<Response> sendRequestAsync(
+					String requestMethod, Map<String, String> parameters) {
+				int inFlight = requestsInFlight.incrementAndGet();
+				maxRequestsInFlight.accumulateAndGet(inFlight, Math::max);
+				return CompletableFuture.runAsync(() -> {
+					try {
+						Thread.sleep(20);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					requestsInFlight.decrementAndGet();
+				}, executor).thenCompose(
+						v -> super.sendRequestAsync(requestMethod, parameters));
+			}
+		};
+		List<String> entityIds = new ArrayList<>();
+		for (int i = 1; i <= 20; i += 2) {
+			entityIds.add("Q" + i);
+			entityIds.add("Q" + (i + 1));
+			Map<String, String> parameters = new HashMap<>();
+			setStandardParameters(parameters);
+			parameters.put("ids", "Q" + i + "|Q" + (i + 1));
+			slowConnection.setWebResource(parameters, "{\"entities\":{\"Q" + i
+					+ "\":{\"id\":\"Q" + i + "\",\"missing\":\"\"}}}");
+		}
+
+		WikibaseDataFetcher fetcher = new WikibaseDataFetcher(slowConnection,
+				Datamodel.SITE_WIKIDATA);
+		fetcher.maxListSize = 2;
+		fetcher.setMaxConcurrentRequests(3);
+		try {
+			Map<String, EntityDocument> results = fetcher
+					.getEntityDocumentsInBulk(entityIds);
+			assertTrue(results.isEmpty());
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(0, requestsInFlight.get());
+		assertEquals(3, maxRequestsInFlight.get());
+	}
+
+	@Test
+	public void testGetEntityDocumentsFromCache() throws IOException,
+			MediaWikiApiErrorException {
+		Map<String, String> parameters = new HashMap<>();
+		setStandardParameters(parameters);
+		parameters.put("ids", "Q6|Q42|P31");
+		con.setWebResourceFromPath(parameters, this.getClass(),
+				"/wbgetentities-Q6-Q42-P31.json", CompressionType.NONE);
+
+		LruEntityDocumentCache cache = new LruEntityDocumentCache();
+		wdf.setEntityDocumentCache(cache);
+		Map<String, EntityDocument> results = wdf.getEntityDocuments("Q6",
+				"Q42", "P31");
+		assertEquals(2, results.size());
+		assertEquals(2, cache.size());
+
+		// any further request for these entities would fail
+		con.setWebResourceFromPath(parameters, getClass(),
+				"/wbgetentities-bogus.json", CompressionType.NONE);
+		Map<String, EntityDocument> cachedResults = wdf.getEntityDocuments(
+				"Q42", "P31");
+		assertEquals(results, cachedResults);
+	}
+
+	@Test
+	public void testGetRedirectedEntityDocumentFromCache()
+			throws IOException, MediaWikiApiErrorException {
+		Map<String, String> parameters = new HashMap<>();
+		setStandardParameters(parameters);
+		parameters.put("ids", "Q32063953");
+		con.setWebResourceFromPath(parameters, this.getClass(),
+				"/wbgetentities-Q32063953.json", CompressionType.NONE);
+
+		LruEntityDocumentCache cache = new LruEntityDocumentCache();
+		wdf.setEntityDocumentCache(cache);
+		EntityDocument document = wdf.getEntityDocument("Q32063953");
+		assertEquals("Q1040", document.getEntityId().getId());
+		// stored under the id of the document and the requested id
+		assertEquals(2, cache.size());
+		assertSame(document, cache.get("Q1040").getDocument());
+
+		con.setWebResourceFromPath(parameters, getClass(),
+				"/wbgetentities-bogus.json", CompressionType.NONE);
+		assertSame(document, wdf.getEntityDocument("Q32063953"));
+		assertSame(document, wdf.getEntityDocument("Q1040"));
+	}
+
+	@Test
+	public void testGetEntityDocumentsRevalidatesCache() throws IOException,
+			MediaWikiApiErrorException {
+		Map<String, String> parameters = new HashMap<>();
+		setStandardParameters(parameters);
+		parameters.put("ids", "Q42|P31");
+		con.setWebResourceFromPath(parameters, this.getClass(),
+				"/wbgetentities-Q6-Q42-P31.json", CompressionType.NONE);
+
+		LruEntityDocumentCache cache = new LruEntityDocumentCache();
+		wdf.setEntityDocumentCache(cache);
+		wdf.setCacheRevalidationInterval(0, TimeUnit.SECONDS);
+		EntityDocument q42 = wdf.getEntityDocuments("Q42", "P31").get("Q42");
+
+		// Q42 is unchanged while P31 has a new revision
+		Map<String, String> infoParameters = new HashMap<>();
+		infoParameters.put("action", "wbgetentities");
+		infoParameters.put("format", "json");
+		infoParameters.put("props", "info");
+		infoParameters.put("ids", "Q42|P31");
+		con.setWebResource(infoParameters, "{\"entities\":{"
+				+ "\"Q42\":{\"id\":\"Q42\",\"lastrevid\":196015688},"
+				+ "\"P31\":{\"id\":\"P31\",\"lastrevid\":199399944}}}");
+		Map<String, String> p31Parameters = new HashMap<>();
+		setStandardParameters(p31Parameters);
+		p31Parameters.put("ids", "P31");
+		con.setWebResourceFromPath(p31Parameters, this.getClass(),
+				"/wbgetentities-Q6-Q42-P31.json", CompressionType.NONE);
+		con.setWebResourceFromPath(parameters, getClass(),
+				"/wbgetentities-bogus.json", CompressionType.NONE);
+
+		Map<String, EntityDocument> results = wdf.getEntityDocuments("Q42",
+				"P31");
+		assertEquals(2, results.size());
+		assertSame(q42, results.get("Q42"));
+		assertTrue(results.containsKey("P31"));
+		assertEquals(2, cache.size());
+	}
+
 	@Test
 	public void testGetEntitiesTitleSplitted() throws IOException,
 			MediaWikiApiErrorException {